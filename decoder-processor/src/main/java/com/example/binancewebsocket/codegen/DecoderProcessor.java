@@ -0,0 +1,471 @@
+package com.example.binancewebsocket.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * {@link GenerateDecoder} 가 지정된 DTO 마다 리플렉션 없는 JSON 디코더를 생성합니다.
+ * <p>
+ * 생성 결과 (DTO 와 같은 패키지):
+ * <pre>
+ *   BinanceTradeDTODecoder               : 짧은 Binance 키("e", "E", "s", "p" ...)에 대한 switch 로 setter 직접 호출
+ *   BinanceKlineDTO_KlineDataDecoder     : 중첩 타입 디코더
+ *   GeneratedDecoders                    : DTO 타입 → 디코더 조회 테이블
+ * </pre>
+ * Jackson 을 의존성으로 갖지 않도록 어노테이션은 이름으로만 조회합니다.
+ */
+@SupportedAnnotationTypes("com.example.binancewebsocket.codegen.GenerateDecoder")
+public class DecoderProcessor extends AbstractProcessor {
+
+    private static final String RUNTIME_PACKAGE = "com.example.binancewebsocket.codec";
+    private static final String REGISTRY_NAME = "GeneratedDecoders";
+
+    private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+    private static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+    private static final String JSON_DESERIALIZE = "com.fasterxml.jackson.databind.annotation.JsonDeserialize";
+    private static final String JSON_PARSER = "com.fasterxml.jackson.core.JsonParser";
+
+    // 스칼라 타입별 DecoderSupport 읽기 메서드
+    private static final Map<String, String> SCALAR_READERS = Map.ofEntries(
+            Map.entry("java.lang.String", "readString"),
+            Map.entry("java.math.BigDecimal", "readBigDecimal"),
+            Map.entry("java.math.BigInteger", "readBigInteger"),
+            Map.entry("java.lang.Boolean", "readBoolean"),
+            Map.entry("java.lang.Long", "readLong"),
+            Map.entry("java.lang.Integer", "readInteger"),
+            Map.entry("java.lang.Double", "readDouble"),
+            Map.entry("boolean", "readBooleanValue"),
+            Map.entry("long", "readLongValue"),
+            Map.entry("int", "readIntValue"),
+            Map.entry("double", "readDoubleValue")
+    );
+
+    private final List<TypeElement> generatedTypes = new ArrayList<>();
+    private boolean registryWritten;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        List<TypeElement> roundTypes = new ArrayList<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateDecoder.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@GenerateDecoder 는 클래스에만 지정할 수 있습니다.");
+                continue;
+            }
+            roundTypes.add((TypeElement) element);
+        }
+        if (roundTypes.isEmpty()) {
+            return false;
+        }
+
+        for (TypeElement type : roundTypes) {
+            try {
+                writeDecoder(type);
+                generatedTypes.add(type);
+            } catch (IOException e) {
+                error(type, "디코더 생성 실패: " + e.getMessage());
+            }
+        }
+
+        if (registryWritten) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "GeneratedDecoders 이후 라운드에서 발견된 @GenerateDecoder 타입은 조회 테이블에 포함되지 않습니다: " + roundTypes);
+        } else {
+            try {
+                writeRegistry();
+                registryWritten = true;
+            } catch (IOException e) {
+                error(roundTypes.get(0), "GeneratedDecoders 생성 실패: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    // --- 디코더 생성 ---
+
+    private void writeDecoder(TypeElement type) throws IOException {
+        String packageName = packageOf(type);
+        String decoderName = decoderSimpleName(type);
+        String typeName = type.getQualifiedName().toString();
+
+        StringBuilder cases = new StringBuilder();
+        StringBuilder resets = new StringBuilder();
+        StringBuilder constants = new StringBuilder();
+        Set<String> keys = new HashSet<>();
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)
+                    || findAnnotation(field, JSON_IGNORE) != null) {
+                continue;
+            }
+            String key = jsonKey(field);
+            if (!keys.add(key)) {
+                error(field, "중복된 JSON 키: " + key);
+                continue;
+            }
+            cases.append("                case \"").append(escape(key)).append("\" -> ")
+                    .append(fieldStatement(field, constants, keys.size()))
+                    .append('\n');
+            resets.append("        ").append(resetStatement(field)).append('\n');
+        }
+
+        String source = "package " + packageName + ";\n"
+                + "\n"
+                + "import " + RUNTIME_PACKAGE + ".DecoderSupport;\n"
+                + "import " + RUNTIME_PACKAGE + ".GeneratedDecoder;\n"
+                + "import com.fasterxml.jackson.core.JsonParser;\n"
+                + "import com.fasterxml.jackson.core.JsonToken;\n"
+                + "\n"
+                + "import javax.annotation.processing.Generated;\n"
+                + "import java.io.IOException;\n"
+                + "\n"
+                + "/**\n"
+                + " * {@link " + typeName + "} 전용 디코더 (DecoderProcessor 가 생성, 직접 수정하지 마세요)\n"
+                + " */\n"
+                + "@Generated(\"" + DecoderProcessor.class.getName() + "\")\n"
+                + "public final class " + decoderName + " implements GeneratedDecoder<" + typeName + "> {\n"
+                + "\n"
+                + "    public static final " + decoderName + " INSTANCE = new " + decoderName + "();\n"
+                + constants
+                + "\n"
+                + "    private " + decoderName + "() {\n"
+                + "    }\n"
+                + "\n"
+                + "    @Override\n"
+                + "    public Class<" + typeName + "> type() {\n"
+                + "        return " + typeName + ".class;\n"
+                + "    }\n"
+                + "\n"
+                + "    @Override\n"
+                + "    public " + typeName + " create() {\n"
+                + "        return new " + typeName + "();\n"
+                + "    }\n"
+                + "\n"
+                + "    @Override\n"
+                + "    public " + typeName + " decode(JsonParser p) throws IOException {\n"
+                + "        " + typeName + " target = create();\n"
+                + "        decodeInto(p, target);\n"
+                + "        return target;\n"
+                + "    }\n"
+                + "\n"
+                + "    @Override\n"
+                + "    public void reset(" + typeName + " target) {\n"
+                + resets
+                + "    }\n"
+                + "\n"
+                + "    @Override\n"
+                + "    public void decodeInto(JsonParser p, " + typeName + " target) throws IOException {\n"
+                + "        DecoderSupport.expectStartObject(p);\n"
+                + "        while (p.nextToken() == JsonToken.FIELD_NAME) {\n"
+                + "            String field = p.currentName();\n"
+                + "            p.nextToken();\n"
+                + "            switch (field) {\n"
+                + cases
+                + "                default -> p.skipChildren();\n"
+                + "            }\n"
+                + "        }\n"
+                + "    }\n"
+                + "}\n";
+
+        write(packageName + "." + decoderName, source, type);
+    }
+
+    /**
+     * 필드 하나에 대한 switch case 본문을 생성합니다.
+     */
+    private String fieldStatement(VariableElement field, StringBuilder constants, int index) {
+        String name = field.getSimpleName().toString();
+        TypeMirror fieldType = field.asType();
+        String setter = setterName(field);
+
+        // 1) @JsonDeserialize(using = X.class) + X.readInto(JsonParser, 기존 값) 또는 X.read(JsonParser)
+        AnnotationMirror deserialize = findAnnotation(field, JSON_DESERIALIZE);
+        if (deserialize != null) {
+            TypeElement using = annotationTypeValue(deserialize, "using");
+            if (using != null && hasStaticReadIntoMethod(using)) {
+                return "target." + setter + "(" + using.getQualifiedName() + ".readInto(p, target." + getterName(field) + "()));";
+            }
+            if (using != null && hasStaticReadMethod(using)) {
+                return "target." + setter + "(" + using.getQualifiedName() + ".read(p));";
+            }
+            warning(field, "@JsonDeserialize 대상에 public static read(JsonParser) 가 없어 Jackson 으로 위임합니다.");
+            return jacksonFallback(field, setter, constants, index);
+        }
+
+        // 2) 스칼라 타입
+        String reader = SCALAR_READERS.get(erasure(fieldType));
+        if (reader != null) {
+            return "target." + setter + "(DecoderSupport." + reader + "(p));";
+        }
+
+        // 3) @GenerateDecoder 가 지정된 중첩 타입 → 기존 인스턴스를 재사용하여 채움
+        if (fieldType.getKind() == TypeKind.DECLARED) {
+            TypeElement nested = (TypeElement) ((DeclaredType) fieldType).asElement();
+            if (nested.getAnnotation(GenerateDecoder.class) != null) {
+                String nestedType = nested.getQualifiedName().toString();
+                String nestedDecoder = packageOf(nested) + "." + decoderSimpleName(nested);
+                return "{\n"
+                        + "                    if (p.currentToken() == JsonToken.VALUE_NULL) {\n"
+                        + "                        target." + setter + "(null);\n"
+                        + "                    } else {\n"
+                        + "                        " + nestedType + " " + name + " = target." + getterName(field) + "();\n"
+                        + "                        if (" + name + " == null) {\n"
+                        + "                            " + name + " = new " + nestedType + "();\n"
+                        + "                            target." + setter + "(" + name + ");\n"
+                        + "                        }\n"
+                        + "                        " + nestedDecoder + ".INSTANCE.decodeInto(p, " + name + ");\n"
+                        + "                    }\n"
+                        + "                }";
+            }
+        }
+
+        // 4) 그 외 → Jackson
+        warning(field, "지원하지 않는 필드 타입(" + fieldType + ")은 Jackson 으로 위임합니다.");
+        return jacksonFallback(field, setter, constants, index);
+    }
+
+    /**
+     * 재사용 객체 초기화 문장: primitive → 0 / false, 중첩 생성 타입 → 해당 디코더의 reset,
+     * 컬렉션 → clear() (담겨 있던 요소 재사용은 컬렉션 구현에 맡김), 그 외 → null
+     */
+    private String resetStatement(VariableElement field) {
+        TypeMirror fieldType = field.asType();
+        String setter = setterName(field);
+        switch (fieldType.getKind()) {
+            case BOOLEAN:
+                return "target." + setter + "(false);";
+            case CHAR:
+                return "target." + setter + "('\\0');";
+            case BYTE:
+                return "target." + setter + "((byte) 0);";
+            case SHORT:
+                return "target." + setter + "((short) 0);";
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return "target." + setter + "(0);";
+            default:
+                break;
+        }
+        if (fieldType.getKind() == TypeKind.DECLARED) {
+            TypeElement nested = (TypeElement) ((DeclaredType) fieldType).asElement();
+            String getter = "target." + getterName(field) + "()";
+            if (nested.getAnnotation(GenerateDecoder.class) != null) {
+                return "if (" + getter + " != null) " + packageOf(nested) + "." + decoderSimpleName(nested)
+                        + ".INSTANCE.reset(" + getter + ");";
+            }
+            TypeElement collection = processingEnv.getElementUtils().getTypeElement("java.util.Collection");
+            if (collection != null && processingEnv.getTypeUtils().isAssignable(
+                    processingEnv.getTypeUtils().erasure(fieldType), processingEnv.getTypeUtils().erasure(collection.asType()))) {
+                return "if (" + getter + " != null) " + getter + ".clear();";
+            }
+        }
+        return "target." + setter + "(null);";
+    }
+
+    private String jacksonFallback(VariableElement field, String setter, StringBuilder constants, int index) {
+        String constant = "TYPE_" + index;
+        constants.append("    private static final com.fasterxml.jackson.core.type.TypeReference<")
+                .append(boxed(field.asType())).append("> ").append(constant)
+                .append(" = new com.fasterxml.jackson.core.type.TypeReference<>() {\n    };\n");
+        return "target." + setter + "(DecoderSupport.readValue(p, " + constant + "));";
+    }
+
+    // --- 조회 테이블 생성 ---
+
+    private void writeRegistry() throws IOException {
+        String packageName = packageOf(generatedTypes.get(0));
+
+        StringBuilder entries = new StringBuilder();
+        for (int i = 0; i < generatedTypes.size(); i++) {
+            TypeElement type = generatedTypes.get(i);
+            entries.append("            Map.entry(").append(type.getQualifiedName()).append(".class, ")
+                    .append(packageOf(type)).append('.').append(decoderSimpleName(type)).append(".INSTANCE)")
+                    .append(i < generatedTypes.size() - 1 ? ",\n" : "\n");
+        }
+
+        String source = "package " + packageName + ";\n"
+                + "\n"
+                + "import " + RUNTIME_PACKAGE + ".GeneratedDecoder;\n"
+                + "\n"
+                + "import javax.annotation.processing.Generated;\n"
+                + "import java.util.Collection;\n"
+                + "import java.util.Map;\n"
+                + "\n"
+                + "/**\n"
+                + " * DTO 타입 → 생성된 디코더 조회 테이블 (DecoderProcessor 가 생성, 직접 수정하지 마세요)\n"
+                + " */\n"
+                + "@Generated(\"" + DecoderProcessor.class.getName() + "\")\n"
+                + "public final class " + REGISTRY_NAME + " {\n"
+                + "\n"
+                + "    private static final Map<Class<?>, GeneratedDecoder<?>> DECODERS = Map.ofEntries(\n"
+                + entries
+                + "    );\n"
+                + "\n"
+                + "    private " + REGISTRY_NAME + "() {\n"
+                + "    }\n"
+                + "\n"
+                + "    /**\n"
+                + "     * 생성된 디코더를 반환합니다. (없으면 null)\n"
+                + "     */\n"
+                + "    @SuppressWarnings(\"unchecked\")\n"
+                + "    public static <T> GeneratedDecoder<T> forType(Class<T> type) {\n"
+                + "        return (GeneratedDecoder<T>) DECODERS.get(type);\n"
+                + "    }\n"
+                + "\n"
+                + "    public static Collection<GeneratedDecoder<?>> all() {\n"
+                + "        return DECODERS.values();\n"
+                + "    }\n"
+                + "}\n";
+
+        write(packageName + "." + REGISTRY_NAME, source, generatedTypes.toArray(new Element[0]));
+    }
+
+    // --- 헬퍼 ---
+
+    private void write(String qualifiedName, String source, Element... originatingElements) throws IOException {
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, originatingElements);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source);
+        }
+    }
+
+    private String packageOf(Element element) {
+        return processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+    }
+
+    /**
+     * 중첩 타입은 바깥 타입 이름을 '_' 로 이어 붙입니다. (BinanceKlineDTO.KlineData → BinanceKlineDTO_KlineDataDecoder)
+     */
+    private String decoderSimpleName(TypeElement type) {
+        Deque<String> names = new ArrayDeque<>();
+        Element current = type;
+        while (current instanceof TypeElement) {
+            names.addFirst(current.getSimpleName().toString());
+            current = current.getEnclosingElement();
+        }
+        return String.join("_", names) + "Decoder";
+    }
+
+    private String jsonKey(VariableElement field) {
+        AnnotationMirror property = findAnnotation(field, JSON_PROPERTY);
+        if (property != null) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : property.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    String value = (String) entry.getValue().getValue();
+                    if (!value.isEmpty()) {
+                        return value;
+                    }
+                }
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    /**
+     * Lombok 규칙: primitive boolean 의 isXxx 필드는 setXxx, 그 외는 set + 필드 이름
+     */
+    private String setterName(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (field.asType().getKind() == TypeKind.BOOLEAN && name.length() > 2 && name.startsWith("is")
+                && Character.isUpperCase(name.charAt(2))) {
+            return "set" + name.substring(2);
+        }
+        return "set" + capitalize(name);
+    }
+
+    private String getterName(VariableElement field) {
+        return "get" + capitalize(field.getSimpleName().toString());
+    }
+
+    private boolean hasStaticReadIntoMethod(TypeElement type) {
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals("readInto")
+                    && method.getModifiers().contains(Modifier.STATIC)
+                    && method.getModifiers().contains(Modifier.PUBLIC)
+                    && method.getParameters().size() == 2
+                    && erasure(method.getParameters().get(0).asType()).equals(JSON_PARSER)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasStaticReadMethod(TypeElement type) {
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals("read")
+                    && method.getModifiers().contains(Modifier.STATIC)
+                    && method.getModifiers().contains(Modifier.PUBLIC)
+                    && method.getParameters().size() == 1
+                    && erasure(method.getParameters().get(0).asType()).equals(JSON_PARSER)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation.getQualifiedName().contentEquals(annotationType)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private TypeElement annotationTypeValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name) && entry.getValue().getValue() instanceof TypeMirror typeMirror
+                    && typeMirror.getKind() == TypeKind.DECLARED) {
+                return (TypeElement) ((DeclaredType) typeMirror).asElement();
+            }
+        }
+        return null;
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warning(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+}
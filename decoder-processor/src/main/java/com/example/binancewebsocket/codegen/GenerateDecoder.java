@@ -0,0 +1,21 @@
+package com.example.binancewebsocket.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컴파일 시점에 리플렉션 없는 JSON 디코더(&lt;Type&gt;Decoder)를 생성할 DTO 에 지정합니다.
+ * <p>
+ * - 필드 키는 @JsonProperty 값 (없으면 필드 이름)을 사용합니다.
+ * - 값은 Lombok 등이 만든 setter 로 채웁니다. (set + 필드 이름)
+ * - @GenerateDecoder 가 지정된 타입의 필드는 해당 타입의 생성 디코더로 위임합니다.
+ * - @JsonDeserialize(using = X.class) 필드는 X 의 {@code public static read(JsonParser)} 메서드로 위임합니다.
+ *   {@code public static readInto(JsonParser, 기존 값)} 이 있으면 기존 값(리스트 등)을 재사용하도록 그쪽을 우선합니다.
+ * - 재사용 객체용 reset(target) 도 함께 생성됩니다. (primitive 0, 참조 null, 중첩 타입 / 컬렉션은 인스턴스 유지)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateDecoder {
+}
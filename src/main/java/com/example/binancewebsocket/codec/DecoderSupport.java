@@ -0,0 +1,261 @@
+package com.example.binancewebsocket.codec;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 생성된 디코더가 사용하는 값 읽기 도우미.
+ * <p>
+ * 파서는 읽을 값 토큰에 위치해 있어야 합니다.
+ * Binance 는 가격/수량을 문자열("27000.10")로 보내므로 숫자 타입도 문자열 토큰을 허용합니다. (Jackson 기본 동작과 동일)
+ */
+public final class DecoderSupport {
+
+    // 생성 코드가 처리하지 못하는 타입에만 사용
+    private static final ObjectMapper FALLBACK_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // 짧은 문자열(이벤트 타입, 심볼, 간격, 주문 상태 ...) 공유 테이블
+    // 같은 값이 매 메시지 반복되므로 String 을 새로 만들지 않고 이전 인스턴스를 반환합니다.
+    // String 은 불변이므로 여러 스레드가 잠금 없이 읽고 덮어써도 안전합니다. (충돌 시 새로 만들어 교체)
+    private static final int MAX_CANONICAL_LENGTH = 32;
+    private static final int CANONICAL_TABLE_SIZE = 4096; // 2의 거듭제곱
+    private static final String[] CANONICAL = new String[CANONICAL_TABLE_SIZE];
+
+    private DecoderSupport() {
+    }
+
+    /**
+     * char 구간과 같은 내용의 공유 String 을 반환합니다.
+     */
+    public static String canonical(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int index = (hash ^ (hash >>> 16)) & (CANONICAL_TABLE_SIZE - 1);
+        String cached = CANONICAL[index];
+        if (cached != null && contentEquals(cached, chars, offset, length)) {
+            return cached;
+        }
+        String value = new String(chars, offset, length);
+        CANONICAL[index] = value;
+        return value;
+    }
+
+    private static boolean contentEquals(String value, char[] chars, int offset, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void expectStartObject(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == null) {
+            token = p.nextToken();
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(p, "JSON 객체가 필요하지만 " + token + " 토큰을 만났습니다.");
+        }
+    }
+
+    public static String readString(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            int length = p.getTextLength();
+            if (length <= MAX_CANONICAL_LENGTH) {
+                return canonical(p.getTextCharacters(), p.getTextOffset(), length);
+            }
+            return p.getText();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return p.getValueAsString();
+        }
+        throw unexpected(p, "String");
+    }
+
+    public static BigDecimal readBigDecimal(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            int length = p.getTextLength();
+            if (length == 0) {
+                return null;
+            }
+            // 문자열을 만들지 않고 파서 char 버퍼에서 바로 변환
+            return new BigDecimal(p.getTextCharacters(), p.getTextOffset(), length);
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getDecimalValue();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        throw unexpected(p, "BigDecimal");
+    }
+
+    /**
+     * ✅ 10진수 문자열 / 숫자를 {@link FixedDecimal} packed long 으로 읽습니다. (BigDecimal / String 생성 없음)
+     * null / 빈 문자열은 0 으로 읽습니다.
+     */
+    public static long readFixedDecimal(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT && containsExponent(p)) {
+            return FixedDecimal.valueOf(p.getDecimalValue()); // 1E-8 같은 지수 표기 (드묾)
+        }
+        if (token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            int length = p.getTextLength();
+            if (length == 0) {
+                return FixedDecimal.ZERO;
+            }
+            return FixedDecimal.parse(p.getTextCharacters(), p.getTextOffset(), length);
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return FixedDecimal.ZERO;
+        }
+        throw unexpected(p, "FixedDecimal");
+    }
+
+    private static boolean containsExponent(JsonParser p) throws IOException {
+        char[] chars = p.getTextCharacters();
+        for (int i = p.getTextOffset(), end = i + p.getTextLength(); i < end; i++) {
+            if (chars[i] == 'e' || chars[i] == 'E') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static BigInteger readBigInteger(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getBigIntegerValue();
+        }
+        if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getDecimalValue().toBigInteger();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = p.getText().trim();
+            return text.isEmpty() ? null : new BigInteger(text);
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        throw unexpected(p, "BigInteger");
+    }
+
+    public static Boolean readBoolean(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_TRUE) {
+            return Boolean.TRUE;
+        }
+        if (token == JsonToken.VALUE_FALSE) {
+            return Boolean.FALSE;
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = p.getText().trim();
+            if ("true".equalsIgnoreCase(text)) {
+                return Boolean.TRUE;
+            }
+            if ("false".equalsIgnoreCase(text)) {
+                return Boolean.FALSE;
+            }
+            if (text.isEmpty()) {
+                return null;
+            }
+            throw unexpected(p, "Boolean");
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getLongValue() != 0;
+        }
+        throw unexpected(p, "Boolean");
+    }
+
+    public static Long readLong(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : readLongValue(p);
+    }
+
+    public static long readLongValue(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getLongValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return Long.parseLong(p.getText().trim());
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return 0L;
+        }
+        throw unexpected(p, "long");
+    }
+
+    public static Integer readInteger(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : readIntValue(p);
+    }
+
+    public static int readIntValue(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getIntValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return Integer.parseInt(p.getText().trim());
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return 0;
+        }
+        throw unexpected(p, "int");
+    }
+
+    public static Double readDouble(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : readDoubleValue(p);
+    }
+
+    public static double readDoubleValue(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return Double.parseDouble(p.getText().trim());
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return 0d;
+        }
+        throw unexpected(p, "double");
+    }
+
+    public static boolean readBooleanValue(JsonParser p) throws IOException {
+        return Boolean.TRUE.equals(readBoolean(p));
+    }
+
+    /**
+     * ⚠️ 생성 코드가 직접 처리하지 못하는 타입 → Jackson 으로 위임
+     */
+    public static <T> T readValue(JsonParser p, TypeReference<T> type) throws IOException {
+        return FALLBACK_MAPPER.readValue(p, type);
+    }
+
+    private static JsonParseException unexpected(JsonParser p, String type) {
+        return new JsonParseException(p, type + " 값으로 변환할 수 없는 토큰: " + p.currentToken());
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.binancewebsocket.codec;
+
+import java.math.BigDecimal;
+
+/**
+ * long 하나에 담는 고정 소수점 10진수 (가격 / 수량용).
+ *
+ * <pre>
+ *   packed = (mantissa << 4) | scale        값 = mantissa × 10^-scale
+ *   "27000.10" → mantissa 2700010, scale 2
+ *   "0.001"    → mantissa 1,       scale 3
+ * </pre>
+ * - 객체가 아니라 primitive long 이므로 필드 / 배열 / 링 버퍼 슬롯에 할당 없이 저장됩니다.
+ * - scale 은 0~15, mantissa 는 ±2^59 (약 5.7 × 10^17) 범위입니다.
+ * - Binance 는 심볼의 tick / step 정밀도 그대로 문자열을 보내므로, 파싱 시 받은 자릿수를 그대로 scale 로 사용합니다.
+ *   같은 심볼의 가격끼리는 scale 이 같아 mantissa 만으로 비교 / 차분할 수 있습니다. (다른 경우 {@link #rescale})
+ * - 0 (packed 0) 은 값 0 이며, 필드 기본값으로도 사용됩니다.
+ */
+public final class FixedDecimal {
+
+    public static final int MAX_SCALE = 15;
+    public static final long ZERO = 0L;
+
+    private static final int SCALE_BITS = 4;
+    private static final long SCALE_MASK = (1L << SCALE_BITS) - 1;
+    private static final long MAX_MANTISSA = Long.MAX_VALUE >> SCALE_BITS;
+    private static final long MIN_MANTISSA = Long.MIN_VALUE >> SCALE_BITS;
+
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private FixedDecimal() {
+    }
+
+    public static long of(long mantissa, int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new ArithmeticException("scale 범위(0~" + MAX_SCALE + ")를 벗어났습니다: " + scale);
+        }
+        if (mantissa > MAX_MANTISSA || mantissa < MIN_MANTISSA) {
+            throw new ArithmeticException("mantissa 범위를 벗어났습니다: " + mantissa);
+        }
+        return (mantissa << SCALE_BITS) | scale;
+    }
+
+    public static long mantissa(long packed) {
+        return packed >> SCALE_BITS;
+    }
+
+    public static int scale(long packed) {
+        return (int) (packed & SCALE_MASK);
+    }
+
+    /**
+     * ✅ 10진수 문자열을 파서 char 버퍼에서 바로 변환합니다. (String / BigDecimal 생성 없음)
+     * 소수 자릿수가 15를 넘거나 mantissa 범위를 넘으면 그 자리에서 반올림(half-up)합니다. 정수부가 넘치면 예외입니다.
+     */
+    public static long parse(char[] buffer, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        while (i < end && buffer[i] == ' ') {
+            i++;
+        }
+        while (end > i && buffer[end - 1] == ' ') {
+            end--;
+        }
+        if (i == end) {
+            throw new NumberFormatException("빈 숫자 문자열");
+        }
+        boolean negative = false;
+        if (buffer[i] == '-' || buffer[i] == '+') {
+            negative = buffer[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int scale = 0;
+        boolean fraction = false;
+        boolean digits = false;
+        boolean roundUp = false;
+        boolean truncated = false;
+        for (; i < end; i++) {
+            char c = buffer[i];
+            if (c == '.' && !fraction) {
+                fraction = true;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("고정 소수점으로 변환할 수 없는 문자 '" + c + "': "
+                        + new String(buffer, offset, length));
+            }
+            digits = true;
+            int digit = c - '0';
+            if (truncated) {
+                if (!fraction) {
+                    throw new ArithmeticException("정수부가 범위를 벗어났습니다: " + new String(buffer, offset, length));
+                }
+                continue; // 반올림 자리 이후는 무시
+            }
+            if ((fraction && scale == MAX_SCALE) || mantissa > (MAX_MANTISSA - digit) / 10) {
+                if (!fraction) {
+                    throw new ArithmeticException("정수부가 범위를 벗어났습니다: " + new String(buffer, offset, length));
+                }
+                roundUp = digit >= 5;
+                truncated = true;
+                continue;
+            }
+            mantissa = mantissa * 10 + digit;
+            if (fraction) {
+                scale++;
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException("숫자가 없습니다: " + new String(buffer, offset, length));
+        }
+        if (truncated) {
+            // 잘린 자리에서 반올림한 뒤, 뒤쪽 0 을 제거하여 표현을 줄임
+            if (roundUp) {
+                mantissa++;
+            }
+            while (scale > 0 && mantissa != 0 && mantissa % 10 == 0) {
+                mantissa /= 10;
+                scale--;
+            }
+        }
+        return of(negative ? -mantissa : mantissa, scale);
+    }
+
+    public static long parse(CharSequence text) {
+        char[] chars = text.toString().toCharArray();
+        return parse(chars, 0, chars.length);
+    }
+
+    public static long valueOf(long value) {
+        return of(value, 0);
+    }
+
+    public static long valueOf(BigDecimal value) {
+        return parse(value.toPlainString());
+    }
+
+    /**
+     * 다른 scale 로 변환합니다. (늘릴 때는 정확, 줄일 때는 반올림 half-up)
+     */
+    public static long rescale(long packed, int newScale) {
+        int scale = scale(packed);
+        if (scale == newScale) {
+            return packed;
+        }
+        long mantissa = mantissa(packed);
+        if (newScale > scale) {
+            return of(Math.multiplyExact(mantissa, POW10[newScale - scale]), newScale);
+        }
+        long divisor = POW10[scale - newScale];
+        long quotient = mantissa / divisor;
+        long remainder = Math.abs(mantissa % divisor);
+        if (remainder * 2 >= divisor) {
+            quotient += mantissa < 0 ? -1 : 1;
+        }
+        return of(quotient, newScale);
+    }
+
+    /**
+     * 두 값을 더합니다. (scale 이 같으면 mantissa 덧셈만 수행, 다르면 큰 scale 기준)
+     */
+    public static long add(long a, long b) {
+        int scaleA = scale(a);
+        int scaleB = scale(b);
+        if (scaleA == scaleB) {
+            return of(Math.addExact(mantissa(a), mantissa(b)), scaleA);
+        }
+        int scale = Math.max(scaleA, scaleB);
+        return of(Math.addExact(mantissa(rescale(a, scale)), mantissa(rescale(b, scale))), scale);
+    }
+
+    /**
+     * 두 값을 비교합니다. (scale 이 같으면 mantissa 비교만 수행)
+     */
+    public static int compare(long a, long b) {
+        int scaleA = scale(a);
+        int scaleB = scale(b);
+        if (scaleA == scaleB) {
+            return Long.compare(mantissa(a), mantissa(b));
+        }
+        try {
+            int scale = Math.max(scaleA, scaleB);
+            return Long.compare(mantissa(rescale(a, scale)), mantissa(rescale(b, scale)));
+        } catch (ArithmeticException e) {
+            return toBigDecimal(a).compareTo(toBigDecimal(b));
+        }
+    }
+
+    public static boolean isZero(long packed) {
+        return mantissa(packed) == 0;
+    }
+
+    public static double toDouble(long packed) {
+        return (double) mantissa(packed) / POW10[scale(packed)];
+    }
+
+    public static BigDecimal toBigDecimal(long packed) {
+        return BigDecimal.valueOf(mantissa(packed), scale(packed));
+    }
+
+    /**
+     * 10진수 문자열을 버퍼에 기록하고 기록한 길이를 반환합니다. (버퍼는 최소 22자)
+     */
+    public static int format(long packed, char[] buffer, int offset) {
+        long mantissa = mantissa(packed);
+        int scale = scale(packed);
+        int pos = offset;
+        if (mantissa < 0) {
+            buffer[pos++] = '-';
+            mantissa = -mantissa;
+        }
+        // 역순으로 숫자를 채운 뒤 뒤집기
+        int start = pos;
+        int written = 0;
+        do {
+            if (written == scale && scale > 0) {
+                buffer[pos++] = '.';
+            }
+            buffer[pos++] = (char) ('0' + mantissa % 10);
+            mantissa /= 10;
+            written++;
+        } while (mantissa != 0 || written <= scale);
+        for (int l = start, r = pos - 1; l < r; l++, r--) {
+            char tmp = buffer[l];
+            buffer[l] = buffer[r];
+            buffer[r] = tmp;
+        }
+        return pos - offset;
+    }
+
+    public static StringBuilder appendTo(long packed, StringBuilder target) {
+        char[] buffer = new char[24];
+        return target.append(buffer, 0, format(packed, buffer, 0));
+    }
+
+    public static String toString(long packed) {
+        char[] buffer = new char[24];
+        return new String(buffer, 0, format(packed, buffer, 0));
+    }
+}
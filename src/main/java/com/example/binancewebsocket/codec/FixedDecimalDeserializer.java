@@ -0,0 +1,33 @@
+package com.example.binancewebsocket.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+
+/**
+ * 가격 / 수량 필드(long)를 {@link FixedDecimal} packed long 으로 읽는 역직렬화기.
+ * <pre>
+ *   &#64;JsonDeserialize(using = FixedDecimalDeserializer.class)
+ *   private long price;
+ * </pre>
+ * 생성된 디코더는 {@link #read(JsonParser)} 를 직접 호출하므로 박싱이 일어나지 않습니다.
+ * (ObjectMapper 경로 - REST 응답 등 - 에서만 {@link #deserialize} 가 사용됩니다)
+ */
+public class FixedDecimalDeserializer extends JsonDeserializer<Long> {
+
+    @Override
+    public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return read(p);
+    }
+
+    @Override
+    public Long getNullValue(DeserializationContext ctxt) {
+        return FixedDecimal.ZERO;
+    }
+
+    public static long read(JsonParser p) throws IOException {
+        return DecoderSupport.readFixedDecimal(p);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.binancewebsocket.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * 컴파일 시점에 생성된 DTO 디코더.
+ * <p>
+ * {@code @GenerateDecoder} 가 지정된 DTO 마다 decoder-processor 가 구현체를 생성합니다.
+ * 리플렉션 / BeanDeserializer 없이 짧은 JSON 키에 대한 switch 로 setter 를 직접 호출합니다.
+ * 두 메서드 모두 파서가 대상 객체의 START_OBJECT 에 위치해 있어야 하며, 호출 후에는 END_OBJECT 에 위치합니다.
+ */
+public interface GeneratedDecoder<T> {
+
+    Class<T> type();
+
+    /**
+     * 빈 객체를 만듭니다. (재사용 풀을 채울 때 사용)
+     */
+    T create();
+
+    /**
+     * 새 객체를 만들어 채웁니다.
+     */
+    T decode(JsonParser p) throws IOException;
+
+    /**
+     * 기존 객체에 값을 덮어씁니다. (재사용 객체용)
+     */
+    void decodeInto(JsonParser p, T target) throws IOException;
+
+    /**
+     * 재사용 전에 이전 메시지의 값을 지웁니다. (중첩 객체 / 리스트는 인스턴스를 유지한 채 비움)
+     * decodeInto 는 메시지에 있는 필드만 덮어쓰므로, 재사용 객체는 반드시 reset 후 채워야 합니다.
+     */
+    void reset(T target);
+}
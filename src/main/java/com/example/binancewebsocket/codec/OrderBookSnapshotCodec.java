@@ -0,0 +1,192 @@
+package com.example.binancewebsocket.codec;
+
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO.OrderBookEntry;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 호가 스냅샷 하나의 모든 단계를 BLOB 하나로 압축합니다. (단계마다 한 행 대신)
+ *
+ * <pre>
+ *   version(1) | priceScale(1) | quantityScale(1) | varint 매수 단계 수 | varint 매도 단계 수
+ *   | zigzag varint 기준 가격 (최우선 매수가, 매수가 없으면 최우선 매도가)
+ *   | 매수 단계마다 : zigzag varint (직전 가격 - 가격)  varint 수량
+ *   | 매도 단계마다 : zigzag varint (가격 - 직전 가격)  varint 수량
+ * </pre>
+ * - 가격 / 수량은 tick / step 단위가 아니라 스냅샷 안의 가장 큰 소수 자릿수(scale)로 맞춘 mantissa 입니다.
+ *   tickSize 가 10의 거듭제곱(0.10, 0.01 …)이면 결과적으로 1 tick = 1 이 되지만, 0.05 같은 tick 이면 차분이 5의 배수가 되어
+ *   tick 단위보다 조금 클 수 있습니다. (심볼별 tickSize 없이 BLOB 만으로 복원할 수 있도록 scale 만 헤더에 기록)
+ * - 가격은 기준 가격부터 이어지는 차분이라 정상적인 호가(매수 내림차순 / 매도 오름차순, 1~몇 tick 간격)는 단계당 1바이트입니다.
+ *   매도 쪽 첫 차분은 기준 가격(최우선 매수가)과의 스프레드입니다.
+ * - decode 는 잘리거나 손상된 BLOB(범위 밖 scale / 단계 수, 남는 바이트, 끝나지 않은 varint)을 IllegalArgumentException 으로 거부합니다.
+ * - 순서가 어긋나거나 음수인 값도 zigzag / 64bit varint 로 그대로 복원되므로 손실이 없습니다.
+ *   (복원 값은 수치가 같고 scale 만 스냅샷의 최대 scale 로 통일됨 → DECIMAL 컬럼 기준 기존 행 형식과 동일)
+ */
+public final class OrderBookSnapshotCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_BYTES = 3;
+    private static final int MAX_VARINT_BYTES = 10;
+
+    // persist 스레드별 인코딩 버퍼 (결과만 정확한 크기로 복사)
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[1024]);
+
+    private OrderBookSnapshotCodec() {
+    }
+
+    /**
+     * ✅ 매수 / 매도 단계 → BLOB
+     */
+    public static byte[] encode(List<OrderBookEntry> bids, List<OrderBookEntry> asks) {
+        int bidCount = bids != null ? bids.size() : 0;
+        int askCount = asks != null ? asks.size() : 0;
+        int priceScale = Math.max(maxScale(bids, true), maxScale(asks, true));
+        int quantityScale = Math.max(maxScale(bids, false), maxScale(asks, false));
+
+        int capacity = HEADER_BYTES + MAX_VARINT_BYTES * (3 + (bidCount + askCount) * 2);
+        byte[] buffer = SCRATCH.get();
+        if (buffer.length < capacity) {
+            buffer = new byte[Math.max(capacity, buffer.length * 2)];
+            SCRATCH.set(buffer);
+        }
+
+        buffer[0] = VERSION;
+        buffer[1] = (byte) priceScale;
+        buffer[2] = (byte) quantityScale;
+        int position = writeVarint(buffer, HEADER_BYTES, bidCount);
+        position = writeVarint(buffer, position, askCount);
+
+        long base = bidCount > 0 ? price(bids.get(0), priceScale)
+                : askCount > 0 ? price(asks.get(0), priceScale) : 0;
+        position = writeVarint(buffer, position, zigzag(base));
+        position = writeSide(buffer, position, bids, bidCount, base, -1, priceScale, quantityScale);
+        position = writeSide(buffer, position, asks, askCount, base, 1, priceScale, quantityScale);
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private static int writeSide(byte[] buffer, int position, List<OrderBookEntry> entries, int count, long base,
+                                 int direction, int priceScale, int quantityScale) {
+        long previous = base;
+        for (int i = 0; i < count; i++) {
+            OrderBookEntry entry = entries.get(i);
+            long price = price(entry, priceScale);
+            position = writeVarint(buffer, position, zigzag((price - previous) * direction));
+            position = writeVarint(buffer, position, FixedDecimal.mantissa(FixedDecimal.rescale(entry.getQuantity(), quantityScale)));
+            previous = price;
+        }
+        return position;
+    }
+
+    /**
+     * ✅ BLOB → 매수 / 매도 단계 (호출자 목록에 추가, 가격 / 수량은 FixedDecimal packed)
+     */
+    public static void decode(byte[] blob, List<OrderBookEntry> bids, List<OrderBookEntry> asks) {
+        if (blob.length < HEADER_BYTES || blob[0] != VERSION) {
+            throw new IllegalArgumentException("지원하지 않는 호가 스냅샷 형식입니다: version="
+                    + (blob.length > 0 ? blob[0] : -1));
+        }
+        int priceScale = checkScale(blob[1]);
+        int quantityScale = checkScale(blob[2]);
+        int[] position = {HEADER_BYTES};
+        int bidCount = readCount(blob, position);
+        int askCount = readCount(blob, position);
+        long base = unzigzag(readVarint(blob, position));
+        if ((long) (bidCount + askCount) * 2 > blob.length - position[0]) { // 단계마다 최소 2바이트
+            throw new IllegalArgumentException("호가 스냅샷이 잘렸습니다: 단계 " + (bidCount + askCount)
+                    + "개, 남은 " + (blob.length - position[0]) + " bytes");
+        }
+        try {
+            readSide(blob, position, bids, bidCount, base, -1, priceScale, quantityScale);
+            readSide(blob, position, asks, askCount, base, 1, priceScale, quantityScale);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("호가 스냅샷 값이 범위를 벗어났습니다.", e);
+        }
+        if (position[0] != blob.length) {
+            throw new IllegalArgumentException("호가 스냅샷 뒤에 " + (blob.length - position[0]) + " bytes 가 남았습니다.");
+        }
+    }
+
+    private static int checkScale(int scale) {
+        if (scale < 0 || scale > FixedDecimal.MAX_SCALE) {
+            throw new IllegalArgumentException("호가 스냅샷 scale 이 범위를 벗어났습니다: " + scale);
+        }
+        return scale;
+    }
+
+    private static int readCount(byte[] blob, int[] position) {
+        long count = readVarint(blob, position);
+        if (count < 0 || count > blob.length) {
+            throw new IllegalArgumentException("호가 스냅샷 단계 수가 잘못되었습니다: " + count);
+        }
+        return (int) count;
+    }
+
+    private static void readSide(byte[] blob, int[] position, List<OrderBookEntry> entries, int count, long base,
+                                 int direction, int priceScale, int quantityScale) {
+        long previous = base;
+        for (int i = 0; i < count; i++) {
+            long price = previous + unzigzag(readVarint(blob, position)) * direction;
+            long quantity = readVarint(blob, position);
+            entries.add(new OrderBookEntry(FixedDecimal.of(price, priceScale), FixedDecimal.of(quantity, quantityScale)));
+            previous = price;
+        }
+    }
+
+    // --- 도구 ---
+
+    private static long price(OrderBookEntry entry, int priceScale) {
+        return FixedDecimal.mantissa(FixedDecimal.rescale(entry.getPrice(), priceScale));
+    }
+
+    private static int maxScale(List<OrderBookEntry> entries, boolean price) {
+        int scale = 0;
+        if (entries != null) {
+            for (int i = 0, n = entries.size(); i < n; i++) {
+                OrderBookEntry entry = entries.get(i);
+                scale = Math.max(scale, FixedDecimal.scale(price ? entry.getPrice() : entry.getQuantity()));
+            }
+        }
+        return scale;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 7bit 씩 하위부터 기록 (최상위 비트 = 다음 바이트 있음), 부호 없는 64bit 로 취급
+     */
+    static int writeVarint(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    static long readVarint(byte[] buffer, int[] position) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (position[0] >= buffer.length) {
+                throw new IllegalArgumentException("varint 가 끝나기 전에 데이터가 잘렸습니다.");
+            }
+            byte b = buffer[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift >= 64) {
+                throw new IllegalArgumentException("잘못된 varint 입니다.");
+            }
+        }
+    }
+}
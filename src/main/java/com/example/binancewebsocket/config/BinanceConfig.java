@@ -1,28 +1,85 @@
 package com.example.binancewebsocket.config;
 
+import com.example.binancewebsocket.stream.StreamProfile;
+import com.example.binancewebsocket.stream.StreamType;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
 public class BinanceConfig {
 
+    /**
+     * 전체 시장 구독 모드에서 심볼별 @ticker / @markPrice / @forceOrder 대신 구독하는 스트림 (모든 심볼을 한 스트림으로 수신)
+     */
+    public static final List<String> ALL_MARKET_STREAMS = List.of(
+            "!ticker@arr",          // ✅ 전체 심볼 24시간 티커 (1초마다 바뀐 심볼 배열)
+            "!markPrice@arr@1s",    // ✅ 전체 심볼 마크 가격 / 펀딩비 (1초마다 배열)
+            "!forceOrder@arr"       // ✅ 전체 심볼 강제 청산
+    );
+
     private Logger logger = LoggerFactory.getLogger(BinanceConfig.class);
 
     private EnvConfig envConfig;
 
+    @Value("${binance.orderbook.enabled:false}") // 로컬 호가창용 diff depth 스트림 구독 여부
+    private boolean orderBookEnabled;
+
+    @Value("${binance.book-ticker.enabled:false}") // 실시간 최우선 호가(bookTicker) 스트림 구독 여부
+    private boolean bookTickerEnabled;
+
+    @Value("${binance.kline-rollup.enabled:false}") // aggTrade 로 캔들을 직접 집계하면 간격별 kline 스트림은 구독하지 않음
+    private boolean klineRollupEnabled;
+
+    @Value("${binance.websocket.subscription-mode:per-symbol}") // per-symbol | all-market (ticker / markPrice / forceOrder 를 전체 시장 스트림으로)
+    private String subscriptionMode;
+
+    @Value("${binance.agg-trade-derivation.mode:off}") // off | derive | verify (@aggTrade 대신 @trade 로 aggTrade 생성)
+    private String aggTradeDerivationMode;
+
+    @Value("${binance.agg-trade-derivation.verify-symbols:BTCUSDT}") // verify 모드에서 @aggTrade 도 구독해 비교할 표본 심볼
+    private List<String> aggTradeVerifySymbols;
+
+    @Value("${binance.stream-profiles.tiers:}") // 등급별 구독 스트림 (예: full=trade,aggTrade,...;light=ticker,markPrice,depth5@500ms)
+    private String streamTiers;
+
+    @Value("${binance.stream-profiles.default-tier:full}") // symbols.stream_tier 가 비어 있거나 알 수 없는 등급인 심볼에 적용
+    private String defaultTier;
+
+    private Map<String, StreamProfile> streamProfiles = Map.of();
+    private StreamProfile defaultProfile = StreamProfile.FULL;
+    private final Set<String> unknownTiers = ConcurrentHashMap.newKeySet(); // 경고를 이미 남긴 등급
+
     @Autowired
     public BinanceConfig(EnvConfig envConfig) {
         this.envConfig = envConfig;
     }
 
+    /**
+     * ✅ 스트림 등급 설정 로드 (등급 설정이 없으면 모든 심볼이 기존 구성(full)으로 구독)
+     */
+    @PostConstruct
+    public void initStreamProfiles() {
+        Map<String, StreamProfile> profiles = new LinkedHashMap<>(StreamProfile.parseTiers(streamTiers));
+        profiles.putIfAbsent(StreamProfile.FULL.name(), StreamProfile.FULL);
+        String tier = defaultTier.trim().toLowerCase(Locale.ROOT);
+        if (!profiles.containsKey(tier)) {
+            throw new IllegalArgumentException("binance.stream-profiles.default-tier 에 없는 등급입니다: " + defaultTier);
+        }
+        this.streamProfiles = Map.copyOf(profiles);
+        this.defaultProfile = profiles.get(tier);
+        logger.info("✅ 스트림 등급: {} (기본 {})", profiles.values(), tier);
+    }
+
     /**
      * ✅ Binance Futures WebSocket 기본 URL 설정
      */
@@ -63,28 +120,127 @@ public class BinanceConfig {
      * @return WebSocket URL
      */
     public String getFuturesWebSocketUrl(List<String> markets) {
-        String baseUrl = envConfig.getBinanceWsUrl();
+        return getCombinedStreamUrl(getFuturesStreams(markets));
+    }
 
-        if (markets == null || markets.isEmpty()) {
+    /**
+     * ✅ 구독할 심볼별 스트림 이름 목록 생성 (모든 심볼에 기본 등급 적용)
+     *
+     * @param markets 구독할 심볼 리스트 (예: ["btcusdt", "ethusdt"])
+     * @return 스트림 이름 목록 (예: ["btcusdt@trade", "btcusdt@aggTrade", ...])
+     */
+    public List<String> getFuturesStreams(List<String> markets) {
+        Map<String, String> tiers = new LinkedHashMap<>();
+        if (markets != null) {
+            markets.forEach(market -> tiers.put(market, null));
+        }
+        return getFuturesStreams(tiers);
+    }
+
+    /**
+     * ✅ 심볼별 등급에 따라 구독할 스트림 이름 목록 생성
+     *
+     * @param tiers 구독할 심볼(소문자) → 등급 (null 이거나 알 수 없는 등급이면 기본 등급)
+     * @return 스트림 이름 목록 (예: ["btcusdt@trade", "btcusdt@depth10@100ms", "dogeusdt@depth5@500ms", ...])
+     */
+    public List<String> getFuturesStreams(Map<String, String> tiers) {
+        if (tiers == null || tiers.isEmpty()) {
             logger.warn("⚠️ 구독할 심볼이 없습니다. 기본값으로 'btcusdt'를 사용합니다.");
-            markets = List.of("btcusdt"); // 기본 심볼 설정
+            tiers = Map.of("btcusdt", defaultProfile.name()); // 기본 심볼 설정
         }
 
         // Binance Futures의 스트림 형식에 맞게 변환
-        String streams = markets.stream()
-                .flatMap(market -> List.of(
-                        market + "@trade",     // ✅ 선물 개별 거래 정보
-                        market + "@aggTrade",      // ✅ 선물 집계 거래 정보
-                        market + "@markPrice",     // ✅ 선물 시장 가격 (펀딩비 포함)
-//                        market + "@kline_1h",      // ✅ 1시간봉 캔들 데이터
-                        market + "@kline_5m",      // ✅ 5분봉 캔들 데이터
-                        market + "@ticker",        // ✅ 24시간 티커 데이터
-                        market + "@forceOrder",    // ✅ 강제 청산 정보
-                        market + "@depth10@100ms"   // ✅ PARTIAL BOOK DEPTH (20개 레벨, 100ms 간격)
-                ).stream())
-                .collect(Collectors.joining("/"));
-
-        String fullUrl = baseUrl + "/stream?streams=" + streams;
+        List<String> streams = new ArrayList<>();
+        if (isAllMarketMode()) {
+            streams.addAll(ALL_MARKET_STREAMS); // 수신 후 구독 심볼만 남김 (SymbolFilter)
+        }
+        tiers.forEach((market, tier) -> streams.addAll(marketStreams(market, profileOf(tier))));
+        return List.copyOf(streams);
+    }
+
+    /**
+     * ✅ 등급 이름 → 구독 구성 (null 이거나 알 수 없는 등급이면 기본 등급)
+     */
+    public StreamProfile profileOf(String tier) {
+        if (tier == null || tier.isBlank()) {
+            return defaultProfile;
+        }
+        StreamProfile profile = streamProfiles.get(tier.trim().toLowerCase(Locale.ROOT));
+        if (profile == null) {
+            if (unknownTiers.add(tier)) {
+                logger.warn("⚠️ 알 수 없는 스트림 등급 '{}' → 기본 등급 {} 사용", tier, defaultProfile.name());
+            }
+            return defaultProfile;
+        }
+        return profile;
+    }
+
+    /**
+     * ✅ 전체 시장 구독 모드 여부 (binance.websocket.subscription-mode=all-market)
+     */
+    public boolean isAllMarketMode() {
+        return "all-market".equalsIgnoreCase(subscriptionMode);
+    }
+
+    /**
+     * ✅ @trade 로 aggTrade 생성 여부 (binance.agg-trade-derivation.mode=derive | verify)
+     */
+    public boolean isAggTradeDerivationEnabled() {
+        String mode = aggTradeDerivationMode.trim();
+        return "derive".equalsIgnoreCase(mode) || "verify".equalsIgnoreCase(mode);
+    }
+
+    private boolean isAggTradeVerifySample(String market) {
+        return "verify".equalsIgnoreCase(aggTradeDerivationMode.trim())
+                && aggTradeVerifySymbols.stream().anyMatch(symbol -> symbol.trim().equalsIgnoreCase(market));
+    }
+
+    private List<String> marketStreams(String market, StreamProfile profile) {
+        List<String> streams = new ArrayList<>();
+        // aggTrade 생성 사용 시 @trade 를 원천으로 구독하고 @aggTrade 는 검증 표본 심볼만 구독
+        boolean deriveAggTrades = isAggTradeDerivationEnabled() && profile.includes(StreamType.AGG_TRADE);
+        if (profile.includes(StreamType.TRADE) || deriveAggTrades) {
+            streams.add(market + "@trade");     // ✅ 선물 개별 거래 정보
+        }
+        if (profile.includes(StreamType.AGG_TRADE) && (!deriveAggTrades || isAggTradeVerifySample(market))) {
+            streams.add(market + "@aggTrade");      // ✅ 선물 집계 거래 정보 (캔들 집계 사용 시 캔들 원천)
+        }
+        if (profile.includes(StreamType.PARTIAL_DEPTH)) {
+            streams.add(market + "@" + profile.depthStream());   // ✅ PARTIAL BOOK DEPTH (등급별 단계 수 / 갱신 간격, 기본 depth10@100ms)
+        }
+        if (!isAllMarketMode()) {   // 전체 시장 구독 모드에서는 등급과 무관하게 !ticker@arr 등으로 수신
+            if (profile.includes(StreamType.MARK_PRICE)) {
+                streams.add(market + "@markPrice");     // ✅ 선물 시장 가격 (펀딩비 포함)
+            }
+            if (profile.includes(StreamType.TICKER)) {
+                streams.add(market + "@ticker");        // ✅ 24시간 티커 데이터
+            }
+            if (profile.includes(StreamType.FORCE_ORDER)) {
+                streams.add(market + "@forceOrder");    // ✅ 강제 청산 정보
+            }
+        }
+        if (!klineRollupEnabled && profile.includes(StreamType.KLINE)) {
+//            streams.add(market + "@kline_1h"); // ✅ 1시간봉 캔들 데이터
+            streams.add(market + "@kline_5m"); // ✅ 5분봉 캔들 데이터 (캔들 집계 사용 시 aggTrade 로 대체)
+        }
+        if (orderBookEnabled && profile.includes(StreamType.DIFF_DEPTH)) {
+            streams.add(market + "@depth@100ms"); // ✅ DIFF BOOK DEPTH (로컬 호가창, 100ms 간격)
+        }
+        if (bookTickerEnabled && profile.includes(StreamType.BOOK_TICKER)) {
+            streams.add(market + "@bookTicker"); // ✅ 최우선 호가 (실시간)
+        }
+        return streams;
+    }
+
+    /**
+     * ✅ 스트림 목록으로 combined stream URL 생성
+     *
+     * @param streams 스트림 이름 목록
+     * @return WebSocket URL
+     */
+    public String getCombinedStreamUrl(List<String> streams) {
+        String baseUrl = envConfig.getBinanceWsUrl();
+        String fullUrl = baseUrl + "/stream?streams=" + String.join("/", streams);
         logger.info("✅ Futures WebSocket URL 생성됨: {}", fullUrl);
         return fullUrl;
     }
@@ -0,0 +1,65 @@
+package com.example.binancewebsocket.config;
+
+/**
+ * DB 커넥션 풀을 나누는 작업 종류.
+ * <p>
+ * 현재 스레드의 작업 종류에 따라 {@link WorkloadRoutingDataSource} 가 해당 풀의 커넥션을 빌려줍니다.
+ * 지정하지 않은 스레드(WebSocket 수집 파이프라인, group commit / 일괄 저장 스레드 등)는 INGEST 입니다.
+ * <pre>
+ *   INGEST : 실시간 스트림 저장 (기본값)
+ *   REST   : BinanceScheduler 의 REST 수집 작업, 누락 구간 백필
+ *   READ   : HTTP 조회 API ({@link ReadWorkloadFilter})
+ * </pre>
+ */
+public enum DataSourceWorkload {
+
+    INGEST("ingest"),
+    REST("rest"),
+    READ("read");
+
+    private static final ThreadLocal<DataSourceWorkload> CURRENT = ThreadLocal.withInitial(() -> INGEST);
+
+    private final String key;
+
+    DataSourceWorkload(String key) {
+        this.key = key;
+    }
+
+    /**
+     * 설정 / 풀 이름에 쓰는 이름 (예: binance.datasource.ingest.*)
+     */
+    public String key() {
+        return key;
+    }
+
+    public static DataSourceWorkload current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 현재 스레드를 이 작업 종류로 바꾸고 이전 값을 반환합니다. ({@link #restore} 로 되돌림)
+     */
+    public DataSourceWorkload enter() {
+        DataSourceWorkload previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    public static void restore(DataSourceWorkload previous) {
+        CURRENT.set(previous);
+    }
+
+    /**
+     * task 를 이 작업 종류로 실행하는 Runnable
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            DataSourceWorkload previous = enter();
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
@@ -1,36 +1,127 @@
 package com.example.binancewebsocket.config;
 
+import com.example.binancewebsocket.mapper.FixedDecimalTypeHandler;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionFactoryBean;
 import org.mybatis.spring.SqlSessionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
-
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * DB 연결 설정.
+ * <p>
+ * - 작업 종류({@link DataSourceWorkload})마다 HikariCP 풀을 따로 두고, 기본 DataSource 는 현재 스레드의 작업 종류에 맞는 풀로
+ *   연결합니다. ({@link WorkloadRoutingDataSource}) → 느린 REST 일괄 저장이나 조회가 실시간 수집 커넥션을 뺏지 않습니다.
+ * - 풀별 크기 / 대기 시간은 binance.datasource.{ingest|rest|read}.*, 공통 값(max-lifetime, idle-timeout 등)은
+ *   spring.datasource.hikari.* 를 사용합니다.
+ * - 풀 대기 / 사용 시간과 커넥션 수는 Micrometer 로 노출됩니다. (hikaricp.connections.acquire / usage / active / pending, pool 태그)
+ */
 @Configuration
 public class DatabaseConfig {
 
+    private static final String HIKARI = "spring.datasource.hikari.";
+
     private Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
 
     private EnvConfig envConfig;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private final String jdbcUrl;
 
     @Autowired
-    public DatabaseConfig(EnvConfig envConfig) {
+    public DatabaseConfig(EnvConfig envConfig,
+                          Environment environment,
+                          MeterRegistry meterRegistry,
+                          @Value("${binance.group-commit.rewrite-batched-statements:true}") boolean rewriteBatchedStatements,
+                          @Value("${binance.load-data.enabled:false}") boolean loadData) {
         this.envConfig = envConfig;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.jdbcUrl = resolveJdbcUrl(rewriteBatchedStatements, loadData);
+    }
+
+    /**
+     * 실시간 스트림 저장 풀 (persist / group commit / 일괄 저장 스레드)
+     */
+    @Bean
+    public HikariDataSource ingestDataSource() {
+        return pool(DataSourceWorkload.INGEST, 20, 5, 5_000);
     }
 
+    /**
+     * BinanceScheduler REST 수집 / 백필 풀
+     */
     @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
+    public HikariDataSource restDataSource() {
+        return pool(DataSourceWorkload.REST, 10, 2, 30_000);
+    }
+
+    /**
+     * HTTP 조회 API 풀
+     */
+    @Bean
+    public HikariDataSource readDataSource() {
+        return pool(DataSourceWorkload.READ, 10, 2, 10_000);
+    }
 
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("ingestDataSource") DataSource ingestDataSource,
+                                 @Qualifier("restDataSource") DataSource restDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource) {
+        Map<DataSourceWorkload, DataSource> pools = new EnumMap<>(DataSourceWorkload.class);
+        pools.put(DataSourceWorkload.INGEST, ingestDataSource);
+        pools.put(DataSourceWorkload.REST, restDataSource);
+        pools.put(DataSourceWorkload.READ, readDataSource);
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    private HikariDataSource pool(DataSourceWorkload workload, int maximumPoolSize, int minimumIdle, long connectionTimeoutMs) {
+        String prefix = "binance.datasource." + workload.key() + ".";
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(environment.getProperty(HIKARI + "pool-name", "binance-websocket") + "-" + workload.key());
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(envConfig.getDbUsername());
+        config.setPassword(envConfig.getDbPassword());
+
+        // 풀별 값
+        config.setMaximumPoolSize(environment.getProperty(prefix + "maximum-pool-size", Integer.class, maximumPoolSize));
+        config.setMinimumIdle(environment.getProperty(prefix + "minimum-idle", Integer.class, minimumIdle));
+        config.setConnectionTimeout(environment.getProperty(prefix + "connection-timeout", Long.class, connectionTimeoutMs));
+
+        // 공통 값
+        config.setMaxLifetime(environment.getProperty(HIKARI + "max-lifetime", Long.class, 1_800_000L));
+        config.setIdleTimeout(environment.getProperty(HIKARI + "idle-timeout", Long.class, 600_000L));
+        config.setLeakDetectionThreshold(environment.getProperty(HIKARI + "leak-detection-threshold", Long.class, 0L));
+        config.setAllowPoolSuspension(environment.getProperty(HIKARI + "allow-pool-suspension", Boolean.class, false));
+        config.setRegisterMbeans(environment.getProperty(HIKARI + "register-mbeans", Boolean.class, false));
+
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        logger.info("✅ DB 커넥션 풀 [{}] 최대 {}개 / 최소 유휴 {}개 / 대기 {}ms", config.getPoolName(),
+                config.getMaximumPoolSize(), config.getMinimumIdle(), config.getConnectionTimeout());
+        return new HikariDataSource(config);
+    }
+
+    private String resolveJdbcUrl(boolean rewriteBatchedStatements, boolean loadData) {
         String dbUrl = envConfig.getDbUrl();
         String dbUsername = envConfig.getDbUsername();
         String dbPassword = envConfig.getDbPassword();
@@ -53,11 +144,25 @@ public class DatabaseConfig {
             logger.info("✅ DB_URL 로드 성공: {}", dbUrl);
         }
 
-        dataSource.setUrl(dbUrl);
-        dataSource.setUsername(dbUsername);
-        dataSource.setPassword(dbPassword);
+        // group commit 의 JDBC 배치를 드라이버가 여러 행 INSERT 하나로 보내도록
+        if (rewriteBatchedStatements) {
+            dbUrl = withUrlProperty(dbUrl, "rewriteBatchedStatements", "true");
+        }
+        // LOAD DATA LOCAL INFILE 적재 사용 시 클라이언트 쪽 허용 (서버는 local_infile=ON 필요)
+        if (loadData) {
+            dbUrl = withUrlProperty(dbUrl, "allowLoadLocalInfile", "true");
+        }
+        return dbUrl;
+    }
 
-        return dataSource;
+    /**
+     * DB URL 에 드라이버 속성을 붙입니다. (이미 지정되어 있으면 그대로)
+     */
+    static String withUrlProperty(String dbUrl, String name, String value) {
+        if (dbUrl == null || dbUrl.contains(name + "=")) {
+            return dbUrl;
+        }
+        return dbUrl + (dbUrl.contains("?") ? "&" : "?") + name + "=" + value;
     }
 
     @Bean
@@ -85,6 +190,7 @@ public class DatabaseConfig {
             myBatisConfig.setMapUnderscoreToCamelCase(true); // 자동 Camel Case 매핑
             myBatisConfig.setDefaultStatementTimeout(3000); // SQL 실행 타임아웃 설정
             myBatisConfig.setLazyLoadingEnabled(true); // Lazy Loading 설정
+            myBatisConfig.getTypeAliasRegistry().registerAlias(FixedDecimalTypeHandler.ALIAS, FixedDecimalTypeHandler.class); // 가격/수량 packed long 바인딩
             factoryBean.setConfiguration(myBatisConfig);
 
             return factoryBean.getObject();
@@ -0,0 +1,27 @@
+package com.example.binancewebsocket.config;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * HTTP 요청 처리 중의 DB 사용을 조회 API 풀({@link DataSourceWorkload#READ})로 보냅니다.
+ */
+@Component
+public class ReadWorkloadFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        DataSourceWorkload previous = DataSourceWorkload.READ.enter();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceWorkload.restore(previous);
+        }
+    }
+}
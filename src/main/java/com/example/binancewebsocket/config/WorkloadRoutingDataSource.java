@@ -0,0 +1,29 @@
+package com.example.binancewebsocket.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 현재 스레드의 {@link DataSourceWorkload} 에 맞는 커넥션 풀로 연결하는 DataSource.
+ * <p>
+ * mapper 는 모든 작업이 함께 쓰므로 SqlSessionFactory 는 하나만 두고, 커넥션을 빌리는 시점에 풀을 고릅니다.
+ * → 느린 REST 일괄 저장이 자기 풀만 채우고 실시간 수집 풀의 커넥션을 가져가지 않습니다.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public WorkloadRoutingDataSource(Map<DataSourceWorkload, DataSource> pools) {
+        Map<Object, Object> targets = new HashMap<>(pools);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(pools.get(DataSourceWorkload.INGEST));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return DataSourceWorkload.current();
+    }
+}
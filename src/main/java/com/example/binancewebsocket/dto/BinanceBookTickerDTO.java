@@ -0,0 +1,48 @@
+package com.example.binancewebsocket.dto;
+
+import com.example.binancewebsocket.codec.FixedDecimalDeserializer;
+import com.example.binancewebsocket.codegen.GenerateDecoder;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.Data;
+
+/**
+ * Binance Futures WebSocket 최우선 호가 DTO (Individual Symbol Book Ticker, 실시간)
+ */
+@Data
+@GenerateDecoder // ✅ 컴파일 시 전용 디코더 생성 (BinanceBookTickerDTODecoder)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BinanceBookTickerDTO {
+
+    @JsonProperty("e")
+    private String eventType; // 이벤트 타입 ("bookTicker")
+
+    @JsonProperty("u")
+    private long updateId; // 호가창 업데이트 ID
+
+    @JsonProperty("E")
+    private long eventTime; // 이벤트 발생 시간 (Unix Timestamp)
+
+    @JsonProperty("T")
+    private long transactionTime; // 트랜잭션 시간 (Unix Timestamp)
+
+    @JsonProperty("s")
+    private String symbol; // 거래 심볼 (BTCUSDT 등)
+
+    @JsonProperty("b")
+    @JsonDeserialize(using = FixedDecimalDeserializer.class)
+    private long bestBidPrice; // 최우선 매수가
+
+    @JsonProperty("B")
+    @JsonDeserialize(using = FixedDecimalDeserializer.class)
+    private long bestBidQuantity; // 최우선 매수 수량
+
+    @JsonProperty("a")
+    @JsonDeserialize(using = FixedDecimalDeserializer.class)
+    private long bestAskPrice; // 최우선 매도가
+
+    @JsonProperty("A")
+    @JsonDeserialize(using = FixedDecimalDeserializer.class)
+    private long bestAskQuantity; // 최우선 매도 수량
+}
@@ -1,16 +1,17 @@
 package com.example.binancewebsocket.dto;
 
+import com.example.binancewebsocket.codec.FixedDecimalDeserializer;
+import com.example.binancewebsocket.codegen.GenerateDecoder;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
-
 /**
  * Binance Futures Funding Rate DTO
  */
 @Data
+@GenerateDecoder // ✅ 컴파일 시 전용 디코더 생성 (BinanceFundingRateDTODecoder)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class BinanceFundingRateDTO {
 
@@ -18,11 +19,13 @@ public class BinanceFundingRateDTO {
     private String symbol; // 거래 심볼 (BTCUSDT 등)
 
     @JsonProperty("r")
-    private BigDecimal fundingRate; // 펀딩 비율
+    @JsonDeserialize(using = FixedDecimalDeserializer.class)
+    private long fundingRate; // 펀딩 비율
 
     @JsonProperty("E")
-    private BigInteger fundingTime; // 펀딩 적용 시간 (Unix Timestamp)
+    private long fundingTime; // 펀딩 적용 시간 (Unix Timestamp)
 
     @JsonProperty("p")
-    private BigDecimal markPrice; // 마켓 가격 (펀딩 시점)
+    @JsonDeserialize(using = FixedDecimalDeserializer.class)
+    private long markPrice; // 마켓 가격 (펀딩 시점)
 }
@@ -1,16 +1,17 @@
 package com.example.binancewebsocket.dto;
 
+import com.example.binancewebsocket.codec.FixedDecimalDeserializer;
+import com.example.binancewebsocket.codegen.GenerateDecoder;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
-
 /**
  * Binance Futures WebSocket 캔들 데이터 DTO (Kline/Candlestick)
  */
 @Data
+@GenerateDecoder // ✅ 컴파일 시 전용 디코더 생성 (BinanceKlineDTODecoder)
 @JsonIgnoreProperties(ignoreUnknown = true) // ✅ 불필요한 필드 무시
 public class BinanceKlineDTO {
 
@@ -18,7 +19,7 @@ public class BinanceKlineDTO {
     private String eventType; // 이벤트 타입 ("kline")
 
     @JsonProperty("E")
-    private BigInteger eventTime; // 이벤트 발생 시간 (Unix Timestamp)
+    private long eventTime; // 이벤트 발생 시간 (Unix Timestamp)
 
     @JsonProperty("s")
     private String symbol; // 거래 심볼 (BTCUSDT 등)
@@ -28,34 +29,44 @@ public class BinanceKlineDTO {
     ; // ✅ 내부 객체로 매핑
 
     @Data
+    @GenerateDecoder
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class KlineData {
         @JsonProperty("t")
-        private BigInteger openTime; // 캔들 시작 시간
+        private long openTime; // 캔들 시작 시간
 
         @JsonProperty("T")
-        private BigInteger closeTime; // 캔들 종료 시간
+        private long closeTime; // 캔들 종료 시간
 
         @JsonProperty("i")
         private String interval; // 캔들 간격 (1m, 5m 등)
 
         @JsonProperty("o")
-        private BigDecimal openPrice; // 시가
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long openPrice; // 시가
 
         @JsonProperty("c")
-        private BigDecimal closePrice; // 종가
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long closePrice; // 종가
 
         @JsonProperty("h")
-        private BigDecimal highPrice; // 고가
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long highPrice; // 고가
 
         @JsonProperty("l")
-        private BigDecimal lowPrice; // 저가
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long lowPrice; // 저가
 
         @JsonProperty("v")
-        private BigDecimal volume; // 거래량
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long volume; // 거래량
 
         @JsonProperty("n")
-        private BigInteger tradeCount; // 거래 횟수
+        private long tradeCount; // 거래 횟수
+
+        @JsonProperty("V")
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long takerBuyVolume; // 테이커 매수 거래량
 
         @JsonProperty("x")
         private Boolean isKlineClosed; // 캔들 종료 여부
@@ -64,70 +75,77 @@ public class BinanceKlineDTO {
 
     // ✅ MyBatis용 Getter 추가
 
-    public void setCloseTime(BigInteger closeTime) {
+    public void setCloseTime(long closeTime) {
         this.kline.closeTime = closeTime;
     }
 
-    public BigInteger getCloseTime() {
+    public long getCloseTime() {
         return this.kline.closeTime;
     }
 
-    public void setOpenTime(BigInteger openTime) {
+    public void setOpenTime(long openTime) {
         this.kline.openTime = openTime;
     }
 
-    public BigInteger getOpenTime() {
+    public long getOpenTime() {
         return this.kline.openTime;
     }
 
-    public void setOpenPrice(BigDecimal openPrice) {
+    public void setOpenPrice(long openPrice) {
         this.kline.openPrice = openPrice;
     }
 
-    public BigDecimal getOpenPrice() {
+    public long getOpenPrice() {
         return this.kline.openPrice;
     }
 
-    public void setClosePrice(BigDecimal closePrice) {
+    public void setClosePrice(long closePrice) {
         this.kline.closePrice = closePrice;
     }
 
-    public BigDecimal getClosePrice() {
+    public long getClosePrice() {
         return this.kline.closePrice;
     }
 
-    public void setHighPrice(BigDecimal highPrice) {
+    public void setHighPrice(long highPrice) {
         this.kline.highPrice = highPrice;
     }
 
-    public BigDecimal getHighPrice() {
+    public long getHighPrice() {
         return this.kline.highPrice;
     }
 
-    public void setLowPrice(BigDecimal lowPrice) {
+    public void setLowPrice(long lowPrice) {
         this.kline.lowPrice = lowPrice;
     }
 
-    public BigDecimal getLowPrice() {
+    public long getLowPrice() {
         return this.kline.lowPrice;
     }
 
-    public void setVolume(BigDecimal volume) {
+    public void setVolume(long volume) {
         this.kline.volume = volume;
     }
 
-    public BigDecimal getVolume() {
+    public long getVolume() {
         return this.kline.volume;
     }
 
-    public void setTradeCount(BigInteger tradeCount) {
+    public void setTradeCount(long tradeCount) {
         this.kline.tradeCount = tradeCount;
     }
 
-    public BigInteger getTradeCount() {
+    public long getTradeCount() {
         return this.kline.tradeCount;
     }
 
+    public void setTakerBuyVolume(long takerBuyVolume) {
+        this.kline.takerBuyVolume = takerBuyVolume;
+    }
+
+    public long getTakerBuyVolume() {
+        return this.kline.takerBuyVolume;
+    }
 
     public void setIsKlineClosed(Boolean isKlineClosed) {
         this.kline.isKlineClosed = isKlineClosed;
@@ -1,16 +1,17 @@
 package com.example.binancewebsocket.dto;
 
+import com.example.binancewebsocket.codec.FixedDecimalDeserializer;
+import com.example.binancewebsocket.codegen.GenerateDecoder;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
-
 /**
  * Binance Futures WebSocket 강제 청산 데이터 DTO (Liquidation Order)
  */
 @Data
+@GenerateDecoder // ✅ 컴파일 시 전용 디코더 생성 (BinanceLiquidationOrderDTODecoder)
 @JsonIgnoreProperties(ignoreUnknown = true) // ✅ 불필요한 필드 무시
 public class BinanceLiquidationOrderDTO {
 
@@ -18,12 +19,13 @@ public class BinanceLiquidationOrderDTO {
     private String eventType; // ✅ 이벤트 타입 ("forceOrder")
 
     @JsonProperty("E")
-    private BigInteger eventTime; // ✅ 이벤트 발생 시간 (Unix Timestamp)
+    private long eventTime; // ✅ 이벤트 발생 시간 (Unix Timestamp)
 
     @JsonProperty("o")
     private LiquidationData liquidation = new LiquidationData(); // ✅ 내부 객체로 매핑
 
     @Data
+    @GenerateDecoder
     public static class LiquidationData {
         @JsonProperty("s")
         private String symbol; // ✅ 거래 심볼 (예: BTCUSDT)
@@ -38,24 +40,29 @@ public class BinanceLiquidationOrderDTO {
         private String timeInForce; // ✅ 주문 유효성 (IOC 등)
 
         @JsonProperty("q")
-        private BigDecimal originalQuantity; // ✅ 원래 주문량
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long originalQuantity; // ✅ 원래 주문량
 
         @JsonProperty("p")
-        private BigDecimal price; // ✅ 주문 가격
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long price; // ✅ 주문 가격
 
         @JsonProperty("ap")
-        private BigDecimal averagePrice; // ✅ 체결 평균 가격
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long averagePrice; // ✅ 체결 평균 가격
 
         @JsonProperty("X")
         private String orderStatus; // ✅ 주문 상태 (FILLED 등)
 
         @JsonProperty("l")
-        private BigDecimal lastFilledQuantity; // ✅ 마지막 체결된 수량
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long lastFilledQuantity; // ✅ 마지막 체결된 수량
 
         @JsonProperty("z")
-        private BigDecimal totalFilledQuantity; // ✅ 전체 체결 수량
+        @JsonDeserialize(using = FixedDecimalDeserializer.class)
+        private long totalFilledQuantity; // ✅ 전체 체결 수량
 
         @JsonProperty("T")
-        private BigInteger tradeTime; // ✅ 거래 체결 시간 (Unix Timestamp)
+        private long tradeTime; // ✅ 거래 체결 시간 (Unix Timestamp)
     }
 }
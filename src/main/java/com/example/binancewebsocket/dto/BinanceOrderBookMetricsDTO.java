@@ -0,0 +1,20 @@
+package com.example.binancewebsocket.dto;
+
+import lombok.Data;
+
+/**
+ * 호가 지표 시계열 한 행 (binance_order_book_metrics)
+ */
+@Data
+public class BinanceOrderBookMetricsDTO {
+
+    private String symbol;      // 거래 심볼 (BTCUSDT 등)
+    private long eventTime;     // 스냅샷 시간 (Unix Timestamp)
+    private long bestBid;       // 최우선 매수가 (FixedDecimal)
+    private long bestAsk;       // 최우선 매도가 (FixedDecimal)
+    private double spreadBps;   // 스프레드 (bps)
+    private double microprice;  // 최우선 호가 수량 가중 가격
+    private double imbalance;   // 상위 N 단계 수량 불균형 (-1 ~ 1)
+    private double bidDepth;    // mid ± X bps 안의 매수 수량 합
+    private double askDepth;    // mid ± X bps 안의 매도 수량 합
+}
@@ -0,0 +1,17 @@
+package com.example.binancewebsocket.dto;
+
+import lombok.Data;
+
+/**
+ * 압축 저장된 호가 스냅샷 행 (binance_order_book_snapshots)
+ * levels 는 {@link com.example.binancewebsocket.codec.OrderBookSnapshotCodec} 형식의 BLOB 입니다.
+ */
+@Data
+public class BinanceOrderBookSnapshotDTO {
+
+    private long transactionTime; // 트랜잭션 시간 (Unix Timestamp)
+    private String symbol;        // 거래 심볼 (BTCUSDT 등)
+    private int bidCount;         // 매수 단계 수
+    private int askCount;         // 매도 단계 수
+    private byte[] levels;        // 매수 / 매도 단계 (압축)
+}
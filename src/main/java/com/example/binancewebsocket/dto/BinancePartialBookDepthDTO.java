@@ -1,19 +1,22 @@
 package com.example.binancewebsocket.dto;
 
+import com.example.binancewebsocket.codegen.GenerateDecoder;
 import com.example.binancewebsocket.utils.OrderBookEntryDeserializer;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Binance Futures WebSocket 호가 데이터 DTO (Partial Book Depth)
  */
 @Data
+@GenerateDecoder // ✅ 컴파일 시 전용 디코더 생성 (BinancePartialBookDepthDTODecoder)
 @JsonIgnoreProperties(ignoreUnknown = true) // ✅ 불필요한 필드 무시
 public class BinancePartialBookDepthDTO {
 
@@ -21,22 +24,22 @@ public class BinancePartialBookDepthDTO {
     private String eventType; // 이벤트 타입 ("depthUpdate")
 
     @JsonProperty("E")
-    private BigInteger eventTime; // 이벤트 발생 시간 (Unix Timestamp)
+    private long eventTime; // 이벤트 발생 시간 (Unix Timestamp)
 
     @JsonProperty("T")
-    private BigInteger transactionTime; // 트랜잭션 시간 (Unix Timestamp)
+    private long transactionTime; // 트랜잭션 시간 (Unix Timestamp)
 
     @JsonProperty("s")
     private String symbol; // 거래 심볼 (BTCUSDT 등)
 
     @JsonProperty("U")
-    private BigInteger firstUpdateId; // 이벤트 내 첫 번째 업데이트 ID
+    private long firstUpdateId; // 이벤트 내 첫 번째 업데이트 ID
 
     @JsonProperty("u")
-    private BigInteger finalUpdateId; // 이벤트 내 마지막 업데이트 ID
+    private long finalUpdateId; // 이벤트 내 마지막 업데이트 ID
 
     @JsonProperty("pu")
-    private BigInteger previousUpdateId; // 이전 이벤트의 마지막 업데이트 ID
+    private long previousUpdateId; // 이전 이벤트의 마지막 업데이트 ID
 
     @JsonProperty("b")
     @JsonDeserialize(using = OrderBookEntryDeserializer.class) // ✅ 커스텀 역직렬화 적용
@@ -46,14 +49,69 @@ public class BinancePartialBookDepthDTO {
     @JsonDeserialize(using = OrderBookEntryDeserializer.class) // ✅ 커스텀 역직렬화 적용
     private List<OrderBookEntry> asks; // 매도 주문 목록
 
+    /**
+     * 호가 한 단계 (가격 / 수량은 {@link com.example.binancewebsocket.codec.FixedDecimal} packed long)
+     */
     @Data
     public static class OrderBookEntry {
-        private BigDecimal price; // 매수/매도 가격
-        private BigDecimal quantity; // 매수/매도 수량
+        private long price; // 매수/매도 가격
+        private long quantity; // 매수/매도 수량
 
-        public OrderBookEntry(BigDecimal price, BigDecimal quantity) {
+        public OrderBookEntry(long price, long quantity) {
             this.price = price;
             this.quantity = quantity;
         }
     }
+
+    /**
+     * 재사용 가능한 호가 목록.
+     * clear() 는 크기만 0 으로 되돌리고 OrderBookEntry 인스턴스는 유지하므로,
+     * 같은 목록에 다시 채울 때 항목 객체를 새로 만들지 않습니다. (풀 모드 디코딩용)
+     */
+    public static final class OrderBookEntries extends AbstractList<OrderBookEntry> implements RandomAccess {
+
+        private OrderBookEntry[] entries = new OrderBookEntry[20];
+        private int size;
+
+        /**
+         * 다음 항목을 (재사용 인스턴스로) 추가합니다.
+         */
+        public void add(long price, long quantity) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            OrderBookEntry entry = entries[size];
+            if (entry == null) {
+                entries[size] = new OrderBookEntry(price, quantity);
+            } else {
+                entry.setPrice(price);
+                entry.setQuantity(quantity);
+            }
+            size++;
+        }
+
+        @Override
+        public boolean add(OrderBookEntry entry) {
+            add(entry.getPrice(), entry.getQuantity());
+            return true;
+        }
+
+        @Override
+        public OrderBookEntry get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+            }
+            return entries[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            size = 0;
+        }
+    }
 }
@@ -1,39 +1,45 @@
 package com.example.binancewebsocket.dto;
 
+import com.example.binancewebsocket.codec.FixedDecimalDeserializer;
+import com.example.binancewebsocket.codegen.GenerateDecoder;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
-
 /**
  * Binance Futures WebSocket 거래 데이터 DTO (실시간 체결 정보)
  */
 @Data
+@GenerateDecoder // ✅ 컴파일 시 전용 디코더 생성 (BinanceTradeDTODecoder)
 @JsonIgnoreProperties(ignoreUnknown = true) // ✅ 불필요한 필드 무시
 public class BinanceTradeDTO {
     @JsonProperty("e")
     private String eventType; // 이벤트 타입 ("trade")
 
     @JsonProperty("E")
-    private BigInteger eventTime; // 이벤트 발생 시간 (Unix Timestamp)
+    private long eventTime; // 이벤트 발생 시간 (Unix Timestamp)
 
     @JsonProperty("s")
     private String symbol; // 거래 심볼 (BTCUSDT 등)
 
     @JsonProperty("t")
-    private BigInteger tradeId; // 개별 거래 ID
+    private long tradeId; // 개별 거래 ID
 
     @JsonProperty("p")
-    private BigDecimal price; // 체결 가격
+    @JsonDeserialize(using = FixedDecimalDeserializer.class)
+    private long price; // 체결 가격
 
     @JsonProperty("q")
-    private BigDecimal quantity; // 체결 수량
+    @JsonDeserialize(using = FixedDecimalDeserializer.class)
+    private long quantity; // 체결 수량
 
     @JsonProperty("T")
-    private BigInteger tradeTime; // 거래 체결 시간 (Unix Timestamp)
+    private long tradeTime; // 거래 체결 시간 (Unix Timestamp)
 
     @JsonProperty("m")
     private Boolean buyerMaker; // 매수자가 메이커인지 여부
+
+    @JsonProperty("X")
+    private String orderType; // 체결 종류 (MARKET / LIQUIDATION / INSURANCE_FUND / ADL)
 }
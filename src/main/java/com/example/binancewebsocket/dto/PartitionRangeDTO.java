@@ -0,0 +1,17 @@
+package com.example.binancewebsocket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 생성할 RANGE 파티션 (PARTITION name VALUES LESS THAN (lessThan))
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionRangeDTO {
+
+    private String name;    // 파티션 이름 (p + yyyyMMdd)
+    private long lessThan;  // 상한 (다음 날 00:00 UTC, Unix Timestamp ms)
+}
@@ -0,0 +1,13 @@
+package com.example.binancewebsocket.dto;
+
+import lombok.Data;
+
+/**
+ * 구독 심볼과 스트림 등급 (symbols.symbol, symbols.stream_tier)
+ */
+@Data
+public class SymbolStreamTierDTO {
+
+    private String symbol;      // 거래 심볼 (BTCUSDT 등)
+    private String streamTier;  // 스트림 등급 (binance.stream-profiles.tiers 의 이름, null 이면 기본 등급)
+}
@@ -0,0 +1,17 @@
+package com.example.binancewebsocket.dto;
+
+import lombok.Data;
+
+/**
+ * 테이블의 파티션 정보 (information_schema.PARTITIONS)
+ * 파티션되지 않은 테이블은 partitionName 이 null 인 행 하나입니다.
+ */
+@Data
+public class TablePartitionDTO {
+
+    private String partitionName;        // 파티션 이름 (예: p20250101, p_future)
+    private String partitionMethod;      // RANGE 등
+    private String partitionExpression;  // 파티션 기준 컬럼 (예: trade_time 또는 `trade_time`)
+    private String partitionDescription; // RANGE 상한 (VALUES LESS THAN 값, MAXVALUE)
+    private Long tableRows;              // 대략적인 행 수
+}
@@ -0,0 +1,31 @@
+package com.example.binancewebsocket.journal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 주기마다 대기분 전체를 저장하는 단계의 {@link JournalSink} 확인용 flush 회차.
+ * <p>
+ * - flush 스레드는 flush 마다 대기분을 꺼내기 전에 {@link #begin()}, 저장이 끝나면 {@link #end()} 를 호출합니다. (flush 는 한 번에 하나씩)
+ * - 표식은 시작한 flush 수이며, 그 다음 회차가 끝나면 표식 이전에 받은 행은 모두 처리된 것입니다.
+ */
+public final class FlushSequence {
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+
+    public void begin() {
+        started.incrementAndGet();
+    }
+
+    public void end() {
+        completed.incrementAndGet();
+    }
+
+    public long mark() {
+        return started.get();
+    }
+
+    public boolean acknowledged(long mark) {
+        return completed.get() > mark;
+    }
+}
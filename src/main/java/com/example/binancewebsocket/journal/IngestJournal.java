@@ -0,0 +1,490 @@
+package com.example.binancewebsocket.journal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 파이프라인 하나의 수신 프레임을 기록하는 append-only 저널 (memory-mapped 세그먼트 파일).
+ * <p>
+ * parse 스레드가 원본 프레임을 파싱 전에 기록하고, 저장이 끝난 위치까지 commit 하면
+ * 재시작 시 commit 이후 프레임만 다시 파이프라인에 넣습니다. (프로세스 / DB 장애 시 수집 데이터 유실 방지)
+ * <pre>
+ *   파일   : {dir}/{name}-{시작 위치 20자리}.journal (고정 크기 세그먼트), {dir}/{name}.commit
+ *   레코드 : [int 길이][int crc32(source + 프레임)][int source][UTF-8 프레임]
+ *   위치   : 세그먼트 시작 위치 + 세그먼트 내 offset (레코드 끝 위치를 commit 단위로 사용)
+ * </pre>
+ * - 길이를 마지막에 기록하므로 길이가 0 이면 데이터 끝(또는 다음 세그먼트로 넘어감)이고, crc 가 맞지 않으면 그 위치에서 끝납니다.
+ * - 기록은 mmap 이므로 프로세스가 죽어도 OS 페이지 캐시에 남습니다. OS / 전원 장애까지 대비하려면 fsync(force) 정책을 사용합니다.
+ * <p>
+ * 스레드: append 는 parse 스레드 하나, force 는 fsync 스레드, commit / trim 은 checkpoint 스레드,
+ * open / replay 는 파이프라인이 수신을 시작하기 전에 호출합니다.
+ */
+public final class IngestJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestJournal.class);
+
+    static final int HEADER_SIZE = 12; // 길이 + crc + source
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String COMMIT_SUFFIX = ".commit";
+
+    /**
+     * 재생할 레코드를 받는 콜백
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+        /**
+         * @param position 레코드 끝 위치 (이 레코드까지 저장되면 commit 할 위치)
+         */
+        void accept(String frame, int source, long position);
+    }
+
+    private final String name;
+    private final Path dir;
+    private final int segmentSize;
+    private final boolean forceEveryRecord;
+
+    // --- 세그먼트 (시작 위치 → 파일, 마지막 세그먼트가 기록 중인 세그먼트) ---
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final Queue<MappedByteBuffer> sealed = new ConcurrentLinkedQueue<>(); // 넘어간 뒤 아직 force 하지 않은 세그먼트
+
+    // --- 기록 상태 (parse 스레드 전용, active 는 fsync 스레드도 읽음) ---
+    private volatile MappedByteBuffer active;
+    private long activeBase;
+    private int writeOffset;
+    private final CRC32 crc = new CRC32();
+    private byte[] scratch = new byte[4096]; // [source 4 byte][프레임]
+
+    // --- 위치 ---
+    private final long replayFrom;     // 열 때의 commit 위치
+    private final long recoveredTail;  // 열 때 찾은 마지막 유효 레코드 끝
+    private volatile long writePosition;
+    private volatile long committedPosition;
+
+    // --- 통계 ---
+    private final AtomicLong appendedRecords = new AtomicLong();
+    private final AtomicLong oversized = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong trimmedBytes = new AtomicLong();
+
+    private IngestJournal(String name, Path dir, int segmentSize, boolean forceEveryRecord) throws IOException {
+        if (segmentSize < HEADER_SIZE + 1) {
+            throw new IllegalArgumentException("저널 세그먼트 크기가 너무 작습니다: " + segmentSize);
+        }
+        this.name = name;
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.forceEveryRecord = forceEveryRecord;
+
+        Files.createDirectories(dir);
+        loadSegments();
+        long committed = readCommit();
+        long start = segments.isEmpty() ? Math.max(0, committed) : Math.max(committed, segments.firstKey());
+        this.replayFrom = start;
+        this.committedPosition = start;
+        this.recoveredTail = recover(start);
+        this.writePosition = recoveredTail;
+
+        long base = segments.floorKey(recoveredTail);
+        this.active = map(segments.get(base), FileChannel.MapMode.READ_WRITE);
+        this.activeBase = base;
+        this.writeOffset = (int) (recoveredTail - base);
+        deleteSegmentsBefore(start);
+    }
+
+    /**
+     * 저널을 열고 commit 이후의 마지막 유효 레코드 뒤부터 기록하도록 준비합니다.
+     *
+     * @param forceEveryRecord 레코드마다 force (fsync=every)
+     */
+    public static IngestJournal open(Path dir, String name, int segmentSize, boolean forceEveryRecord) throws IOException {
+        return new IngestJournal(name, dir, segmentSize, forceEveryRecord);
+    }
+
+    /**
+     * ✅ 프레임 기록 (parse 스레드 전용)
+     *
+     * @return 기록 후 저널 끝 위치 (세그먼트보다 큰 프레임은 기록하지 않고 현재 위치 반환)
+     */
+    public long append(String frame, int source) {
+        int length = encode(frame);
+        int recordSize = HEADER_SIZE + length;
+        if (length == 0 || recordSize > segmentSize) {
+            oversized.incrementAndGet();
+            return writePosition;
+        }
+        if (writeOffset + recordSize > segmentSize) {
+            roll();
+        }
+        MappedByteBuffer buffer = active;
+        scratch[0] = (byte) (source >>> 24);
+        scratch[1] = (byte) (source >>> 16);
+        scratch[2] = (byte) (source >>> 8);
+        scratch[3] = (byte) source;
+        crc.reset();
+        crc.update(scratch, 0, 4 + length);
+
+        buffer.put(writeOffset + 8, scratch, 0, 4 + length);
+        buffer.putInt(writeOffset + 4, (int) crc.getValue());
+        buffer.putInt(writeOffset, length); // 마지막에 기록 → 0 이 아니면 완성된 레코드
+        if (forceEveryRecord) {
+            buffer.force(writeOffset, recordSize);
+        }
+        writeOffset += recordSize;
+        long position = activeBase + writeOffset;
+        writePosition = position;
+        appendedRecords.incrementAndGet();
+        return position;
+    }
+
+    /**
+     * 프레임을 scratch[4..] 에 UTF-8 로 기록하고 길이를 반환합니다. (ASCII 는 할당 없이 복사)
+     */
+    private int encode(String frame) {
+        int length = frame.length();
+        ensureScratch(4 + length);
+        for (int i = 0; i < length; i++) {
+            char c = frame.charAt(i);
+            if (c >= 0x80) {
+                byte[] bytes = frame.getBytes(StandardCharsets.UTF_8);
+                ensureScratch(4 + bytes.length);
+                System.arraycopy(bytes, 0, scratch, 4, bytes.length);
+                return bytes.length;
+            }
+            scratch[4 + i] = (byte) c;
+        }
+        return length;
+    }
+
+    private void ensureScratch(int size) {
+        if (scratch.length < size) {
+            scratch = new byte[Math.max(size, scratch.length * 2)];
+        }
+    }
+
+    private void roll() {
+        long base = activeBase + segmentSize;
+        try {
+            Path path = segmentPath(base);
+            MappedByteBuffer next = map(path, FileChannel.MapMode.READ_WRITE);
+            segments.put(base, path);
+            sealed.add(active);
+            active = next;
+            activeBase = base;
+            writeOffset = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("[" + name + "] 저널 세그먼트 생성 실패: " + base, e);
+        }
+    }
+
+    /**
+     * 기록된 내용을 디스크에 반영합니다. (fsync 스레드)
+     */
+    public void force() {
+        MappedByteBuffer buffer;
+        while ((buffer = sealed.poll()) != null) {
+            buffer.force();
+        }
+        active.force();
+    }
+
+    /**
+     * ✅ commit 이후 레코드를 순서대로 재생합니다. (파이프라인이 수신을 시작하기 전, 열 때 찾은 끝 위치까지)
+     *
+     * @return 재생한 레코드 수
+     */
+    public long replay(RecordConsumer consumer) throws IOException {
+        long count = 0;
+        long position = replayFrom;
+        while (position < recoveredTail) {
+            long base = segments.floorKey(position);
+            ByteBuffer buffer = map(segments.get(base), FileChannel.MapMode.READ_ONLY);
+            int offset = (int) (position - base);
+            int length;
+            while (base + offset < recoveredTail && (length = readRecord(buffer, offset)) > 0) {
+                byte[] frame = new byte[length];
+                buffer.get(offset + HEADER_SIZE, frame);
+                int source = buffer.getInt(offset + 8);
+                offset += HEADER_SIZE + length;
+                consumer.accept(new String(frame, StandardCharsets.UTF_8), source, base + offset);
+                count++;
+            }
+            if (base + offset >= recoveredTail) {
+                break;
+            }
+            Long next = segments.higherKey(base);
+            if (next == null) {
+                break;
+            }
+            position = next;
+        }
+        replayed.addAndGet(count);
+        return count;
+    }
+
+    /**
+     * ✅ position 까지 저장되었음을 기록하고, 전부 commit 된 세그먼트를 삭제합니다. (checkpoint 스레드)
+     */
+    public void commit(long position) throws IOException {
+        if (position <= committedPosition) {
+            return;
+        }
+        writeCommit(position);
+        committedPosition = position;
+        deleteSegmentsBefore(position);
+    }
+
+    /**
+     * 세그먼트가 maxSegments 개를 넘으면 오래된 세그먼트를 commit 하지 않은 채로 버립니다. (디스크 사용량 상한)
+     *
+     * @return 버린 위치 범위 (byte, 버리지 않았으면 0)
+     */
+    public long trim(int maxSegments) throws IOException {
+        if (maxSegments < 1 || segments.size() <= maxSegments) {
+            return 0;
+        }
+        long keepFrom = segments.descendingKeySet().stream().skip(maxSegments - 1L).findFirst().orElseThrow();
+        long trimmed = Math.max(0, keepFrom - committedPosition);
+        commit(keepFrom);
+        trimmedBytes.addAndGet(trimmed);
+        return trimmed;
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    // --- 열기 / 복구 ---
+
+    private void loadSegments() throws IOException {
+        String prefix = name + "-";
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(path -> {
+                String file = path.getFileName().toString();
+                if (!file.startsWith(prefix) || !file.endsWith(SEGMENT_SUFFIX)) {
+                    return;
+                }
+                String digits = file.substring(prefix.length(), file.length() - SEGMENT_SUFFIX.length());
+                if (!digits.isEmpty() && digits.chars().allMatch(Character::isDigit)) {
+                    segments.put(Long.parseLong(digits), path);
+                }
+            });
+        }
+    }
+
+    /**
+     * start 부터 유효한 레코드를 따라가 끝 위치를 찾습니다.
+     * 손상된 레코드에서 멈추면 그 뒤 내용을 지우고, 이후 세그먼트는 삭제합니다. (다음 기록이 오래된 내용과 섞이지 않도록)
+     */
+    private long recover(long start) throws IOException {
+        Long floor = segments.floorKey(start);
+        if (floor == null || start >= floor + segmentSize) {
+            // 남은 세그먼트가 모두 commit 됨 → start 에서 새 세그먼트 시작
+            deleteSegmentsFrom(Long.MIN_VALUE);
+            segments.put(start, segmentPath(start));
+            return start;
+        }
+
+        long base = floor;
+        int offset = (int) (start - base);
+        while (true) {
+            MappedByteBuffer buffer = map(segments.get(base), FileChannel.MapMode.READ_WRITE);
+            int length;
+            while ((length = readRecord(buffer, offset)) > 0) {
+                offset += HEADER_SIZE + length;
+            }
+            Long next = segments.higherKey(base);
+            if (length == 0 && next != null && next == base + segmentSize) {
+                base = next; // 다음 세그먼트로 넘어간 지점
+                offset = 0;
+                continue;
+            }
+            if (length < 0 || next != null) {
+                logger.warn("⚠️ [{}] 저널 손상 또는 끊긴 위치 {} 이후를 버립니다", name, base + offset);
+                for (int i = offset; i < buffer.limit(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.force();
+                deleteSegmentsFrom(base + 1);
+            }
+            return base + offset;
+        }
+    }
+
+    /**
+     * offset 의 레코드 길이를 반환합니다. (0 = 데이터 끝, -1 = 손상)
+     */
+    private int readRecord(ByteBuffer buffer, int offset) {
+        if (offset + HEADER_SIZE > buffer.limit()) {
+            return 0;
+        }
+        int length = buffer.getInt(offset);
+        if (length == 0) {
+            return 0;
+        }
+        if (length < 0 || length > buffer.limit() - offset - HEADER_SIZE) {
+            return -1;
+        }
+        CRC32 checksum = new CRC32(); // 열기 / 재생 전용 (append 의 crc 는 parse 스레드 전용)
+        checksum.update(buffer.slice(offset + 8, 4 + length));
+        return (int) checksum.getValue() == buffer.getInt(offset + 4) ? length : -1;
+    }
+
+    private MappedByteBuffer map(Path path, FileChannel.MapMode mode) throws IOException {
+        if (mode == FileChannel.MapMode.READ_ONLY) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(mode, 0, Math.min(segmentSize, channel.size()));
+            }
+        }
+        // 파일이 없거나 작으면 세그먼트 크기로 늘어남 (0 으로 채워짐)
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, segmentSize);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return dir.resolve(String.format("%s-%020d%s", name, base, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * 전부 position 이전인 세그먼트를 삭제합니다. (기록 중인 마지막 세그먼트는 유지)
+     */
+    private void deleteSegmentsBefore(long position) throws IOException {
+        long last = segments.lastKey();
+        for (Map.Entry<Long, Path> entry : segments.headMap(last).entrySet()) {
+            if (entry.getKey() + segmentSize > position) {
+                break;
+            }
+            Files.deleteIfExists(entry.getValue());
+            segments.remove(entry.getKey());
+        }
+    }
+
+    private void deleteSegmentsFrom(long base) throws IOException {
+        for (Map.Entry<Long, Path> entry : segments.tailMap(base).entrySet()) {
+            Files.deleteIfExists(entry.getValue());
+            segments.remove(entry.getKey());
+        }
+    }
+
+    // --- commit 파일: [long 위치][long crc32] ---
+
+    private long readCommit() throws IOException {
+        Path path = dir.resolve(name + COMMIT_SUFFIX);
+        if (!Files.exists(path)) {
+            return -1;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() == 16) {
+            long position = buffer.getLong();
+            if (buffer.getLong() == checksum(position)) {
+                return position;
+            }
+        }
+        logger.warn("⚠️ [{}] 저널 commit 파일이 손상되어 남아있는 레코드를 모두 재생합니다: {}", name, path);
+        return -1;
+    }
+
+    private void writeCommit(long position) throws IOException {
+        Path path = dir.resolve(name + COMMIT_SUFFIX);
+        Path temp = dir.resolve(name + COMMIT_SUFFIX + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(16).putLong(position).putLong(checksum(position)).flip();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long checksum(long position) {
+        CRC32 checksum = new CRC32();
+        checksum.update(ByteBuffer.allocate(8).putLong(position).flip());
+        return checksum.getValue();
+    }
+
+    // --- 조회 / 지표 ---
+
+    public String getName() {
+        return name;
+    }
+
+    public long getWritePosition() {
+        return writePosition;
+    }
+
+    public long getCommittedPosition() {
+        return committedPosition;
+    }
+
+    public long getUncommittedBytes() {
+        return writePosition - committedPosition;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getAppendedRecords() {
+        return appendedRecords.get();
+    }
+
+    public long getReplayed() {
+        return replayed.get();
+    }
+
+    public void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("binance.journal.records", appendedRecords, AtomicLong::get)
+                .tag("pipeline", name)
+                .description("저널에 기록한 프레임 수")
+                .register(registry);
+        FunctionCounter.builder("binance.journal.oversized", oversized, AtomicLong::get)
+                .tag("pipeline", name)
+                .description("세그먼트보다 커서 기록하지 못한 프레임 수")
+                .register(registry);
+        FunctionCounter.builder("binance.journal.replayed", replayed, AtomicLong::get)
+                .tag("pipeline", name)
+                .description("시작 시 재생한 commit 이후 프레임 수")
+                .register(registry);
+        FunctionCounter.builder("binance.journal.trimmed.bytes", trimmedBytes, AtomicLong::get)
+                .tag("pipeline", name)
+                .description("세그먼트 수 상한으로 commit 없이 버린 범위 (byte)")
+                .register(registry);
+        Gauge.builder("binance.journal.uncommitted.bytes", this, IngestJournal::getUncommittedBytes)
+                .tag("pipeline", name)
+                .description("아직 저장 완료(commit)되지 않은 저널 범위 (byte)")
+                .register(registry);
+        Gauge.builder("binance.journal.segments", this, IngestJournal::getSegmentCount)
+                .tag("pipeline", name)
+                .register(registry);
+    }
+}
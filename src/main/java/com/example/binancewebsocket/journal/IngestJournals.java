@@ -0,0 +1,239 @@
+package com.example.binancewebsocket.journal;
+
+import com.example.binancewebsocket.service.GroupCommitWriter;
+import com.example.binancewebsocket.service.GroupCommitWriters;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 파이프라인별 {@link IngestJournal} 생성 / fsync / checkpoint 관리.
+ * <p>
+ * - fsync: none (OS 에 맡김, 프로세스 장애만 대비) | interval (fsync-interval-ms 마다 force) | every (레코드마다 force, 느림)
+ * - checkpoint: 주기마다 파이프라인의 persist 완료 위치를 읽은 뒤 저장 단계({@link JournalSink}: group commit writer, conflation 버퍼,
+ *   집계 캔들 / 호가 지표 / 생성 aggTrade / 최우선 호가 저장)별 표식을 함께 기록해 두고,
+ *   모든 단계가 표식까지 저장을 확인한 기록 중 가장 최근 위치를 commit 합니다. (단계별 low-water mark, 고정 지연 없음)
+ *   persist 위치를 먼저 읽으므로 그 이전 이벤트가 단계에 넘긴 행은 모두 표식 안에 포함됩니다.
+ * - 저장 실패 / 버림으로 처리를 끝낸 행도 확인으로 보므로 commit 이 멈추지 않습니다. (유실은 각 단계의 지표로 집계)
+ * - 확인이 늦어지는 동안의 디스크 사용량은 파이프라인별 max-segments 로 제한하며, 넘으면 가장 오래된 세그먼트를 버립니다.
+ * - group commit 을 쓰지 않는 저장은 persist 중에 끝나므로 persist 완료 위치로 확인됩니다.
+ * - ⚠️ parse 스테이지에서 진행 중인 상태(진행 중인 캔들 / aggTrade 묶음 / 로컬 호가창)는 확인 대상이 아닙니다.
+ *   재생은 commit 이후부터이므로 그 상태는 구간 중간부터 다시 만들어집니다. (집계 캔들은 partial 로 저장하지 않음)
+ */
+@Component
+public class IngestJournals {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestJournals.class);
+
+    // --- 의존성 ---
+    private final GroupCommitWriters groupCommitWriters;
+    private final List<JournalSink> sinks; // group commit writer 외 저장 단계
+    private final MeterRegistry meterRegistry;
+
+    // --- 설정값 ---
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentSize;
+    private final String fsync;
+    private final int maxSegments;
+
+    // --- 내부 상태 ---
+    private final List<Tracked> tracked = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+
+    public IngestJournals(GroupCommitWriters groupCommitWriters,
+                          List<JournalSink> sinks,
+                          MeterRegistry meterRegistry,
+                          @Value("${binance.journal.enabled:false}") boolean enabled,
+                          @Value("${binance.journal.dir:journal}") String dir,
+                          @Value("${binance.journal.segment-size-mb:64}") int segmentSizeMb,
+                          @Value("${binance.journal.fsync:interval}") String fsync,
+                          @Value("${binance.journal.fsync-interval-ms:1000}") long fsyncIntervalMs,
+                          @Value("${binance.journal.checkpoint-interval-ms:1000}") long checkpointIntervalMs,
+                          @Value("${binance.journal.max-segments:32}") int maxSegments) {
+        this.groupCommitWriters = groupCommitWriters;
+        this.sinks = List.copyOf(sinks);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, Math.max(1, segmentSizeMb) * 1024L * 1024L);
+        this.fsync = fsync.trim().toLowerCase(Locale.ROOT);
+        if (!List.of("none", "interval", "every").contains(this.fsync)) {
+            throw new IllegalArgumentException("binance.journal.fsync 는 none / interval / every 중 하나여야 합니다: " + fsync);
+        }
+        this.maxSegments = maxSegments;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "binance-journal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            long interval = Math.max(10, checkpointIntervalMs);
+            scheduler.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.MILLISECONDS);
+            if (this.fsync.equals("interval")) {
+                long fsyncInterval = Math.max(10, fsyncIntervalMs);
+                scheduler.scheduleWithFixedDelay(this::force, fsyncInterval, fsyncInterval, TimeUnit.MILLISECONDS);
+            }
+            logger.info("✅ 수신 저널 사용 (dir={}, 세그먼트 {}MB, fsync={}, 저장 확인 단계 {}개 + group commit)",
+                    this.dir.toAbsolutePath(), segmentSizeMb, this.fsync, this.sinks.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 파이프라인의 저널을 엽니다. (사용하지 않거나 열 수 없으면 null → 저널 없이 수집)
+     */
+    public IngestJournal open(String name) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            IngestJournal journal = IngestJournal.open(dir, name, segmentSize, fsync.equals("every"));
+            journal.registerMetrics(meterRegistry);
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            logger.error("❌ [{}] 저널을 열 수 없어 저널 없이 수집합니다: {}", name, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 재생을 마친 저널의 checkpoint 를 시작합니다.
+     *
+     * @param persistedPosition 파이프라인의 persist 완료 위치 (IngestPipeline::getPersistedJournalPosition)
+     */
+    public void track(IngestJournal journal, LongSupplier persistedPosition) {
+        tracked.add(new Tracked(journal, persistedPosition));
+    }
+
+    private void checkpoint() {
+        try {
+            // persist 위치를 먼저 읽어야 그 이전 이벤트가 저장 단계에 넘긴 행이 표식에 포함됨
+            long[] positions = new long[tracked.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = tracked.get(i).persistedPosition.getAsLong();
+            }
+            List<JournalSink> all = sinks();
+            long[] marks = new long[all.size()];
+            for (int i = 0; i < marks.length; i++) {
+                marks[i] = all.get(i).mark();
+            }
+            for (int i = 0; i < positions.length; i++) {
+                tracked.get(i).checkpoint(positions[i], marks, all);
+            }
+        } catch (Exception e) {
+            logger.error("❌ 저널 checkpoint 오류: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 저장 단계 목록 (고정 단계 뒤에 생성 순서대로 writer, 추가만 되므로 번호가 바뀌지 않음)
+     */
+    private List<JournalSink> sinks() {
+        List<GroupCommitWriter<?>> writers = groupCommitWriters.getWriters();
+        List<JournalSink> all = new ArrayList<>(sinks.size() + writers.size());
+        all.addAll(sinks);
+        all.addAll(writers);
+        return all;
+    }
+
+    private void force() {
+        for (Tracked entry : tracked) {
+            try {
+                entry.journal.force();
+            } catch (Exception e) {
+                logger.error("❌ [{}] 저널 fsync 오류: {}", entry.journal.getName(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!enabled) {
+            return;
+        }
+        checkpoint();
+        for (Tracked entry : tracked) {
+            entry.journal.close();
+            logger.info("✅ [{}] 저널 종료 (commit 위치 {}, 미commit {} byte)",
+                    entry.journal.getName(), entry.journal.getCommittedPosition(), entry.journal.getUncommittedBytes());
+        }
+    }
+
+    /**
+     * checkpoint 시점의 persist 위치 + 저장 단계별 표식
+     */
+    private record Candidate(long position, long[] marks) {
+    }
+
+    private final class Tracked {
+
+        private final IngestJournal journal;
+        private final LongSupplier persistedPosition;
+        private final ArrayDeque<Candidate> candidates = new ArrayDeque<>(); // checkpoint 스레드 전용
+
+        private Tracked(IngestJournal journal, LongSupplier persistedPosition) {
+            this.journal = journal;
+            this.persistedPosition = persistedPosition;
+        }
+
+        private void checkpoint(long position, long[] marks, List<JournalSink> sinks) throws IOException {
+            Candidate last = candidates.peekLast();
+            if (position > journal.getCommittedPosition() && (last == null || position > last.position())) {
+                candidates.addLast(new Candidate(position, marks));
+            }
+
+            long commitTo = -1;
+            Candidate head;
+            while ((head = candidates.peekFirst()) != null && acknowledged(head.marks(), sinks)) {
+                commitTo = head.position();
+                candidates.pollFirst();
+            }
+            if (commitTo > 0) {
+                journal.commit(commitTo);
+            }
+
+            long trimmed = journal.trim(maxSegments);
+            if (trimmed > 0) {
+                logger.warn("⚠️ [{}] 저널 세그먼트가 {}개를 넘어 commit 되지 않은 {} byte 를 버렸습니다",
+                        journal.getName(), maxSegments, trimmed);
+            }
+        }
+
+        /**
+         * 기록 시점의 표식까지 모든 단계가 확인했는지 (그 이후 생긴 writer 는 확인한 것으로 간주)
+         */
+        private boolean acknowledged(long[] marks, List<JournalSink> sinks) {
+            for (int i = 0; i < marks.length; i++) {
+                if (!sinks.get(i).acknowledged(marks[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
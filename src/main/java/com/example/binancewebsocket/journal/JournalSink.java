@@ -0,0 +1,21 @@
+package com.example.binancewebsocket.journal;
+
+/**
+ * 저널 commit 전에 저장 완료를 확인해야 하는 저장 단계 (group commit writer, conflation 버퍼, 주기 저장 큐 등).
+ * <p>
+ * {@link IngestJournals} 는 checkpoint 마다 파이프라인의 persist 완료 위치를 읽은 뒤 모든 단계의 {@link #mark()} 를 기록하고,
+ * 모든 단계가 그 표식까지 확인({@link #acknowledged})하면 그 위치를 commit 합니다. (단계별 low-water mark)
+ * 실패 / 버림으로 처리를 끝낸 행도 확인으로 봅니다. (재생해도 같은 오류이므로 commit 을 막지 않고 지표로만 집계)
+ */
+public interface JournalSink {
+
+    /**
+     * 지금까지 받은 행의 표식 (checkpoint 스레드에서 호출)
+     */
+    long mark();
+
+    /**
+     * 표식 이전에 받은 행을 모두 저장(또는 실패 / 버림으로 처리)했는지
+     */
+    boolean acknowledged(long mark);
+}
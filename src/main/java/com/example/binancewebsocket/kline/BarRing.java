@@ -0,0 +1,145 @@
+package com.example.binancewebsocket.kline;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+
+/**
+ * 심볼 하나의 시간대별 캔들 링.
+ * <p>
+ * - 모든 시간대의 캔들을 long[] 하나에 저장합니다. (시간대마다 capacity 칸, 칸마다 8개 필드, 객체 없음)
+ * <pre>
+ *   bars[(timeframe × capacity + slot) × 8 + field]
+ *   field : openTime | open | high | low | close | volume | takerBuyVolume | tradeCount
+ * </pre>
+ * - 시간대마다 head 칸이 진행 중인 캔들이고, 그 앞 칸들이 최근 종료 캔들입니다. (가득 차면 가장 오래된 캔들을 덮어씀)
+ * - 진행 중인 캔들이 구간의 체결 일부만 담고 있으면(첫 캔들, 체결 번호가 끊긴 뒤) partial 로 표시합니다. (종료해도 저장하지 않음)
+ * - 가격 / 수량은 {@link FixedDecimal} packed long 입니다.
+ * - 파이프라인(샤드)의 parse 스레드 하나만 기록 / 조회하므로 동기화하지 않습니다.
+ */
+public final class BarRing {
+
+    public static final int OPEN_TIME = 0;
+    public static final int OPEN = 1;
+    public static final int HIGH = 2;
+    public static final int LOW = 3;
+    public static final int CLOSE = 4;
+    public static final int VOLUME = 5;
+    public static final int TAKER_BUY_VOLUME = 6;
+    public static final int TRADE_COUNT = 7;
+
+    private static final int STRIDE = 8;
+
+    private final String symbol;
+    private final int capacity;
+    private final long[] bars;
+    private final int[] head;     // 시간대별 진행 중인 캔들 칸
+    private final long[] opened;  // 시간대별 지금까지 연 캔들 수
+    private final boolean[] partial; // 시간대별 진행 중인 캔들이 일부 체결만 담고 있는지
+
+    // 마지막으로 반영한 체결 (중복 / 역순 / 연속 판별용)
+    long lastAggTradeId = -1;
+    long lastTradeId = -1;
+    long lastTradeTime = Long.MIN_VALUE;
+
+    public BarRing(String symbol, int timeframes, int capacity) {
+        if (timeframes <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("timeframes / capacity 는 1 이상이어야 합니다.");
+        }
+        this.symbol = symbol;
+        this.capacity = capacity;
+        this.bars = new long[timeframes * capacity * STRIDE];
+        this.head = new int[timeframes];
+        this.opened = new long[timeframes];
+        this.partial = new boolean[timeframes];
+    }
+
+    /**
+     * 새 캔들을 엽니다. (시가 = 고가 = 저가 = 종가 = price, 거래량 0)
+     *
+     * @param partial 구간 시작 이후의 체결을 놓쳤을 수 있는지
+     */
+    void open(int timeframe, long openTime, long price, boolean partial) {
+        if (opened[timeframe] > 0) {
+            head[timeframe] = (head[timeframe] + 1) % capacity;
+        }
+        opened[timeframe]++;
+        this.partial[timeframe] = partial;
+        int base = base(timeframe, head[timeframe]);
+        bars[base + OPEN_TIME] = openTime;
+        bars[base + OPEN] = price;
+        bars[base + HIGH] = price;
+        bars[base + LOW] = price;
+        bars[base + CLOSE] = price;
+        bars[base + VOLUME] = FixedDecimal.ZERO;
+        bars[base + TAKER_BUY_VOLUME] = FixedDecimal.ZERO;
+        bars[base + TRADE_COUNT] = 0;
+    }
+
+    /**
+     * 진행 중인 캔들에 체결을 반영합니다.
+     */
+    void add(int timeframe, long price, long quantity, long tradeCount, boolean takerBuy) {
+        int base = base(timeframe, head[timeframe]);
+        if (FixedDecimal.compare(price, bars[base + HIGH]) > 0) {
+            bars[base + HIGH] = price;
+        }
+        if (FixedDecimal.compare(price, bars[base + LOW]) < 0) {
+            bars[base + LOW] = price;
+        }
+        bars[base + CLOSE] = price;
+        bars[base + VOLUME] = FixedDecimal.add(bars[base + VOLUME], quantity);
+        if (takerBuy) {
+            bars[base + TAKER_BUY_VOLUME] = FixedDecimal.add(bars[base + TAKER_BUY_VOLUME], quantity);
+        }
+        bars[base + TRADE_COUNT] += tradeCount;
+    }
+
+    /**
+     * 진행 중인 캔들이 구간의 체결을 놓쳤을 수 있음을 표시합니다.
+     */
+    void markPartial(int timeframe) {
+        partial[timeframe] = true;
+    }
+
+    /**
+     * 진행 중인 캔들이 구간의 체결 일부만 담고 있는지 (종료해도 저장하지 않음)
+     */
+    public boolean isPartial(int timeframe) {
+        return partial[timeframe];
+    }
+
+    /**
+     * 캔들 필드 조회
+     *
+     * @param age 0 이면 진행 중인 캔들, 1 이면 직전 종료 캔들 ... ({@link #size(int)} 미만)
+     */
+    public long get(int timeframe, int age, int field) {
+        if (age < 0 || age >= size(timeframe)) {
+            throw new IndexOutOfBoundsException("age " + age + " (size " + size(timeframe) + ")");
+        }
+        int slot = Math.floorMod(head[timeframe] - age, capacity);
+        return bars[base(timeframe, slot) + field];
+    }
+
+    /**
+     * 링에 남아 있는 캔들 수 (진행 중인 캔들 포함)
+     */
+    public int size(int timeframe) {
+        return (int) Math.min(opened[timeframe], capacity);
+    }
+
+    public boolean isEmpty(int timeframe) {
+        return opened[timeframe] == 0;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private int base(int timeframe, int slot) {
+        return (timeframe * capacity + slot) * STRIDE;
+    }
+}
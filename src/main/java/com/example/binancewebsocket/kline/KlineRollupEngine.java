@@ -0,0 +1,235 @@
+package com.example.binancewebsocket.kline;
+
+import com.example.binancewebsocket.dto.BinanceAggTradeDTO;
+import com.example.binancewebsocket.dto.BinanceKlineDTO;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestFilter;
+import com.example.binancewebsocket.stream.SequenceGapTracker;
+import com.example.binancewebsocket.stream.StreamKey;
+import com.example.binancewebsocket.stream.StreamType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * parse 스테이지에서 {@code <symbol>@aggTrade} 체결로 여러 시간대(1m / 5m / 15m / 1h / 4h / 1d 등)의 캔들을 직접 집계하는 필터.
+ * <p>
+ * - 파이프라인(샤드)마다 하나씩 만들어지며, 심볼별 {@link BarRing} 은 StreamKey.id 로 인덱싱한 배열에 둡니다.
+ * - 체결 하나마다 시간대별 진행 중인 캔들에 OHLC / 거래량 / 거래 횟수(l - f + 1) / 테이커 매수 거래량(m == false)을 더합니다.
+ * - 체결 시간이 캔들 경계를 넘으면 진행 중인 캔들을 종료하여 {@link KlineSink} 에 넘깁니다.
+ *   체결이 없던 구간은 직전 종가로 채운 빈 캔들(거래량 0)을 최대 maxGapBars 개까지 함께 넘깁니다.
+ *   ⚠️ 빈 캔들은 체결 번호가 이어질 때만 만듭니다. (aggTradeId + 1 또는 firstTradeId = 직전 lastTradeId + 1)
+ *      번호가 끊기면(재연결 / 이동 / 누락) 체결이 없었는지 알 수 없으므로 그 구간은 건너뛴 캔들로만 셉니다.
+ * - 구간 중간부터 집계한 캔들(시작 / 재연결 / 심볼 추가 후 첫 캔들, 번호가 끊긴 구간의 캔들)은 partial 로 보고 넘기지 않습니다.
+ *   (ON DUPLICATE KEY UPDATE 로 이미 저장된 완전한 캔들을 덮어쓰지 않도록)
+ *   ⚠️ 캔들 종료는 다음 구간의 첫 체결이 도착할 때 확정됩니다. (체결이 뜸한 심볼은 종료가 늦어질 수 있음)
+ * - 캔들 경계는 UTC epoch 기준이며 Binance kline 과 같습니다. (1d = UTC 00:00 시작)
+ * - 이미 반영한 aggTradeId / 체결 시간보다 이전 체결은 중복 / 역순으로 보고 집계하지 않습니다.
+ * - 이벤트를 거르지 않으므로 항상 true 를 반환합니다. (aggTrade 자체 저장은 그대로)
+ *   이중화 사용 시 {@link com.example.binancewebsocket.stream.ReplicaArbiter} 뒤에 연결합니다.
+ */
+public final class KlineRollupEngine implements IngestFilter {
+
+    private static final int INITIAL_STREAMS = 256;
+
+    /**
+     * 종료된 캔들을 받는 싱크 (구현: BinanceKlineRollupService)
+     */
+    public interface KlineSink {
+        /**
+         * parse 스레드에서 호출되므로 즉시 반환해야 합니다. (bar 는 새로 만든 객체이므로 보관해도 됨)
+         */
+        void onClosedBar(BinanceKlineDTO bar);
+    }
+
+    private final KlineSink sink;
+    private final String[] intervals;
+    private final long[] intervalMs;
+    private final int ringSize;
+    private final int maxGapBars;
+
+    // --- 스트림별 상태 (StreamKey.id 인덱스, parse 스레드 전용) ---
+    private BarRing[] rings = new BarRing[INITIAL_STREAMS];
+
+    // --- 통계 ---
+    private final AtomicLong trades = new AtomicLong();
+    private final AtomicLong closedBars = new AtomicLong();
+    private final AtomicLong emptyBars = new AtomicLong();
+    private final AtomicLong skippedBars = new AtomicLong();
+    private final AtomicLong partialBars = new AtomicLong();
+    private final AtomicLong outOfOrder = new AtomicLong();
+
+    /**
+     * @param intervals  집계할 간격 (예: ["1m", "5m", "1h"], 분 / 시간 / 일 단위만)
+     * @param ringSize   시간대별로 보관할 캔들 수 (진행 중인 캔들 포함)
+     * @param maxGapBars 체결이 없던 구간을 채울 빈 캔들 최대 수 (넘는 구간은 건너뜀, 체결 번호가 이어질 때만)
+     */
+    public KlineRollupEngine(KlineSink sink, List<String> intervals, int ringSize, int maxGapBars) {
+        if (intervals.isEmpty()) {
+            throw new IllegalArgumentException("집계할 캔들 간격이 없습니다.");
+        }
+        this.sink = sink;
+        this.intervals = intervals.toArray(String[]::new);
+        this.intervalMs = new long[this.intervals.length];
+        for (int i = 0; i < this.intervals.length; i++) {
+            String interval = this.intervals[i];
+            long millis = SequenceGapTracker.intervalMillis(interval);
+            if (millis <= 0 || interval.endsWith("w")) {
+                throw new IllegalArgumentException("집계할 수 없는 캔들 간격: " + interval);
+            }
+            intervalMs[i] = millis;
+        }
+        this.ringSize = Math.max(1, ringSize);
+        this.maxGapBars = Math.max(0, maxGapBars);
+    }
+
+    @Override
+    public boolean accept(IngestEvent event) {
+        StreamKey key = event.getStreamKey();
+        if (key == null || key.type() != StreamType.AGG_TRADE || key.id() < 0) {
+            return true;
+        }
+        onAggTrade(key, (BinanceAggTradeDTO) event.getPayload());
+        return true;
+    }
+
+    /**
+     * 체결 하나를 집계합니다. (parse 스레드 전용)
+     * {@link com.example.binancewebsocket.trade.AggTradeDeriver} 가 @trade 로 만든 aggTrade 도 이 메서드로 넘깁니다. (key 는 trade 스트림)
+     */
+    public void onAggTrade(StreamKey key, BinanceAggTradeDTO trade) {
+        int id = key.id();
+        if (id >= rings.length) {
+            rings = Arrays.copyOf(rings, Math.max(rings.length * 2, id + 1));
+        }
+        BarRing ring = rings[id];
+        if (ring == null) {
+            ring = new BarRing(key.symbol(), intervals.length, ringSize);
+            rings[id] = ring;
+        }
+        long time = trade.getTradeTime();
+        if (trade.getAggTradeId() <= ring.lastAggTradeId || time < ring.lastTradeTime) {
+            outOfOrder.lazySet(outOfOrder.get() + 1);
+            return;
+        }
+        // 첫 체결이거나 번호가 끊기면 그 사이 체결을 놓쳤을 수 있음
+        boolean contiguous = ring.lastAggTradeId >= 0
+                && (trade.getAggTradeId() == ring.lastAggTradeId + 1 || trade.getFirstTradeId() == ring.lastTradeId + 1);
+        ring.lastAggTradeId = trade.getAggTradeId();
+        ring.lastTradeId = trade.getLastTradeId();
+        ring.lastTradeTime = time;
+
+        long price = trade.getPrice();
+        long quantity = trade.getQuantity();
+        long tradeCount = Math.max(1, trade.getLastTradeId() - trade.getFirstTradeId() + 1);
+        boolean takerBuy = Boolean.FALSE.equals(trade.getBuyerMaker()); // 매수자가 테이커
+        for (int tf = 0; tf < intervals.length; tf++) {
+            long openTime = time - Math.floorMod(time, intervalMs[tf]);
+            if (ring.isEmpty(tf)) {
+                ring.open(tf, openTime, price, true); // 구간 중간부터 시작
+            } else {
+                if (!contiguous) {
+                    ring.markPartial(tf); // 놓친 체결은 진행 중인 캔들 이후 어딘가에 있음
+                }
+                long current = ring.get(tf, 0, BarRing.OPEN_TIME);
+                if (openTime > current) {
+                    roll(ring, tf, current, openTime, contiguous);
+                    ring.open(tf, openTime, price, !contiguous);
+                }
+            }
+            ring.add(tf, price, quantity, tradeCount, takerBuy);
+        }
+        trades.lazySet(trades.get() + 1);
+    }
+
+    /**
+     * 진행 중인 캔들을 종료하고, 다음 캔들 전까지 비어 있는 구간을 빈 캔들로 채웁니다.
+     * partial 캔들은 넘기지 않으며, 체결 번호가 끊긴 구간은 채우지 않고 건너뜁니다.
+     */
+    private void roll(BarRing ring, int tf, long current, long nextOpenTime, boolean contiguous) {
+        long millis = intervalMs[tf];
+        if (ring.isPartial(tf)) {
+            partialBars.lazySet(partialBars.get() + 1);
+        } else {
+            emit(ring, tf);
+            closedBars.lazySet(closedBars.get() + 1);
+        }
+
+        long missing = (nextOpenTime - current) / millis - 1;
+        long fill = contiguous ? Math.min(missing, maxGapBars) : 0;
+        for (long k = 1; k <= fill; k++) {
+            ring.open(tf, current + k * millis, ring.get(tf, 0, BarRing.CLOSE), false);
+            emit(ring, tf);
+        }
+        if (fill > 0) {
+            emptyBars.lazySet(emptyBars.get() + fill);
+        }
+        if (missing > fill) {
+            skippedBars.lazySet(skippedBars.get() + (missing - fill));
+        }
+    }
+
+    private void emit(BarRing ring, int tf) {
+        long openTime = ring.get(tf, 0, BarRing.OPEN_TIME);
+        BinanceKlineDTO bar = new BinanceKlineDTO();
+        bar.setEventType("kline");
+        bar.setEventTime(ring.lastTradeTime);
+        bar.setSymbol(ring.getSymbol());
+        bar.getKline().setInterval(intervals[tf]);
+        bar.setOpenTime(openTime);
+        bar.setCloseTime(openTime + intervalMs[tf] - 1);
+        bar.setOpenPrice(ring.get(tf, 0, BarRing.OPEN));
+        bar.setHighPrice(ring.get(tf, 0, BarRing.HIGH));
+        bar.setLowPrice(ring.get(tf, 0, BarRing.LOW));
+        bar.setClosePrice(ring.get(tf, 0, BarRing.CLOSE));
+        bar.setVolume(ring.get(tf, 0, BarRing.VOLUME));
+        bar.setTakerBuyVolume(ring.get(tf, 0, BarRing.TAKER_BUY_VOLUME));
+        bar.setTradeCount(ring.get(tf, 0, BarRing.TRADE_COUNT));
+        bar.setIsKlineClosed(true);
+        sink.onClosedBar(bar);
+    }
+
+    /**
+     * 스트림의 캔들 링 (아직 체결이 없으면 null, parse 스레드 또는 테스트에서만 조회)
+     */
+    public BarRing ring(int streamId) {
+        return streamId >= 0 && streamId < rings.length ? rings[streamId] : null;
+    }
+
+    /**
+     * 간격의 시간대 번호 (없으면 -1)
+     */
+    public int timeframeOf(String interval) {
+        for (int i = 0; i < intervals.length; i++) {
+            if (intervals[i].equals(interval)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getTrades() {
+        return trades.get();
+    }
+
+    public long getClosedBars() {
+        return closedBars.get();
+    }
+
+    public long getEmptyBars() {
+        return emptyBars.get();
+    }
+
+    public long getSkippedBars() {
+        return skippedBars.get();
+    }
+
+    public long getPartialBars() {
+        return partialBars.get();
+    }
+
+    public long getOutOfOrder() {
+        return outOfOrder.get();
+    }
+}
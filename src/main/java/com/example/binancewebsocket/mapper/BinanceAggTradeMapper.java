@@ -2,11 +2,26 @@ package com.example.binancewebsocket.mapper;
 
 import com.example.binancewebsocket.dto.BinanceAggTradeDTO;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
+/**
+ * aggTrade 저장.
+ * binance.agg-trade-derivation.mode=derive / verify 로 @trade 에서 만든 aggTrade 는 aggTradeId 가 firstTradeId 이므로
+ * 실제 @aggTrade 와 섞이지 않도록 별도 테이블에 저장합니다. 사용 전에 테이블을 만들어야 합니다.
+ * <pre>
+ * CREATE TABLE binance_agg_trade_derived LIKE binance_agg_trade;
+ * </pre>
+ */
 @Mapper
 public interface BinanceAggTradeMapper {
 
     void insertAggTrade(BinanceAggTradeDTO aggTradeDTO);
 
+    void insertAggTrades(@Param("aggTrades") List<BinanceAggTradeDTO> aggTrades);
+
+    void insertDerivedAggTrades(@Param("aggTrades") List<BinanceAggTradeDTO> aggTrades);
+
     BinanceAggTradeDTO getLatestAggTrade(String symbol);
 }
@@ -0,0 +1,14 @@
+package com.example.binancewebsocket.mapper;
+
+import com.example.binancewebsocket.dto.BinanceBookTickerDTO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface BinanceBookTickerMapper {
+
+    // ✅ 최우선 호가 일괄 저장
+    void insertBookTickers(@Param("tickers") List<BinanceBookTickerDTO> tickers);
+}
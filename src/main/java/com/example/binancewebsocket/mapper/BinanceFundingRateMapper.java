@@ -4,6 +4,8 @@ import com.example.binancewebsocket.dto.BinanceFundingRateDTO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 @Mapper
 public interface BinanceFundingRateMapper {
 
@@ -15,6 +17,13 @@ public interface BinanceFundingRateMapper {
      */
     void insertFundingRate(BinanceFundingRateDTO fundingRateDTO);
 
+    /**
+     * ✅ Funding Rate 데이터 일괄 저장 (conflation 후 심볼별 최신값)
+     *
+     * @param fundingRates 저장할 Funding Rate 데이터 목록
+     */
+    void insertFundingRates(@Param("fundingRates") List<BinanceFundingRateDTO> fundingRates);
+
     /**
      * ✅ 특정 심볼의 최신 Funding Rate 조회
      *
@@ -2,13 +2,30 @@ package com.example.binancewebsocket.mapper;
 
 import com.example.binancewebsocket.dto.BinanceKlineDTO;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
+/**
+ * 간격별 캔들 테이블 binance_kline_{interval} 저장.
+ * <p>
+ * takerBuyVolume=true 이면 taker_buy_volume 컬럼도 저장합니다. (binance.kline-rollup.enabled=true 일 때)
+ * 캔들 집계를 켜기 전에 집계 간격(binance.kline-rollup.intervals)의 테이블마다 컬럼을 추가하고,
+ * 없는 간격 테이블(예: 1m / 15m / 4h / 1d)은 기존 테이블과 같은 구조로 만들어야 합니다.
+ * <pre>
+ * ALTER TABLE binance_kline_5m ADD COLUMN taker_buy_volume DECIMAL(36, 18) NULL AFTER trade_count; -- volume 과 같은 타입
+ * CREATE TABLE binance_kline_1m LIKE binance_kline_5m;
+ * </pre>
+ */
 @Mapper
 public interface BinanceKlineMapper {
 
-    // ✅ Kline 데이터 저장
-    void insertKline5m(BinanceKlineDTO kline);
+    // ✅ Kline 데이터 저장 (간격별 테이블 binance_kline_{interval}, interval 은 서비스에서 검증된 값만 전달)
+    void insertKline(@Param("interval") String interval, @Param("kline") BinanceKlineDTO kline,
+                     @Param("takerBuyVolume") boolean takerBuyVolume);
 
-    void insertKline1h(BinanceKlineDTO kline);
+    // ✅ Kline 데이터 일괄 저장
+    void insertKlines(@Param("interval") String interval, @Param("klines") List<BinanceKlineDTO> klines,
+                      @Param("takerBuyVolume") boolean takerBuyVolume);
 
 }
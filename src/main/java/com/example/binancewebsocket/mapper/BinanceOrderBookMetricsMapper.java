@@ -0,0 +1,32 @@
+package com.example.binancewebsocket.mapper;
+
+import com.example.binancewebsocket.dto.BinanceOrderBookMetricsDTO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 호가 지표 시계열 저장 (binance.orderbook-metrics.enabled=true 일 때)
+ * 사용 전에 테이블을 만들어야 합니다.
+ * <pre>
+ * CREATE TABLE binance_order_book_metrics (
+ *     symbol     VARCHAR(20)     NOT NULL,
+ *     event_time BIGINT          NOT NULL,
+ *     best_bid   DECIMAL(36, 18) NOT NULL,
+ *     best_ask   DECIMAL(36, 18) NOT NULL,
+ *     spread_bps DOUBLE          NOT NULL,
+ *     microprice DOUBLE          NOT NULL,
+ *     imbalance  DOUBLE          NOT NULL,
+ *     bid_depth  DOUBLE          NOT NULL,
+ *     ask_depth  DOUBLE          NOT NULL,
+ *     PRIMARY KEY (symbol, event_time)
+ * );
+ * </pre>
+ */
+@Mapper
+public interface BinanceOrderBookMetricsMapper {
+
+    // ✅ 호가 지표 시계열 일괄 저장
+    void insertOrderBookMetrics(@Param("metrics") List<BinanceOrderBookMetricsDTO> metrics);
+}
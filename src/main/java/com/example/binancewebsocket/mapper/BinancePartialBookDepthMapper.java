@@ -1,10 +1,10 @@
 package com.example.binancewebsocket.mapper;
 
+import com.example.binancewebsocket.dto.BinanceOrderBookSnapshotDTO;
 import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
-import java.math.BigInteger;
 import java.util.List;
 
 @Mapper
@@ -14,9 +14,29 @@ public interface BinancePartialBookDepthMapper {
     void insertPartialBookDepth(BinancePartialBookDepthDTO bookDepthDTO);
 
     // ✅ 호가 데이터(Bid & Ask) 저장
-    void insertOrderBookEntries(@Param("transactionTime") BigInteger transactionTime,
+    void insertOrderBookEntries(@Param("transactionTime") long transactionTime,
                                 @Param("bids") List<BinancePartialBookDepthDTO.OrderBookEntry> bids,
                                 @Param("asks") List<BinancePartialBookDepthDTO.OrderBookEntry> asks);
 
+    /**
+     * ✅ 호가 스냅샷 저장 (모든 단계를 BLOB 하나로, binance.depth-persistence.format=blob 일 때)
+     * blob 형식을 켜기 전에 테이블을 만들어야 합니다.
+     * <pre>
+     * CREATE TABLE binance_order_book_snapshots (
+     *     transaction_time BIGINT      NOT NULL,
+     *     symbol           VARCHAR(20) NOT NULL,
+     *     bid_count        INT         NOT NULL,
+     *     ask_count        INT         NOT NULL,
+     *     levels           BLOB        NOT NULL,  -- OrderBookSnapshotCodec 형식
+     *     PRIMARY KEY (symbol, transaction_time)
+     * );
+     * </pre>
+     */
+    void insertOrderBookSnapshot(BinanceOrderBookSnapshotDTO snapshot);
+
+    // ✅ 기간 내 호가 스냅샷 조회
+    List<BinanceOrderBookSnapshotDTO> selectOrderBookSnapshots(@Param("symbol") String symbol,
+                                                               @Param("startTime") long startTime,
+                                                               @Param("endTime") long endTime);
 
 }
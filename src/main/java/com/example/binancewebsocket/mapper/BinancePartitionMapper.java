@@ -0,0 +1,37 @@
+package com.example.binancewebsocket.mapper;
+
+import com.example.binancewebsocket.dto.PartitionRangeDTO;
+import com.example.binancewebsocket.dto.TablePartitionDTO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 수집 테이블의 일별 RANGE 파티션 관리 (BinancePartitionService 전용)
+ * table / column / 파티션 이름은 SQL 에 그대로 들어가므로 호출부가 식별자 형식을 검증해야 합니다.
+ */
+@Mapper
+public interface BinancePartitionMapper {
+
+    // ✅ 현재 DB 의 테이블 파티션 목록 (순서대로)
+    List<TablePartitionDTO> selectPartitions(@Param("table") String table);
+
+    // ✅ 파티션되지 않은 테이블을 RANGE 파티션으로 변환 (테이블 재구성, p_future = MAXVALUE)
+    void partitionByRange(@Param("table") String table,
+                          @Param("column") String column,
+                          @Param("partitions") List<PartitionRangeDTO> partitions);
+
+    // ✅ 마지막 파티션 뒤에 추가 (MAXVALUE 파티션이 없는 경우)
+    void addPartitions(@Param("table") String table,
+                       @Param("partitions") List<PartitionRangeDTO> partitions);
+
+    // ✅ MAXVALUE 파티션(future) 앞에 나눠 추가 (future 가 비어 있으면 데이터 이동 없음)
+    void reorganizeFuturePartition(@Param("table") String table,
+                                   @Param("future") String future,
+                                   @Param("partitions") List<PartitionRangeDTO> partitions);
+
+    // ✅ 파티션 삭제 (행 단위 DELETE 없이 즉시)
+    void dropPartitions(@Param("table") String table,
+                        @Param("names") List<String> names);
+}
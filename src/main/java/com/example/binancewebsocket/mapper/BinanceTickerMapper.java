@@ -4,12 +4,17 @@ import com.example.binancewebsocket.dto.BinanceTickerDTO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 @Mapper
 public interface BinanceTickerMapper {
 
     // ✅ Ticker 데이터 저장
     void insertTicker(BinanceTickerDTO ticker);
 
+    // ✅ Ticker 데이터 일괄 저장 (conflation 후 심볼별 최신값)
+    void insertTickers(@Param("tickers") List<BinanceTickerDTO> tickers);
+
     // ✅ 특정 심볼의 최신 Ticker 데이터 가져오기
     BinanceTickerDTO getLatestTicker(@Param("symbol") String symbol);
 }
@@ -0,0 +1,49 @@
+package com.example.binancewebsocket.mapper;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link FixedDecimal} packed long ↔ DECIMAL 컬럼 변환.
+ * <p>
+ * 가격 / 수량 필드는 long 이므로 기본 핸들러를 쓰면 packed 값이 그대로 저장됩니다. 반드시 이 핸들러를 지정해야 합니다.
+ * <pre>
+ *   #{price,typeHandler=FixedDecimal}   (별칭은 DatabaseConfig 에서 등록)
+ * </pre>
+ * MySQL 드라이버는 BigDecimal 파라미터도 10진수 문자열로 전송하므로, BigDecimal 을 만들지 않고 문자열로 바로 바인딩합니다.
+ */
+public class FixedDecimalTypeHandler extends BaseTypeHandler<Long> {
+
+    public static final String ALIAS = "FixedDecimal";
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Long parameter, JdbcType jdbcType) throws SQLException {
+        ps.setString(i, FixedDecimal.toString(parameter));
+    }
+
+    @Override
+    public Long getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toFixedDecimal(rs.getBigDecimal(columnName));
+    }
+
+    @Override
+    public Long getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toFixedDecimal(rs.getBigDecimal(columnIndex));
+    }
+
+    @Override
+    public Long getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toFixedDecimal(cs.getBigDecimal(columnIndex));
+    }
+
+    private static Long toFixedDecimal(BigDecimal value) {
+        return value != null ? FixedDecimal.valueOf(value.stripTrailingZeros()) : null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.binancewebsocket.mapper;
 
+import com.example.binancewebsocket.dto.SymbolStreamTierDTO;
 import org.apache.ibatis.annotations.Mapper;
 
 import java.util.List;
@@ -12,4 +13,15 @@ public interface SymbolMapper {
      * @return 전체 symbol 목록
      */
     List<String> selectAllSymbols();
+
+    /**
+     * symbols 테이블에서 symbol 과 스트림 등급(stream_tier)을 조회합니다.
+     * stream_tier 컬럼은 선택 사항입니다. (없으면 호출부에서 selectAllSymbols 로 대체)
+     * <pre>
+     * ALTER TABLE symbols ADD COLUMN stream_tier VARCHAR(32) NULL;
+     * </pre>
+     *
+     * @return 전체 symbol 과 등급 목록
+     */
+    List<SymbolStreamTierDTO> selectSymbolStreamTiers();
 }
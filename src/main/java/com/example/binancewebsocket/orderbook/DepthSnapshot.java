@@ -0,0 +1,11 @@
+package com.example.binancewebsocket.orderbook;
+
+/**
+ * REST /fapi/v1/depth 스냅샷. (가격 / 수량은 FixedDecimal packed, 배열 순서는 응답 순서)
+ *
+ * @param lastUpdateId 스냅샷 시점의 마지막 update id
+ */
+public record DepthSnapshot(long lastUpdateId,
+                            long[] bidPrices, long[] bidQuantities,
+                            long[] askPrices, long[] askQuantities) {
+}
@@ -0,0 +1,411 @@
+package com.example.binancewebsocket.orderbook;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO;
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO.OrderBookEntry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 심볼 하나의 로컬 호가창. (REST 스냅샷 + {@code <symbol>@depth@100ms} diff 이벤트)
+ * <p>
+ * Binance 가 안내하는 절차를 그대로 따릅니다.
+ * <pre>
+ *   AWAITING_SNAPSHOT : diff 이벤트를 버퍼에 쌓고 스냅샷(lastUpdateId = L)을 기다림
+ *     스냅샷 도착 → u &lt; L 인 이벤트는 버림
+ *                → 첫 이벤트는 U &lt;= L &lt;= u 이어야 함 (U &gt; L 이면 스냅샷이 오래됨 → 다시 요청)
+ *                → 이후 이벤트는 pu == 직전 u
+ *   LIVE              : 이벤트마다 pu == 직전 u 확인 후 적용, 어긋나면 비우고 AWAITING_SNAPSHOT 으로 (resync)
+ * </pre>
+ * - 수량은 절대값이며 0 이면 단계를 삭제합니다.
+ * - 가격은 price scale 로 맞춘 mantissa 로 {@link BookSide} 에 보관합니다. (BigDecimal / 객체 키 없음)
+ * - 변경은 parse 스레드 하나에서만, 조회는 어느 스레드에서나 합니다. 둘 다 이 객체의 잠금을 짧게 잡습니다.
+ *   스냅샷은 REST 스레드가 {@link #offerSnapshot} 으로 넘기고, parse 스레드가 다음 이벤트에서 적용합니다.
+ */
+public final class LocalOrderBook {
+
+    public enum State {
+        AWAITING_SNAPSHOT,
+        LIVE
+    }
+
+    /**
+     * diff 이벤트 적용 결과
+     */
+    public enum Result {
+        APPLIED,   // 호가창에 반영
+        IGNORED,   // 이미 반영된 이벤트 (u &lt;= lastUpdateId)
+        BUFFERED,  // 스냅샷 대기 중이라 버퍼에 보관
+        RESYNC     // 연속성이 끊겨 호가창을 비우고 스냅샷부터 다시 시작
+    }
+
+    // 버퍼 이벤트 헤더: U, u, pu, E, 매수 단계 수, 매도 단계 수
+    private static final int HEADER = 6;
+
+    private final String symbol;
+    private final int maxBufferedEvents;
+    private final BookSide bids = new BookSide(true, 1024);
+    private final BookSide asks = new BookSide(false, 1024);
+
+    // --- 호가창 상태 (잠금 안에서 변경) ---
+    private int priceScale;          // -1 이면 첫 가격의 scale 을 사용
+    private long lastUpdateId;
+    private long eventTime;
+    private volatile State state = State.AWAITING_SNAPSHOT;
+
+    // --- 스냅샷 전달 (REST 스레드 → parse 스레드) ---
+    private final AtomicBoolean snapshotRequested = new AtomicBoolean();
+    private volatile DepthSnapshot pendingSnapshot;
+
+    // --- 스냅샷 대기 중 버퍼 (primitive, parse 스레드 전용) ---
+    private long[] bufferedHeaders = new long[16 * HEADER];
+    private long[] bufferedLevels = new long[512];
+    private int bufferedEvents;
+    private int bufferedLevelLength;
+
+    // --- 통계 ---
+    private volatile long updates;
+    private volatile long resyncs;
+    private volatile long staleSnapshots;
+    private volatile long bufferOverflows;
+
+    /**
+     * @param priceScale        심볼의 tick scale (모르면 -1)
+     * @param maxBufferedEvents 스냅샷 대기 중 보관할 최대 이벤트 수 (넘으면 버퍼를 비우고 이어서 쌓음)
+     */
+    public LocalOrderBook(String symbol, int priceScale, int maxBufferedEvents) {
+        this.symbol = symbol;
+        this.priceScale = priceScale;
+        this.maxBufferedEvents = Math.max(1, maxBufferedEvents);
+    }
+
+    /**
+     * ✅ diff 이벤트 적용 (parse 스레드)
+     */
+    public synchronized Result apply(BinancePartialBookDepthDTO depth) {
+        long finalUpdateId = depth.getFinalUpdateId();
+        if (state == State.LIVE) {
+            if (finalUpdateId <= lastUpdateId) {
+                return Result.IGNORED;
+            }
+            if (depth.getPreviousUpdateId() != lastUpdateId) {
+                resync();
+                buffer(depth);
+                return Result.RESYNC;
+            }
+            applyLevels(bids, depth.getBids());
+            applyLevels(asks, depth.getAsks());
+            lastUpdateId = finalUpdateId;
+            eventTime = depth.getEventTime();
+            updates++;
+            return Result.APPLIED;
+        }
+
+        buffer(depth);
+        DepthSnapshot snapshot = pendingSnapshot;
+        if (snapshot == null) {
+            return Result.BUFFERED;
+        }
+        pendingSnapshot = null;
+        return bootstrap(snapshot);
+    }
+
+    /**
+     * 스냅샷을 적용하고 버퍼의 이벤트를 이어 붙입니다.
+     */
+    private Result bootstrap(DepthSnapshot snapshot) {
+        long snapshotId = snapshot.lastUpdateId();
+        int first = 0;
+        while (first < bufferedEvents && header(first, 1) < snapshotId) {
+            first++; // u < L : 스냅샷에 이미 포함된 이벤트
+        }
+        if (first == bufferedEvents) {
+            // 버퍼의 이벤트가 모두 스냅샷보다 오래됨 → 스냅샷을 들고 다음 이벤트를 기다림
+            clearBuffer();
+            pendingSnapshot = snapshot;
+            return Result.BUFFERED;
+        }
+        if (header(first, 0) > snapshotId) {
+            // 스냅샷과 첫 이벤트 사이가 비어 있음 → 더 최신 스냅샷 필요 (버퍼는 유지)
+            staleSnapshots++;
+            dropBuffered(first);
+            return Result.BUFFERED;
+        }
+
+        bids.clear();
+        asks.clear();
+        if (priceScale < 0) {
+            priceScale = firstPriceScale(snapshot);
+        }
+        loadLevels(bids, snapshot.bidPrices(), snapshot.bidQuantities());
+        loadLevels(asks, snapshot.askPrices(), snapshot.askQuantities());
+        lastUpdateId = snapshotId;
+
+        int level = 0;
+        for (int event = 0; event < bufferedEvents; event++) {
+            int bidCount = (int) header(event, 4);
+            int askCount = (int) header(event, 5);
+            int levels = (bidCount + askCount) * 2;
+            if (event >= first) {
+                if (event > first && header(event, 2) != lastUpdateId) {
+                    resync(); // 버퍼 안에서 끊김
+                    return Result.RESYNC;
+                }
+                applyBuffered(bids, level, bidCount);
+                applyBuffered(asks, level + bidCount * 2, askCount);
+                lastUpdateId = header(event, 1);
+                eventTime = header(event, 3);
+                updates++;
+            }
+            level += levels;
+        }
+        clearBuffer();
+        state = State.LIVE;
+        return Result.APPLIED;
+    }
+
+    private void resync() {
+        resyncs++;
+        state = State.AWAITING_SNAPSHOT;
+        bids.clear();
+        asks.clear();
+        clearBuffer();
+        pendingSnapshot = null;
+    }
+
+    // --- 스냅샷 전달 ---
+
+    /**
+     * 스냅샷이 필요한지 (대기 중이고 받아 둔 스냅샷이 없음)
+     */
+    public boolean needsSnapshot() {
+        return state == State.AWAITING_SNAPSHOT && pendingSnapshot == null;
+    }
+
+    /**
+     * 스냅샷 요청을 한 번만 보내도록 표시합니다. (이미 요청 중이면 false)
+     */
+    public boolean markSnapshotRequested() {
+        return snapshotRequested.compareAndSet(false, true);
+    }
+
+    /**
+     * REST 스레드가 받은 스냅샷을 넘깁니다. (다음 diff 이벤트에서 적용)
+     */
+    public void offerSnapshot(DepthSnapshot snapshot) {
+        pendingSnapshot = snapshot;
+        snapshotRequested.set(false);
+    }
+
+    /**
+     * 스냅샷 조회 실패 (다음 이벤트에서 다시 요청)
+     */
+    public void snapshotFailed() {
+        snapshotRequested.set(false);
+    }
+
+    // --- 적용 도구 ---
+
+    private void applyLevels(BookSide side, List<OrderBookEntry> entries) {
+        if (entries == null) {
+            return;
+        }
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            OrderBookEntry entry = entries.get(i);
+            side.set(normalize(entry.getPrice()), entry.getQuantity());
+        }
+    }
+
+    private void loadLevels(BookSide side, long[] prices, long[] quantities) {
+        for (int i = 0; i < prices.length; i++) {
+            side.set(normalize(prices[i]), quantities[i]);
+        }
+    }
+
+    private void applyBuffered(BookSide side, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            int index = offset + i * 2;
+            side.set(normalize(bufferedLevels[index]), bufferedLevels[index + 1]);
+        }
+    }
+
+    /**
+     * packed 가격 → price scale mantissa
+     */
+    private long normalize(long price) {
+        if (priceScale < 0) {
+            priceScale = FixedDecimal.scale(price);
+        }
+        if (FixedDecimal.scale(price) == priceScale) {
+            return FixedDecimal.mantissa(price);
+        }
+        return FixedDecimal.mantissa(FixedDecimal.rescale(price, priceScale));
+    }
+
+    private static int firstPriceScale(DepthSnapshot snapshot) {
+        if (snapshot.bidPrices().length > 0) {
+            return FixedDecimal.scale(snapshot.bidPrices()[0]);
+        }
+        return snapshot.askPrices().length > 0 ? FixedDecimal.scale(snapshot.askPrices()[0]) : -1;
+    }
+
+    // --- 버퍼 ---
+
+    private void buffer(BinancePartialBookDepthDTO depth) {
+        if (bufferedEvents == maxBufferedEvents) {
+            bufferOverflows++;
+            clearBuffer(); // 스냅샷이 너무 늦음 → 이후 이벤트부터 다시 쌓음 (다음 스냅샷으로 맞춤)
+        }
+        int bidCount = depth.getBids() != null ? depth.getBids().size() : 0;
+        int askCount = depth.getAsks() != null ? depth.getAsks().size() : 0;
+        int headerOffset = bufferedEvents * HEADER;
+        if (headerOffset + HEADER > bufferedHeaders.length) {
+            bufferedHeaders = Arrays.copyOf(bufferedHeaders, bufferedHeaders.length * 2);
+        }
+        int required = bufferedLevelLength + (bidCount + askCount) * 2;
+        if (required > bufferedLevels.length) {
+            bufferedLevels = Arrays.copyOf(bufferedLevels, Math.max(required, bufferedLevels.length * 2));
+        }
+        bufferedHeaders[headerOffset] = depth.getFirstUpdateId();
+        bufferedHeaders[headerOffset + 1] = depth.getFinalUpdateId();
+        bufferedHeaders[headerOffset + 2] = depth.getPreviousUpdateId();
+        bufferedHeaders[headerOffset + 3] = depth.getEventTime();
+        bufferedHeaders[headerOffset + 4] = bidCount;
+        bufferedHeaders[headerOffset + 5] = askCount;
+        bufferedLevelLength = copyLevels(depth.getBids(), bufferedLevelLength);
+        bufferedLevelLength = copyLevels(depth.getAsks(), bufferedLevelLength);
+        bufferedEvents++;
+    }
+
+    private int copyLevels(List<OrderBookEntry> entries, int offset) {
+        if (entries == null) {
+            return offset;
+        }
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            OrderBookEntry entry = entries.get(i);
+            bufferedLevels[offset++] = entry.getPrice();
+            bufferedLevels[offset++] = entry.getQuantity();
+        }
+        return offset;
+    }
+
+    /**
+     * 앞쪽 count 개 이벤트를 버퍼에서 제거합니다.
+     */
+    private void dropBuffered(int count) {
+        if (count == 0) {
+            return;
+        }
+        int levelOffset = 0;
+        for (int event = 0; event < count; event++) {
+            levelOffset += (int) (header(event, 4) + header(event, 5)) * 2;
+        }
+        System.arraycopy(bufferedHeaders, count * HEADER, bufferedHeaders, 0, (bufferedEvents - count) * HEADER);
+        System.arraycopy(bufferedLevels, levelOffset, bufferedLevels, 0, bufferedLevelLength - levelOffset);
+        bufferedEvents -= count;
+        bufferedLevelLength -= levelOffset;
+    }
+
+    private void clearBuffer() {
+        bufferedEvents = 0;
+        bufferedLevelLength = 0;
+    }
+
+    private long header(int event, int field) {
+        return bufferedHeaders[event * HEADER + field];
+    }
+
+    // --- 조회 (어느 스레드에서나) ---
+
+    /**
+     * 최우선 매수가 (FixedDecimal packed, 없으면 0)
+     */
+    public synchronized long bestBid() {
+        return bids.size() > 0 ? FixedDecimal.of(bids.price(0), priceScale) : FixedDecimal.ZERO;
+    }
+
+    /**
+     * 최우선 매도가 (FixedDecimal packed, 없으면 0)
+     */
+    public synchronized long bestAsk() {
+        return asks.size() > 0 ? FixedDecimal.of(asks.price(0), priceScale) : FixedDecimal.ZERO;
+    }
+
+    /**
+     * 상위 n 개 매수 호가를 호출자 배열에 복사하고 복사한 수를 반환합니다. (가격 / 수량 모두 FixedDecimal packed)
+     */
+    public synchronized int copyBids(int n, long[] prices, long[] quantities) {
+        return copyTop(bids, n, prices, quantities);
+    }
+
+    /**
+     * 상위 n 개 매도 호가를 호출자 배열에 복사하고 복사한 수를 반환합니다. (가격 / 수량 모두 FixedDecimal packed)
+     */
+    public synchronized int copyAsks(int n, long[] prices, long[] quantities) {
+        return copyTop(asks, n, prices, quantities);
+    }
+
+    private int copyTop(BookSide side, int n, long[] prices, long[] quantities) {
+        int count = side.copyTop(n, prices, quantities);
+        for (int i = 0; i < count; i++) {
+            prices[i] = FixedDecimal.of(prices[i], priceScale);
+        }
+        return count;
+    }
+
+    /**
+     * 가격 단계의 매수 / 매도 수량 (없으면 0)
+     */
+    public synchronized long quantityAt(boolean bid, long price) {
+        if (priceScale < 0) {
+            return FixedDecimal.ZERO;
+        }
+        return (bid ? bids : asks).quantityAt(normalize(price));
+    }
+
+    public synchronized int bidLevels() {
+        return bids.size();
+    }
+
+    public synchronized int askLevels() {
+        return asks.size();
+    }
+
+    public synchronized long getLastUpdateId() {
+        return lastUpdateId;
+    }
+
+    public synchronized long getEventTime() {
+        return eventTime;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isLive() {
+        return state == State.LIVE;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    public long getResyncs() {
+        return resyncs;
+    }
+
+    public long getStaleSnapshots() {
+        return staleSnapshots;
+    }
+
+    public long getBufferOverflows() {
+        return bufferOverflows;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.binancewebsocket.orderbook;
+
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestFilter;
+import com.example.binancewebsocket.stream.StreamKey;
+import com.example.binancewebsocket.stream.StreamType;
+
+import java.util.Arrays;
+
+/**
+ * parse 스테이지에서 {@code <symbol>@depth@100ms} diff 이벤트를 로컬 호가창에 적용하는 필터.
+ * <p>
+ * - 파이프라인(샤드)마다 하나씩 만들어지며, 한 심볼의 diff 는 항상 같은 샤드의 parse 스레드에서 순서대로 적용됩니다.
+ * - 호가창은 StreamKey.id 로 인덱싱한 배열에 캐시합니다. (심볼 조회 / 할당 없음)
+ * - 스냅샷이 필요하면 {@link SnapshotLoader} 에 넘기고 바로 반환합니다. (REST 조회는 별도 스레드)
+ * - diff 이벤트는 호가창에 반영된 것으로 끝나므로 false 를 반환하여 persist 를 생략합니다. 다른 이벤트는 그대로 통과합니다.
+ *   이중화 사용 시 {@link com.example.binancewebsocket.stream.ReplicaArbiter} 뒤에 연결합니다.
+ */
+public final class OrderBookEngine implements IngestFilter {
+
+    private static final int INITIAL_STREAMS = 256;
+
+    /**
+     * 호가창 조회 / 스냅샷 요청 (구현: BinanceOrderBookService)
+     */
+    public interface SnapshotLoader {
+        /**
+         * 심볼의 호가창 (없으면 생성)
+         */
+        LocalOrderBook book(String symbol);
+
+        /**
+         * REST 스냅샷 조회를 예약합니다. (parse 스레드에서 호출되므로 즉시 반환해야 함)
+         * 완료 시 {@link LocalOrderBook#offerSnapshot}, 실패 시 {@link LocalOrderBook#snapshotFailed} 를 호출합니다.
+         */
+        void requestSnapshot(LocalOrderBook book);
+    }
+
+    private final SnapshotLoader loader;
+    private LocalOrderBook[] books = new LocalOrderBook[INITIAL_STREAMS];
+
+    public OrderBookEngine(SnapshotLoader loader) {
+        this.loader = loader;
+    }
+
+    @Override
+    public boolean accept(IngestEvent event) {
+        StreamKey key = event.getStreamKey();
+        if (key == null || key.type() != StreamType.DIFF_DEPTH) {
+            return true;
+        }
+        LocalOrderBook book = bookOf(key);
+        book.apply((BinancePartialBookDepthDTO) event.getPayload());
+        if (book.needsSnapshot() && book.markSnapshotRequested()) {
+            loader.requestSnapshot(book);
+        }
+        return false;
+    }
+
+    private LocalOrderBook bookOf(StreamKey key) {
+        int id = key.id();
+        if (id < 0) {
+            return loader.book(key.symbol()); // 등록되지 않은 스트림 (드묾)
+        }
+        if (id >= books.length) {
+            int capacity = books.length;
+            while (capacity <= id) {
+                capacity <<= 1;
+            }
+            books = Arrays.copyOf(books, capacity);
+        }
+        LocalOrderBook book = books[id];
+        if (book == null) {
+            book = loader.book(key.symbol());
+            books[id] = book;
+        }
+        return book;
+    }
+}
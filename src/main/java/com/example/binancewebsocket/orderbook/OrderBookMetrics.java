@@ -0,0 +1,158 @@
+package com.example.binancewebsocket.orderbook;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO;
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO.OrderBookEntry;
+
+import java.util.List;
+
+/**
+ * 호가 스냅샷 하나에서 계산한 지표 (심볼별 최신값 한 행).
+ * <pre>
+ *   spreadBps  = (bestAsk - bestBid) / mid × 10000
+ *   microprice = (bestAsk × bestBidQty + bestBid × bestAskQty) / (bestBidQty + bestAskQty)
+ *   imbalance  = (상위 N 매수 수량 - 상위 N 매도 수량) / (합계)          -1 ~ 1 (양수 = 매수 우위)
+ *   bidDepth   = mid × (1 - X bps) 이상 매수 수량 합 / askDepth = mid × (1 + X bps) 이하 매도 수량 합
+ * </pre>
+ * - 값은 모두 primitive 필드이며, {@link #compute} 는 받은 호가 목록을 한 번 훑으며 객체를 만들지 않습니다.
+ * - 같은 인스턴스를 계속 덮어쓰므로 다른 스레드에서 읽을 때는 {@link #copyTo} 로 복사해서 사용합니다.
+ *   (쓰기 / 복사 모두 이 객체의 잠금을 잡음)
+ * - 한쪽 호가가 비어 있으면 가격 관련 값은 0 / NaN 입니다.
+ */
+public final class OrderBookMetrics {
+
+    private String symbol;
+    private long eventTime;
+    private long bestBid;       // FixedDecimal packed
+    private long bestAsk;       // FixedDecimal packed
+    private double spreadBps;
+    private double microprice;
+    private double imbalance;
+    private double bidDepth;
+    private double askDepth;
+    private long updates;
+
+    public OrderBookMetrics(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * ✅ 호가 스냅샷으로 지표를 다시 계산합니다. (매수 / 매도 모두 최우선 호가부터 정렬된 목록)
+     *
+     * @param topLevels 불균형 계산에 사용할 상위 단계 수
+     * @param bandBps   누적 수량을 합산할 mid 기준 범위 (bps)
+     */
+    public synchronized void compute(BinancePartialBookDepthDTO depth, int topLevels, double bandBps) {
+        List<OrderBookEntry> bids = depth.getBids();
+        List<OrderBookEntry> asks = depth.getAsks();
+        boolean hasBid = bids != null && !bids.isEmpty();
+        boolean hasAsk = asks != null && !asks.isEmpty();
+
+        eventTime = depth.getTransactionTime() != 0 ? depth.getTransactionTime() : depth.getEventTime();
+        bestBid = hasBid ? bids.get(0).getPrice() : FixedDecimal.ZERO;
+        bestAsk = hasAsk ? asks.get(0).getPrice() : FixedDecimal.ZERO;
+        double bid = FixedDecimal.toDouble(bestBid);
+        double ask = FixedDecimal.toDouble(bestAsk);
+
+        if (hasBid && hasAsk) {
+            double mid = (bid + ask) / 2;
+            double bidQuantity = FixedDecimal.toDouble(bids.get(0).getQuantity());
+            double askQuantity = FixedDecimal.toDouble(asks.get(0).getQuantity());
+            double topQuantity = bidQuantity + askQuantity;
+            spreadBps = (ask - bid) / mid * 10_000;
+            microprice = topQuantity > 0 ? (ask * bidQuantity + bid * askQuantity) / topQuantity : mid;
+            bidDepth = sumWithin(bids, mid * (1 - bandBps / 10_000), true);
+            askDepth = sumWithin(asks, mid * (1 + bandBps / 10_000), false);
+        } else {
+            spreadBps = Double.NaN;
+            microprice = Double.NaN;
+            bidDepth = hasBid ? sumWithin(bids, bid * (1 - bandBps / 10_000), true) : 0;
+            askDepth = hasAsk ? sumWithin(asks, ask * (1 + bandBps / 10_000), false) : 0;
+        }
+
+        double topBid = sumTop(bids, topLevels);
+        double topAsk = sumTop(asks, topLevels);
+        double total = topBid + topAsk;
+        imbalance = total > 0 ? (topBid - topAsk) / total : 0;
+        updates++;
+    }
+
+    private static double sumWithin(List<OrderBookEntry> entries, double limit, boolean bid) {
+        double total = 0;
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            OrderBookEntry entry = entries.get(i);
+            double price = FixedDecimal.toDouble(entry.getPrice());
+            if (bid ? price < limit : price > limit) {
+                break; // 최우선 호가부터 정렬되어 있으므로 이후 단계는 모두 범위 밖
+            }
+            total += FixedDecimal.toDouble(entry.getQuantity());
+        }
+        return total;
+    }
+
+    private static double sumTop(List<OrderBookEntry> entries, int levels) {
+        double total = 0;
+        if (entries != null) {
+            for (int i = 0, n = Math.min(levels, entries.size()); i < n; i++) {
+                total += FixedDecimal.toDouble(entries.get(i).getQuantity());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 현재 값을 target 에 복사합니다. (할당 없음)
+     */
+    public synchronized void copyTo(OrderBookMetrics target) {
+        target.symbol = symbol;
+        target.eventTime = eventTime;
+        target.bestBid = bestBid;
+        target.bestAsk = bestAsk;
+        target.spreadBps = spreadBps;
+        target.microprice = microprice;
+        target.imbalance = imbalance;
+        target.bidDepth = bidDepth;
+        target.askDepth = askDepth;
+        target.updates = updates;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public long getEventTime() {
+        return eventTime;
+    }
+
+    public long getBestBid() {
+        return bestBid;
+    }
+
+    public long getBestAsk() {
+        return bestAsk;
+    }
+
+    public double getSpreadBps() {
+        return spreadBps;
+    }
+
+    public double getMicroprice() {
+        return microprice;
+    }
+
+    public double getImbalance() {
+        return imbalance;
+    }
+
+    public double getBidDepth() {
+        return bidDepth;
+    }
+
+    public double getAskDepth() {
+        return askDepth;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.binancewebsocket.orderbook;
+
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestFilter;
+import com.example.binancewebsocket.stream.StreamKey;
+import com.example.binancewebsocket.stream.StreamType;
+
+import java.util.Arrays;
+
+/**
+ * parse 스테이지에서 부분 호가({@code <symbol>@depth10@100ms} 등) 스냅샷마다 {@link OrderBookMetrics} 를 갱신하는 필터.
+ * <p>
+ * - 파이프라인(샤드)마다 하나씩 만들어지며, 심볼별 최신값 행은 StreamKey.id 로 인덱싱한 배열에 캐시합니다.
+ * - 이벤트 시간 기준으로 샘플 간격이 지나면 {@link SampleSink} 에 넘깁니다. (저장은 싱크가 별도 스레드에서)
+ * - 이벤트를 거르지 않으므로 항상 true 를 반환합니다. 저장 정책이 스냅샷을 거르기 전에 모든 스냅샷을 보도록 그 앞에 연결합니다.
+ */
+public final class OrderBookMetricsCalculator implements IngestFilter {
+
+    private static final int INITIAL_STREAMS = 256;
+
+    /**
+     * 심볼별 최신값 행 조회 / 시계열 샘플 전달 (구현: BinanceOrderBookMetricsService)
+     */
+    public interface SampleSink {
+        /**
+         * 심볼의 최신값 행 (없으면 생성)
+         */
+        OrderBookMetrics row(String symbol);
+
+        /**
+         * 샘플 간격마다 호출됩니다. (parse 스레드에서 호출되므로 즉시 반환해야 함)
+         */
+        void sample(OrderBookMetrics metrics);
+    }
+
+    private final SampleSink sink;
+    private final int topLevels;
+    private final double bandBps;
+    private final long sampleIntervalMs;
+
+    // --- 스트림별 상태 (StreamKey.id 인덱스, parse 스레드 전용) ---
+    private OrderBookMetrics[] rows = new OrderBookMetrics[INITIAL_STREAMS];
+    private long[] nextSampleTime = new long[INITIAL_STREAMS];
+
+    /**
+     * @param sampleIntervalMs 시계열 샘플 간격 (0 이면 최신값만 갱신)
+     */
+    public OrderBookMetricsCalculator(SampleSink sink, int topLevels, double bandBps, long sampleIntervalMs) {
+        this.sink = sink;
+        this.topLevels = topLevels;
+        this.bandBps = bandBps;
+        this.sampleIntervalMs = sampleIntervalMs;
+    }
+
+    @Override
+    public boolean accept(IngestEvent event) {
+        StreamKey key = event.getStreamKey();
+        if (key == null || key.type() != StreamType.PARTIAL_DEPTH || key.id() < 0) {
+            return true;
+        }
+        int id = key.id();
+        if (id >= rows.length) {
+            grow(id);
+        }
+        OrderBookMetrics row = rows[id];
+        if (row == null) {
+            row = sink.row(key.symbol());
+            rows[id] = row;
+        }
+        row.compute((BinancePartialBookDepthDTO) event.getPayload(), topLevels, bandBps);
+
+        if (sampleIntervalMs > 0) {
+            long time = row.getEventTime();
+            if (time >= nextSampleTime[id]) {
+                // 간격 경계에 맞춰 다음 샘플 시간 설정 (1000ms 면 매 초 첫 스냅샷)
+                nextSampleTime[id] = (time / sampleIntervalMs + 1) * sampleIntervalMs;
+                sink.sample(row);
+            }
+        }
+        return true;
+    }
+
+    private void grow(int id) {
+        int capacity = rows.length;
+        while (capacity <= id) {
+            capacity <<= 1;
+        }
+        rows = Arrays.copyOf(rows, capacity);
+        nextSampleTime = Arrays.copyOf(nextSampleTime, capacity);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.binancewebsocket.orderbook;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 심볼별 최우선 호가(bookTicker) 테이블. 고정 크기 long[] 하나에 심볼마다 한 칸(64 byte)을 두고 seqlock 으로 보호합니다.
+ *
+ * <pre>
+ *   slot × 8 : [seq, updateId, eventTime, transactionTime, bidPrice, bidQty, askPrice, askQty]
+ *
+ *   쓰기 : seq 짝수 → 홀수 CAS → (updateId 가 더 오래되지 않았으면) 필드 기록 → seq 짝수 (release)
+ *   읽기 (스레드 수 제한 없음) : seq(acquire) 짝수 확인 → 필드 복사 → loadLoad fence → seq 가 그대로면 성공, 아니면 재시도
+ * </pre>
+ * - 평소에는 심볼마다 쓰는 parse 스레드가 하나지만, 심볼 이동 / 재샤딩 / 교체 연결 전환 중에는 잠시 두 스레드가 같은 칸에 쓸 수 있습니다.
+ *   그래서 쓰기 쪽은 seq 를 CAS 로 홀수로 만들어 칸을 잠그고(경합이 없으면 CAS 1회), 잠근 뒤 updateId 를 비교해 역순 기록을 버립니다.
+ * - 읽기는 잠금 / CAS / 할당 없이 캐시 라인 한두 개만 읽으므로 수십 ns 이내입니다. 쓰는 도중에만 재시도합니다.
+ * - 가격 / 수량은 FixedDecimal packed long 입니다.
+ * - 심볼 → 칸 번호는 처음 볼 때 한 번 정하며, 조회하는 쪽도 칸 번호를 한 번 구해 두고 {@link #read(int, Quote)} 를 호출합니다.
+ *   칸이 모두 차면 -1 을 반환하고 이후 심볼은 테이블에 넣지 않습니다.
+ */
+public final class QuoteTable {
+
+    private static final int STRIDE = 8;
+    private static final int SEQ = 0;
+    private static final int UPDATE_ID = 1;
+    private static final int EVENT_TIME = 2;
+    private static final int TRANSACTION_TIME = 3;
+    private static final int BID_PRICE = 4;
+    private static final int BID_QUANTITY = 5;
+    private static final int ASK_PRICE = 6;
+    private static final int ASK_QUANTITY = 7;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * 한 번에 읽은 최우선 호가 (호출자가 재사용하는 가변 객체)
+     */
+    public static final class Quote {
+        public long updateId;
+        public long eventTime;
+        public long transactionTime;
+        public long bidPrice;
+        public long bidQuantity;
+        public long askPrice;
+        public long askQuantity;
+    }
+
+    private final long[] data;
+    private final String[] symbols;
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private int size; // slots 잠금 안에서만 증가
+
+    public QuoteTable(int capacity) {
+        this.data = new long[Math.max(1, capacity) * STRIDE];
+        this.symbols = new String[Math.max(1, capacity)];
+    }
+
+    /**
+     * 심볼의 칸 번호 (없으면 배정, 가득 차면 -1)
+     */
+    public int slotOf(String symbol) {
+        Integer slot = slots.get(symbol);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (slots) {
+            slot = slots.get(symbol);
+            if (slot == null) {
+                if (size == symbols.length) {
+                    return -1;
+                }
+                slot = size;
+                symbols[slot] = symbol;
+                slots.put(symbol, slot);
+                size++;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * 이미 배정된 칸 번호 (없으면 -1, 배정하지 않음)
+     */
+    public int find(String symbol) {
+        Integer slot = slots.get(symbol);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * ✅ 최우선 호가 기록 (여러 스레드가 같은 칸에 써도 안전, updateId 0 은 순서 비교 없이 기록)
+     *
+     * @return 기록했는지 (칸의 updateId 보다 오래된 이벤트이면 false)
+     */
+    public boolean write(int slot, long updateId, long eventTime, long transactionTime,
+                         long bidPrice, long bidQuantity, long askPrice, long askQuantity) {
+        int base = slot * STRIDE;
+        long seq;
+        while (true) {
+            seq = (long) LONGS.getAcquire(data, base + SEQ);
+            if ((seq & 1) == 0 && LONGS.compareAndSet(data, base + SEQ, seq, seq + 1)) {
+                break;
+            }
+            Thread.onSpinWait(); // 다른 스레드가 쓰는 중
+        }
+        if (updateId != 0 && updateId < data[base + UPDATE_ID]) {
+            LONGS.setRelease(data, base + SEQ, seq); // 필드를 바꾸지 않았으므로 원래 seq 로 되돌림
+            return false;
+        }
+        VarHandle.storeStoreFence(); // 홀수 seq 가 필드보다 먼저 보이도록
+        data[base + UPDATE_ID] = updateId;
+        data[base + EVENT_TIME] = eventTime;
+        data[base + TRANSACTION_TIME] = transactionTime;
+        data[base + BID_PRICE] = bidPrice;
+        data[base + BID_QUANTITY] = bidQuantity;
+        data[base + ASK_PRICE] = askPrice;
+        data[base + ASK_QUANTITY] = askQuantity;
+        LONGS.setRelease(data, base + SEQ, seq + 2);
+        return true;
+    }
+
+    /**
+     * ✅ 최우선 호가를 일관된 한 묶음으로 읽습니다. (아직 기록된 적이 없으면 false)
+     */
+    public boolean read(int slot, Quote out) {
+        int base = slot * STRIDE;
+        while (true) {
+            long before = (long) LONGS.getAcquire(data, base + SEQ);
+            if (before == 0) {
+                return false;
+            }
+            if ((before & 1) != 0) {
+                Thread.onSpinWait(); // 쓰는 중
+                continue;
+            }
+            out.updateId = data[base + UPDATE_ID];
+            out.eventTime = data[base + EVENT_TIME];
+            out.transactionTime = data[base + TRANSACTION_TIME];
+            out.bidPrice = data[base + BID_PRICE];
+            out.bidQuantity = data[base + BID_QUANTITY];
+            out.askPrice = data[base + ASK_PRICE];
+            out.askQuantity = data[base + ASK_QUANTITY];
+            VarHandle.loadLoadFence(); // 필드 읽기가 아래 seq 확인보다 뒤로 밀리지 않도록
+            if ((long) LONGS.getOpaque(data, base + SEQ) == before) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 칸의 마지막 updateId (변경 확인용, 단일 값이므로 seqlock 없이 읽음)
+     */
+    public long updateId(int slot) {
+        return (long) LONGS.getOpaque(data, slot * STRIDE + UPDATE_ID);
+    }
+
+    /**
+     * 칸의 쓰기 횟수 (seq / 2)
+     */
+    public long writes(int slot) {
+        return (long) LONGS.getAcquire(data, slot * STRIDE + SEQ) >>> 1;
+    }
+
+    public String symbol(int slot) {
+        return symbols[slot];
+    }
+
+    /**
+     * 배정된 칸 수 (0 ~ size-1 이 유효)
+     */
+    public int size() {
+        synchronized (slots) {
+            return size;
+        }
+    }
+
+    public int capacity() {
+        return symbols.length;
+    }
+}
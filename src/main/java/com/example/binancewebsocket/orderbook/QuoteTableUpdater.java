@@ -0,0 +1,99 @@
+package com.example.binancewebsocket.orderbook;
+
+import com.example.binancewebsocket.dto.BinanceBookTickerDTO;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestFilter;
+import com.example.binancewebsocket.stream.StreamKey;
+import com.example.binancewebsocket.stream.StreamType;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * parse 스테이지에서 {@code <symbol>@bookTicker} 이벤트를 {@link QuoteTable} 에 기록하는 필터.
+ * <p>
+ * - 파이프라인(샤드)마다 하나씩 만들어지며, 한 심볼의 bookTicker 는 보통 같은 parse 스레드에서 기록됩니다.
+ *   심볼 이동 / 재샤딩 중 두 파이프라인이 함께 쓰는 경우는 {@link QuoteTable#write} 가 칸을 CAS 로 잠그고 역순 기록을 버립니다.
+ * - 테이블 칸 번호는 StreamKey.id 로 인덱싱한 int[] 에 캐시합니다.
+ * - bookTicker 는 테이블에 반영된 것으로 끝나므로 false 를 반환하여 persist 를 생략합니다. (저장은 테이블을 주기적으로 읽어 모아서)
+ *   이중화 사용 시 {@link com.example.binancewebsocket.stream.ReplicaArbiter} 뒤에 연결합니다.
+ */
+public final class QuoteTableUpdater implements IngestFilter {
+
+    private static final int INITIAL_STREAMS = 256;
+    private static final int UNASSIGNED = -2;
+
+    private final QuoteTable table;
+    private int[] slots = newSlots(INITIAL_STREAMS);
+
+    // --- 통계 ---
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong overflow = new AtomicLong();
+
+    public QuoteTableUpdater(QuoteTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public boolean accept(IngestEvent event) {
+        StreamKey key = event.getStreamKey();
+        if (key == null || key.type() != StreamType.BOOK_TICKER) {
+            return true;
+        }
+        int slot = slotOf(key);
+        if (slot < 0) {
+            overflow.lazySet(overflow.get() + 1);
+            return false;
+        }
+        BinanceBookTickerDTO ticker = (BinanceBookTickerDTO) event.getPayload();
+        if (table.write(slot, ticker.getUpdateId(), ticker.getEventTime(), ticker.getTransactionTime(),
+                ticker.getBestBidPrice(), ticker.getBestBidQuantity(),
+                ticker.getBestAskPrice(), ticker.getBestAskQuantity())) {
+            updates.lazySet(updates.get() + 1);
+        } else {
+            stale.lazySet(stale.get() + 1); // 재연결 직후 / 이동 중 다른 파이프라인보다 늦은 역순 이벤트
+        }
+        return false;
+    }
+
+    private int slotOf(StreamKey key) {
+        int id = key.id();
+        if (id < 0) {
+            return table.slotOf(key.symbol()); // 등록되지 않은 스트림 (드묾)
+        }
+        if (id >= slots.length) {
+            int capacity = slots.length;
+            while (capacity <= id) {
+                capacity <<= 1;
+            }
+            int previous = slots.length;
+            slots = Arrays.copyOf(slots, capacity);
+            Arrays.fill(slots, previous, capacity, UNASSIGNED);
+        }
+        int slot = slots[id];
+        if (slot == UNASSIGNED) {
+            slot = table.slotOf(key.symbol());
+            slots[id] = slot;
+        }
+        return slot;
+    }
+
+    private static int[] newSlots(int size) {
+        int[] slots = new int[size];
+        Arrays.fill(slots, UNASSIGNED);
+        return slots;
+    }
+
+    public long getUpdates() {
+        return updates.get();
+    }
+
+    public long getStale() {
+        return stale.get();
+    }
+
+    public long getOverflow() {
+        return overflow.get();
+    }
+}
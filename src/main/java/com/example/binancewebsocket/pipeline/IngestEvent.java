@@ -0,0 +1,145 @@
+package com.example.binancewebsocket.pipeline;
+
+import com.example.binancewebsocket.stream.StreamKey;
+
+/**
+ * 링 버퍼의 한 슬롯.
+ * 버퍼 생성 시 미리 할당되어 계속 재사용되며, 스테이지를 거치며 필드가 채워집니다.
+ *
+ * <pre>
+ *   read thread : frame, receivedAtNanos, source (저널 재생이면 journalPosition)
+ *   parse stage : (저널 사용 시) journalPosition, streamKey, payload, partitionKey
+ *   persist     : payload 사용 후 clear()
+ * </pre>
+ * 풀 모드에서는 parse 스테이지가 {@link #acquireRecycled} 로 재사용 payload 를 받아 채우고,
+ * persist 가 슬롯을 지나간 뒤 parse 스레드가 회수합니다. (persist 는 payload 참조를 저장 이후까지 들고 있으면 안 됨,
+ * 들고 있어야 하면 {@link #retainPayload()} 로 회수 대상에서 빼야 함)
+ */
+public final class IngestEvent {
+
+    // --- 수신 스레드가 채우는 값 ---
+    private String frame;            // 원본 WebSocket 메시지
+    private long receivedAtNanos;    // 수신 시각 (System.nanoTime)
+    private int source;              // 프레임을 받은 연결 번호 (이중화 연결 구분, 단일 연결이면 0)
+    private long journalPosition;    // 저널에 기록된 레코드 끝 위치 (-1 이면 기록 안 됨)
+
+    // --- parse 스테이지가 채우는 값 ---
+    private StreamKey streamKey;     // 해석된 combined stream (예: btcusdt@trade)
+    private Object payload;          // 파싱된 DTO (null 이면 persist 생략)
+    private int partitionKey;        // persist 소비자 분배 키 (같은 키는 같은 소비자 → 순서 보장)
+
+    // --- 풀 모드 (parse 스레드 전용, persist 의 clear() 와 무관. 예외: persist 의 retainPayload()) ---
+    private PayloadPool pool;        // 파이프라인의 재사용 풀 (null 이면 풀 모드 아님)
+    private Object recyclable;       // 회수 대상 payload
+    private int recyclableType = -1; // 회수할 free-list 종류
+
+    void publish(String frame, long receivedAtNanos, int source, long journalPosition) {
+        this.frame = frame;
+        this.receivedAtNanos = receivedAtNanos;
+        this.source = source;
+        this.journalPosition = journalPosition;
+        this.streamKey = null;
+        this.payload = null;
+        this.partitionKey = 0;
+    }
+
+    /**
+     * 처리가 끝난 슬롯의 참조를 끊어 GC 가 회수할 수 있도록 합니다.
+     */
+    void clear() {
+        this.frame = null;
+        this.streamKey = null;
+        this.payload = null;
+    }
+
+    void setPool(PayloadPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 회수 대상 payload 를 풀에 돌려줍니다. (parse 스레드, persist 가 이 슬롯을 지나간 뒤)
+     */
+    void recycle() {
+        if (recyclable != null) {
+            pool.release(recyclableType, recyclable);
+            recyclable = null;
+            recyclableType = -1;
+        }
+    }
+
+    /**
+     * 풀 모드이면 회수된 payload 를 꺼냅니다. (없거나 풀 모드가 아니면 null)
+     */
+    public Object acquireRecycled(int type) {
+        return pool != null ? pool.acquire(type) : null;
+    }
+
+    /**
+     * 풀에서 받은(또는 새로 만든) payload 를 설정하고, persist 이후 회수되도록 표시합니다.
+     */
+    public void setRecyclablePayload(Object payload, int type) {
+        this.payload = payload;
+        if (pool != null) {
+            this.recyclable = payload;
+            this.recyclableType = type;
+        }
+    }
+
+    /**
+     * persist 스테이지가 payload 를 저장 이후까지 보관할 때 호출합니다. (예: group commit 대기열)
+     * 회수 대상에서 빼므로 풀은 다음 payload 를 새로 할당합니다.
+     * persist 스레드가 쓰지만, parse 스레드는 persist 진행 위치(Sequence)를 읽은 뒤에만 회수하므로 안전합니다.
+     */
+    public void retainPayload() {
+        this.recyclable = null;
+        this.recyclableType = -1;
+    }
+
+    public boolean isPooled() {
+        return pool != null;
+    }
+
+    public String getFrame() {
+        return frame;
+    }
+
+    public long getReceivedAtNanos() {
+        return receivedAtNanos;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    void setJournalPosition(long journalPosition) {
+        this.journalPosition = journalPosition;
+    }
+
+    public StreamKey getStreamKey() {
+        return streamKey;
+    }
+
+    public void setStreamKey(StreamKey streamKey) {
+        this.streamKey = streamKey;
+    }
+
+    public Object getPayload() {
+        return payload;
+    }
+
+    public void setPayload(Object payload) {
+        this.payload = payload;
+    }
+
+    public int getPartitionKey() {
+        return partitionKey;
+    }
+
+    public void setPartitionKey(int partitionKey) {
+        this.partitionKey = partitionKey;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.binancewebsocket.pipeline;
+
+/**
+ * parse 스테이지에서 handler.onParse() 직후 호출되는 필터.
+ * parse 스레드 하나에서만 호출되므로 구현체는 동기화 없이 상태를 가질 수 있습니다.
+ */
+@FunctionalInterface
+public interface IngestFilter {
+
+    /**
+     * @return false 이면 payload 를 비워 persist 를 생략합니다.
+     */
+    boolean accept(IngestEvent event);
+
+    /**
+     * 이 필터를 통과한 이벤트에만 next 를 적용합니다. (null 이면 this)
+     */
+    default IngestFilter and(IngestFilter next) {
+        if (next == null) {
+            return this;
+        }
+        return event -> accept(event) && next.accept(event);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.binancewebsocket.pipeline;
+
+/**
+ * 링 버퍼 소비자 스테이지에서 호출되는 처리기.
+ */
+public interface IngestHandler {
+
+    /**
+     * parse 스테이지 (단일 스레드) : event.frame 을 해석하여 stream / payload / partitionKey 를 채웁니다.
+     */
+    void onParse(IngestEvent event) throws Exception;
+
+    /**
+     * persist 스테이지 (partitionKey 별 소비자 스레드) : payload 를 저장합니다.
+     */
+    void onPersist(IngestEvent event) throws Exception;
+
+    /**
+     * true 이면 parse 스테이지가 회수된 payload 를 재사용합니다. (파이프라인이 payload 풀을 켬)
+     * 이 경우 onPersist 는 반환 후 payload 참조를 들고 있으면 안 됩니다.
+     */
+    default boolean reusesPayloads() {
+        return false;
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.binancewebsocket.pipeline;
+
+import com.example.binancewebsocket.journal.IngestJournal;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * WebSocket 수신 스레드와 DB 저장 사이의 비동기 처리 파이프라인.
+ *
+ * <pre>
+ *   read thread ──publish──▶ [ring buffer] ──▶ parse stage (1 thread) ──▶ filter (선택)
+ *                                                   │
+ *                                                   ▼
+ *                                   persist stage × N (partitionKey % N)
+ * </pre>
+ * 같은 스트림을 여러 연결로 받는 경우(이중화) 생산자가 여럿이 되며, 중복 프레임은 parse 스레드의 filter 에서 걸러집니다.
+ * <p>
+ * 수신 스레드는 프레임을 링 버퍼에 기록만 하고 즉시 반환하므로,
+ * MySQL 지연이 WebSocket read loop 를 막지 않습니다.
+ * <p>
+ * {@link #enablePayloadPool(int)} 를 켜면 persist 가 끝난 슬롯의 payload 를 parse 스레드가 회수하여
+ * 다음 메시지 디코딩에 재사용합니다. (정상 상태에서 메시지당 DTO 할당 없음)
+ * <p>
+ * {@link #enableJournal(IngestJournal)} 를 켜면 parse 스레드가 원본 프레임을 파싱 전에 저널에 기록하고,
+ * persist 소비자가 모두 지나간 레코드 위치를 {@link #getPersistedJournalPosition()} 로 알려줍니다.
+ * (재시작 시 commit 이후 프레임은 {@link #replay} 로 다시 넣음)
+ */
+public final class IngestPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestPipeline.class);
+
+    private final String name;
+    private final IngestRingBuffer ringBuffer;
+    private final IngestHandler handler;
+    private final IngestFilter filter;
+    private final WaitStrategy waitStrategy;
+
+    // --- 스테이지별 진행 위치 ---
+    private final Sequence parseSequence = new Sequence();
+    private final Sequence[] persistSequences;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    // --- payload 재사용 (parse 스레드 전용) ---
+    private PayloadPool payloadPool;
+    private long reclaimCursor;          // 다음에 회수할 슬롯 sequence
+    private long releasedSequence = -1;  // 마지막으로 확인한 persist 완료 위치
+
+    // --- 저널 (기록은 parse 스레드, 위치는 persist 소비자별) ---
+    private IngestJournal journal;
+    private Sequence[] journalPositions; // persist 소비자별로 지나간 마지막 레코드 위치
+
+    // --- 통계 ---
+    private final AtomicLong parseErrors = new AtomicLong();
+    private final AtomicLong persistErrors = new AtomicLong();
+    private final AtomicLong journalErrors = new AtomicLong();
+
+    public IngestPipeline(String name, int ringSize, WaitStrategy waitStrategy, int persistThreads, IngestHandler handler) {
+        this(name, ringSize, waitStrategy, persistThreads, handler, 1, null);
+    }
+
+    /**
+     * @param producers 발행 스레드 수 (2 이상이면 다중 생산자 링 버퍼)
+     * @param filter    parse 직후 적용할 필터 (null 이면 사용 안 함)
+     */
+    public IngestPipeline(String name, int ringSize, WaitStrategy waitStrategy, int persistThreads, IngestHandler handler,
+                          int producers, IngestFilter filter) {
+        if (persistThreads < 1) {
+            throw new IllegalArgumentException("persist-threads 는 1 이상이어야 합니다: " + persistThreads);
+        }
+        this.name = name;
+        this.handler = handler;
+        this.filter = filter;
+        this.waitStrategy = waitStrategy;
+        this.ringBuffer = new IngestRingBuffer(ringSize, waitStrategy, producers > 1);
+        this.persistSequences = new Sequence[persistThreads];
+        for (int i = 0; i < persistThreads; i++) {
+            persistSequences[i] = new Sequence();
+        }
+        // 생산자는 parse / persist 모두를 추월할 수 없음
+        ringBuffer.addGatingSequences(parseSequence);
+        ringBuffer.addGatingSequences(persistSequences);
+    }
+
+    /**
+     * payload 재사용 풀을 켭니다. (start 전에 호출, 종류별 최대 capacity 개 보관)
+     */
+    public synchronized void enablePayloadPool(int capacity) {
+        if (running) {
+            throw new IllegalStateException("payload 풀은 파이프라인 시작 전에 설정해야 합니다: " + name);
+        }
+        payloadPool = new PayloadPool(capacity);
+        for (int i = 0; i < ringBuffer.getBufferSize(); i++) {
+            ringBuffer.get(i).setPool(payloadPool);
+        }
+    }
+
+    /**
+     * 수신 프레임 저널을 켭니다. (start 전에 호출)
+     */
+    public synchronized void enableJournal(IngestJournal journal) {
+        if (running) {
+            throw new IllegalStateException("저널은 파이프라인 시작 전에 설정해야 합니다: " + name);
+        }
+        this.journal = journal;
+        this.journalPositions = new Sequence[persistSequences.length];
+        for (int i = 0; i < journalPositions.length; i++) {
+            journalPositions[i] = new Sequence();
+        }
+    }
+
+    /**
+     * 소비자 스레드를 시작합니다.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        threads.add(startThread("parse", () ->
+                runStage(parseSequence, ringBuffer.getCursor(), true, this::parse)));
+
+        int persistThreads = persistSequences.length;
+        for (int i = 0; i < persistThreads; i++) {
+            final int index = i;
+            threads.add(startThread("persist-" + i, () ->
+                    runStage(persistSequences[index], parseSequence, false, event -> persist(event, index, persistThreads))));
+        }
+        logger.info("✅ Ingest 파이프라인 [{}] 시작 (ring-size={}, wait-strategy={}, persist-threads={})",
+                name, ringBuffer.getBufferSize(), waitStrategy, persistThreads);
+    }
+
+    /**
+     * ✅ 수신 프레임 발행 (WebSocket read thread 전용)
+     */
+    public void publish(String frame) {
+        ringBuffer.publish(frame, System.nanoTime(), 0);
+    }
+
+    /**
+     * ✅ 수신 프레임 발행 (이중화 연결의 read thread, source = 연결 번호)
+     */
+    public void publish(String frame, int source) {
+        ringBuffer.publish(frame, System.nanoTime(), source);
+    }
+
+    /**
+     * ✅ 저널에서 읽은 프레임 발행 (시작 시 수신 연결 전, 저널에 다시 기록하지 않음)
+     *
+     * @param journalPosition 저널 레코드 끝 위치
+     */
+    public void replay(String frame, int source, long journalPosition) {
+        ringBuffer.publish(frame, System.nanoTime(), source, journalPosition);
+    }
+
+    /**
+     * 모든 persist 소비자가 처리한 마지막 저널 위치 (저널을 쓰지 않거나 아직 없으면 -1)
+     * 이 위치 이전의 프레임은 저장 서비스에 전달되었습니다. (group commit 대기열 등 이후 단계는 별도 확인)
+     */
+    public long getPersistedJournalPosition() {
+        return journalPositions != null ? Sequence.minimum(journalPositions, Long.MAX_VALUE) : -1;
+    }
+
+    /**
+     * 남은 이벤트를 최대 timeoutMs 동안 처리한 뒤 소비자 스레드를 종료합니다.
+     */
+    public synchronized void shutdown(long timeoutMs) {
+        if (!running) {
+            return;
+        }
+        logger.info("🛑 Ingest 파이프라인 [{}] 종료 시작 (남은 이벤트: {})", name, ringBuffer.getDepth());
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (ringBuffer.getDepth() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        long remaining = ringBuffer.getDepth();
+        if (remaining > 0) {
+            logger.warn("⚠️ Ingest 파이프라인 [{}] 종료 시 처리되지 못한 이벤트: {}", name, remaining);
+        }
+
+        running = false;
+        waitStrategy.signalAllWhenBlocking();
+        for (Thread thread : threads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(1));
+                if (thread.isAlive()) {
+                    thread.interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        threads.clear();
+        logger.info("Ingest 파이프라인 [{}] 종료 완료.", name);
+    }
+
+    /**
+     * 큐 깊이 / 스테이지 지연 / 오류 수를 Micrometer 에 등록합니다.
+     */
+    public void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("binance.ingest.ring.depth", ringBuffer, IngestRingBuffer::getDepth)
+                .tag("pipeline", name)
+                .description("발행되었지만 아직 모든 소비자가 처리하지 않은 이벤트 수")
+                .register(registry);
+        Gauge.builder("binance.ingest.ring.remaining", ringBuffer, IngestRingBuffer::getRemainingCapacity)
+                .tag("pipeline", name)
+                .register(registry);
+        Gauge.builder("binance.ingest.ring.capacity", ringBuffer, IngestRingBuffer::getBufferSize)
+                .tag("pipeline", name)
+                .register(registry);
+        Gauge.builder("binance.ingest.stage.lag", parseSequence, seq -> ringBuffer.getCursor().get() - seq.get())
+                .tags("pipeline", name, "stage", "parse")
+                .register(registry);
+        for (int i = 0; i < persistSequences.length; i++) {
+            Gauge.builder("binance.ingest.stage.lag", persistSequences[i], seq -> parseSequence.get() - seq.get())
+                    .tags("pipeline", name, "stage", "persist-" + i)
+                    .register(registry);
+        }
+        FunctionCounter.builder("binance.ingest.ring.producer.waits", ringBuffer, IngestRingBuffer::getProducerWaits)
+                .tag("pipeline", name)
+                .description("버퍼가 가득 차 수신 스레드가 대기한 횟수")
+                .register(registry);
+        FunctionCounter.builder("binance.ingest.errors", parseErrors, AtomicLong::get)
+                .tags("pipeline", name, "stage", "parse")
+                .register(registry);
+        FunctionCounter.builder("binance.ingest.errors", persistErrors, AtomicLong::get)
+                .tags("pipeline", name, "stage", "persist")
+                .register(registry);
+        if (journal != null) {
+            FunctionCounter.builder("binance.ingest.errors", journalErrors, AtomicLong::get)
+                    .tags("pipeline", name, "stage", "journal")
+                    .register(registry);
+        }
+        if (payloadPool != null) {
+            FunctionCounter.builder("binance.ingest.pool.acquire", payloadPool, PayloadPool::getHits)
+                    .tags("pipeline", name, "result", "hit")
+                    .description("재사용 payload 획득 수 (miss 는 새로 할당)")
+                    .register(registry);
+            FunctionCounter.builder("binance.ingest.pool.acquire", payloadPool, PayloadPool::getMisses)
+                    .tags("pipeline", name, "result", "miss")
+                    .register(registry);
+        }
+    }
+
+    // --- 스테이지 구현 ---
+
+    private void parse(IngestEvent event) {
+        if (payloadPool != null) {
+            reclaim();
+        }
+        if (journal != null && event.getJournalPosition() < 0) {
+            append(event);
+        }
+        try {
+            handler.onParse(event);
+            if (filter != null && event.getPayload() != null && !filter.accept(event)) {
+                event.setPayload(null);
+            }
+        } catch (Exception e) {
+            parseErrors.incrementAndGet();
+            event.setPayload(null);
+            logger.error("❌ WebSocket 메시지 처리 오류: ", e);
+        }
+    }
+
+    /**
+     * 원본 프레임을 저널에 기록합니다. 실패해도 수집은 계속합니다. (해당 프레임은 재생 대상이 아님)
+     */
+    private void append(IngestEvent event) {
+        try {
+            event.setJournalPosition(journal.append(event.getFrame(), event.getSource()));
+        } catch (Exception e) {
+            if (journalErrors.incrementAndGet() == 1) {
+                logger.error("❌ [{}] 저널 기록 오류: ", name, e);
+            }
+        }
+    }
+
+    /**
+     * 모든 persist 소비자가 지나간 슬롯의 payload 를 풀로 회수합니다.
+     */
+    private void reclaim() {
+        if (reclaimCursor > releasedSequence) {
+            releasedSequence = Sequence.minimum(persistSequences, Long.MAX_VALUE);
+        }
+        while (reclaimCursor <= releasedSequence) {
+            ringBuffer.get(reclaimCursor).recycle();
+            reclaimCursor++;
+        }
+    }
+
+    private void persist(IngestEvent event, int index, int persistThreads) {
+        if (Math.floorMod(event.getPartitionKey(), persistThreads) == index) { // 아니면 다른 persist 소비자 담당
+            store(event);
+        }
+        if (journalPositions != null && event.getJournalPosition() >= 0) {
+            journalPositions[index].set(event.getJournalPosition()); // 이 소비자는 이 레코드까지 지나감
+        }
+    }
+
+    private void store(IngestEvent event) {
+        try {
+            if (event.getPayload() != null) {
+                handler.onPersist(event);
+            }
+        } catch (Exception e) {
+            persistErrors.incrementAndGet();
+            logger.error("❌ [{}] 저장 오류: ", event.getStreamKey() != null ? event.getStreamKey().stream() : null, e);
+        } finally {
+            event.clear();
+        }
+    }
+
+    private void runStage(Sequence own, Sequence dependency, boolean signalDownstream, StageProcessor processor) {
+        long next = own.get() + 1;
+        BooleanSupplier isRunning = () -> running; // 대기마다 람다를 새로 만들지 않도록 한 번만 생성
+        while (true) {
+            long available;
+            try {
+                available = waitStrategy.waitFor(next, dependency, isRunning);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (available < next) {
+                if (!running) {
+                    break;
+                }
+                continue;
+            }
+
+            while (next <= available) {
+                processor.process(ringBuffer.get(next));
+                next++;
+            }
+            own.set(available);
+            if (signalDownstream) {
+                waitStrategy.signalAllWhenBlocking();
+            }
+        }
+    }
+
+    private Thread startThread(String stage, Runnable runnable) {
+        Thread thread = new Thread(runnable, "binance-ingest-" + name + "-" + stage);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public IngestRingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @FunctionalInterface
+    private interface StageProcessor {
+        void process(IngestEvent event);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.binancewebsocket.pipeline;
+
+import com.example.binancewebsocket.journal.IngestJournal;
+import com.example.binancewebsocket.journal.IngestJournals;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 설정값(binance.ingest.*)을 기반으로 IngestPipeline 을 생성합니다.
+ */
+@Component
+public class IngestPipelineFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestPipelineFactory.class);
+
+    private final MeterRegistry meterRegistry;
+    private final IngestJournals journals;
+
+    // --- 설정값 ---
+    @Value("${binance.ingest.ring-size:65536}") // 링 버퍼 슬롯 수 (2의 거듭제곱)
+    private int ringSize;
+
+    @Value("${binance.ingest.wait-strategy:sleeping}") // busy-spin | yielding | sleeping | blocking
+    private String waitStrategy;
+
+    @Value("${binance.ingest.persist-threads:4}") // persist 소비자 스레드 수
+    private int persistThreads;
+
+    @Value("${binance.ingest.shutdown-timeout-ms:10000}") // 종료 시 남은 이벤트 처리 대기 시간
+    private long shutdownTimeoutMs;
+
+    @Value("${binance.ingest.pool-capacity:4096}") // 풀 모드에서 종류별로 보관할 재사용 payload 수
+    private int poolCapacity;
+
+    public IngestPipelineFactory(MeterRegistry meterRegistry, IngestJournals journals) {
+        this.meterRegistry = meterRegistry;
+        this.journals = journals;
+    }
+
+    /**
+     * 새 파이프라인을 생성하고 메트릭을 등록한 뒤 시작합니다.
+     */
+    public IngestPipeline create(String name, IngestHandler handler) {
+        return create(name, handler, 1, null);
+    }
+
+    /**
+     * 여러 연결이 같은 파이프라인에 발행하는 경우 (producers > 1) 다중 생산자 링 버퍼로 생성합니다.
+     * 저널을 사용하면 시작 직후 commit 이후 프레임을 재생한 뒤 반환합니다. (수신 연결 전)
+     */
+    public IngestPipeline create(String name, IngestHandler handler, int producers, IngestFilter filter) {
+        IngestPipeline pipeline = new IngestPipeline(name, ringSize, WaitStrategy.of(waitStrategy), persistThreads, handler,
+                producers, filter);
+        if (handler.reusesPayloads()) {
+            pipeline.enablePayloadPool(poolCapacity);
+        }
+        IngestJournal journal = journals.open(name);
+        if (journal != null) {
+            pipeline.enableJournal(journal);
+        }
+        pipeline.registerMetrics(meterRegistry);
+        pipeline.start();
+        if (journal != null) {
+            replay(pipeline, journal);
+            journals.track(journal, pipeline::getPersistedJournalPosition);
+        }
+        return pipeline;
+    }
+
+    private void replay(IngestPipeline pipeline, IngestJournal journal) {
+        long startedAt = System.nanoTime();
+        try {
+            long replayed = journal.replay(pipeline::replay);
+            if (replayed > 0) {
+                logger.info("✅ [{}] 저널 재생 {}건 ({}ms)", pipeline.getName(), replayed, (System.nanoTime() - startedAt) / 1_000_000);
+            }
+        } catch (IOException e) {
+            logger.error("❌ [{}] 저널 재생 오류: {}", pipeline.getName(), e.getMessage(), e);
+        }
+    }
+
+    public long getShutdownTimeoutMs() {
+        return shutdownTimeoutMs;
+    }
+}
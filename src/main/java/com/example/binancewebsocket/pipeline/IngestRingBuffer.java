@@ -0,0 +1,160 @@
+package com.example.binancewebsocket.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WebSocket read thread → 다중 소비자 링 버퍼.
+ * <p>
+ * - 슬롯(IngestEvent)은 생성 시 모두 미리 할당되고 재사용됩니다.
+ * - 생산자는 가장 느린 소비자(gating sequence)를 한 바퀴 이상 앞지를 수 없습니다. (bounded)
+ * - 단일 생산자 모드에서는 publish() 를 반드시 하나의 스레드에서만 호출해야 합니다.
+ * - 다중 생산자 모드(같은 스트림을 받는 이중화 연결)에서는 publish() 를 짧은 락으로 직렬화합니다.
+ *   생산자 수가 2~3개이고 임계 구역이 슬롯 기록 + cursor 갱신뿐이므로 경합 비용은 작고,
+ *   소비자 쪽은 단일 생산자와 동일하게 cursor 만 보고 진행할 수 있습니다.
+ */
+public final class IngestRingBuffer {
+
+    private final IngestEvent[] entries;
+    private final int bufferSize;
+    private final int indexMask;
+    private final WaitStrategy waitStrategy;
+    private final boolean multiProducer;
+
+    // 발행 완료된 마지막 sequence
+    private final Sequence cursor = new Sequence();
+    // 생산자가 추월하면 안 되는 소비자 sequence 목록
+    private volatile Sequence[] gatingSequences = new Sequence[0];
+
+    // --- 생산자 전용 상태 (단일 생산자이거나 publishLock 안에서만 접근) ---
+    private long nextValue = Sequence.INITIAL_VALUE;
+    private long cachedGatingValue = Sequence.INITIAL_VALUE;
+
+    // 버퍼가 가득 차서 생산자가 대기한 횟수
+    private final AtomicLong producerWaits = new AtomicLong();
+
+    private final Object publishLock = new Object();
+
+    public IngestRingBuffer(int bufferSize, WaitStrategy waitStrategy) {
+        this(bufferSize, waitStrategy, false);
+    }
+
+    public IngestRingBuffer(int bufferSize, WaitStrategy waitStrategy, boolean multiProducer) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("ring-size 는 2의 거듭제곱이어야 합니다: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.indexMask = bufferSize - 1;
+        this.waitStrategy = waitStrategy;
+        this.multiProducer = multiProducer;
+        this.entries = new IngestEvent[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = new IngestEvent();
+        }
+    }
+
+    /**
+     * 소비자 sequence 를 등록합니다. 소비자 스레드 시작 전에 호출해야 합니다.
+     */
+    public synchronized void addGatingSequences(Sequence... sequences) {
+        Sequence[] current = this.gatingSequences;
+        Sequence[] updated = new Sequence[current.length + sequences.length];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        System.arraycopy(sequences, 0, updated, current.length, sequences.length);
+        this.gatingSequences = updated;
+    }
+
+    /**
+     * ✅ 원본 프레임을 다음 슬롯에 기록하고 발행합니다. (read thread)
+     * 버퍼가 가득 찬 경우 가장 느린 소비자가 슬롯을 비울 때까지 대기합니다.
+     *
+     * @param source 프레임을 받은 연결 번호 (이중화 연결 구분용, 단일 연결이면 0)
+     */
+    public long publish(String frame, long receivedAtNanos, int source) {
+        return publish(frame, receivedAtNanos, source, -1);
+    }
+
+    /**
+     * 저널에서 재생한 프레임 발행 (journalPosition = 저널 레코드 끝 위치, 다시 기록하지 않음)
+     */
+    public long publish(String frame, long receivedAtNanos, int source, long journalPosition) {
+        long sequence;
+        if (multiProducer) {
+            synchronized (publishLock) {
+                sequence = publishInternal(frame, receivedAtNanos, source, journalPosition);
+            }
+        } else {
+            sequence = publishInternal(frame, receivedAtNanos, source, journalPosition);
+        }
+        waitStrategy.signalAllWhenBlocking();
+        return sequence;
+    }
+
+    public long publish(String frame, long receivedAtNanos) {
+        return publish(frame, receivedAtNanos, 0);
+    }
+
+    private long publishInternal(String frame, long receivedAtNanos, int source, long journalPosition) {
+        long sequence = next();
+        entries[(int) sequence & indexMask].publish(frame, receivedAtNanos, source, journalPosition);
+        cursor.set(sequence);
+        return sequence;
+    }
+
+    private long next() {
+        long next = nextValue + 1;
+        long wrapPoint = next - bufferSize;
+
+        if (wrapPoint > cachedGatingValue) {
+            long minSequence;
+            boolean waited = false;
+            while (wrapPoint > (minSequence = Sequence.minimum(gatingSequences, next - 1))) {
+                if (!waited) {
+                    producerWaits.incrementAndGet();
+                    waited = true;
+                }
+                LockSupport.parkNanos(1L);
+            }
+            cachedGatingValue = minSequence;
+        }
+
+        nextValue = next;
+        return next;
+    }
+
+    public IngestEvent get(long sequence) {
+        return entries[(int) sequence & indexMask];
+    }
+
+    public Sequence getCursor() {
+        return cursor;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public boolean isMultiProducer() {
+        return multiProducer;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 발행되었지만 아직 모든 소비자가 처리하지 않은 이벤트 수 (queue depth)
+     */
+    public long getDepth() {
+        long produced = cursor.get();
+        return produced - Sequence.minimum(gatingSequences, produced);
+    }
+
+    public long getRemainingCapacity() {
+        return bufferSize - getDepth();
+    }
+
+    public long getProducerWaits() {
+        return producerWaits.get();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.binancewebsocket.pipeline;
+
+import java.util.Arrays;
+
+/**
+ * parse 스레드 전용 payload 재사용 풀. (종류별 free-list)
+ *
+ * <pre>
+ *   parse    : acquire(type) → 디코더가 reset 후 채움 → 슬롯에 기록
+ *   persist  : 저장 후 슬롯을 지나감 (persist sequence 전진 = 반납)
+ *   parse    : persist 가 지나간 슬롯의 payload 를 release(type) 로 회수
+ * </pre>
+ * - 획득 / 회수 모두 parse 스레드에서만 일어나므로 동기화가 없습니다.
+ *   persist 스레드가 쓴 값은 persist sequence(volatile) 를 읽은 뒤에 회수하므로 안전하게 보입니다.
+ * - 종류별로 capacity 개까지만 보관하고 넘치는 객체는 GC 에 맡깁니다.
+ */
+public final class PayloadPool {
+
+    private final int capacity;
+    private Object[][] free = new Object[8][];
+    private int[] sizes = new int[8];
+
+    // --- 통계 (parse 스레드만 기록, 메트릭은 근사값으로 읽음) ---
+    private volatile long hits;
+    private volatile long misses;
+
+    public PayloadPool(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("pool capacity 는 1 이상이어야 합니다: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * 회수된 객체를 꺼냅니다. (없으면 null → 호출자가 새로 생성)
+     */
+    public Object acquire(int type) {
+        if (type < sizes.length && sizes[type] > 0) {
+            int size = --sizes[type];
+            Object instance = free[type][size];
+            free[type][size] = null;
+            hits++;
+            return instance;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * 다 쓴 객체를 돌려받습니다.
+     */
+    public void release(int type, Object instance) {
+        if (type >= sizes.length) {
+            int length = Math.max(type + 1, sizes.length * 2);
+            free = Arrays.copyOf(free, length);
+            sizes = Arrays.copyOf(sizes, length);
+        }
+        Object[] stack = free[type];
+        int size = sizes[type];
+        if (stack == null) {
+            stack = new Object[Math.min(capacity, 64)];
+            free[type] = stack;
+        } else if (size == stack.length) {
+            if (size >= capacity) {
+                return; // 상한 초과분은 버림
+            }
+            stack = Arrays.copyOf(stack, Math.min(capacity, size * 2));
+            free[type] = stack;
+        }
+        stack[size] = instance;
+        sizes[type] = size + 1;
+    }
+
+    public int size(int type) {
+        return type < sizes.length ? sizes[type] : 0;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
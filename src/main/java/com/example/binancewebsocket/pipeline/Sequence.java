@@ -0,0 +1,68 @@
+package com.example.binancewebsocket.pipeline;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 링 버퍼의 생산자/소비자 위치(sequence)를 나타내는 카운터.
+ * 여러 스레드가 서로 다른 Sequence 를 갱신하므로 앞뒤로 패딩을 두어 false sharing 을 줄입니다.
+ */
+public final class Sequence {
+
+    public static final long INITIAL_VALUE = -1L;
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Sequence.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // --- 캐시 라인 패딩 (앞) ---
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+
+    private volatile long value;
+
+    // --- 캐시 라인 패딩 (뒤) ---
+    @SuppressWarnings("unused")
+    private long p9, p10, p11, p12, p13, p14, p15;
+
+    public Sequence() {
+        this(INITIAL_VALUE);
+    }
+
+    public Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    public long get() {
+        return value;
+    }
+
+    /**
+     * 다른 스레드가 이전 쓰기를 모두 볼 수 있도록 release 시맨틱으로 값을 갱신합니다.
+     */
+    public void set(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    /**
+     * 주어진 Sequence 배열 중 가장 작은 값을 반환합니다. (배열이 비어있으면 defaultValue)
+     */
+    public static long minimum(Sequence[] sequences, long defaultValue) {
+        long min = defaultValue;
+        for (Sequence sequence : sequences) {
+            min = Math.min(min, sequence.get());
+        }
+        return min;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
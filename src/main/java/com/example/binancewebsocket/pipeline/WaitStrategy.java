@@ -0,0 +1,168 @@
+package com.example.binancewebsocket.pipeline;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 소비자 스테이지가 다음 이벤트를 기다리는 방식.
+ * 지연 시간(latency)과 CPU 사용량 사이의 트레이드오프를 설정으로 선택할 수 있습니다.
+ *
+ * <ul>
+ *     <li>busy-spin : 가장 낮은 지연, 코어 하나를 계속 점유</li>
+ *     <li>yielding  : 짧게 spin 후 Thread.yield()</li>
+ *     <li>sleeping  : spin → yield → parkNanos 순으로 단계적 대기 (기본값)</li>
+ *     <li>blocking  : Lock/Condition 기반, CPU 사용 최소</li>
+ * </ul>
+ */
+public interface WaitStrategy {
+
+    /**
+     * dependency 가 sequence 이상이 될 때까지 대기하고, 사용 가능한 가장 큰 sequence 를 반환합니다.
+     * running 이 false 가 되면 대기를 중단하고 현재 dependency 값을 반환합니다. (sequence 보다 작을 수 있음)
+     */
+    long waitFor(long sequence, Sequence dependency, BooleanSupplier running) throws InterruptedException;
+
+    /**
+     * 새 이벤트가 발행되었음을 대기 중인 소비자에게 알립니다. (blocking 전략에서만 의미 있음)
+     */
+    default void signalAllWhenBlocking() {
+    }
+
+    /**
+     * 설정 문자열로부터 WaitStrategy 를 생성합니다.
+     */
+    static WaitStrategy of(String name) {
+        String normalized = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "busy-spin", "busyspin" -> new BusySpin();
+            case "yielding" -> new Yielding();
+            case "blocking" -> new Blocking();
+            case "sleeping", "" -> new Sleeping();
+            default -> throw new IllegalArgumentException("지원하지 않는 wait-strategy: " + name);
+        };
+    }
+
+    /**
+     * ✅ Busy Spin : Thread.onSpinWait() 로 계속 확인
+     */
+    final class BusySpin implements WaitStrategy {
+        @Override
+        public long waitFor(long sequence, Sequence dependency, BooleanSupplier running) {
+            long available;
+            while ((available = dependency.get()) < sequence && running.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public String toString() {
+            return "busy-spin";
+        }
+    }
+
+    /**
+     * ✅ Yielding : 일정 횟수 spin 후 다른 스레드에 CPU 양보
+     */
+    final class Yielding implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public long waitFor(long sequence, Sequence dependency, BooleanSupplier running) {
+            int counter = SPIN_TRIES;
+            long available;
+            while ((available = dependency.get()) < sequence && running.getAsBoolean()) {
+                if (counter > 0) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public String toString() {
+            return "yielding";
+        }
+    }
+
+    /**
+     * ✅ Sleeping : spin → yield → parkNanos 단계적 대기
+     */
+    final class Sleeping implements WaitStrategy {
+        private static final int RETRIES = 200;
+        private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+        @Override
+        public long waitFor(long sequence, Sequence dependency, BooleanSupplier running) {
+            int counter = RETRIES;
+            long available;
+            while ((available = dependency.get()) < sequence && running.getAsBoolean()) {
+                if (counter > 100) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else if (counter > 0) {
+                    counter--;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public String toString() {
+            return "sleeping";
+        }
+    }
+
+    /**
+     * ✅ Blocking : Condition 으로 대기하고 발행 시 깨움
+     * (신호 유실에 대비해 짧은 타임아웃으로 주기적으로 재확인)
+     */
+    final class Blocking implements WaitStrategy {
+        private static final long MAX_AWAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+
+        @Override
+        public long waitFor(long sequence, Sequence dependency, BooleanSupplier running) throws InterruptedException {
+            long available;
+            if ((available = dependency.get()) >= sequence) {
+                return available;
+            }
+            lock.lock();
+            try {
+                while ((available = dependency.get()) < sequence && running.getAsBoolean()) {
+                    published.awaitNanos(MAX_AWAIT_NANOS);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "blocking";
+        }
+    }
+}
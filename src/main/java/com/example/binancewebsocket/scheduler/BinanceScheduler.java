@@ -1,9 +1,11 @@
 package com.example.binancewebsocket.scheduler;
 
+import com.example.binancewebsocket.config.DataSourceWorkload;
 import com.example.binancewebsocket.mapper.SymbolMapper;
 import com.example.binancewebsocket.service.BinanceLongShortRatioService;
 import com.example.binancewebsocket.service.BinanceOpenInterestService;
 import com.example.binancewebsocket.service.BinanceOpenInterestStatisticsService;
+import com.example.binancewebsocket.service.BinancePartitionService;
 import com.example.binancewebsocket.service.BinanceTakerBuySellVolumeService;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -43,6 +45,8 @@ public class BinanceScheduler {
     private BinanceOpenInterestService binanceOpenInterestService;
     @Autowired
     private SymbolMapper symbolMapper;
+    @Autowired
+    private BinancePartitionService binancePartitionService;
 
     // 스레드 안전성을 위해 AtomicReference 사용
     private final AtomicReference<List<String>> symbolsRef = new AtomicReference<>(List.of());
@@ -54,6 +58,7 @@ public class BinanceScheduler {
         try {
             updateSymbolsList(); // symbols 리스트 초기화
             reconfigureExecutorService(); // ExecutorService 설정
+            maintainPartitions(); // 오늘 ~ 앞으로의 일별 파티션 준비
             logger.info("BinanceScheduler 초기화 성공. Symbols: {}", symbolsRef.get().size());
         } catch (Exception e) {
             logger.error("BinanceScheduler 초기화 중 오류 발생", e);
@@ -75,8 +80,27 @@ public class BinanceScheduler {
         }
     }
 
+    /**
+     * 매일 00:10 (UTC) 수집 테이블의 일별 파티션을 미리 만들고 보존 기간이 지난 파티션을 삭제합니다.
+     */
+    @Scheduled(cron = "${binance.partition.cron:0 10 0 * * *}", zone = "UTC")
+    public void maintainPartitions() {
+        if (!binancePartitionService.isEnabled()) {
+            return;
+        }
+        DataSourceWorkload previous = DataSourceWorkload.REST.enter(); // 실시간 수집 커넥션 풀과 분리
+        try {
+            binancePartitionService.maintain();
+        } catch (Exception e) {
+            logger.error("파티션 관리 중 오류 발생", e);
+        } finally {
+            DataSourceWorkload.restore(previous);
+        }
+    }
+
     // DB에서 심볼 목록을 가져와 AtomicReference 업데이트
     private void updateSymbolsList() {
+        DataSourceWorkload previous = DataSourceWorkload.REST.enter(); // REST 작업용 커넥션 풀 사용
         try {
             List<String> newSymbols = symbolMapper.selectAllSymbols();
             if (newSymbols == null || newSymbols.isEmpty()) {
@@ -88,6 +112,8 @@ public class BinanceScheduler {
             }
         } catch (Exception e) {
             logger.error("DB에서 Symbols 조회 중 오류 발생", e);
+        } finally {
+            DataSourceWorkload.restore(previous);
         }
     }
 
@@ -128,7 +154,8 @@ public class BinanceScheduler {
             return CompletableFuture.completedFuture(null);
         }
 
-        return CompletableFuture.runAsync(() -> {
+        // REST 작업의 저장은 REST 커넥션 풀을 사용 (실시간 수집 풀과 분리)
+        return CompletableFuture.runAsync(DataSourceWorkload.REST.wrap(() -> {
             for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
                 try {
                     task.run();
@@ -149,7 +176,7 @@ public class BinanceScheduler {
                     }
                 }
             }
-        }, currentExecutor);
+        }), currentExecutor);
     }
 
     // --- 스케줄링된 데이터 가져오기 메소드들 (상수 사용) ---
@@ -0,0 +1,232 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.dto.BinanceAggTradeDTO;
+import com.example.binancewebsocket.journal.FlushSequence;
+import com.example.binancewebsocket.journal.JournalSink;
+import com.example.binancewebsocket.kline.KlineRollupEngine;
+import com.example.binancewebsocket.trade.AggTradeDeriver;
+import com.example.binancewebsocket.trade.AggTradeVerifier;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * @trade 체결로 직접 만든 aggTrade 관리. (@aggTrade 구독을 없애 가장 많은 두 스트림의 수신 / 파싱량을 절반으로)
+ * <p>
+ * - mode=derive : @aggTrade 를 구독하지 않고, 각 샤드 파이프라인의 {@link AggTradeDeriver} 가 만든 aggTrade 를 저장합니다.
+ *   aggTrade 캔들 집계를 사용하면 만든 aggTrade 를 그대로 집계에 넘깁니다.
+ * - mode=verify : derive 와 같지만, verify-symbols 표본 심볼은 @aggTrade 도 구독해 실제 값을 저장하고
+ *   만든 aggTrade 와 비교만 합니다. ({@link AggTradeVerifier}, binance.aggtrade.derive.verify 지표)
+ * - 만든 aggTrade 는 큐에 넣고, 별도 스레드 하나가 flush 간격마다 binance_agg_trade_derived 에 일괄 저장합니다. 큐가 가득 차면 버립니다.
+ *   저널 확인({@link JournalSink})은 flush 회차로 합니다.
+ * - ⚠️ aggTradeId 는 firstTradeId 입니다. 실제 @aggTrade 와 번호가 다르므로 별도 테이블에만 저장해,
+ *   모드를 바꾸거나 재생해도 binance_agg_trade 의 실제 행을 덮어쓰지 않습니다. (테이블 DDL: BinanceAggTradeMapper)
+ */
+@Service
+public class BinanceAggTradeDerivationService implements JournalSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceAggTradeDerivationService.class);
+
+    // --- 의존성 ---
+    private final BinanceAggTradeService aggTradeService;
+
+    // --- 설정값 ---
+    private final String mode;
+    private final Set<String> verifySymbols;
+    private final long idleCloseMs;
+    private final int verifyMaxPending;
+    private final int maxBatchSize;
+
+    // --- 내부 상태 ---
+    private final List<AggTradeDeriver> derivers = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<BinanceAggTradeDTO> pending;
+    private final ScheduledExecutorService flusher;
+    private final FlushSequence flushes = new FlushSequence(); // 저널 확인용 flush 회차
+
+    // --- 통계 ---
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+
+    public BinanceAggTradeDerivationService(BinanceAggTradeService aggTradeService,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${binance.agg-trade-derivation.mode:off}") String mode,
+                                            @Value("${binance.agg-trade-derivation.verify-symbols:BTCUSDT}") List<String> verifySymbols,
+                                            @Value("${binance.agg-trade-derivation.idle-close-ms:1000}") long idleCloseMs,
+                                            @Value("${binance.agg-trade-derivation.verify-max-pending:10000}") int verifyMaxPending,
+                                            @Value("${binance.agg-trade-derivation.flush-interval-ms:1000}") long flushIntervalMs,
+                                            @Value("${binance.agg-trade-derivation.queue-capacity:100000}") int queueCapacity,
+                                            @Value("${binance.agg-trade-derivation.max-batch-size:500}") int maxBatchSize) {
+        this.aggTradeService = aggTradeService;
+        this.mode = mode.trim().toLowerCase(Locale.ROOT);
+        if (!List.of("off", "derive", "verify").contains(this.mode)) {
+            throw new IllegalArgumentException("binance.agg-trade-derivation.mode 는 off / derive / verify 중 하나여야 합니다: " + mode);
+        }
+        this.verifySymbols = parseSymbols(verifySymbols);
+        this.idleCloseMs = idleCloseMs;
+        this.verifyMaxPending = verifyMaxPending;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "binance-aggtrade-derive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (isEnabled()) {
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, Math.max(10, flushIntervalMs), TimeUnit.MILLISECONDS);
+            logger.info("✅ @trade 로 aggTrade 생성 사용 (mode={}, 검증 심볼 {})", this.mode, isVerifying() ? this.verifySymbols : "없음");
+        }
+        registerMetrics(meterRegistry);
+    }
+
+    /**
+     * "btcusdt, ETHUSDT" → 대문자 심볼 집합
+     */
+    static Set<String> parseSymbols(List<String> symbols) {
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (!symbol.isBlank()) {
+                parsed.add(symbol.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        return Collections.unmodifiableSet(parsed);
+    }
+
+    public boolean isEnabled() {
+        return !"off".equals(mode);
+    }
+
+    public boolean isVerifying() {
+        return "verify".equals(mode);
+    }
+
+    /**
+     * 파이프라인(샤드) 하나에 연결할 aggTrade 생성 필터.
+     *
+     * @param rollup 같은 파이프라인의 캔들 집계 엔진 (사용하지 않으면 null)
+     */
+    public AggTradeDeriver newDeriver(KlineRollupEngine rollup) {
+        AggTradeVerifier verifier = isVerifying() ? new AggTradeVerifier(verifySymbols, verifyMaxPending) : null;
+        AggTradeDeriver deriver = new AggTradeDeriver((key, aggTrade) -> {
+            if (rollup != null) {
+                rollup.onAggTrade(key, aggTrade); // 같은 parse 스레드
+            }
+            if (!pending.offer(aggTrade)) {
+                dropped.incrementAndGet();
+            }
+        }, verifier, idleCloseMs);
+        derivers.add(deriver);
+        return deriver;
+    }
+
+    private void flush() {
+        flushes.begin();
+        try {
+            drain();
+        } finally {
+            flushes.end();
+        }
+    }
+
+    private void drain() {
+        List<BinanceAggTradeDTO> batch = new ArrayList<>(maxBatchSize);
+        while (pending.drainTo(batch, maxBatchSize) > 0) {
+            try {
+                aggTradeService.saveDerivedAggTrades(batch);
+                written.addAndGet(batch.size());
+            } catch (Exception e) {
+                flushFailures.incrementAndGet();
+                logger.error("❌ 생성 aggTrade 저장 오류 ({}건 버림): {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (isEnabled()) {
+            flush(); // 큐에 남은 aggTrade 저장 (진행 중인 묶음은 저장하지 않음)
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("binance.aggtrade.derive.trades", this, s -> s.sum(AggTradeDeriver::getTrades))
+                .description("aggTrade 생성에 사용한 trade 수")
+                .register(registry);
+        FunctionCounter.builder("binance.aggtrade.derive.aggtrades", this, s -> s.sum(AggTradeDeriver::getAggTrades))
+                .tag("result", "created")
+                .description("생성 / 체결 공백으로 확정 / 저장 / 버린 aggTrade 수")
+                .register(registry);
+        FunctionCounter.builder("binance.aggtrade.derive.aggtrades", this, s -> s.sum(AggTradeDeriver::getIdleClosed))
+                .tag("result", "idle-closed")
+                .register(registry);
+        FunctionCounter.builder("binance.aggtrade.derive.aggtrades", written, AtomicLong::get)
+                .tag("result", "written")
+                .register(registry);
+        FunctionCounter.builder("binance.aggtrade.derive.aggtrades", dropped, AtomicLong::get)
+                .tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("binance.aggtrade.derive.skipped", this, s -> s.sum(AggTradeDeriver::getSkipped))
+                .description("중복 / 역순 / aggTrade 제외 종류(INSURANCE_FUND, ADL)라 묶지 않은 trade 수")
+                .register(registry);
+        FunctionCounter.builder("binance.aggtrade.derive.flush.failures", flushFailures, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("binance.aggtrade.derive.verify", this, s -> s.sumVerified(AggTradeVerifier::getMatched))
+                .tag("result", "matched")
+                .description("검증 모드에서 실제 @aggTrade 와 일치 / 불일치 / 짝 없음 수")
+                .register(registry);
+        FunctionCounter.builder("binance.aggtrade.derive.verify", this, s -> s.sumVerified(AggTradeVerifier::getMismatched))
+                .tag("result", "mismatched")
+                .register(registry);
+        FunctionCounter.builder("binance.aggtrade.derive.verify", this, s -> s.sumVerified(AggTradeVerifier::getUnmatched))
+                .tag("result", "unmatched")
+                .register(registry);
+        Gauge.builder("binance.aggtrade.derive.queue", pending, BlockingQueue::size)
+                .description("저장 대기 중인 생성 aggTrade 수")
+                .register(registry);
+    }
+
+    private long sum(ToLongFunction<AggTradeDeriver> value) {
+        long total = 0;
+        for (AggTradeDeriver deriver : derivers) {
+            total += value.applyAsLong(deriver);
+        }
+        return total;
+    }
+
+    private long sumVerified(ToLongFunction<AggTradeVerifier> value) {
+        long total = 0;
+        for (AggTradeDeriver deriver : derivers) {
+            if (deriver.getVerifier() != null) {
+                total += value.applyAsLong(deriver.getVerifier());
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long mark() {
+        return flushes.mark();
+    }
+
+    @Override
+    public boolean acknowledged(long mark) {
+        return !isEnabled() || flushes.acknowledged(mark); // 주기 저장을 하지 않으면 넘겨받는 행도 없음
+    }
+}
@@ -6,26 +6,55 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class BinanceAggTradeService {
 
     private final BinanceAggTradeMapper aggTradeMapper;
     private Logger logger = LoggerFactory.getLogger(BinanceAggTradeService.class);
 
-    public BinanceAggTradeService(BinanceAggTradeMapper aggTradeMapper) {
+    private final LoadDataInfileSink loadDataInfileSink;
+    private final GroupCommitWriter<BinanceAggTradeDTO> writer; // null 이면 이벤트마다 저장
+
+    public BinanceAggTradeService(BinanceAggTradeMapper aggTradeMapper, GroupCommitWriters groupCommitWriters,
+                                  LoadDataInfileSink loadDataInfileSink) {
         this.aggTradeMapper = aggTradeMapper;
+        this.loadDataInfileSink = loadDataInfileSink;
+        // LOAD DATA 사용 시 묶음을 CSV 로 적재하고, LOCAL INFILE 을 쓸 수 없으면 여러 행 INSERT 로 저장
+        this.writer = groupCommitWriters.createBatch("agg-trade", BinanceAggTradeMapper.class, BinanceAggTradeMapper::insertAggTrades,
+                loadDataInfileSink.isEnabled() ? loadDataInfileSink::loadAggTrades : null);
     }
 
     /**
-     * ✅ Aggregate Trade 저장
+     * ✅ Aggregate Trade 저장 (group commit 사용 시 모아서 저장)
+     *
+     * @return DTO 가 group commit 대기열에 들어가 저장 전까지 참조되는지 (true 이면 풀 모드 payload 를 회수하면 안 됨)
      */
-    public void saveAggTrade(BinanceAggTradeDTO aggTradeDTO) {
+    public boolean saveAggTrade(BinanceAggTradeDTO aggTradeDTO) {
+        if (writer != null) {
+            return writer.offer(aggTradeDTO);
+        }
         try {
             aggTradeMapper.insertAggTrade(aggTradeDTO);
             logger.debug("📊 Aggregate Trade 저장됨");
         } catch (Exception e) {
             logger.error("❌ Aggregate Trade 저장 오류: ", e);
         }
+        return false;
+    }
+
+    /**
+     * ✅ @trade 로 만든 Aggregate Trade 일괄 저장 (binance_agg_trade_derived, LOAD DATA 사용 시 적재, 오류는 호출부에서 처리)
+     * aggTradeId 가 실제 번호가 아니므로(firstTradeId) binance_agg_trade 와 섞지 않습니다.
+     */
+    public void saveDerivedAggTrades(List<BinanceAggTradeDTO> aggTrades) {
+        if (loadDataInfileSink.loadDerivedAggTrades(aggTrades)) {
+            logger.debug("📊 생성 Aggregate Trade {}건 LOAD DATA 로 저장됨", aggTrades.size());
+            return;
+        }
+        aggTradeMapper.insertDerivedAggTrades(aggTrades);
+        logger.debug("📊 생성 Aggregate Trade {}건 일괄 저장됨", aggTrades.size());
     }
 
     /**
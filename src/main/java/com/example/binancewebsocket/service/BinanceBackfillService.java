@@ -0,0 +1,297 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.config.BinanceConfig;
+import com.example.binancewebsocket.config.DataSourceWorkload;
+import com.example.binancewebsocket.dto.BinanceAggTradeDTO;
+import com.example.binancewebsocket.dto.BinanceKlineDTO;
+import com.example.binancewebsocket.stream.SequenceGapTracker;
+import com.example.binancewebsocket.stream.StreamKey;
+import com.example.binancewebsocket.stream.StreamType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket 재연결 등으로 빠진 구간을 REST API 로 보충합니다.
+ * <p>
+ * - {@link SequenceGapTracker} 가 parse 스레드에서 빠진 구간을 넘기면, 큐에 넣고 바로 반환합니다. (실시간 수신 차단 없음)
+ * - 별도 스레드 하나가 요청 간격을 두고 순서대로 조회하여, 실시간 데이터와 같은 서비스(매퍼)로 저장합니다.
+ *   매퍼가 ON DUPLICATE KEY UPDATE 이므로 이미 저장된 행과 겹쳐도 결과가 같습니다. (멱등)
+ * <pre>
+ *   aggTrade : GET /fapi/v1/aggTrades?symbol=&fromId=&limit=    (빠진 a 구간)
+ *   kline    : GET /fapi/v1/klines?symbol=&interval=&startTime=&endTime=&limit=  (빠진 캔들)
+ * </pre>
+ * - 큐가 가득 차면 작업을 버리고 dropped 로 집계합니다.
+ */
+@Service
+public class BinanceBackfillService implements SequenceGapTracker.GapListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceBackfillService.class);
+    private static final int MAX_LIMIT = 1000; // aggTrades / klines 1회 최대 조회 수
+
+    // --- 의존성 ---
+    private final BinanceConfig binanceConfig;
+    private final BinanceAggTradeService aggTradeService;
+    private final BinanceKlineService klineService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WebClient webClient = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(
+                    HttpClient.create()
+                            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                            .responseTimeout(Duration.ofSeconds(10))
+            ))
+            .build();
+
+    // --- 설정값 ---
+    private final long requestIntervalMs;
+    private final long maxRowsPerJob;
+
+    // --- 내부 상태 ---
+    private final ThreadPoolExecutor executor;
+
+    // --- 통계 ---
+    private final AtomicLong jobsQueued = new AtomicLong();
+    private final AtomicLong jobsCompleted = new AtomicLong();
+    private final AtomicLong jobsFailed = new AtomicLong();
+    private final AtomicLong jobsDropped = new AtomicLong();
+    private final AtomicLong aggTradeRows = new AtomicLong();
+    private final AtomicLong klineRows = new AtomicLong();
+
+    public BinanceBackfillService(BinanceConfig binanceConfig,
+                                  BinanceAggTradeService aggTradeService,
+                                  BinanceKlineService klineService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${binance.backfill.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${binance.backfill.request-interval-ms:250}") long requestIntervalMs,
+                                  @Value("${binance.backfill.max-rows-per-job:20000}") long maxRowsPerJob) {
+        this.binanceConfig = binanceConfig;
+        this.aggTradeService = aggTradeService;
+        this.klineService = klineService;
+        this.requestIntervalMs = requestIntervalMs;
+        this.maxRowsPerJob = maxRowsPerJob;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(DataSourceWorkload.REST.wrap(runnable), "binance-backfill"); // REST 커넥션 풀 사용
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (job, pool) -> {
+                    jobsDropped.incrementAndGet();
+                    logger.warn("⚠️ 보충 작업 큐가 가득 차 작업을 버립니다: {}", job);
+                });
+        registerMetrics(meterRegistry);
+    }
+
+    /**
+     * ✅ 빠진 구간 보충 작업 등록 (parse 스레드에서 호출, 즉시 반환)
+     */
+    @Override
+    public void onGap(StreamKey key, long from, long to) {
+        if (key.type() != StreamType.AGG_TRADE && key.type() != StreamType.KLINE) {
+            return;
+        }
+        logger.warn("⚠️ [{}] 연속성 끊김 감지: {} ~ {}, REST 보충 예약", key.stream(), from, to);
+        jobsQueued.incrementAndGet();
+        executor.execute(new BackfillJob(key, from, to));
+    }
+
+    private void run(BackfillJob job) {
+        try {
+            long rows = switch (job.key.type()) {
+                case AGG_TRADE -> backfillAggTrades(job.key.symbol(), job.from, job.to);
+                case KLINE -> backfillKlines(job.key.symbol(), job.key.interval(), job.from, job.to);
+                default -> 0;
+            };
+            jobsCompleted.incrementAndGet();
+            logger.info("✅ [{}] 보충 완료: {} ~ {}, {}건 저장", job.key.stream(), job.from, job.to, rows);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            jobsFailed.incrementAndGet();
+        } catch (WebClientResponseException e) {
+            jobsFailed.incrementAndGet();
+            logger.error("❌ [{}] 보충 실패 - Binance API error: {} - {}", job.key.stream(), e.getStatusCode(), e.getResponseBodyAsString());
+        } catch (Exception e) {
+            jobsFailed.incrementAndGet();
+            logger.error("❌ [{}] 보충 실패: {}", job.key.stream(), e.getMessage());
+        }
+    }
+
+    /**
+     * aggTrade id 구간 [from, to] 를 fromId 로 나누어 조회합니다.
+     */
+    private long backfillAggTrades(String symbol, long from, long to) throws Exception {
+        long saved = 0;
+        long fromId = from;
+        while (fromId <= to && saved < maxRowsPerJob) {
+            int limit = (int) Math.min(MAX_LIMIT, to - fromId + 1);
+            String url = String.format("%s/fapi/v1/aggTrades?symbol=%s&fromId=%d&limit=%d",
+                    binanceConfig.getBinanceApiUri(), symbol, fromId, limit);
+            BinanceAggTradeDTO[] trades = objectMapper.readValue(get(url), BinanceAggTradeDTO[].class);
+            if (trades == null || trades.length == 0) {
+                break;
+            }
+            long lastId = fromId;
+            for (BinanceAggTradeDTO trade : trades) {
+                long id = trade.getAggTradeId();
+                if (id > to) {
+                    break;
+                }
+                trade.setSymbol(symbol);
+                aggTradeService.saveAggTrade(trade);
+                aggTradeRows.incrementAndGet();
+                saved++;
+                lastId = id;
+            }
+            if (lastId < fromId || trades.length < limit) {
+                break;
+            }
+            fromId = lastId + 1;
+            pause();
+        }
+        return saved;
+    }
+
+    /**
+     * 빠진 캔들 open time 구간 [from, to] 를 startTime 으로 나누어 조회합니다. (종료된 캔들만 저장)
+     */
+    private long backfillKlines(String symbol, String interval, long from, long to) throws Exception {
+        long intervalMs = Math.max(1, SequenceGapTracker.intervalMillis(interval));
+        long saved = 0;
+        long startTime = from;
+        while (startTime <= to && saved < maxRowsPerJob) {
+            String url = String.format("%s/fapi/v1/klines?symbol=%s&interval=%s&startTime=%d&endTime=%d&limit=%d",
+                    binanceConfig.getBinanceApiUri(), symbol, interval, startTime, to + intervalMs - 1, MAX_LIMIT);
+            JsonNode rows = objectMapper.readTree(get(url));
+            if (rows == null || !rows.isArray() || rows.isEmpty()) {
+                break;
+            }
+            long now = System.currentTimeMillis();
+            long lastOpenTime = startTime - intervalMs;
+            for (JsonNode row : rows) {
+                BinanceKlineDTO kline = toKline(symbol, interval, row);
+                lastOpenTime = kline.getOpenTime();
+                if (lastOpenTime > to) {
+                    break;
+                }
+                if (kline.getCloseTime() >= now) {
+                    continue; // 아직 진행 중인 캔들은 실시간 스트림이 저장
+                }
+                klineService.saveKline(interval, kline);
+                klineRows.incrementAndGet();
+                saved++;
+            }
+            if (rows.size() < MAX_LIMIT) {
+                break;
+            }
+            startTime = lastOpenTime + intervalMs;
+            pause();
+        }
+        return saved;
+    }
+
+    /**
+     * REST kline 배열 [openTime, open, high, low, close, volume, closeTime, quoteVolume, count, takerBuyVolume, ...] → DTO
+     */
+    private static BinanceKlineDTO toKline(String symbol, String interval, JsonNode row) {
+        BinanceKlineDTO kline = new BinanceKlineDTO();
+        kline.setSymbol(symbol);
+        kline.getKline().setInterval(interval);
+        kline.setOpenTime(row.get(0).asLong());
+        kline.setOpenPrice(FixedDecimal.parse(row.get(1).asText()));
+        kline.setHighPrice(FixedDecimal.parse(row.get(2).asText()));
+        kline.setLowPrice(FixedDecimal.parse(row.get(3).asText()));
+        kline.setClosePrice(FixedDecimal.parse(row.get(4).asText()));
+        kline.setVolume(FixedDecimal.parse(row.get(5).asText()));
+        kline.setCloseTime(row.get(6).asLong());
+        kline.setTradeCount(row.get(8).asLong());
+        kline.setTakerBuyVolume(FixedDecimal.parse(row.get(9).asText()));
+        kline.setIsKlineClosed(true);
+        return kline;
+    }
+
+    private String get(String url) {
+        logger.debug("보충 조회: {}", url);
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+    }
+
+    private void pause() throws InterruptedException {
+        if (requestIntervalMs > 0) {
+            Thread.sleep(requestIntervalMs); // REST 요청 가중치 제한 보호
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("binance.backfill.jobs", jobsQueued, AtomicLong::get)
+                .tag("result", "queued")
+                .description("REST 보충 작업 수")
+                .register(registry);
+        FunctionCounter.builder("binance.backfill.jobs", jobsCompleted, AtomicLong::get)
+                .tag("result", "completed")
+                .register(registry);
+        FunctionCounter.builder("binance.backfill.jobs", jobsFailed, AtomicLong::get)
+                .tag("result", "failed")
+                .register(registry);
+        FunctionCounter.builder("binance.backfill.jobs", jobsDropped, AtomicLong::get)
+                .tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("binance.backfill.rows", aggTradeRows, AtomicLong::get)
+                .tag("type", "agg_trade")
+                .description("REST 보충으로 저장한 행 수")
+                .register(registry);
+        FunctionCounter.builder("binance.backfill.rows", klineRows, AtomicLong::get)
+                .tag("type", "kline")
+                .register(registry);
+        Gauge.builder("binance.backfill.queue", executor, e -> e.getQueue().size())
+                .description("대기 중인 보충 작업 수")
+                .register(registry);
+    }
+
+    private final class BackfillJob implements Runnable {
+        private final StreamKey key;
+        private final long from;
+        private final long to;
+
+        private BackfillJob(StreamKey key, long from, long to) {
+            this.key = key;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void run() {
+            BinanceBackfillService.this.run(this);
+        }
+
+        @Override
+        public String toString() {
+            return key.stream() + " [" + from + " ~ " + to + "]";
+        }
+    }
+}
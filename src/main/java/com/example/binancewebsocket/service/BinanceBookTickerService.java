@@ -0,0 +1,221 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.dto.BinanceBookTickerDTO;
+import com.example.binancewebsocket.journal.FlushSequence;
+import com.example.binancewebsocket.journal.JournalSink;
+import com.example.binancewebsocket.mapper.BinanceBookTickerMapper;
+import com.example.binancewebsocket.orderbook.QuoteTable;
+import com.example.binancewebsocket.orderbook.QuoteTableUpdater;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * 실시간 최우선 호가({@code <symbol>@bookTicker}) 관리.
+ * <p>
+ * - 각 샤드 파이프라인의 {@link QuoteTableUpdater} 가 parse 스테이지에서 {@link QuoteTable} 에 기록합니다.
+ * - 다른 서비스는 {@link #slotOf(String)} 로 칸 번호를 한 번 구한 뒤 {@link #read(int, QuoteTable.Quote)} 로 잠금 없이 읽습니다.
+ * - 저장은 선택 사항이며 conflation 방식입니다: 저장 간격마다 테이블을 읽어 마지막 저장 이후 바뀐 심볼의 최신값만 한 번에 저장합니다.
+ *   (이벤트마다 저장하지 않으므로 간격 사이의 중간 값은 저장되지 않음)
+ * - 저널 확인({@link JournalSink})은 저장 간격의 flush 회차로 합니다.
+ */
+@Service
+public class BinanceBookTickerService implements JournalSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceBookTickerService.class);
+
+    // --- 의존성 ---
+    private final BinanceBookTickerMapper bookTickerMapper;
+
+    // --- 설정값 ---
+    private final boolean enabled;
+    private final boolean persist;
+    private final int maxBatchSize;
+
+    // --- 내부 상태 ---
+    private final QuoteTable table;
+    private final List<QuoteTableUpdater> updaters = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService flusher;
+    private final FlushSequence flushes = new FlushSequence(); // 저널 확인용 flush 회차
+    private final long[] persistedUpdateIds; // 칸별 마지막 저장 updateId (flush 스레드 전용)
+    private final QuoteTable.Quote scratch = new QuoteTable.Quote(); // flush 스레드 전용
+
+    // --- 통계 ---
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+
+    public BinanceBookTickerService(BinanceBookTickerMapper bookTickerMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${binance.book-ticker.enabled:false}") boolean enabled,
+                                    @Value("${binance.book-ticker.capacity:4096}") int capacity,
+                                    @Value("${binance.book-ticker.persist:false}") boolean persist,
+                                    @Value("${binance.book-ticker.persist-interval-ms:1000}") long persistIntervalMs,
+                                    @Value("${binance.book-ticker.max-batch-size:500}") int maxBatchSize) {
+        this.bookTickerMapper = bookTickerMapper;
+        this.enabled = enabled;
+        this.persist = enabled && persist && persistIntervalMs > 0;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.table = new QuoteTable(capacity);
+        this.persistedUpdateIds = new long[table.capacity()];
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "binance-book-ticker-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (this.persist) {
+            flusher.scheduleWithFixedDelay(this::flush, persistIntervalMs, persistIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        registerMetrics(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 파이프라인(샤드) 하나에 연결할 테이블 기록 필터를 만듭니다.
+     */
+    public QuoteTableUpdater newUpdater() {
+        QuoteTableUpdater updater = new QuoteTableUpdater(table);
+        updaters.add(updater);
+        return updater;
+    }
+
+    /**
+     * 심볼의 칸 번호 (아직 bookTicker 를 받지 않았으면 -1)
+     */
+    public int slotOf(String symbol) {
+        return table.find(symbol);
+    }
+
+    /**
+     * ✅ 최우선 호가 조회 (잠금 / 할당 없음, 기록된 적이 없으면 false)
+     */
+    public boolean read(int slot, QuoteTable.Quote out) {
+        return slot >= 0 && table.read(slot, out);
+    }
+
+    public QuoteTable getTable() {
+        return table;
+    }
+
+    /**
+     * 마지막 저장 이후 바뀐 심볼의 최신값을 모아서 저장합니다. (conflation)
+     */
+    private void flush() {
+        flushes.begin();
+        try {
+            drain();
+        } finally {
+            flushes.end();
+        }
+    }
+
+    private void drain() {
+        List<BinanceBookTickerDTO> batch = new ArrayList<>();
+        int size = table.size();
+        for (int slot = 0; slot < size; slot++) {
+            if (!table.read(slot, scratch) || scratch.updateId == persistedUpdateIds[slot]) {
+                continue;
+            }
+            persistedUpdateIds[slot] = scratch.updateId;
+            batch.add(toDto(table.symbol(slot), scratch));
+            if (batch.size() == maxBatchSize) {
+                write(batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<BinanceBookTickerDTO> batch) {
+        try {
+            bookTickerMapper.insertBookTickers(batch);
+            rowsWritten.addAndGet(batch.size());
+        } catch (Exception e) {
+            flushFailures.incrementAndGet();
+            logger.error("❌ 최우선 호가 저장 오류 ({}건): {}", batch.size(), e.getMessage());
+        }
+        batch.clear();
+    }
+
+    private static BinanceBookTickerDTO toDto(String symbol, QuoteTable.Quote quote) {
+        BinanceBookTickerDTO dto = new BinanceBookTickerDTO();
+        dto.setEventType("bookTicker");
+        dto.setSymbol(symbol);
+        dto.setUpdateId(quote.updateId);
+        dto.setEventTime(quote.eventTime);
+        dto.setTransactionTime(quote.transactionTime);
+        dto.setBestBidPrice(quote.bidPrice);
+        dto.setBestBidQuantity(quote.bidQuantity);
+        dto.setBestAskPrice(quote.askPrice);
+        dto.setBestAskQuantity(quote.askQuantity);
+        return dto;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (persist) {
+            flush(); // 마지막 값 저장
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("binance.book.ticker.updates", this, s -> s.sum(QuoteTableUpdater::getUpdates))
+                .description("최우선 호가 테이블 기록 수")
+                .register(registry);
+        FunctionCounter.builder("binance.book.ticker.stale", this, s -> s.sum(QuoteTableUpdater::getStale))
+                .description("updateId 가 역순이라 버린 bookTicker 수")
+                .register(registry);
+        FunctionCounter.builder("binance.book.ticker.overflow", this, s -> s.sum(QuoteTableUpdater::getOverflow))
+                .description("테이블 칸이 모자라 버린 bookTicker 수")
+                .register(registry);
+        FunctionCounter.builder("binance.book.ticker.rows", rowsWritten, AtomicLong::get)
+                .description("conflation 후 저장한 행 수")
+                .register(registry);
+        FunctionCounter.builder("binance.book.ticker.flush.failures", flushFailures, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("binance.book.ticker.symbols", table, QuoteTable::size)
+                .description("최우선 호가 테이블의 심볼 수")
+                .register(registry);
+    }
+
+    private long sum(ToLongFunction<QuoteTableUpdater> value) {
+        long total = 0;
+        for (QuoteTableUpdater updater : updaters) {
+            total += value.applyAsLong(updater);
+        }
+        return total;
+    }
+
+    @Override
+    public long mark() {
+        return flushes.mark();
+    }
+
+    @Override
+    public boolean acknowledged(long mark) {
+        return !persist || flushes.acknowledged(mark); // 주기 저장을 하지 않으면 넘겨받는 행도 없음
+    }
+}
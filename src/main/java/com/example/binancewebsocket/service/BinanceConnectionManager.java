@@ -0,0 +1,757 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.config.BinanceConfig;
+import com.example.binancewebsocket.kline.KlineRollupEngine;
+import com.example.binancewebsocket.pipeline.IngestFilter;
+import com.example.binancewebsocket.pipeline.IngestPipeline;
+import com.example.binancewebsocket.pipeline.IngestPipelineFactory;
+import com.example.binancewebsocket.stream.DepthPersistencePolicy;
+import com.example.binancewebsocket.stream.ReplicaArbiter;
+import com.example.binancewebsocket.stream.SequenceGapTracker;
+import com.example.binancewebsocket.stream.StreamPartitioner;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 구독 스트림을 여러 WebSocket 연결(샤드)로 나누어 관리합니다.
+ *
+ * <pre>
+ *   shard-0 : client(read thread, 재연결 상태) ──▶ pipeline futures-0 (parse + persist)
+ *   shard-1 : client(read thread, 재연결 상태) ──▶ pipeline futures-1 (parse + persist)
+ *   ...
+ * </pre>
+ * 샤드마다 수신 스레드 / 링 버퍼 / parse 스레드가 분리되어 있으므로,
+ * 느린 샤드(재연결 중, 저장 지연)가 다른 샤드의 수신을 막지 않습니다.
+ * 파이프라인은 샤드 번호별로 한 번만 생성되어 재구독 / 재연결과 무관하게 유지됩니다.
+ * <p>
+ * 심볼 변경은 {@link #update(List)} 로 기존 연결에 SUBSCRIBE / UNSUBSCRIBE 만 보내므로 재연결이 발생하지 않습니다.
+ * <p>
+ * redundancy 가 2 이상이면 샤드마다 같은 스트림을 구독하는 연결을 여러 개 열어 두고(hot standby),
+ * 모든 연결이 같은 파이프라인에 발행합니다. 중복 사본은 parse 스테이지의 {@link ReplicaArbiter} 가 걸러내므로
+ * 한 연결이 끊기거나 지연되어도 다른 연결의 데이터가 즉시 이어집니다.
+ * <pre>
+ *   shard-0 : client r0 ─┐
+ *             client r1 ─┴─▶ pipeline futures-0 (parse → 선착 사본만 통과 → persist)
+ * </pre>
+ * Binance 는 연결을 24시간 후 강제로 끊으므로, rotate-after-ms 가 지난 연결은 미리 교체합니다. (make-before-break)
+ * <pre>
+ *   1. 같은 스트림으로 새 연결을 열고(발행 보류) 데이터 수신을 확인
+ *   2. 샤드의 클라이언트를 교체하고, 이전 연결의 발행을 멈춘 뒤(발행 중인 프레임까지 대기) 새 연결의 발행을 시작
+ *   3. 이전 연결을 닫음
+ * </pre>
+ * 교체는 한 번에 하나씩 순서대로 진행되어 동시에 늘어나는 연결은 최대 1개입니다.
+ * 한 replica 번호로 발행하는 연결은 항상 하나이므로, redundancy 1 이면 단일 생산자 링 버퍼 / ReplicaArbiter 없이 동작합니다.
+ * ⚠️ 전환 순간 두 연결의 수신 시점 차이만큼 몇 건이 누락 / 중복될 수 있습니다. (누락은 연속성 추적 / backfill, 이중화 시 다른 연결이 보완)
+ */
+@Component
+public class BinanceConnectionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceConnectionManager.class);
+
+    // --- 의존성 ---
+    private final BinanceConfig binanceConfig;
+    private final BinanceMarketDataHandler marketDataHandler;
+    private final IngestPipelineFactory ingestPipelineFactory;
+    private final BinanceBackfillService backfillService;
+    private final BinanceOrderBookService orderBookService;
+    private final BinancePartialBookDepthService partialBookDepthService;
+    private final BinanceOrderBookMetricsService orderBookMetricsService;
+    private final BinanceBookTickerService bookTickerService;
+    private final BinanceKlineRollupService klineRollupService;
+    private final BinanceAggTradeDerivationService aggTradeDerivationService;
+    private final MeterRegistry meterRegistry;
+
+    // --- 설정값 ---
+    @Value("${binance.websocket.max-streams-per-connection:200}") // Binance Futures 연결당 최대 스트림 수
+    private int maxStreamsPerConnection;
+
+    @Value("${binance.websocket.connections:1}") // 최소 연결(샤드) 수 (스트림 수에 따라 자동 증가)
+    private int minConnections;
+
+    @Value("${binance.websocket.control-messages-per-second:5}") // 연결당 초당 제어 메시지 수 (Binance 제한: 10)
+    private int controlMessagesPerSecond;
+
+    @Value("${binance.websocket.control-ack-timeout-ms:5000}") // 제어 메시지 응답 대기 시간
+    private long controlAckTimeoutMs;
+
+    @Value("${binance.websocket.control-streams-per-message:50}") // SUBSCRIBE / UNSUBSCRIBE 1회당 스트림 수
+    private int controlStreamsPerMessage;
+
+    @Value("${binance.websocket.redundancy:1}") // 샤드당 동일 스트림 연결 수 (2 이상이면 이중화 + 중복 제거)
+    private int redundancy;
+
+    @Value("${binance.ingest.gap-tracking:true}") // 스트림 연속성 추적 + 빠진 구간 REST 보충
+    private boolean gapTracking;
+
+    @Value("${binance.websocket.ping-interval-ms:1000}") // 수신이 없을 때 ping 전송 간격
+    private long pingIntervalMs;
+
+    @Value("${binance.websocket.liveness-timeout-ms:3000}") // 수신 / pong 이 없으면 연결 끊김으로 판단하는 시간 (0 이면 사용 안 함)
+    private long livenessTimeoutMs;
+
+    @Value("${binance.websocket.rotate-after-ms:82800000}") // 연결 교체 주기 (Binance 24시간 강제 종료 전, 0 이면 사용 안 함)
+    private long rotateAfterMs;
+
+    @Value("${binance.websocket.rotation-confirm-timeout-ms:10000}") // 새 연결의 데이터 수신 확인 대기 시간
+    private long rotationConfirmTimeoutMs;
+
+    // --- 내부 상태 ---
+    private final List<IngestPipeline> pipelines = new ArrayList<>();     // 샤드 번호별 파이프라인 (재사용)
+    private volatile List<Shard> shards = List.of();                      // 현재 연결된 샤드
+    private int registeredShardGauges;
+    private final Set<BinanceWebSocketClient> rotating = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rotationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "binance-ws-rotation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // --- 통계 ---
+    private final AtomicLong controlAcked = new AtomicLong();
+    private final AtomicLong controlFailed = new AtomicLong();
+    private final AtomicLong symbolsAdded = new AtomicLong();
+    private final AtomicLong symbolsRemoved = new AtomicLong();
+    private final AtomicLong livenessTimeouts = new AtomicLong();
+    private final AtomicLong rotationsCompleted = new AtomicLong();
+    private final AtomicLong rotationsAborted = new AtomicLong();
+
+    public BinanceConnectionManager(BinanceConfig binanceConfig,
+                                    BinanceMarketDataHandler marketDataHandler,
+                                    IngestPipelineFactory ingestPipelineFactory,
+                                    BinanceBackfillService backfillService,
+                                    BinanceOrderBookService orderBookService,
+                                    BinancePartialBookDepthService partialBookDepthService,
+                                    BinanceOrderBookMetricsService orderBookMetricsService,
+                                    BinanceBookTickerService bookTickerService,
+                                    BinanceKlineRollupService klineRollupService,
+                                    BinanceAggTradeDerivationService aggTradeDerivationService,
+                                    MeterRegistry meterRegistry) {
+        this.binanceConfig = binanceConfig;
+        this.marketDataHandler = marketDataHandler;
+        this.ingestPipelineFactory = ingestPipelineFactory;
+        this.backfillService = backfillService;
+        this.orderBookService = orderBookService;
+        this.partialBookDepthService = partialBookDepthService;
+        this.orderBookMetricsService = orderBookMetricsService;
+        this.bookTickerService = bookTickerService;
+        this.klineRollupService = klineRollupService;
+        this.aggTradeDerivationService = aggTradeDerivationService;
+        this.meterRegistry = meterRegistry;
+        registerMetrics();
+    }
+
+    /**
+     * ✅ 스트림 목록을 샤드로 나누어 연결합니다. 기존 연결은 정리 후 교체됩니다.
+     */
+    public synchronized void connect(List<String> streams) throws Exception {
+        List<StreamPartitioner.Partition> partitions =
+                new StreamPartitioner(maxStreamsPerConnection, minConnections).partition(streams);
+
+        // 같은 샤드 번호의 파이프라인에 이전 클라이언트가 함께 발행하지 않도록, 먼저 정리한 뒤 새로 연결
+        closeShards(this.shards);
+
+        List<Shard> connected = new ArrayList<>();
+        for (StreamPartitioner.Partition partition : partitions) {
+            if (partition.streams().isEmpty()) {
+                continue;
+            }
+            connected.add(openShard(partition.index(), StreamPartitioner.groupBySymbol(partition.streams())));
+        }
+        this.shards = List.copyOf(connected);
+        registerShardGauges(partitions.size());
+        logger.info("✅ WebSocket 샤드 {}개로 스트림 {}개 구독 (연결당 최대 {}개)",
+                connected.size(), streams.size(), maxStreamsPerConnection);
+    }
+
+    /**
+     * ✅ 현재 구독 상태와 새 스트림 목록을 비교하여, 기존 연결에 SUBSCRIBE / UNSUBSCRIBE 만 전송합니다.
+     * <p>
+     * - 삭제된 심볼: 해당 샤드에 UNSUBSCRIBE
+     * - 스트림 구성이 바뀐 심볼: 차이만 UNSUBSCRIBE / SUBSCRIBE (상한 초과 시 다른 샤드로 이동)
+     * - 추가된 심볼: 예상 메시지 수가 가장 적고 자리가 남은 샤드에 SUBSCRIBE, 자리가 없으면 새 샤드 연결
+     */
+    public synchronized void update(List<String> streams) throws Exception {
+        if (shards.isEmpty()) {
+            connect(streams);
+            return;
+        }
+
+        Map<String, List<String>> desired = StreamPartitioner.groupBySymbol(streams);
+        Map<Shard, ShardChange> changes = new LinkedHashMap<>();
+        Map<String, Shard> owners = new HashMap<>();
+        for (Shard shard : shards) {
+            changes.put(shard, new ShardChange());
+            shard.symbols().forEach(symbol -> owners.put(symbol, shard));
+        }
+
+        // 1. 삭제된 심볼
+        int removedSymbols = 0;
+        for (Map.Entry<String, Shard> owner : owners.entrySet()) {
+            if (!desired.containsKey(owner.getKey())) {
+                changes.get(owner.getValue()).unsubscribe.addAll(owner.getValue().remove(owner.getKey()));
+                removedSymbols++;
+            }
+        }
+
+        // 2. 유지 / 변경된 심볼, 새 심볼 분류
+        Map<String, List<String>> toAdd = new LinkedHashMap<>();
+        int addedSymbols = 0;
+        for (Map.Entry<String, List<String>> entry : desired.entrySet()) {
+            String symbol = entry.getKey();
+            List<String> wanted = entry.getValue();
+            Shard shard = owners.get(symbol);
+            if (shard == null) {
+                toAdd.put(symbol, wanted);
+                addedSymbols++;
+                continue;
+            }
+            List<String> current = shard.streamsOf(symbol);
+            if (current.equals(wanted)) {
+                continue;
+            }
+            ShardChange change = changes.get(shard);
+            if (shard.streamCount() - current.size() + wanted.size() > maxStreamsPerConnection) {
+                // 상한 초과 → 이 샤드에서 빼고 새 심볼처럼 재배치
+                change.unsubscribe.addAll(shard.remove(symbol));
+                toAdd.put(symbol, wanted);
+                continue;
+            }
+            current.stream().filter(s -> !wanted.contains(s)).forEach(change.unsubscribe::add);
+            wanted.stream().filter(s -> !current.contains(s)).forEach(change.subscribe::add);
+            shard.put(symbol, wanted);
+        }
+
+        // 3. 새 심볼 배치 (예상 메시지 수 내림차순 → 가장 한가한 샤드)
+        List<Map.Entry<String, List<String>>> additions = new ArrayList<>(toAdd.entrySet());
+        additions.sort(Comparator.comparingDouble(
+                (Map.Entry<String, List<String>> e) -> StreamPartitioner.expectedRate(e.getValue())).reversed());
+        Map<Integer, Map<String, List<String>>> newShards = new TreeMap<>();
+        for (Map.Entry<String, List<String>> addition : additions) {
+            List<String> symbolStreams = addition.getValue();
+            Shard target = null;
+            for (Shard shard : changes.keySet()) {
+                if (shard.streamCount() + symbolStreams.size() <= maxStreamsPerConnection
+                        && (target == null || shard.expectedRate() < target.expectedRate())) {
+                    target = shard;
+                }
+            }
+            if (target != null) {
+                target.put(addition.getKey(), symbolStreams);
+                changes.get(target).subscribe.addAll(symbolStreams);
+                continue;
+            }
+            // 기존 샤드에 자리가 없으면 새 샤드로
+            Map<String, List<String>> pending = null;
+            for (Map<String, List<String>> candidate : newShards.values()) {
+                int count = candidate.values().stream().mapToInt(List::size).sum();
+                if (count + symbolStreams.size() <= maxStreamsPerConnection) {
+                    pending = candidate;
+                    break;
+                }
+            }
+            if (pending == null) {
+                pending = new LinkedHashMap<>();
+                newShards.put(nextFreeIndex(changes.keySet(), newShards.keySet()), pending);
+            }
+            pending.put(addition.getKey(), symbolStreams);
+        }
+
+        // 4. 적용
+        List<Shard> updated = new ArrayList<>();
+        int subscribed = 0;
+        int unsubscribed = 0;
+        for (Map.Entry<Shard, ShardChange> entry : changes.entrySet()) {
+            Shard shard = entry.getKey();
+            ShardChange change = entry.getValue();
+            if (shard.streamCount() == 0) {
+                logger.info("[{}] 구독 스트림이 없어 연결을 종료합니다.", shard.name());
+                closeShards(List.of(shard));
+                continue;
+            }
+            updated.add(shard);
+            if (change.isEmpty()) {
+                continue;
+            }
+            // 재연결이 발생하면 최신 구독 상태로 바로 연결되도록 URL 먼저 갱신
+            URI uri = new URI(binanceConfig.getCombinedStreamUrl(shard.streams()));
+            for (BinanceWebSocketClient client : shard.clients()) {
+                client.updateUri(uri);
+                sendControl(client, change.unsubscribe, false);
+                sendControl(client, change.subscribe, true);
+            }
+            subscribed += change.subscribe.size();
+            unsubscribed += change.unsubscribe.size();
+        }
+        for (Map.Entry<Integer, Map<String, List<String>>> entry : newShards.entrySet()) {
+            updated.add(openShard(entry.getKey(), entry.getValue()));
+        }
+        updated.sort(Comparator.comparingInt(Shard::index));
+        this.shards = List.copyOf(updated);
+        registerShardGauges(updated.isEmpty() ? 0 : updated.get(updated.size() - 1).index() + 1);
+
+        symbolsAdded.addAndGet(addedSymbols);
+        symbolsRemoved.addAndGet(removedSymbols);
+        logger.info("✅ 구독 변경 적용: 심볼 +{} / -{}, SUBSCRIBE {}개, UNSUBSCRIBE {}개, 새 샤드 {}개 (재연결 없음)",
+                addedSymbols, removedSymbols, subscribed, unsubscribed, newShards.size());
+    }
+
+    /**
+     * 닫힌 샤드만 개별적으로 재연결하고, 교체 주기가 지난 연결은 교체를 예약합니다.
+     * (샤드별 재연결 상태는 각 클라이언트가 보유, 끊김 감지는 클라이언트의 생존 확인이 즉시 처리)
+     */
+    public void checkConnections() {
+        for (Shard shard : shards) {
+            shard.clients().forEach(BinanceWebSocketClient::checkAndReconnect);
+        }
+        rotateAgedConnections();
+    }
+
+    /**
+     * 교체 주기가 지난 열린 연결마다 교체 작업을 예약합니다. (이미 교체 중인 연결은 제외)
+     */
+    public void rotateAgedConnections() {
+        if (rotateAfterMs <= 0) {
+            return;
+        }
+        for (Shard shard : shards) {
+            for (BinanceWebSocketClient client : shard.clients()) {
+                if (client.isWebSocketOpen() && client.getConnectionAgeMs() >= rotateAfterMs && rotating.add(client)) {
+                    try {
+                        rotationExecutor.execute(() -> {
+                            try {
+                                rotate(shard, client);
+                            } finally {
+                                rotating.remove(client);
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        rotating.remove(client);
+                        return; // 종료 중
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * ✅ make-before-break 교체: 새 연결이 데이터를 받기 시작한 것을 확인한 뒤에만 이전 연결을 닫습니다.
+     * 확인 전 구독이 바뀌었거나 샤드가 닫혔으면 새 연결을 버리고 다음 주기에 다시 시도합니다.
+     */
+    private void rotate(Shard shard, BinanceWebSocketClient previous) {
+        BinanceWebSocketClient replacement;
+        List<String> streams;
+        synchronized (this) {
+            if (!shards.contains(shard) || !shard.clients().contains(previous)) {
+                return;
+            }
+            streams = shard.streams();
+            try {
+                replacement = newClient(shard.index(), previous.getReplica(), new URI(binanceConfig.getCombinedStreamUrl(streams)));
+                replacement.holdPublishing();
+            } catch (Exception e) {
+                rotationsAborted.incrementAndGet();
+                logger.error("❌ [{}] 교체 연결 생성 실패", previous.getName(), e);
+                return;
+            }
+            replacement.connect();
+        }
+        logger.info("🔄 [{}] 연결 교체 시작 (연결 후 {}분 경과)", previous.getName(),
+                TimeUnit.MILLISECONDS.toMinutes(previous.getConnectionAgeMs()));
+
+        handOver(previous, replacement, rotationConfirmTimeoutMs, () -> {
+            if (!shards.contains(shard) || !shard.clients().contains(previous) || !shard.streams().equals(streams)) {
+                return false;
+            }
+            shard.replaceClient(previous, replacement);
+            return true;
+        });
+    }
+
+    /**
+     * 새 연결이 timeoutMs 안에 데이터를 받기 시작하면 swap(샤드의 클라이언트 교체)을 적용한 뒤 이전 연결을 닫고,
+     * 그렇지 않거나 swap 이 false 를 반환하면(구독 변경 / 샤드 종료) 새 연결을 닫습니다.
+     * 새 연결은 {@link BinanceWebSocketClient#holdPublishing()} 상태여야 하며, 이전 연결이 발행을 마친 뒤에만 발행을 시작합니다.
+     *
+     * @return 교체했는지
+     */
+    boolean handOver(BinanceWebSocketClient previous, BinanceWebSocketClient replacement, long timeoutMs, BooleanSupplier swap) {
+        boolean receiving = awaitFrames(replacement, timeoutMs);
+        synchronized (this) {
+            boolean swapped = receiving && swap.getAsBoolean();
+            if (!swapped) {
+                rotationsAborted.incrementAndGet();
+                logger.warn("⚠️ [{}] 연결 교체 취소 ({}), 기존 연결을 유지합니다.", previous.getName(),
+                        !receiving ? "새 연결에서 " + timeoutMs + "ms 동안 데이터 없음" : "구독 변경 / 샤드 종료");
+                closeClient(replacement);
+                return false;
+            }
+        }
+        previous.retire(); // 발행 중이던 프레임까지 마친 뒤
+        replacement.activate();
+        closeClient(previous);
+        rotationsCompleted.incrementAndGet();
+        logger.info("✅ [{}] 연결 교체 완료", previous.getName());
+        return true;
+    }
+
+    static boolean awaitFrames(BinanceWebSocketClient client, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (System.nanoTime() < deadline) {
+            if (client.isWebSocketOpen() && client.getFramesReceived() > 0) {
+                return true;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 모든 연결을 닫고, 파이프라인에 남은 이벤트를 처리한 뒤 종료합니다.
+     */
+    public synchronized void shutdown() {
+        rotationExecutor.shutdownNow();
+        closeShards(this.shards);
+        this.shards = List.of();
+        for (IngestPipeline pipeline : pipelines) {
+            pipeline.shutdown(ingestPipelineFactory.getShutdownTimeoutMs());
+        }
+    }
+
+    /**
+     * 모든 연결만 닫습니다. (파이프라인은 유지)
+     */
+    public synchronized void disconnect() {
+        closeShards(this.shards);
+        this.shards = List.of();
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    private Shard openShard(int index, Map<String, List<String>> streamsBySymbol) throws Exception {
+        List<String> streams = streamsBySymbol.values().stream().flatMap(List::stream).toList();
+        URI uri = new URI(binanceConfig.getCombinedStreamUrl(streams));
+        String name = "shard-" + index;
+        int replicas = replicas();
+        List<BinanceWebSocketClient> clients = new ArrayList<>(replicas);
+        for (int replica = 0; replica < replicas; replica++) {
+            BinanceWebSocketClient client = newClient(index, replica, uri);
+            client.connect();
+            clients.add(client);
+        }
+
+        Shard shard = new Shard(index, clients, streamsBySymbol);
+        logger.info("🔌 [{}] 연결 시도: symbols={}, streams={}, 예상 {}/s, 연결 {}개",
+                name, streamsBySymbol.size(), shard.streamCount(), Math.round(shard.expectedRate()), replicas);
+        return shard;
+    }
+
+    private BinanceWebSocketClient newClient(int index, int replica, URI uri) {
+        String name = replicas() == 1 ? "shard-" + index : "shard-" + index + "-r" + replica;
+        BinanceWebSocketClient client = new BinanceWebSocketClient(name, replica, uri, pipelineFor(index),
+                controlMessagesPerSecond, controlAckTimeoutMs);
+        client.configureLiveness(pingIntervalMs, livenessTimeoutMs, livenessTimeouts::incrementAndGet);
+        return client;
+    }
+
+    /**
+     * 스트림을 나누어 제어 메시지를 큐에 넣고, 응답 결과를 집계합니다.
+     * 실패(거부 / 응답 없음) 시 연결을 닫아 최신 URL 로 재연결되도록 합니다.
+     */
+    private void sendControl(BinanceWebSocketClient client, List<String> streams, boolean subscribe) {
+        for (int from = 0; from < streams.size(); from += controlStreamsPerMessage) {
+            List<String> chunk = streams.subList(from, Math.min(streams.size(), from + controlStreamsPerMessage));
+            CompletableFuture<Void> future = subscribe ? client.subscribe(chunk) : client.unsubscribe(chunk);
+            future.whenComplete((ignored, error) -> {
+                if (error == null) {
+                    controlAcked.incrementAndGet();
+                    return;
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof CancellationException) {
+                    return; // 샤드 종료
+                }
+                controlFailed.incrementAndGet();
+                logger.error("❌ [{}] {} 실패, 최신 구독 URL 로 재연결합니다: {}",
+                        client.getName(), subscribe ? "SUBSCRIBE" : "UNSUBSCRIBE", cause.getMessage());
+                client.close();
+            });
+        }
+    }
+
+    private IngestPipeline pipelineFor(int index) {
+        while (pipelines.size() <= index) {
+            String name = "futures-" + pipelines.size();
+            int replicas = replicas();
+            // parse 직후 필터: 이중화 / 교체 중복 제거 → (통과한 이벤트만) 연속성 추적 → @trade 로 aggTrade 생성 → aggTrade 캔들 집계 → 로컬 호가창 / 최우선 호가 테이블 → 호가 지표 → 부분 호가 저장 정책
+            // 연결 교체 중에도 replica 번호마다 발행하는 연결은 하나 (redundancy 1 이면 단일 생산자)
+            int producers = replicas;
+            IngestFilter filter = null;
+            if (replicas > 1) {
+                ReplicaArbiter arbiter = new ReplicaArbiter(replicas);
+                arbiter.registerMetrics(meterRegistry, name);
+                filter = arbiter;
+            }
+            if (gapTracking) {
+                SequenceGapTracker tracker = new SequenceGapTracker(backfillService);
+                tracker.registerMetrics(meterRegistry, name);
+                filter = filter != null ? filter.and(tracker) : tracker;
+            }
+            KlineRollupEngine rollup = klineRollupService.isEnabled() ? klineRollupService.newEngine() : null;
+            if (aggTradeDerivationService.isEnabled()) {
+                IngestFilter deriver = aggTradeDerivationService.newDeriver(rollup); // 만든 aggTrade 는 집계에도 전달
+                filter = filter != null ? filter.and(deriver) : deriver;
+            }
+            if (rollup != null) {
+                filter = filter != null ? filter.and(rollup) : rollup;
+            }
+            if (orderBookService.isEnabled()) {
+                IngestFilter engine = orderBookService.newEngine();
+                filter = filter != null ? filter.and(engine) : engine;
+            }
+            if (bookTickerService.isEnabled()) {
+                IngestFilter updater = bookTickerService.newUpdater();
+                filter = filter != null ? filter.and(updater) : updater;
+            }
+            if (orderBookMetricsService.isEnabled()) {
+                IngestFilter calculator = orderBookMetricsService.newCalculator();
+                filter = filter != null ? filter.and(calculator) : calculator;
+            }
+            DepthPersistencePolicy depthPolicy = partialBookDepthService.newPersistencePolicy();
+            if (depthPolicy != null) {
+                depthPolicy.registerMetrics(meterRegistry, name);
+                filter = filter != null ? filter.and(depthPolicy) : depthPolicy;
+            }
+            pipelines.add(ingestPipelineFactory.create(name, marketDataHandler, producers, filter));
+        }
+        return pipelines.get(index);
+    }
+
+    private int replicas() {
+        return Math.max(1, redundancy);
+    }
+
+    private static int nextFreeIndex(Collection<Shard> existing, Collection<Integer> reserved) {
+        Set<Integer> used = new HashSet<>(reserved);
+        existing.forEach(shard -> used.add(shard.index()));
+        int index = 0;
+        while (used.contains(index)) {
+            index++;
+        }
+        return index;
+    }
+
+    private void closeShards(List<Shard> closing) {
+        for (Shard shard : closing) {
+            shard.clients().forEach(this::closeClient);
+        }
+    }
+
+    private void closeClient(BinanceWebSocketClient client) {
+        try {
+            client.destroy();
+        } catch (Exception e) {
+            logger.error("❌ [{}] WebSocket 클라이언트 리소스 정리 중 오류 발생", client.getName(), e);
+        }
+    }
+
+    private void registerMetrics() {
+        FunctionCounter.builder("binance.ws.control.requests", controlAcked, AtomicLong::get)
+                .tag("result", "acked")
+                .description("SUBSCRIBE / UNSUBSCRIBE 처리 결과")
+                .register(meterRegistry);
+        FunctionCounter.builder("binance.ws.control.requests", controlFailed, AtomicLong::get)
+                .tag("result", "failed")
+                .register(meterRegistry);
+        FunctionCounter.builder("binance.ws.symbol.changes", symbolsAdded, AtomicLong::get)
+                .tag("action", "added")
+                .register(meterRegistry);
+        FunctionCounter.builder("binance.ws.symbol.changes", symbolsRemoved, AtomicLong::get)
+                .tag("action", "removed")
+                .register(meterRegistry);
+        FunctionCounter.builder("binance.ws.liveness.timeouts", livenessTimeouts, AtomicLong::get)
+                .description("수신 / pong 이 없어 끊김으로 판단한 연결 수")
+                .register(meterRegistry);
+        FunctionCounter.builder("binance.ws.rotations", rotationsCompleted, AtomicLong::get)
+                .tag("result", "completed")
+                .description("24시간 강제 종료 전 make-before-break 연결 교체")
+                .register(meterRegistry);
+        FunctionCounter.builder("binance.ws.rotations", rotationsAborted, AtomicLong::get)
+                .tag("result", "aborted")
+                .register(meterRegistry);
+        Gauge.builder("binance.ws.control.pending", this,
+                        m -> m.shards.stream().flatMap(s -> s.clients().stream())
+                                .mapToInt(BinanceWebSocketClient::getPendingControlMessages).sum())
+                .description("응답 대기 / 전송 대기 중인 제어 메시지 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 샤드 번호별 게이지 (샤드 인스턴스가 교체되어도 현재 샤드를 조회)
+     */
+    private void registerShardGauges(int count) {
+        for (int i = registeredShardGauges; i < count; i++) {
+            final int index = i;
+            Gauge.builder("binance.ws.shard.open", this, m -> m.shardValue(index, s -> s.openConnections() > 0 ? 1 : 0))
+                    .tag("shard", "shard-" + index)
+                    .description("샤드 연결 상태 (1=열린 연결이 하나 이상)")
+                    .register(meterRegistry);
+            Gauge.builder("binance.ws.shard.open.connections", this, m -> m.shardValue(index, Shard::openConnections))
+                    .tag("shard", "shard-" + index)
+                    .description("샤드의 열린 이중화 연결 수")
+                    .register(meterRegistry);
+            Gauge.builder("binance.ws.shard.silence", this, m -> m.shardValue(index, Shard::silenceMs))
+                    .tag("shard", "shard-" + index)
+                    .baseUnit("milliseconds")
+                    .description("샤드 연결 중 가장 최근 수신 이후 지난 시간")
+                    .register(meterRegistry);
+            Gauge.builder("binance.ws.shard.streams", this, m -> m.shardValue(index, Shard::streamCount))
+                    .tag("shard", "shard-" + index)
+                    .register(meterRegistry);
+            Gauge.builder("binance.ws.shard.expected.rate", this, m -> m.shardValue(index, Shard::expectedRate))
+                    .tag("shard", "shard-" + index)
+                    .description("샤드 예상 초당 메시지 수")
+                    .register(meterRegistry);
+        }
+        registeredShardGauges = Math.max(registeredShardGauges, count);
+    }
+
+    private double shardValue(int index, ToDoubleFunction<Shard> value) {
+        for (Shard shard : shards) {
+            if (shard.index() == index) {
+                return value.applyAsDouble(shard);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 샤드 하나 (배정된 심볼별 스트림 + 같은 스트림을 구독하는 클라이언트 목록).
+     * 구독 상태는 BinanceConnectionManager 의 synchronized 메서드에서만 변경됩니다.
+     */
+    public static final class Shard {
+        private final int index;
+        private volatile List<BinanceWebSocketClient> clients; // 연결 교체 시 통째로 교체
+        private final Map<String, List<String>> streamsBySymbol;
+        private volatile int streamCount;
+        private volatile double expectedRate;
+
+        private Shard(int index, List<BinanceWebSocketClient> clients, Map<String, List<String>> streamsBySymbol) {
+            this.index = index;
+            this.clients = List.copyOf(clients);
+            this.streamsBySymbol = new LinkedHashMap<>(streamsBySymbol);
+            recalculate();
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public String name() {
+            return "shard-" + index;
+        }
+
+        public List<BinanceWebSocketClient> clients() {
+            return clients;
+        }
+
+        public long silenceMs() {
+            long silence = Long.MAX_VALUE;
+            for (BinanceWebSocketClient client : clients) {
+                if (client.isWebSocketOpen()) {
+                    silence = Math.min(silence, client.getSilenceMs());
+                }
+            }
+            return silence == Long.MAX_VALUE ? 0 : silence;
+        }
+
+        public int openConnections() {
+            int open = 0;
+            for (BinanceWebSocketClient client : clients) {
+                if (client.isWebSocketOpen()) {
+                    open++;
+                }
+            }
+            return open;
+        }
+
+        public Set<String> symbols() {
+            return Set.copyOf(streamsBySymbol.keySet());
+        }
+
+        public List<String> streams() {
+            return streamsBySymbol.values().stream().flatMap(List::stream).toList();
+        }
+
+        public int streamCount() {
+            return streamCount;
+        }
+
+        public double expectedRate() {
+            return expectedRate;
+        }
+
+        private void replaceClient(BinanceWebSocketClient previous, BinanceWebSocketClient replacement) {
+            List<BinanceWebSocketClient> replaced = new ArrayList<>(clients);
+            replaced.set(replaced.indexOf(previous), replacement);
+            clients = List.copyOf(replaced);
+        }
+
+        private List<String> streamsOf(String symbol) {
+            return streamsBySymbol.getOrDefault(symbol, List.of());
+        }
+
+        private void put(String symbol, List<String> streams) {
+            streamsBySymbol.put(symbol, List.copyOf(streams));
+            recalculate();
+        }
+
+        private List<String> remove(String symbol) {
+            List<String> removed = streamsBySymbol.remove(symbol);
+            recalculate();
+            return removed != null ? removed : List.of();
+        }
+
+        private void recalculate() {
+            streamCount = streamsBySymbol.values().stream().mapToInt(List::size).sum();
+            expectedRate = streamsBySymbol.values().stream().mapToDouble(StreamPartitioner::expectedRate).sum();
+        }
+    }
+
+    /**
+     * 샤드 하나에 보낼 구독 변경 내용
+     */
+    private static final class ShardChange {
+        private final List<String> subscribe = new ArrayList<>();
+        private final List<String> unsubscribe = new ArrayList<>();
+
+        private boolean isEmpty() {
+            return subscribe.isEmpty() && unsubscribe.isEmpty();
+        }
+    }
+}
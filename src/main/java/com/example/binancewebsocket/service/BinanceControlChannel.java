@@ -0,0 +1,191 @@
+package com.example.binancewebsocket.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * WebSocket 연결 하나의 SUBSCRIBE / UNSUBSCRIBE 제어 메시지 채널.
+ *
+ * <pre>
+ *   → {"method":"SUBSCRIBE","params":["btcusdt@trade",...],"id":7}
+ *   ← {"result":null,"id":7}                      (성공)
+ *   ← {"error":{"code":2,"msg":"..."},"id":7}     (실패)
+ * </pre>
+ * - 연결당 제어 메시지 속도 제한을 넘지 않도록 큐에 넣고 tick() 마다 최대 1개만 전송합니다.
+ * - 응답은 요청 id 로 매칭하여 CompletableFuture 를 완료합니다.
+ * - 응답이 ackTimeout 안에 오지 않으면 재전송하고, maxAttempts 를 넘으면 실패 처리합니다.
+ * - 연결이 끊기면 응답을 받지 못한 요청은 큐 앞쪽으로 되돌려 재연결 후 다시 전송합니다.
+ *   (이미 구독 중인 스트림 SUBSCRIBE / 구독하지 않은 스트림 UNSUBSCRIBE 는 Binance 에서 무해함)
+ */
+public final class BinanceControlChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceControlChannel.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String name;
+    private final Consumer<String> sender;
+    private final BooleanSupplier connected;
+    private final long ackTimeoutNanos;
+    private final int maxAttempts;
+
+    private final Deque<Request> queue = new ConcurrentLinkedDeque<>();
+    private final Map<Long, Request> inFlight = new ConcurrentHashMap<>();
+    private long nextId = 1; // tick 스레드에서만 사용
+
+    public BinanceControlChannel(String name, Consumer<String> sender, BooleanSupplier connected,
+                                 long ackTimeoutMs, int maxAttempts) {
+        this.name = name;
+        this.sender = sender;
+        this.connected = connected;
+        this.ackTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * 제어 메시지 응답 프레임인지 확인합니다. (combined stream 데이터는 항상 {"stream": 으로 시작)
+     */
+    public static boolean isResponse(String frame) {
+        return frame.startsWith("{\"result\"") || frame.startsWith("{\"id\"") || frame.startsWith("{\"error\"");
+    }
+
+    public CompletableFuture<Void> subscribe(List<String> streams) {
+        return enqueue("SUBSCRIBE", streams);
+    }
+
+    public CompletableFuture<Void> unsubscribe(List<String> streams) {
+        return enqueue("UNSUBSCRIBE", streams);
+    }
+
+    private CompletableFuture<Void> enqueue(String method, List<String> streams) {
+        Request request = new Request(method, List.copyOf(streams));
+        queue.addLast(request);
+        return request.future;
+    }
+
+    /**
+     * ✅ 주기적으로 호출됩니다. (호출 간격 = 1 / 초당 최대 제어 메시지 수)
+     * 응답 시간 초과 요청을 처리한 뒤, 연결되어 있으면 대기 중인 요청을 하나 전송합니다.
+     */
+    public synchronized void tick() {
+        long now = System.nanoTime();
+        for (Request request : inFlight.values()) {
+            if (now - request.sentAtNanos > ackTimeoutNanos && inFlight.remove(request.id, request)) {
+                if (request.attempts >= maxAttempts) {
+                    request.future.completeExceptionally(new TimeoutException(
+                            request.method + " 응답 없음 (id=" + request.id + ", " + request.attempts + "회 시도)"));
+                } else {
+                    logger.warn("⚠️ [{}] {} 응답 시간 초과 (id={}), 재전송 예정", name, request.method, request.id);
+                    queue.addFirst(request);
+                }
+            }
+        }
+
+        if (!connected.getAsBoolean()) {
+            return;
+        }
+        Request request = queue.pollFirst();
+        if (request == null) {
+            return;
+        }
+        request.id = nextId++;
+        request.attempts++;
+        request.sentAtNanos = now;
+        inFlight.put(request.id, request);
+        try {
+            sender.accept(toJson(request));
+            logger.info("📤 [{}] {} {}개 스트림 전송 (id={})", name, request.method, request.streams.size(), request.id);
+        } catch (Exception e) {
+            // 전송 실패 (연결 끊김 등) → 다음 tick 에 다시 시도
+            inFlight.remove(request.id);
+            request.attempts--;
+            queue.addFirst(request);
+            logger.warn("⚠️ [{}] {} 전송 실패: {}", name, request.method, e.getMessage());
+        }
+    }
+
+    /**
+     * 응답 프레임 처리 (수신 스레드)
+     */
+    public void onResponse(String frame) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(frame);
+        } catch (Exception e) {
+            logger.warn("⚠️ [{}] 제어 메시지 응답 파싱 실패: {}", name, frame);
+            return;
+        }
+        JsonNode id = node.get("id");
+        Request request = id != null && id.canConvertToLong() ? inFlight.remove(id.asLong()) : null;
+        if (request == null) {
+            logger.debug("[{}] 대기 중이 아닌 제어 메시지 응답: {}", name, frame);
+            return;
+        }
+        JsonNode error = node.get("error");
+        if (error != null && !error.isNull()) {
+            request.future.completeExceptionally(new IllegalStateException(
+                    request.method + " 거부됨 (id=" + request.id + "): " + error));
+        } else {
+            request.future.complete(null);
+        }
+    }
+
+    /**
+     * 연결이 끊기면 응답을 받지 못한 요청을 큐 앞쪽으로 되돌립니다. (요청 순서 유지)
+     */
+    public synchronized void onDisconnected() {
+        List<Request> pending = new ArrayList<>(inFlight.values());
+        inFlight.clear();
+        pending.sort(Comparator.comparingLong((Request r) -> r.id).reversed());
+        for (Request request : pending) {
+            queue.addFirst(request);
+        }
+    }
+
+    /**
+     * 채널 종료 - 대기 중인 요청을 모두 취소합니다.
+     */
+    public synchronized void close() {
+        CancellationException cancelled = new CancellationException("제어 채널 종료");
+        inFlight.values().forEach(r -> r.future.completeExceptionally(cancelled));
+        inFlight.clear();
+        for (Request request; (request = queue.pollFirst()) != null; ) {
+            request.future.completeExceptionally(cancelled);
+        }
+    }
+
+    public int getPendingCount() {
+        return queue.size() + inFlight.size();
+    }
+
+    private static String toJson(Request request) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("method", request.method);
+        ArrayNode params = node.putArray("params");
+        request.streams.forEach(params::add);
+        node.put("id", request.id);
+        return node.toString();
+    }
+
+    private static final class Request {
+        private final String method;
+        private final List<String> streams;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile long id;
+        private int attempts;
+        private long sentAtNanos;
+
+        private Request(String method, List<String> streams) {
+            this.method = method;
+            this.streams = streams;
+        }
+    }
+}
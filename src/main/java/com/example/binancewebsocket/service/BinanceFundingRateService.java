@@ -1,30 +1,99 @@
 package com.example.binancewebsocket.service;
 
+import com.example.binancewebsocket.codec.FixedDecimal;
 import com.example.binancewebsocket.dto.BinanceFundingRateDTO;
+import com.example.binancewebsocket.journal.JournalSink;
 import com.example.binancewebsocket.mapper.BinanceFundingRateMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * 마크 가격 / 펀딩 비율({@code <symbol>@markPrice}, 심볼별 3초마다) 저장.
+ * <p>
+ * 이벤트 시간(E)이 키에 포함되어 이벤트마다 행이 늘어나므로, conflation 사용 시 심볼별 최신값만 {@link ConflatingBuffer} 에 남기고
+ * flush 간격마다 또는 펀딩 비율이 바뀌거나 마크 가격이 change-bps 이상 움직이면 여러 행 INSERT 한 번으로 저장합니다.
+ * 저널 확인({@link JournalSink})은 conflation 버퍼의 flush 회차로 합니다. (버퍼가 없으면 persist 완료 위치로 충분)
+ */
 @Service
-public class BinanceFundingRateService {
+public class BinanceFundingRateService implements JournalSink {
 
     private Logger logger = LoggerFactory.getLogger(BinanceFundingRateService.class);
     private final BinanceFundingRateMapper fundingRateMapper;
+    private final ConflatingBuffer<BinanceFundingRateDTO> buffer; // null 이면 이벤트마다 저장
+    private final GroupCommitWriter<BinanceFundingRateDTO> writer; // conflation 을 쓰지 않을 때의 group commit (null 이면 이벤트마다 저장)
 
-    public BinanceFundingRateService(BinanceFundingRateMapper fundingRateMapper) {
+    public BinanceFundingRateService(BinanceFundingRateMapper fundingRateMapper,
+                                     GroupCommitWriters groupCommitWriters,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${binance.conflation.enabled:true}") boolean conflation,
+                                     @Value("${binance.conflation.mark-price.flush-interval-ms:60000}") long flushIntervalMs,
+                                     @Value("${binance.conflation.mark-price.change-bps:50}") double changeBps,
+                                     @Value("${binance.conflation.max-batch-size:500}") int maxBatchSize) {
         this.fundingRateMapper = fundingRateMapper;
+        if (conflation && flushIntervalMs > 0) {
+            this.buffer = new ConflatingBuffer<>("mark-price", flushIntervalMs, maxBatchSize,
+                    BinanceFundingRateDTO::getSymbol, BinanceFundingRateService::copy,
+                    (written, latest) -> FixedDecimal.compare(written.getFundingRate(), latest.getFundingRate()) != 0
+                            || ConflatingBuffer.changeBps(written.getMarkPrice(), latest.getMarkPrice()) >= changeBps,
+                    fundingRateMapper::insertFundingRates);
+            buffer.registerMetrics(meterRegistry);
+        } else {
+            this.buffer = null;
+        }
+        this.writer = buffer == null
+                ? groupCommitWriters.createBatch("mark-price", BinanceFundingRateMapper.class, BinanceFundingRateMapper::insertFundingRates)
+                : null;
     }
 
     /**
-     * ✅ 펀딩 비율 데이터 저장
+     * ✅ 펀딩 비율 데이터 저장 (conflation 사용 시 최신값만 보관 후 모아서 저장)
+     *
+     * @return DTO 가 group commit 대기열에 들어가 저장 전까지 참조되는지 (true 이면 풀 모드 payload 를 회수하면 안 됨)
      */
-    public void saveFundingRate(BinanceFundingRateDTO fundingRateDTO) {
+    public boolean saveFundingRate(BinanceFundingRateDTO fundingRateDTO) {
+        if (buffer != null) {
+            buffer.offer(fundingRateDTO);
+            return false; // 값을 복사해 보관
+        }
+        if (writer != null) {
+            return writer.offer(fundingRateDTO);
+        }
         try {
             fundingRateMapper.insertFundingRate(fundingRateDTO);
             logger.debug("📊 펀딩 비율 저장됨");
         } catch (Exception e) {
             logger.error("❌ 펀딩 비율 저장 오류: ", e);
         }
+        return false;
+    }
+
+    private static BinanceFundingRateDTO copy(BinanceFundingRateDTO source) {
+        BinanceFundingRateDTO copy = new BinanceFundingRateDTO();
+        copy.setSymbol(source.getSymbol());
+        copy.setFundingRate(source.getFundingRate());
+        copy.setFundingTime(source.getFundingTime());
+        copy.setMarkPrice(source.getMarkPrice());
+        return copy;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Override
+    public long mark() {
+        return buffer != null ? buffer.mark() : 0;
+    }
+
+    @Override
+    public boolean acknowledged(long mark) {
+        return buffer == null || buffer.acknowledged(mark);
     }
 }
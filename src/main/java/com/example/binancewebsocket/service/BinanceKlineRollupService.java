@@ -0,0 +1,209 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.dto.BinanceKlineDTO;
+import com.example.binancewebsocket.journal.FlushSequence;
+import com.example.binancewebsocket.journal.JournalSink;
+import com.example.binancewebsocket.kline.KlineRollupEngine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * aggTrade 체결로 직접 만든 여러 시간대 캔들 관리.
+ * <p>
+ * - 집계는 각 샤드 파이프라인의 {@link KlineRollupEngine} 이 parse 스테이지에서 수행합니다.
+ * - 종료된 캔들은 큐에 넣고, 별도 스레드 하나가 flush 간격마다 간격별로 모아서 binance_kline_{interval} 에 일괄 저장합니다.
+ *   큐가 가득 차면 캔들을 버립니다.
+ * - 사용 시 간격별 kline 스트림은 구독하지 않습니다. (BinanceConfig)
+ * - 저널 확인({@link JournalSink})은 flush 회차로 합니다. (표식 이후 시작한 flush 가 큐를 비우고 끝나면 확인)
+ */
+@Service
+public class BinanceKlineRollupService implements KlineRollupEngine.KlineSink, JournalSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceKlineRollupService.class);
+
+    // --- 의존성 ---
+    private final BinanceKlineService klineService;
+
+    // --- 설정값 ---
+    private final boolean enabled;
+    private final List<String> intervals;
+    private final int ringSize;
+    private final int maxGapBars;
+    private final int maxBatchSize;
+
+    // --- 내부 상태 ---
+    private final List<KlineRollupEngine> engines = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<BinanceKlineDTO> closedBars;
+    private final ScheduledExecutorService flusher;
+    private final FlushSequence flushes = new FlushSequence(); // 저널 확인용 flush 회차
+
+    // --- 통계 ---
+    private final AtomicLong barsWritten = new AtomicLong();
+    private final AtomicLong barsDropped = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+
+    public BinanceKlineRollupService(BinanceKlineService klineService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${binance.kline-rollup.enabled:false}") boolean enabled,
+                                     @Value("${binance.kline-rollup.intervals:1m,5m,15m,1h,4h,1d}") List<String> intervals,
+                                     @Value("${binance.kline-rollup.ring-size:64}") int ringSize,
+                                     @Value("${binance.kline-rollup.max-gap-bars:60}") int maxGapBars,
+                                     @Value("${binance.kline-rollup.flush-interval-ms:1000}") long flushIntervalMs,
+                                     @Value("${binance.kline-rollup.queue-capacity:10000}") int queueCapacity,
+                                     @Value("${binance.kline-rollup.max-batch-size:500}") int maxBatchSize) {
+        this.klineService = klineService;
+        this.enabled = enabled;
+        this.intervals = intervals.stream().map(String::trim).filter(s -> !s.isEmpty()).distinct().toList();
+        for (String interval : this.intervals) {
+            if (!BinanceKlineService.isSupported(interval)) {
+                throw new IllegalArgumentException("binance.kline-rollup.intervals 에 저장할 수 없는 간격이 있습니다: " + interval);
+            }
+        }
+        this.ringSize = ringSize;
+        this.maxGapBars = maxGapBars;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.closedBars = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "binance-kline-rollup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, Math.max(10, flushIntervalMs), TimeUnit.MILLISECONDS);
+            logger.info("✅ aggTrade 캔들 집계 사용: {}", this.intervals);
+        }
+        registerMetrics(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 파이프라인(샤드) 하나에 연결할 집계 엔진을 만듭니다.
+     */
+    public KlineRollupEngine newEngine() {
+        KlineRollupEngine engine = new KlineRollupEngine(this, intervals, ringSize, maxGapBars);
+        engines.add(engine);
+        return engine;
+    }
+
+    /**
+     * ✅ 종료 캔들 저장 예약 (parse 스레드에서 호출, 즉시 반환)
+     */
+    @Override
+    public void onClosedBar(BinanceKlineDTO bar) {
+        if (!closedBars.offer(bar)) {
+            barsDropped.incrementAndGet();
+        }
+    }
+
+    private void flush() {
+        flushes.begin();
+        try {
+            drain();
+        } finally {
+            flushes.end();
+        }
+    }
+
+    private void drain() {
+        List<BinanceKlineDTO> batch = new ArrayList<>(maxBatchSize);
+        Map<String, List<BinanceKlineDTO>> byInterval = new LinkedHashMap<>();
+        while (closedBars.drainTo(batch, maxBatchSize) > 0) {
+            for (BinanceKlineDTO bar : batch) {
+                byInterval.computeIfAbsent(bar.getKline().getInterval(), k -> new ArrayList<>()).add(bar);
+            }
+            for (Map.Entry<String, List<BinanceKlineDTO>> entry : byInterval.entrySet()) {
+                List<BinanceKlineDTO> bars = entry.getValue();
+                if (bars.isEmpty()) {
+                    continue;
+                }
+                try {
+                    klineService.saveKlines(entry.getKey(), bars);
+                    barsWritten.addAndGet(bars.size());
+                } catch (Exception e) {
+                    flushFailures.incrementAndGet();
+                    logger.error("❌ 집계 캔들 {} 저장 오류 ({}건 버림): {}", entry.getKey(), bars.size(), e.getMessage());
+                }
+                bars.clear();
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (enabled) {
+            flush(); // 남은 종료 캔들 저장 (진행 중인 캔들은 저장하지 않음)
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("binance.kline.rollup.trades", this, s -> s.sum(KlineRollupEngine::getTrades))
+                .description("캔들 집계에 반영한 aggTrade 수")
+                .register(registry);
+        FunctionCounter.builder("binance.kline.rollup.out.of.order", this, s -> s.sum(KlineRollupEngine::getOutOfOrder))
+                .description("중복 / 역순이라 집계하지 않은 aggTrade 수")
+                .register(registry);
+        FunctionCounter.builder("binance.kline.rollup.bars", this, s -> s.sum(KlineRollupEngine::getClosedBars))
+                .tag("result", "closed")
+                .description("종료 / 빈 구간 / 건너뛴 / 일부만 집계한 / 저장 / 버린 캔들 수")
+                .register(registry);
+        FunctionCounter.builder("binance.kline.rollup.bars", this, s -> s.sum(KlineRollupEngine::getEmptyBars))
+                .tag("result", "empty")
+                .register(registry);
+        FunctionCounter.builder("binance.kline.rollup.bars", this, s -> s.sum(KlineRollupEngine::getSkippedBars))
+                .tag("result", "skipped")
+                .register(registry);
+        FunctionCounter.builder("binance.kline.rollup.bars", this, s -> s.sum(KlineRollupEngine::getPartialBars))
+                .tag("result", "partial")
+                .register(registry);
+        FunctionCounter.builder("binance.kline.rollup.bars", barsWritten, AtomicLong::get)
+                .tag("result", "written")
+                .register(registry);
+        FunctionCounter.builder("binance.kline.rollup.bars", barsDropped, AtomicLong::get)
+                .tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("binance.kline.rollup.flush.failures", flushFailures, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("binance.kline.rollup.queue", closedBars, BlockingQueue::size)
+                .description("저장 대기 중인 종료 캔들 수")
+                .register(registry);
+    }
+
+    private long sum(ToLongFunction<KlineRollupEngine> value) {
+        long total = 0;
+        for (KlineRollupEngine engine : engines) {
+            total += value.applyAsLong(engine);
+        }
+        return total;
+    }
+
+    @Override
+    public long mark() {
+        return flushes.mark();
+    }
+
+    @Override
+    public boolean acknowledged(long mark) {
+        return !enabled || flushes.acknowledged(mark); // 주기 저장을 하지 않으면 넘겨받는 행도 없음
+    }
+}
@@ -2,36 +2,77 @@ package com.example.binancewebsocket.service;
 
 import com.example.binancewebsocket.dto.BinanceKlineDTO;
 import com.example.binancewebsocket.mapper.BinanceKlineMapper;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
-@RequiredArgsConstructor
 public class BinanceKlineService {
 
+    /**
+     * 저장 가능한 캔들 간격 (테이블 이름 binance_kline_{interval} 에 그대로 쓰이므로 목록에 있는 값만 허용)
+     */
+    public static final Set<String> SUPPORTED_INTERVALS = Set.of("1m", "3m", "5m", "15m", "30m",
+            "1h", "2h", "4h", "6h", "8h", "12h", "1d");
+
     private Logger logger = LoggerFactory.getLogger(BinanceKlineService.class);
     private final BinanceKlineMapper binanceKlineMapper;
+    private final GroupCommitWriters groupCommitWriters;
+    private final Map<String, GroupCommitWriter<BinanceKlineDTO>> writers = new ConcurrentHashMap<>(); // 간격별 group commit
+
+    // taker_buy_volume 컬럼은 캔들 집계(kline-rollup)용으로 추가된 컬럼이라 집계를 켠 경우에만 저장 (BinanceKlineMapper 의 DDL 참고)
+    private final boolean takerBuyVolume;
+
+    public BinanceKlineService(BinanceKlineMapper binanceKlineMapper,
+                               GroupCommitWriters groupCommitWriters,
+                               @Value("${binance.kline-rollup.enabled:false}") boolean takerBuyVolume) {
+        this.binanceKlineMapper = binanceKlineMapper;
+        this.groupCommitWriters = groupCommitWriters;
+        this.takerBuyVolume = takerBuyVolume;
+    }
+
+    public static boolean isSupported(String interval) {
+        return interval != null && SUPPORTED_INTERVALS.contains(interval);
+    }
 
     /**
-     * 📌 캔들 데이터 저장
+     * 📌 캔들 데이터 저장 (간격별 테이블, group commit 사용 시 간격별로 모아서 저장)
+     *
+     * @return DTO 가 group commit 대기열에 들어가 저장 전까지 참조되는지 (true 이면 풀 모드 payload 를 회수하면 안 됨)
      */
-    public void saveKline5m(BinanceKlineDTO klineDTO) {
+    public boolean saveKline(String interval, BinanceKlineDTO klineDTO) {
+        if (!isSupported(interval)) {
+            logger.warn("⚠️ 지원하지 않는 Kline 간격이라 저장하지 않습니다: {}", interval);
+            return false;
+        }
+        if (groupCommitWriters.isEnabled()) {
+            return writers.computeIfAbsent(interval, i -> groupCommitWriters.createBatch("kline-" + i, BinanceKlineMapper.class,
+                    (mapper, batch) -> mapper.insertKlines(i, batch, takerBuyVolume))).offer(klineDTO);
+        }
         try {
-            binanceKlineMapper.insertKline5m(klineDTO);
-            logger.debug("✅ Kline 5m 데이터 저장 완료");
+            binanceKlineMapper.insertKline(interval, klineDTO, takerBuyVolume);
+            logger.debug("✅ Kline {} 데이터 저장 완료", interval);
         } catch (Exception e) {
-            logger.error("❌ Kline 5m 데이터 저장 실패: {}", e.getMessage());
+            logger.error("❌ Kline {} 데이터 저장 실패: {}", interval, e.getMessage());
         }
+        return false;
     }
 
-    public void saveKline1h(BinanceKlineDTO klineDTO) {
-        try {
-            binanceKlineMapper.insertKline1h(klineDTO);
-            logger.debug("✅ Kline 1h 데이터 저장 완료");
-        } catch (Exception e) {
-            logger.error("❌ Kline 1h 데이터 저장 실패: {}", e.getMessage());
+    /**
+     * 📌 같은 간격의 캔들 여러 개를 한 번에 저장 (실패 시 예외를 그대로 전달)
+     */
+    public void saveKlines(String interval, List<BinanceKlineDTO> klines) {
+        if (!isSupported(interval)) {
+            throw new IllegalArgumentException("지원하지 않는 Kline 간격: " + interval);
+        }
+        if (!klines.isEmpty()) {
+            binanceKlineMapper.insertKlines(interval, klines, takerBuyVolume);
         }
     }
 }
@@ -11,20 +11,30 @@ public class BinanceLiquidationOrderService {
 
     private final Logger logger = LoggerFactory.getLogger(BinanceLiquidationOrderService.class);
     private final BinanceLiquidationOrderMapper binanceLiquidationOrderMapper;
+    private final GroupCommitWriter<BinanceLiquidationOrderDTO> writer; // null 이면 이벤트마다 저장
 
-    public BinanceLiquidationOrderService(BinanceLiquidationOrderMapper binanceLiquidationOrderMapper) {
+    public BinanceLiquidationOrderService(BinanceLiquidationOrderMapper binanceLiquidationOrderMapper,
+                                          GroupCommitWriters groupCommitWriters) {
         this.binanceLiquidationOrderMapper = binanceLiquidationOrderMapper;
+        this.writer = groupCommitWriters.create("liquidation-order", BinanceLiquidationOrderMapper.class,
+                BinanceLiquidationOrderMapper::insertLiquidationOrder);
     }
 
     /**
-     * 📌 강제 청산 주문 데이터 저장
+     * 📌 강제 청산 주문 데이터 저장 (group commit 사용 시 모아서 저장)
+     *
+     * @return DTO 가 group commit 대기열에 들어가 저장 전까지 참조되는지 (true 이면 풀 모드 payload 를 회수하면 안 됨)
      */
-    public void saveLiquidationOrder(BinanceLiquidationOrderDTO liquidationOrderDTO) {
+    public boolean saveLiquidationOrder(BinanceLiquidationOrderDTO liquidationOrderDTO) {
+        if (writer != null) {
+            return writer.offer(liquidationOrderDTO);
+        }
         try {
             binanceLiquidationOrderMapper.insertLiquidationOrder(liquidationOrderDTO);
             logger.debug("✅ 강제 청산 주문 저장 완료");
         } catch (Exception e) {
             logger.error("❌ 강제 청산 주문 저장 실패: {}", e.getMessage());
         }
+        return false;
     }
 }
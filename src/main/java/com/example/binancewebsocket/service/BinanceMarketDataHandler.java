@@ -0,0 +1,169 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.dto.*;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestHandler;
+import com.example.binancewebsocket.stream.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binance combined stream 메시지 처리기.
+ * parse 스테이지에서 메시지를 DTO 로 변환하고, persist 스테이지에서 각 서비스에 저장을 위임합니다.
+ */
+@Component
+public class BinanceMarketDataHandler implements IngestHandler {
+
+    private final Logger logger = LoggerFactory.getLogger(BinanceMarketDataHandler.class);
+
+    // --- 의존 서비스 ---
+    private final BinanceKlineService klineService;
+    private final BinanceTickerService tickerService;
+    private final BinanceTradeService tradeService;
+    private final BinanceFundingRateService fundingRateService;
+    private final BinanceAggTradeService aggTradeService;
+    private final BinanceLiquidationOrderService liquidationOrderService;
+    private final BinancePartialBookDepthService partialBookDepthService;
+
+    // --- 내부 도구 ---
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FrameDecoder frameDecoder;
+    private final ThreadLocal<FrameDecoder> threadDecoders; // pooled 모드: parse 스레드(파이프라인)별 디코더
+    private final Timer decodeTimer;
+
+    public BinanceMarketDataHandler(BinanceKlineService klineService,
+                                    BinanceTickerService tickerService,
+                                    BinanceTradeService tradeService,
+                                    BinanceFundingRateService fundingRateService,
+                                    BinanceAggTradeService aggTradeService,
+                                    BinanceLiquidationOrderService liquidationOrderService,
+                                    BinancePartialBookDepthService partialBookDepthService,
+                                    StreamKeyResolver streamKeyResolver,
+                                    SymbolFilter symbolFilter,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${binance.ingest.decoder:generated}") String decoder) {
+        this.klineService = klineService;
+        this.tickerService = tickerService;
+        this.tradeService = tradeService;
+        this.fundingRateService = fundingRateService;
+        this.aggTradeService = aggTradeService;
+        this.liquidationOrderService = liquidationOrderService;
+        this.partialBookDepthService = partialBookDepthService;
+
+        // generated(단일 패스 + 생성된 디코더) | streaming(단일 패스 + Jackson 바인딩) | tree(기존 JsonNode 방식, 비교 측정용)
+        // pooled(생성된 디코더 + 파서 / payload 재사용, 정상 상태 할당 없음)
+        this.frameDecoder = switch (decoder.toLowerCase()) {
+            case "tree" -> new TreeFrameDecoder(objectMapper, streamKeyResolver, symbolFilter);
+            case "streaming" -> new StreamingFrameDecoder(objectMapper, streamKeyResolver, symbolFilter, false);
+            case "pooled" -> new PooledFrameDecoder(objectMapper, streamKeyResolver, symbolFilter);
+            default -> new StreamingFrameDecoder(objectMapper, streamKeyResolver, symbolFilter, true);
+        };
+        // 풀 디코더는 상태(파서 / 버퍼)를 가지므로 파이프라인마다(parse 스레드마다) 따로 사용
+        this.threadDecoders = frameDecoder instanceof PooledFrameDecoder
+                ? ThreadLocal.withInitial(() -> new PooledFrameDecoder(objectMapper, streamKeyResolver, symbolFilter))
+                : null;
+        this.decodeTimer = Timer.builder("binance.ingest.decode")
+                .tag("decoder", decoder.toLowerCase())
+                .description("combined stream 프레임 디코딩 시간")
+                .register(meterRegistry);
+        logger.info("✅ 메시지 디코더: {} ({})", frameDecoder.getClass().getSimpleName(), decoder);
+    }
+
+    /**
+     * ✅ WebSocket 메시지 파싱 (parse 스테이지)
+     */
+    @Override
+    public void onParse(IngestEvent event) throws Exception {
+        long start = System.nanoTime();
+        FrameDecoder decoder = threadDecoders != null ? threadDecoders.get() : frameDecoder;
+        boolean decoded = decoder.decode(event.getFrame(), event);
+        decodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (decoded) {
+            logger.debug("📩 WebSocket 메시지 수신 [{}]:", event.getStreamKey().stream());
+        }
+    }
+
+    @Override
+    public boolean reusesPayloads() {
+        return threadDecoders != null;
+    }
+
+    /**
+     * ✅ 파싱된 데이터 저장 (persist 스테이지)
+     * 풀 모드에서는 payload 가 재사용되므로 각 서비스는 저장이 끝난 뒤 DTO 참조를 보관하면 안 됩니다.
+     * (group commit 대기열에 들어간 payload 만 회수하지 않도록 표시, 나머지는 풀로 돌아감)
+     * 메시지마다 로그를 남기지 않습니다. (수신 속도로 할당 / 출력이 생기며, 회수될 payload 를 문자열로 만들 수 있음)
+     */
+    @Override
+    public void onPersist(IngestEvent event) {
+        StreamKey key = event.getStreamKey();
+        Object payload = event.getPayload();
+        if (persist(key, payload)) {
+            event.retainPayload();
+        }
+    }
+
+    /**
+     * @return payload 가 group commit 대기열에 남는지
+     */
+    private boolean persist(StreamKey key, Object payload) {
+        if (key.allMarket()) {
+            return persistBatch((MarketBatch) payload);
+        }
+        boolean queued = false;
+        switch (key.type()) {
+            case KLINE -> queued = handleKlineMessage(key, (BinanceKlineDTO) payload);
+            case TICKER -> queued = tickerService.saveTicker((BinanceTickerDTO) payload);
+            case TRADE -> queued = tradeService.saveTrade((BinanceTradeDTO) payload);
+            case AGG_TRADE -> queued = aggTradeService.saveAggTrade((BinanceAggTradeDTO) payload);
+            case MARK_PRICE -> queued = fundingRateService.saveFundingRate((BinanceFundingRateDTO) payload);
+            case FORCE_ORDER -> queued = liquidationOrderService.saveLiquidationOrder((BinanceLiquidationOrderDTO) payload);
+            case PARTIAL_DEPTH -> queued = partialBookDepthService.savePartialBookDepth((BinancePartialBookDepthDTO) payload);
+            case DIFF_DEPTH -> {
+                // 로컬 호가창 엔진(parse 스테이지)에서 반영되며 저장하지 않음
+            }
+            case BOOK_TICKER -> {
+                // 최우선 호가 테이블(parse 스테이지)에 반영되며, 저장은 BinanceBookTickerService 가 모아서 처리
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * ✅ 전체 시장 스트림 배치 저장 - 구독 심볼만 남은 원소를 심볼별 스트림과 같은 서비스로 저장
+     *
+     * @return 원소 중 하나라도 group commit 대기열에 남는지 (배치 전체를 회수하지 않음)
+     */
+    private boolean persistBatch(MarketBatch batch) {
+        int size = batch.size();
+        boolean queued = false;
+        for (int i = 0; i < size; i++) {
+            Object element = batch.get(i);
+            switch (batch.getType()) {
+                case TICKER -> queued |= tickerService.saveTicker((BinanceTickerDTO) element);
+                case MARK_PRICE -> queued |= fundingRateService.saveFundingRate((BinanceFundingRateDTO) element);
+                case FORCE_ORDER -> queued |= liquidationOrderService.saveLiquidationOrder((BinanceLiquidationOrderDTO) element);
+                default -> logger.warn("⚠️ 전체 시장 스트림에서 지원하지 않는 타입: {}", batch.getType());
+            }
+        }
+        logger.debug("📦 전체 시장 {} 저장 요청 ({}/{}건)", batch.getType(), size, batch.getReceived());
+        return queued;
+    }
+
+    /**
+     * ✅ Kline (캔들) 데이터 저장 - 종료된 캔들만 간격별 테이블에 저장
+     */
+    private boolean handleKlineMessage(StreamKey key, BinanceKlineDTO klineDTO) {
+        if (!Boolean.TRUE.equals(klineDTO.getIsKlineClosed())) {
+            return false;
+        }
+        return klineService.saveKline(key.interval(), klineDTO);
+    }
+}
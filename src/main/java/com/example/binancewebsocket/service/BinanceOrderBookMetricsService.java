@@ -0,0 +1,202 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.dto.BinanceOrderBookMetricsDTO;
+import com.example.binancewebsocket.journal.FlushSequence;
+import com.example.binancewebsocket.journal.JournalSink;
+import com.example.binancewebsocket.mapper.BinanceOrderBookMetricsMapper;
+import com.example.binancewebsocket.orderbook.OrderBookMetrics;
+import com.example.binancewebsocket.orderbook.OrderBookMetricsCalculator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 부분 호가 스냅샷에서 계산한 지표(스프레드, microprice, 불균형, 누적 수량) 관리.
+ * <p>
+ * - 계산은 각 샤드 파이프라인의 {@link OrderBookMetricsCalculator} 가 parse 스테이지에서 수행합니다.
+ * - 최신값 : 심볼별 {@link OrderBookMetrics} 한 행을 계속 덮어쓰며, {@link #latest(String, OrderBookMetrics)} 로 복사해 조회합니다.
+ * - 시계열 : 샘플 간격마다 큐에 넣고, 별도 스레드 하나가 flush 간격마다 모아서 binance_order_book_metrics 에 일괄 저장합니다.
+ *   큐가 가득 차면 샘플을 버립니다. (최신값은 영향 없음)
+ * - 저널 확인({@link JournalSink})은 flush 회차로 합니다.
+ */
+@Service
+public class BinanceOrderBookMetricsService implements OrderBookMetricsCalculator.SampleSink, JournalSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceOrderBookMetricsService.class);
+
+    // --- 의존성 ---
+    private final BinanceOrderBookMetricsMapper metricsMapper;
+
+    // --- 설정값 ---
+    private final boolean enabled;
+    private final int topLevels;
+    private final double bandBps;
+    private final long sampleIntervalMs;
+    private final int maxBatchSize;
+
+    // --- 내부 상태 ---
+    private final Map<String, OrderBookMetrics> latest = new ConcurrentHashMap<>();
+    private final BlockingQueue<BinanceOrderBookMetricsDTO> samples;
+    private final ScheduledExecutorService flusher;
+    private final FlushSequence flushes = new FlushSequence(); // 저널 확인용 flush 회차
+
+    // --- 통계 ---
+    private final AtomicLong samplesWritten = new AtomicLong();
+    private final AtomicLong samplesDropped = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+
+    public BinanceOrderBookMetricsService(BinanceOrderBookMetricsMapper metricsMapper,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${binance.orderbook-metrics.enabled:false}") boolean enabled,
+                                          @Value("${binance.orderbook-metrics.top-levels:5}") int topLevels,
+                                          @Value("${binance.orderbook-metrics.band-bps:10}") double bandBps,
+                                          @Value("${binance.orderbook-metrics.sample-interval-ms:1000}") long sampleIntervalMs,
+                                          @Value("${binance.orderbook-metrics.flush-interval-ms:1000}") long flushIntervalMs,
+                                          @Value("${binance.orderbook-metrics.queue-capacity:10000}") int queueCapacity,
+                                          @Value("${binance.orderbook-metrics.max-batch-size:500}") int maxBatchSize) {
+        this.metricsMapper = metricsMapper;
+        this.enabled = enabled;
+        this.topLevels = Math.max(1, topLevels);
+        this.bandBps = bandBps;
+        this.sampleIntervalMs = sampleIntervalMs;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.samples = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "binance-orderbook-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled && sampleIntervalMs > 0) {
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, Math.max(10, flushIntervalMs), TimeUnit.MILLISECONDS);
+        }
+        registerMetrics(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 파이프라인(샤드) 하나에 연결할 계산기를 만듭니다.
+     */
+    public OrderBookMetricsCalculator newCalculator() {
+        return new OrderBookMetricsCalculator(this, topLevels, bandBps, sampleIntervalMs);
+    }
+
+    @Override
+    public OrderBookMetrics row(String symbol) {
+        return latest.computeIfAbsent(symbol, OrderBookMetrics::new);
+    }
+
+    /**
+     * ✅ 시계열 샘플 예약 (parse 스레드에서 호출, 즉시 반환)
+     */
+    @Override
+    public void sample(OrderBookMetrics metrics) {
+        if (Double.isNaN(metrics.getSpreadBps())) {
+            return; // 한쪽 호가가 비어 있음
+        }
+        BinanceOrderBookMetricsDTO row = new BinanceOrderBookMetricsDTO();
+        row.setSymbol(metrics.getSymbol());
+        row.setEventTime(metrics.getEventTime());
+        row.setBestBid(metrics.getBestBid());
+        row.setBestAsk(metrics.getBestAsk());
+        row.setSpreadBps(metrics.getSpreadBps());
+        row.setMicroprice(metrics.getMicroprice());
+        row.setImbalance(metrics.getImbalance());
+        row.setBidDepth(metrics.getBidDepth());
+        row.setAskDepth(metrics.getAskDepth());
+        if (!samples.offer(row)) {
+            samplesDropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * 심볼의 최신 지표를 target 에 복사합니다. (없으면 false)
+     */
+    public boolean latest(String symbol, OrderBookMetrics target) {
+        OrderBookMetrics row = latest.get(symbol);
+        if (row == null) {
+            return false;
+        }
+        row.copyTo(target);
+        return true;
+    }
+
+    public Collection<String> getSymbols() {
+        return latest.keySet();
+    }
+
+    private void flush() {
+        flushes.begin();
+        try {
+            drain();
+        } finally {
+            flushes.end();
+        }
+    }
+
+    private void drain() {
+        List<BinanceOrderBookMetricsDTO> batch = new ArrayList<>(maxBatchSize);
+        while (samples.drainTo(batch, maxBatchSize) > 0) {
+            try {
+                metricsMapper.insertOrderBookMetrics(batch);
+                samplesWritten.addAndGet(batch.size());
+            } catch (Exception e) {
+                flushFailures.incrementAndGet();
+                logger.error("❌ 호가 지표 저장 오류 ({}건 버림): {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (enabled && sampleIntervalMs > 0) {
+            flush(); // 남은 샘플 저장
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("binance.orderbook.metrics.samples", samplesWritten, AtomicLong::get)
+                .tag("result", "written")
+                .description("저장한 / 버린 호가 지표 샘플 수")
+                .register(registry);
+        FunctionCounter.builder("binance.orderbook.metrics.samples", samplesDropped, AtomicLong::get)
+                .tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("binance.orderbook.metrics.flush.failures", flushFailures, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("binance.orderbook.metrics.queue", samples, BlockingQueue::size)
+                .description("저장 대기 중인 호가 지표 샘플 수")
+                .register(registry);
+    }
+
+    @Override
+    public long mark() {
+        return flushes.mark();
+    }
+
+    @Override
+    public boolean acknowledged(long mark) {
+        return !(enabled && sampleIntervalMs > 0) || flushes.acknowledged(mark); // 주기 저장을 하지 않으면 넘겨받는 행도 없음
+    }
+}
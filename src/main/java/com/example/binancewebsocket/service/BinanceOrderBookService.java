@@ -0,0 +1,265 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.config.BinanceConfig;
+import com.example.binancewebsocket.orderbook.DepthSnapshot;
+import com.example.binancewebsocket.orderbook.LocalOrderBook;
+import com.example.binancewebsocket.orderbook.OrderBookEngine;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * 심볼별 로컬 호가창 관리.
+ * <p>
+ * - 호가창은 심볼당 하나이며, diff 적용은 각 샤드 파이프라인의 {@link OrderBookEngine} 이 담당합니다.
+ * - 엔진이 스냅샷을 요청하면 큐에 넣고 바로 반환하며, 별도 스레드 하나가 요청 간격을 두고 순서대로 조회합니다.
+ * <pre>
+ *   GET /fapi/v1/depth?symbol=&limit=1000   (weight 20)
+ * </pre>
+ * - 조회 실패 시 호가창에 실패를 알려 다음 diff 이벤트에서 다시 요청되도록 합니다.
+ * - 다른 서비스는 {@link #find(String)} 로 호가창을 조회합니다. (최우선 호가 / 상위 N 단계)
+ */
+@Service
+public class BinanceOrderBookService implements OrderBookEngine.SnapshotLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceOrderBookService.class);
+
+    // --- 의존성 ---
+    private final BinanceConfig binanceConfig;
+    private final SymbolScaleService symbolScaleService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WebClient webClient = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(
+                    HttpClient.create()
+                            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                            .responseTimeout(Duration.ofSeconds(10))
+            ))
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(4 * 1024 * 1024)) // 1000 단계 스냅샷
+            .build();
+
+    // --- 설정값 ---
+    private final boolean enabled;
+    private final int snapshotLimit;
+    private final int maxBufferedEvents;
+    private final long requestIntervalMs;
+
+    // --- 내부 상태 ---
+    private final Map<String, LocalOrderBook> books = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    // --- 통계 ---
+    private final AtomicLong snapshotsLoaded = new AtomicLong();
+    private final AtomicLong snapshotsFailed = new AtomicLong();
+    private final AtomicLong snapshotsDropped = new AtomicLong();
+
+    public BinanceOrderBookService(BinanceConfig binanceConfig,
+                                   SymbolScaleService symbolScaleService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${binance.orderbook.enabled:false}") boolean enabled,
+                                   @Value("${binance.orderbook.snapshot-limit:1000}") int snapshotLimit,
+                                   @Value("${binance.orderbook.max-buffered-events:1000}") int maxBufferedEvents,
+                                   @Value("${binance.orderbook.snapshot-interval-ms:250}") long requestIntervalMs,
+                                   @Value("${binance.orderbook.queue-capacity:1000}") int queueCapacity) {
+        this.binanceConfig = binanceConfig;
+        this.symbolScaleService = symbolScaleService;
+        this.enabled = enabled;
+        this.snapshotLimit = snapshotLimit;
+        this.maxBufferedEvents = maxBufferedEvents;
+        this.requestIntervalMs = requestIntervalMs;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "binance-orderbook-snapshot");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (job, pool) -> {
+                    snapshotsDropped.incrementAndGet();
+                    logger.warn("⚠️ 호가창 스냅샷 큐가 가득 차 요청을 버립니다: {}", job);
+                    ((SnapshotJob) job).book.snapshotFailed(); // 다음 diff 이벤트에서 다시 요청
+                });
+        registerMetrics(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 파이프라인(샤드) 하나에 연결할 엔진을 만듭니다.
+     */
+    public OrderBookEngine newEngine() {
+        return new OrderBookEngine(this);
+    }
+
+    @Override
+    public LocalOrderBook book(String symbol) {
+        return books.computeIfAbsent(symbol,
+                s -> new LocalOrderBook(s, symbolScaleService.priceScale(s), maxBufferedEvents));
+    }
+
+    /**
+     * 심볼의 호가창 (아직 diff 를 받지 않았으면 null)
+     */
+    public LocalOrderBook find(String symbol) {
+        return books.get(symbol);
+    }
+
+    public Collection<LocalOrderBook> getBooks() {
+        return books.values();
+    }
+
+    /**
+     * ✅ 스냅샷 조회 예약 (parse 스레드에서 호출, 즉시 반환)
+     */
+    @Override
+    public void requestSnapshot(LocalOrderBook book) {
+        logger.info("📥 [{}] 호가창 스냅샷 요청 (resync {}회)", book.getSymbol(), book.getResyncs());
+        executor.execute(new SnapshotJob(book));
+    }
+
+    private void load(LocalOrderBook book) {
+        String url = String.format("%s/fapi/v1/depth?symbol=%s&limit=%d",
+                binanceConfig.getBinanceApiUri(), book.getSymbol(), snapshotLimit);
+        try {
+            String body = webClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .block();
+            DepthSnapshot snapshot = parseSnapshot(objectMapper.readTree(body));
+            book.offerSnapshot(snapshot);
+            snapshotsLoaded.incrementAndGet();
+            logger.info("✅ [{}] 호가창 스냅샷 수신: lastUpdateId={}, bids={}, asks={}", book.getSymbol(),
+                    snapshot.lastUpdateId(), snapshot.bidPrices().length, snapshot.askPrices().length);
+        } catch (WebClientResponseException e) {
+            snapshotsFailed.incrementAndGet();
+            book.snapshotFailed();
+            logger.error("❌ [{}] 호가창 스냅샷 조회 실패 - Binance API error: {} - {}",
+                    book.getSymbol(), e.getStatusCode(), e.getResponseBodyAsString());
+        } catch (Exception e) {
+            snapshotsFailed.incrementAndGet();
+            book.snapshotFailed();
+            logger.error("❌ [{}] 호가창 스냅샷 조회 실패: {}", book.getSymbol(), e.getMessage());
+        }
+        pause();
+    }
+
+    /**
+     * {"lastUpdateId":..., "bids":[["price","qty"], ...], "asks":[...]} → DepthSnapshot
+     */
+    static DepthSnapshot parseSnapshot(JsonNode root) {
+        JsonNode bids = root.path("bids");
+        JsonNode asks = root.path("asks");
+        long[] bidPrices = new long[bids.size()];
+        long[] bidQuantities = new long[bids.size()];
+        long[] askPrices = new long[asks.size()];
+        long[] askQuantities = new long[asks.size()];
+        readLevels(bids, bidPrices, bidQuantities);
+        readLevels(asks, askPrices, askQuantities);
+        return new DepthSnapshot(root.path("lastUpdateId").asLong(), bidPrices, bidQuantities, askPrices, askQuantities);
+    }
+
+    private static void readLevels(JsonNode levels, long[] prices, long[] quantities) {
+        for (int i = 0; i < prices.length; i++) {
+            JsonNode level = levels.get(i);
+            prices[i] = FixedDecimal.parse(level.get(0).asText());
+            quantities[i] = FixedDecimal.parse(level.get(1).asText());
+        }
+    }
+
+    private void pause() {
+        if (requestIntervalMs > 0) {
+            try {
+                Thread.sleep(requestIntervalMs); // REST 요청 가중치 제한 보호
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("binance.orderbook.snapshots", snapshotsLoaded, AtomicLong::get)
+                .tag("result", "loaded")
+                .description("REST 호가창 스냅샷 조회 수")
+                .register(registry);
+        FunctionCounter.builder("binance.orderbook.snapshots", snapshotsFailed, AtomicLong::get)
+                .tag("result", "failed")
+                .register(registry);
+        FunctionCounter.builder("binance.orderbook.snapshots", snapshotsDropped, AtomicLong::get)
+                .tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("binance.orderbook.updates", this, s -> s.sum(LocalOrderBook::getUpdates))
+                .description("호가창에 적용한 diff 이벤트 수")
+                .register(registry);
+        FunctionCounter.builder("binance.orderbook.resyncs", this, s -> s.sum(LocalOrderBook::getResyncs))
+                .description("pu 연속성이 끊겨 스냅샷부터 다시 맞춘 횟수")
+                .register(registry);
+        FunctionCounter.builder("binance.orderbook.stale.snapshots", this, s -> s.sum(LocalOrderBook::getStaleSnapshots))
+                .description("첫 diff 보다 오래되어 다시 요청한 스냅샷 수")
+                .register(registry);
+        FunctionCounter.builder("binance.orderbook.buffer.overflows", this, s -> s.sum(LocalOrderBook::getBufferOverflows))
+                .register(registry);
+        Gauge.builder("binance.orderbook.books", this, s -> s.books.values().stream().filter(LocalOrderBook::isLive).count())
+                .tag("state", "live")
+                .description("상태별 호가창 수")
+                .register(registry);
+        Gauge.builder("binance.orderbook.books", this, s -> s.books.values().stream().filter(b -> !b.isLive()).count())
+                .tag("state", "awaiting_snapshot")
+                .register(registry);
+        Gauge.builder("binance.orderbook.snapshot.queue", executor, e -> e.getQueue().size())
+                .description("대기 중인 스냅샷 요청 수")
+                .register(registry);
+    }
+
+    private long sum(ToLongFunction<LocalOrderBook> value) {
+        long total = 0;
+        for (LocalOrderBook book : books.values()) {
+            total += value.applyAsLong(book);
+        }
+        return total;
+    }
+
+    private final class SnapshotJob implements Runnable {
+        private final LocalOrderBook book;
+
+        private SnapshotJob(LocalOrderBook book) {
+            this.book = book;
+        }
+
+        @Override
+        public void run() {
+            load(book);
+        }
+
+        @Override
+        public String toString() {
+            return book.getSymbol();
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.example.binancewebsocket.service;
 
+import com.example.binancewebsocket.codec.OrderBookSnapshotCodec;
+import com.example.binancewebsocket.dto.BinanceOrderBookSnapshotDTO;
 import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO;
 import com.example.binancewebsocket.mapper.BinancePartialBookDepthMapper;
+import com.example.binancewebsocket.stream.DepthPersistencePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class BinancePartialBookDepthService {
@@ -14,27 +21,153 @@ public class BinancePartialBookDepthService {
     private final Logger logger = LoggerFactory.getLogger(BinancePartialBookDepthService.class);
     private final BinancePartialBookDepthMapper binancePartialBookDepthMapper;
 
-    public BinancePartialBookDepthService(BinancePartialBookDepthMapper binancePartialBookDepthMapper) {
+    // --- 호가 단계 저장 형식 ---
+    // rows : 단계마다 binance_order_book_entries 한 행 (기본값) / blob : 스냅샷 하나를 binance_order_book_snapshots 한 행(BLOB)으로 (테이블 DDL: BinancePartialBookDepthMapper)
+    private final boolean blobFormat;
+
+    // --- 저장 정책 (parse 스테이지에서 savePartialBookDepth 앞에 적용) ---
+    private final DepthPersistencePolicy.Rule defaultRule;
+    private final Map<String, DepthPersistencePolicy.Rule> symbolRules;
+
+    private final GroupCommitWriter<BinancePartialBookDepthDTO> writer; // null 이면 이벤트마다 저장
+
+    public BinancePartialBookDepthService(BinancePartialBookDepthMapper binancePartialBookDepthMapper,
+                                          GroupCommitWriters groupCommitWriters,
+                                          @Value("${binance.depth-persistence.mode:change}") String mode,
+                                          @Value("${binance.depth-persistence.interval-ms:1000}") long intervalMs,
+                                          @Value("${binance.depth-persistence.depth-bps:5}") double bps,
+                                          @Value("${binance.depth-persistence.symbols:}") String symbols,
+                                          @Value("${binance.depth-persistence.format:rows}") String format) {
         this.binancePartialBookDepthMapper = binancePartialBookDepthMapper;
+        this.blobFormat = "blob".equalsIgnoreCase(format.trim());
+        this.defaultRule = new DepthPersistencePolicy.Rule(DepthPersistencePolicy.Mode.fromConfig(mode), intervalMs, bps);
+        this.symbolRules = parseSymbolRules(symbols, defaultRule);
+        this.writer = groupCommitWriters.createBatch("partial-depth", BinancePartialBookDepthMapper.class, this::insertAll);
+        logger.info("✅ 부분 호가 저장 정책: 기본 {}, 심볼별 {}, 형식 {}", defaultRule, symbolRules, blobFormat ? "blob" : "rows");
     }
 
     /**
-     * 📌 호가 데이터 저장
+     * 파이프라인(샤드) 하나에 연결할 저장 정책 필터 (모든 심볼이 ALL 이면 null)
      */
-    public void savePartialBookDepth(BinancePartialBookDepthDTO bookDepth) {
+    public DepthPersistencePolicy newPersistencePolicy() {
+        boolean filtering = defaultRule.mode() != DepthPersistencePolicy.Mode.ALL
+                || symbolRules.values().stream().anyMatch(rule -> rule.mode() != DepthPersistencePolicy.Mode.ALL);
+        return filtering ? new DepthPersistencePolicy(defaultRule, symbolRules) : null;
+    }
+
+    /**
+     * "BTCUSDT=top-of-book,ETHUSDT=interval:500,SOLUSDT=depth-bps:10" → 심볼별 규칙
+     * (':' 뒤 값은 interval 이면 ms, depth-bps 이면 bps 이며 생략하면 기본값)
+     */
+    static Map<String, DepthPersistencePolicy.Rule> parseSymbolRules(String value, DepthPersistencePolicy.Rule defaults) {
+        Map<String, DepthPersistencePolicy.Rule> rules = new HashMap<>();
+        if (value == null || value.isBlank()) {
+            return rules;
+        }
+        for (String item : value.split(",")) {
+            if (item.isBlank()) {
+                continue;
+            }
+            String[] pair = item.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("잘못된 부분 호가 저장 정책: " + item);
+            }
+            String[] modeAndValue = pair[1].split(":", 2);
+            DepthPersistencePolicy.Mode mode = DepthPersistencePolicy.Mode.fromConfig(modeAndValue[0]);
+            long intervalMs = defaults.intervalMs();
+            double bps = defaults.bps();
+            if (modeAndValue.length == 2) {
+                if (mode == DepthPersistencePolicy.Mode.INTERVAL) {
+                    intervalMs = Long.parseLong(modeAndValue[1].trim());
+                } else if (mode == DepthPersistencePolicy.Mode.DEPTH_BPS) {
+                    bps = Double.parseDouble(modeAndValue[1].trim());
+                }
+            }
+            rules.put(pair[0].trim().toUpperCase(), new DepthPersistencePolicy.Rule(mode, intervalMs, bps));
+        }
+        return rules;
+    }
+
+    /**
+     * 📌 호가 데이터 저장 (group commit 사용 시 모아서 저장)
+     *
+     * @return DTO 가 group commit 대기열에 들어가 저장 전까지 참조되는지 (true 이면 풀 모드 payload 를 회수하면 안 됨)
+     */
+    public boolean savePartialBookDepth(BinancePartialBookDepthDTO bookDepth) {
+        if (writer != null) {
+            return writer.offer(bookDepth);
+        }
         try {
             // ✅ Partial Book Depth 저장 (transaction_time을 기반으로 저장)
             binancePartialBookDepthMapper.insertPartialBookDepth(bookDepth);
-            BigInteger transactionTime = bookDepth.getTransactionTime(); // ✅ 트랜잭션 시간 사용
+            long transactionTime = bookDepth.getTransactionTime(); // ✅ 트랜잭션 시간 사용
 
             // ✅ Order Book Entries 저장
             if (!bookDepth.getBids().isEmpty() || !bookDepth.getAsks().isEmpty()) {
-                binancePartialBookDepthMapper.insertOrderBookEntries(transactionTime, bookDepth.getBids(), bookDepth.getAsks());
+                if (blobFormat) {
+                    binancePartialBookDepthMapper.insertOrderBookSnapshot(toSnapshot(bookDepth));
+                } else {
+                    binancePartialBookDepthMapper.insertOrderBookEntries(transactionTime, bookDepth.getBids(), bookDepth.getAsks());
+                }
             }
 
             logger.debug("📊 호가 데이터 저장 완료 (transactionTime={})", transactionTime);
         } catch (Exception e) {
             logger.error("❌ 호가 데이터 저장 오류: ", e);
         }
+        return false;
+    }
+
+    /**
+     * group commit 1회 저장 - 같은 문장끼리 이어서 실행해야 JDBC 배치 하나로 묶이므로 헤더를 모두 저장한 뒤 호가 단계를 저장
+     */
+    private void insertAll(BinancePartialBookDepthMapper mapper, List<BinancePartialBookDepthDTO> batch) {
+        for (BinancePartialBookDepthDTO bookDepth : batch) {
+            mapper.insertPartialBookDepth(bookDepth);
+        }
+        for (BinancePartialBookDepthDTO bookDepth : batch) {
+            if (bookDepth.getBids().isEmpty() && bookDepth.getAsks().isEmpty()) {
+                continue;
+            }
+            if (blobFormat) {
+                mapper.insertOrderBookSnapshot(toSnapshot(bookDepth));
+            } else {
+                mapper.insertOrderBookEntries(bookDepth.getTransactionTime(), bookDepth.getBids(), bookDepth.getAsks());
+            }
+        }
+    }
+
+    /**
+     * 📌 기간 내 호가 스냅샷 조회 (BLOB 을 매수 / 매도 단계로 복원)
+     */
+    public List<BinancePartialBookDepthDTO> findSnapshots(String symbol, long startTime, long endTime) {
+        List<BinanceOrderBookSnapshotDTO> rows = binancePartialBookDepthMapper.selectOrderBookSnapshots(symbol, startTime, endTime);
+        List<BinancePartialBookDepthDTO> snapshots = new ArrayList<>(rows.size());
+        for (BinanceOrderBookSnapshotDTO row : rows) {
+            snapshots.add(fromSnapshot(row));
+        }
+        return snapshots;
+    }
+
+    static BinanceOrderBookSnapshotDTO toSnapshot(BinancePartialBookDepthDTO bookDepth) {
+        BinanceOrderBookSnapshotDTO snapshot = new BinanceOrderBookSnapshotDTO();
+        snapshot.setTransactionTime(bookDepth.getTransactionTime());
+        snapshot.setSymbol(bookDepth.getSymbol());
+        snapshot.setBidCount(bookDepth.getBids().size());
+        snapshot.setAskCount(bookDepth.getAsks().size());
+        snapshot.setLevels(OrderBookSnapshotCodec.encode(bookDepth.getBids(), bookDepth.getAsks()));
+        return snapshot;
+    }
+
+    static BinancePartialBookDepthDTO fromSnapshot(BinanceOrderBookSnapshotDTO snapshot) {
+        BinancePartialBookDepthDTO bookDepth = new BinancePartialBookDepthDTO();
+        bookDepth.setTransactionTime(snapshot.getTransactionTime());
+        bookDepth.setSymbol(snapshot.getSymbol());
+        List<BinancePartialBookDepthDTO.OrderBookEntry> bids = new ArrayList<>(snapshot.getBidCount());
+        List<BinancePartialBookDepthDTO.OrderBookEntry> asks = new ArrayList<>(snapshot.getAskCount());
+        OrderBookSnapshotCodec.decode(snapshot.getLevels(), bids, asks);
+        bookDepth.setBids(bids);
+        bookDepth.setAsks(asks);
+        return bookDepth;
     }
 }
@@ -0,0 +1,257 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.dto.PartitionRangeDTO;
+import com.example.binancewebsocket.dto.TablePartitionDTO;
+import com.example.binancewebsocket.mapper.BinancePartitionMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 수집 테이블의 일별 RANGE 파티션 관리. (BinanceScheduler 가 시작 시 / 매일 호출)
+ * <p>
+ * - 시간 컬럼(Unix Timestamp ms)을 기준으로 UTC 하루마다 파티션 하나 (p + yyyyMMdd, 상한 = 다음 날 00:00)를
+ *   days-ahead 일 앞까지 미리 만들고, MAXVALUE 파티션(p_future)은 범위를 벗어난 행을 받는 안전망으로 둡니다.
+ * - 보존 기간이 지난 파티션은 DROP PARTITION 으로 즉시 삭제합니다. (행 단위 DELETE 가 없어 수집 INSERT 와 잠금 경합 없음)
+ * - mapper SQL 은 그대로이며, 시간 조건이 있는 조회(예: transaction_time BETWEEN)는 해당 날짜 파티션만 읽습니다. (partition pruning)
+ * <p>
+ * 파티션되지 않은 테이블은 convert=true 일 때만 변환합니다. (테이블 전체 재구성)
+ * MySQL 은 PRIMARY KEY / UNIQUE 키에 파티션 컬럼이 포함되어야 하므로, 변환 전 키를 확인해야 합니다. 예:
+ * <pre>
+ * ALTER TABLE binance_trade DROP PRIMARY KEY, ADD PRIMARY KEY (id, trade_time);
+ * </pre>
+ */
+@Service
+public class BinancePartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinancePartitionService.class);
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z0-9_]+");
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String MAXVALUE = "MAXVALUE";
+
+    /**
+     * 테이블별 파티션 정책
+     *
+     * @param retentionDays 오늘 이전에 보관할 일 수 (0 이면 삭제하지 않음)
+     */
+    public record TablePolicy(String table, String column, int retentionDays) {
+    }
+
+    // --- 의존성 ---
+    private final BinancePartitionMapper partitionMapper;
+
+    // --- 설정값 ---
+    private final boolean enabled;
+    private final List<TablePolicy> policies;
+    private final int daysAhead;
+    private final boolean convert;
+
+    // --- 통계 ---
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public BinancePartitionService(BinancePartitionMapper partitionMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${binance.partition.enabled:false}") boolean enabled,
+                                   @Value("${binance.partition.tables:binance_trade=trade_time:30,binance_agg_trade=trade_time:30,binance_partial_book_depth=transaction_time:7,binance_order_book_entries=transaction_time:7,binance_order_book_snapshots=transaction_time:7}") String tables,
+                                   @Value("${binance.partition.days-ahead:7}") int daysAhead,
+                                   @Value("${binance.partition.convert:false}") boolean convert) {
+        this.partitionMapper = partitionMapper;
+        this.enabled = enabled;
+        this.policies = parseTables(tables);
+        this.daysAhead = Math.max(1, daysAhead);
+        this.convert = convert;
+        if (enabled) {
+            logger.info("✅ 일별 파티션 관리 사용 ({}일 앞까지 생성, 테이블 {})", this.daysAhead, policies);
+        }
+        registerMetrics(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * ✅ 모든 테이블의 파티션 생성 / 만료 파티션 삭제 (테이블별 오류는 기록 후 다음 테이블 진행)
+     */
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (TablePolicy policy : policies) {
+            try {
+                maintain(policy, today);
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                logger.error("❌ [{}] 파티션 관리 오류: {}", policy.table(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private void maintain(TablePolicy policy, LocalDate today) {
+        String table = policy.table();
+        List<TablePartitionDTO> partitions = partitionMapper.selectPartitions(table);
+        if (partitions.isEmpty()) {
+            logger.warn("⚠️ [{}] 테이블이 없어 파티션 관리를 건너뜁니다", table);
+            return;
+        }
+
+        LocalDate through = today.plusDays(daysAhead);
+        if (partitions.size() == 1 && partitions.get(0).getPartitionName() == null) {
+            if (!convert) {
+                logger.warn("⚠️ [{}] 파티션되지 않은 테이블입니다 (binance.partition.convert=true 이면 {} 기준 RANGE 파티션으로 변환)",
+                        table, policy.column());
+                return;
+            }
+            // 어제 파티션(상한 = 오늘 00:00)이 기존 행을 모두 받음
+            List<PartitionRangeDTO> initial = dailyPartitions(today.minusDays(1), through);
+            partitionMapper.partitionByRange(table, policy.column(), initial);
+            created.addAndGet(initial.size());
+            logger.info("✅ [{}] {} 기준 일별 RANGE 파티션으로 변환 ({}개)", table, policy.column(), initial.size());
+            return;
+        }
+
+        TablePartitionDTO first = partitions.get(0);
+        if (!"RANGE".equalsIgnoreCase(first.getPartitionMethod())
+                || !policy.column().equalsIgnoreCase(first.getPartitionExpression().replace("`", "").trim())) {
+            logger.warn("⚠️ [{}] {} RANGE 파티션이 아니어서 건너뜁니다 (현재: {} {})",
+                    table, policy.column(), first.getPartitionMethod(), first.getPartitionExpression());
+            return;
+        }
+
+        // 마지막 상한 이후 ~ days-ahead 일까지 생성
+        Long lastBound = null;
+        String future = null;
+        for (TablePartitionDTO partition : partitions) {
+            Long bound = bound(partition);
+            if (bound != null) {
+                lastBound = lastBound == null ? bound : Math.max(lastBound, bound);
+            } else if (MAXVALUE.equalsIgnoreCase(partition.getPartitionDescription())) {
+                future = partition.getPartitionName();
+            }
+        }
+        LocalDate from = lastBound != null ? dayOf(lastBound) : today.minusDays(1);
+        List<PartitionRangeDTO> missing = dailyPartitions(from, through);
+        if (!missing.isEmpty()) {
+            if (future != null) {
+                partitionMapper.reorganizeFuturePartition(table, future, missing);
+            } else {
+                partitionMapper.addPartitions(table, missing);
+            }
+            created.addAndGet(missing.size());
+            logger.info("✅ [{}] 파티션 {}개 생성 ({} ~ {})", table, missing.size(), missing.get(0).getName(),
+                    missing.get(missing.size() - 1).getName());
+        }
+
+        if (policy.retentionDays() > 0) {
+            long cutoff = startOfDay(today.minusDays(policy.retentionDays()));
+            List<String> expired = expiredPartitions(partitions, cutoff);
+            if (!expired.isEmpty()) {
+                partitionMapper.dropPartitions(table, expired);
+                dropped.addAndGet(expired.size());
+                logger.info("🗑️ [{}] 보존 기간({}일)이 지난 파티션 {}개 삭제: {}", table, policy.retentionDays(), expired.size(), expired);
+            }
+        }
+    }
+
+    /**
+     * from ~ through (포함) 일별 파티션
+     */
+    static List<PartitionRangeDTO> dailyPartitions(LocalDate from, LocalDate through) {
+        List<PartitionRangeDTO> partitions = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(through); day = day.plusDays(1)) {
+            partitions.add(new PartitionRangeDTO("p" + day.format(PARTITION_DAY), startOfDay(day.plusDays(1))));
+        }
+        return partitions;
+    }
+
+    /**
+     * 상한이 cutoff 이하인 (모든 행이 cutoff 이전인) 파티션 이름
+     */
+    static List<String> expiredPartitions(List<TablePartitionDTO> partitions, long cutoff) {
+        List<String> expired = new ArrayList<>();
+        for (TablePartitionDTO partition : partitions) {
+            Long bound = bound(partition);
+            if (bound != null && bound <= cutoff) {
+                expired.add(partition.getPartitionName());
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * "binance_trade=trade_time:30,binance_partial_book_depth=transaction_time:7" → 테이블별 정책
+     * (':' 뒤 보존 일수를 생략하거나 0 이면 삭제하지 않음)
+     */
+    static List<TablePolicy> parseTables(String value) {
+        List<TablePolicy> policies = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return policies;
+        }
+        for (String item : value.split(",")) {
+            if (item.isBlank()) {
+                continue;
+            }
+            String[] pair = item.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("잘못된 파티션 정책: " + item);
+            }
+            String[] columnAndDays = pair[1].split(":", 2);
+            String table = pair[0].trim();
+            String column = columnAndDays[0].trim();
+            if (!IDENTIFIER.matcher(table).matches() || !IDENTIFIER.matcher(column).matches()) {
+                throw new IllegalArgumentException("파티션 정책의 테이블 / 컬럼 이름이 올바르지 않습니다: " + item);
+            }
+            int retentionDays = columnAndDays.length == 2 ? Integer.parseInt(columnAndDays[1].trim()) : 0;
+            policies.add(new TablePolicy(table, column, Math.max(0, retentionDays)));
+        }
+        return policies;
+    }
+
+    private static Long bound(TablePartitionDTO partition) {
+        String description = partition.getPartitionDescription();
+        if (description == null || partition.getPartitionName() == null || !IDENTIFIER.matcher(partition.getPartitionName()).matches()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(description.trim());
+        } catch (NumberFormatException e) {
+            return null; // MAXVALUE
+        }
+    }
+
+    private static long startOfDay(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    private static LocalDate dayOf(long epochMillis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("binance.partition.created", created, AtomicLong::get)
+                .description("생성한 일별 파티션 수")
+                .register(registry);
+        FunctionCounter.builder("binance.partition.dropped", dropped, AtomicLong::get)
+                .description("보존 기간이 지나 삭제한 파티션 수")
+                .register(registry);
+        FunctionCounter.builder("binance.partition.failures", failures, AtomicLong::get)
+                .description("파티션 관리 실패 수 (테이블 단위)")
+                .register(registry);
+    }
+}
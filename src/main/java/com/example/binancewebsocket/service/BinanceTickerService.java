@@ -1,30 +1,104 @@
 package com.example.binancewebsocket.service;
 
 import com.example.binancewebsocket.dto.BinanceTickerDTO;
+import com.example.binancewebsocket.journal.JournalSink;
 import com.example.binancewebsocket.mapper.BinanceTickerMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * 24시간 티커({@code <symbol>@ticker}, 심볼별 약 1초마다) 저장.
+ * <p>
+ * conflation 사용 시 심볼별 최신값만 {@link ConflatingBuffer} 에 남기고, flush 간격마다 또는
+ * 마지막 저장 이후 체결가가 change-bps 이상 움직이면 여러 행 INSERT 한 번으로 저장합니다.
+ * 저널 확인({@link JournalSink})은 conflation 버퍼의 flush 회차로 합니다. (버퍼가 없으면 persist 완료 위치로 충분)
+ */
 @Service
-public class BinanceTickerService {
+public class BinanceTickerService implements JournalSink {
 
     private Logger logger = LoggerFactory.getLogger(BinanceTickerService.class);
     private final BinanceTickerMapper binanceTickerMapper;
+    private final ConflatingBuffer<BinanceTickerDTO> buffer; // null 이면 이벤트마다 저장
+    private final GroupCommitWriter<BinanceTickerDTO> writer; // conflation 을 쓰지 않을 때의 group commit (null 이면 이벤트마다 저장)
 
-    public BinanceTickerService(BinanceTickerMapper binanceTickerMapper) {
+    public BinanceTickerService(BinanceTickerMapper binanceTickerMapper,
+                                GroupCommitWriters groupCommitWriters,
+                                MeterRegistry meterRegistry,
+                                @Value("${binance.conflation.enabled:true}") boolean conflation,
+                                @Value("${binance.conflation.ticker.flush-interval-ms:15000}") long flushIntervalMs,
+                                @Value("${binance.conflation.ticker.change-bps:50}") double changeBps,
+                                @Value("${binance.conflation.max-batch-size:500}") int maxBatchSize) {
         this.binanceTickerMapper = binanceTickerMapper;
+        if (conflation && flushIntervalMs > 0) {
+            this.buffer = new ConflatingBuffer<>("ticker", flushIntervalMs, maxBatchSize,
+                    BinanceTickerDTO::getSymbol, BinanceTickerService::copy,
+                    (written, latest) -> ConflatingBuffer.changeBps(written.getLastPrice(), latest.getLastPrice()) >= changeBps,
+                    binanceTickerMapper::insertTickers);
+            buffer.registerMetrics(meterRegistry);
+        } else {
+            this.buffer = null;
+        }
+        this.writer = buffer == null
+                ? groupCommitWriters.createBatch("ticker", BinanceTickerMapper.class, BinanceTickerMapper::insertTickers)
+                : null;
     }
 
     /**
-     * 📌 Ticker 데이터 저장
+     * 📌 Ticker 데이터 저장 (conflation 사용 시 최신값만 보관 후 모아서 저장)
+     *
+     * @return DTO 가 group commit 대기열에 들어가 저장 전까지 참조되는지 (true 이면 풀 모드 payload 를 회수하면 안 됨)
      */
-    public void saveTicker(BinanceTickerDTO tickerDTO) {
+    public boolean saveTicker(BinanceTickerDTO tickerDTO) {
+        if (buffer != null) {
+            buffer.offer(tickerDTO);
+            return false; // 값을 복사해 보관
+        }
+        if (writer != null) {
+            return writer.offer(tickerDTO);
+        }
         try {
             binanceTickerMapper.insertTicker(tickerDTO);
             logger.debug("✅ Ticker 데이터 저장 완료");
         } catch (Exception e) {
             logger.error("❌ Ticker 데이터 저장 실패: {}", e.getMessage());
         }
+        return false;
+    }
+
+    private static BinanceTickerDTO copy(BinanceTickerDTO source) {
+        BinanceTickerDTO copy = new BinanceTickerDTO();
+        copy.setEventType(source.getEventType());
+        copy.setEventTime(source.getEventTime());
+        copy.setSymbol(source.getSymbol());
+        copy.setPriceChange(source.getPriceChange());
+        copy.setPriceChangePercent(source.getPriceChangePercent());
+        copy.setWeightedAvgPrice(source.getWeightedAvgPrice());
+        copy.setLastPrice(source.getLastPrice());
+        copy.setOpenPrice(source.getOpenPrice());
+        copy.setHighPrice(source.getHighPrice());
+        copy.setLowPrice(source.getLowPrice());
+        copy.setVolume(source.getVolume());
+        return copy;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Override
+    public long mark() {
+        return buffer != null ? buffer.mark() : 0;
+    }
+
+    @Override
+    public boolean acknowledged(long mark) {
+        return buffer == null || buffer.acknowledged(mark);
     }
 }
@@ -11,20 +11,31 @@ public class BinanceTradeService {
 
     private Logger logger = LoggerFactory.getLogger(BinanceTradeService.class);
     private final BinanceTradeMapper binanceTradeMapper;
+    private final GroupCommitWriter<BinanceTradeDTO> writer; // null 이면 이벤트마다 저장
 
-    public BinanceTradeService(BinanceTradeMapper binanceTradeMapper) {
+    public BinanceTradeService(BinanceTradeMapper binanceTradeMapper, GroupCommitWriters groupCommitWriters,
+                               LoadDataInfileSink loadDataInfileSink) {
         this.binanceTradeMapper = binanceTradeMapper;
+        // LOAD DATA 사용 시 묶음을 CSV 로 적재하고, LOCAL INFILE 을 쓸 수 없으면 INSERT 배치로 저장
+        this.writer = groupCommitWriters.create("trade", BinanceTradeMapper.class, BinanceTradeMapper::insertTrade,
+                loadDataInfileSink.isEnabled() ? loadDataInfileSink::loadTrades : null);
     }
 
     /**
-     * 📌 거래 데이터 저장
+     * 📌 거래 데이터 저장 (group commit 사용 시 모아서 저장)
+     *
+     * @return DTO 가 group commit 대기열에 들어가 저장 전까지 참조되는지 (true 이면 풀 모드 payload 를 회수하면 안 됨)
      */
-    public void saveTrade(BinanceTradeDTO tradeDTO) {
+    public boolean saveTrade(BinanceTradeDTO tradeDTO) {
+        if (writer != null) {
+            return writer.offer(tradeDTO);
+        }
         try {
             binanceTradeMapper.insertTrade(tradeDTO);
             logger.debug("✅ Trade 데이터 저장 완료");
         } catch (Exception e) {
             logger.error("❌ Trade 데이터 저장 실패: {}", e.getMessage());
         }
+        return false;
     }
 }
@@ -1,46 +1,43 @@
 package com.example.binancewebsocket.service;
 
-import com.example.binancewebsocket.dto.*;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.binancewebsocket.pipeline.IngestPipeline;
 import jakarta.annotation.PreDestroy;
+import org.java_websocket.WebSocket;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.Framedata;
 import org.java_websocket.handshake.ServerHandshake;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Component;
 
 import java.net.URI;
-import java.time.LocalTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
-@Component
-@EnableScheduling
-@ConditionalOnProperty(name = "enable.binance.scheduling", havingValue = "true", matchIfMissing = false)
 public class BinanceWebSocketClient extends WebSocketClient {
 
     private final Logger logger = LoggerFactory.getLogger(BinanceWebSocketClient.class);
 
-    // --- 의존 서비스 ---
-    private final BinanceKlineService klineService;
-    private final BinanceTickerService tickerService;
-    private final BinanceTradeService tradeService;
-    private final BinanceFundingRateService fundingRateService;
-    private final BinanceAggTradeService aggTradeService;
-    private final BinanceLiquidationOrderService liquidationOrderService;
-    private final BinancePartialBookDepthService partialBookDepthService;
+    // --- 수신 메시지를 넘겨받는 파이프라인 ---
+    private final String name; // 연결 이름 (예: shard-0, 이중화 시 shard-0-r1)
+    private final IngestPipeline ingestPipeline;
+    private final int replica; // 같은 샤드의 이중화 연결 번호 (0부터)
+    // destroy 이후에는 파이프라인에 발행하지 않음 (같은 샤드의 새 클라이언트만 생산자가 되도록)
+    private volatile boolean retired;
+    // 교체 연결은 이전 연결이 물러날 때까지 수신만 하고 발행하지 않음 (한 replica 번호에 생산자는 항상 하나)
+    private volatile boolean standby;
+    // 수신 스레드가 발행 중인지 (retire 가 발행이 끝나기를 기다림)
+    private volatile boolean publishing;
 
-    // --- 내부 도구 ---
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // --- SUBSCRIBE / UNSUBSCRIBE 제어 메시지 ---
+    private final BinanceControlChannel controlChannel;
 
     // --- 재연결 관련 설정 및 상태 ---
     private final int MAX_RECONNECT_ATTEMPTS = 10; // 최대 재연결 시도 횟수
@@ -54,54 +51,70 @@ public class BinanceWebSocketClient extends WebSocketClient {
     private final AtomicInteger reconnectAttempt = new AtomicInteger(0);
 
     // 재연결 작업을 위한 스케줄러 (final로 선언, 한 번만 생성)
-    private final ScheduledExecutorService reconnectScheduler = Executors.newSingleThreadScheduledExecutor(
-            runnable -> {
-                Thread thread = new Thread(runnable, "binance-reconnect-scheduler");
-                thread.setDaemon(true); // 데몬 스레드로 설정하여 메인 앱 종료 시 강제 종료되도록 함
-                return thread;
-            }
-    );
+    private final ScheduledExecutorService reconnectScheduler;
+
+    // --- 연결 생존 확인 (마지막 수신 / pong 시각 기준) ---
+    private volatile long lastFrameNanos;    // 마지막 데이터 / 서버 ping 수신 시각
+    private volatile long lastPongNanos;     // 마지막 pong 수신 시각
+    private volatile long openedAtMillis;    // 현재 연결이 열린 시각 (교체 주기 판단용)
+    private volatile long framesReceived;    // 수신한 데이터 프레임 수 (수신 스레드만 기록)
+    private long pingIntervalNanos;
+    private long livenessTimeoutNanos;
+    private Runnable livenessTimeoutListener;
+    private ScheduledFuture<?> livenessTask;
+    // 생존 확인 전용 스케줄러 (재연결 스케줄러는 reconnectBlocking() 동안 막히므로 함께 쓰지 않음)
+    private final ScheduledExecutorService livenessScheduler;
 
 
     /**
      * Binance WebSocketClient 생성자.
-     * 필요한 서비스들을 주입받습니다.
+     * 수신 메시지를 발행할 IngestPipeline 을 주입받습니다. (샤드마다 별도의 클라이언트 / 재연결 상태)
      */
+    public BinanceWebSocketClient(String name, URI serverUri, IngestPipeline ingestPipeline,
+                                  int controlMessagesPerSecond, long controlAckTimeoutMs) {
+        this(name, 0, serverUri, ingestPipeline, controlMessagesPerSecond, controlAckTimeoutMs);
+    }
 
-    public BinanceWebSocketClient(URI serverUri,
-                                  BinanceKlineService klineService,
-                                  BinanceTickerService tickerService,
-                                  BinanceTradeService tradeService,
-                                  BinanceFundingRateService fundingRateService,
-                                  BinanceAggTradeService aggTradeService,
-                                  BinanceLiquidationOrderService liquidationOrderService,
-                                  BinancePartialBookDepthService partialBookDepthService
-    ) {
+    /**
+     * 이중화 연결용 생성자. 같은 샤드의 연결은 같은 파이프라인에 replica 번호를 붙여 발행합니다.
+     */
+    public BinanceWebSocketClient(String name, int replica, URI serverUri, IngestPipeline ingestPipeline,
+                                  int controlMessagesPerSecond, long controlAckTimeoutMs) {
         super(serverUri);
-        this.klineService = klineService;
-        this.tickerService = tickerService;
-        this.tradeService = tradeService;
-        this.fundingRateService = fundingRateService;
-        this.aggTradeService = aggTradeService;
-        this.liquidationOrderService = liquidationOrderService;
-        this.partialBookDepthService = partialBookDepthService;
-        logger.info("BinanceWebSocketClient 인스턴스 생성 완료. 재연결 스케줄러 시작됨.");
+        this.name = name;
+        this.replica = replica;
+        this.ingestPipeline = ingestPipeline;
+        this.reconnectScheduler = Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                    Thread thread = new Thread(runnable, "binance-reconnect-" + name);
+                    thread.setDaemon(true); // 데몬 스레드로 설정하여 메인 앱 종료 시 강제 종료되도록 함
+                    return thread;
+                }
+        );
+        this.livenessScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "binance-liveness-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // 제어 메시지는 속도 제한 간격으로 하나씩 전송 (같은 스케줄러 스레드 사용)
+        this.controlChannel = new BinanceControlChannel(name, this::send, this::isOpen, controlAckTimeoutMs, 3);
+        long controlIntervalMs = Math.max(1, 1000 / Math.max(1, controlMessagesPerSecond));
+        reconnectScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                controlChannel.tick();
+            } catch (Exception e) {
+                logger.error("❌ [{}] 제어 메시지 처리 중 오류", name, e);
+            }
+        }, controlIntervalMs, controlIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("BinanceWebSocketClient [{}] 인스턴스 생성 완료. 재연결 스케줄러 시작됨.", name);
     }
 
     /**
-     * 1분 주기로 WebSocket 상태를 체크하고, 닫혀 있으면 재연결 시도를 시작.
-     * (주의: BinanceWebSocketService에서 매일 클라이언트를 재생성한다면 이 로직이 중복될 수 있음)
+     * WebSocket 상태를 체크하고, 닫혀 있으면 재연결 시도를 시작.
+     * (BinanceWebSocketService 에서 1분 주기로 호출)
      */
-    @Scheduled(fixedRate = 60_000)  // 1분
     public void checkAndReconnect() {
-        // 현재 시간이 00:00 인 경우 스킵 (00:00 ~ 00:01 사이)
-        // (이유가 명확하지 않다면 제거 고려)
-        LocalTime now = LocalTime.now();
-        if (now.getHour() == 0 && now.getMinute() == 0) {
-            logger.debug("현재 시간이 00:00이므로 checkAndReconnect 실행을 건너<0xEB><0x8A>니다.");
-            return;
-        }
-
         logger.debug("WebSocket 연결 상태 확인 (스케줄링)..."); // 로그 레벨 조정
 
         if (!isWebSocketOpen()) {
@@ -117,168 +130,154 @@ public class BinanceWebSocketClient extends WebSocketClient {
      */
     @Override
     public void onOpen(ServerHandshake handshakedata) {
-        logger.info("✅ Binance WebSocket 연결 성공! (Status: {}, Message: {})", handshakedata.getHttpStatus(), handshakedata.getHttpStatusMessage());
+        // onOpen 은 이 연결의 수신 스레드에서 호출되므로, 스레드 덤프에서 샤드를 구분할 수 있도록 이름 지정
+        Thread.currentThread().setName("binance-ws-" + name + "-read");
+        logger.info("✅ Binance WebSocket [{}] 연결 성공! (Status: {}, Message: {})", name, handshakedata.getHttpStatus(), handshakedata.getHttpStatusMessage());
         // 연결 성공 시 재연결 시도 횟수 초기화
         reconnectAttempt.set(0);
+        long now = System.nanoTime();
+        lastFrameNanos = now;
+        lastPongNanos = now;
+        openedAtMillis = System.currentTimeMillis();
     }
 
     /**
-     * ✅ WebSocket 메시지 수신 처리
+     * ✅ 연결 생존 확인 설정 (connect 전에 호출)
+     * <p>
+     * - 마지막 수신 이후 pingIntervalMs 동안 조용하면 ping 을 보내고,
+     * - 데이터 / ping / pong 중 어느 것도 timeoutMs 동안 오지 않으면 half-open 으로 보고 소켓을 즉시 닫습니다.
+     *   (onClose → 재연결 시퀀스)
+     * 라이브러리 자체의 connection lost 검사(초 단위)는 끄고 이 검사로 대체합니다.
+     * 검사는 전용 스레드에서 실행하므로 재연결(reconnectBlocking) 중에도 지연되지 않습니다.
      */
-    @Override
-    public void onMessage(String message) {
-        try {
-            JsonNode root = objectMapper.readTree(message);
-
-            // ✅ `stream` 필드 존재 여부 확인 후 처리
-            if (!root.has("stream")) {
-                logger.warn("⚠️ WebSocket 메시지에 'stream' 필드가 없음: {}", message);
-                return;
+    public void configureLiveness(long pingIntervalMs, long timeoutMs, Runnable onTimeout) {
+        if (timeoutMs <= 0) {
+            return; // 사용 안 함 (라이브러리 기본 검사 유지)
+        }
+        this.pingIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, pingIntervalMs));
+        this.livenessTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.livenessTimeoutListener = onTimeout;
+        setConnectionLostTimeout(0);
+        long checkIntervalMs = Math.max(50, Math.min(pingIntervalMs, timeoutMs / 4));
+        if (livenessTask != null) {
+            livenessTask.cancel(false);
+        }
+        livenessTask = livenessScheduler.scheduleAtFixedRate(() -> {
+            try {
+                checkLiveness();
+            } catch (Exception e) {
+                logger.error("❌ [{}] 연결 생존 확인 중 오류", name, e);
             }
+        }, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
 
-            String stream = root.get("stream").asText();
-            JsonNode data = root.get("data");
-
-            // ✅ `data` 필드 존재 여부 확인
-            if (data == null) {
-                logger.warn("⚠️ WebSocket 메시지에 'data' 필드가 없음: {}", message);
-                return;
+    private void checkLiveness() {
+        if (retired || !isOpen()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long lastSeen = Math.max(lastFrameNanos, lastPongNanos);
+        long silentNanos = now - lastSeen;
+        if (silentNanos > livenessTimeoutNanos) {
+            logger.warn("⚠️ [{}] {}ms 동안 수신 / pong 이 없어 연결을 끊고 재연결합니다.",
+                    name, TimeUnit.NANOSECONDS.toMillis(silentNanos));
+            if (livenessTimeoutListener != null) {
+                livenessTimeoutListener.run();
             }
-
-            logger.info("📩 WebSocket 메시지 수신 [{}]:", stream);
-
-            if (stream.contains("@kline_5m")) {
-                handleKline5mMessage(data);
-            } else if (stream.contains("@kline_1h")) {
-                handleKline1hMessage(data);
-            } else if (stream.contains("@ticker")) {
-                handleTickerMessage(data);
-            } else if (stream.contains("@trade")) {
-                handleTradeMessage(data);
-            } else if (stream.contains("@aggTrade")) {
-                handleAggTradeMessage(data);
-            } else if (stream.contains("@markPrice")) {
-                handleMarkPriceMessage(data);
-            } else if (stream.contains("@forceOrder")) {
-                handleLiquidationOrderMessage(data);
-            } else if (stream.contains("@depth")) {
-                handlePartialBookDepthMessage(data);
-            } else {
-                logger.warn("⚠️ 알 수 없는 데이터 수신: ");
+            // close handshake 를 기다리지 않고 소켓을 바로 닫음 (half-open 이면 응답이 오지 않음)
+            closeConnection(CloseFrame.ABNORMAL_CLOSE, "liveness timeout");
+        } else if (silentNanos >= pingIntervalNanos) {
+            try {
+                sendPing();
+            } catch (WebsocketNotConnectedException e) {
+                logger.debug("[{}] ping 전송 실패 (연결 안됨)", name);
             }
-        } catch (Exception e) {
-            logger.error("❌ WebSocket 메시지 처리 오류: ", e);
         }
     }
 
-    /**
-     * ✅ 강제 청산 정보 저장 (Liquidation Order Streams)
-     * 해당 메서드는 @forceOrder 스트림을 통해 수신된 강제 청산 데이터를 저장합니다.
-     */
-    private void handleLiquidationOrderMessage(JsonNode data) {
-        try {
-            BinanceLiquidationOrderDTO liquidationOrder = objectMapper.treeToValue(data, BinanceLiquidationOrderDTO.class);
-            liquidationOrderService.saveLiquidationOrder(liquidationOrder);
-            logger.info("🔥 강제 청산 정보 저장됨: {}", liquidationOrder);
-        } catch (Exception e) {
-            logger.error("❌ 강제 청산 정보 저장 오류: ", e);
-        }
+    @Override
+    public void onWebsocketPing(WebSocket conn, Framedata frame) {
+        lastFrameNanos = System.nanoTime(); // 서버 ping (약 3분 주기) 도 수신으로 취급
+        super.onWebsocketPing(conn, frame);
+    }
+
+    @Override
+    public void onWebsocketPong(WebSocket conn, Framedata frame) {
+        lastPongNanos = System.nanoTime();
+        super.onWebsocketPong(conn, frame);
     }
 
     /**
-     * ✅ 호가 데이터 저장 (Partial Book Depth Streams)
-     * 해당 메서드는 @depth 스트림을 통해 수신된 호가 데이터를 저장합니다.
+     * ✅ WebSocket 메시지 수신 처리
+     * 수신 스레드에서는 링 버퍼에 발행만 하고, 파싱/저장은 IngestPipeline 소비자 스테이지에서 처리합니다.
      */
-    private void handlePartialBookDepthMessage(JsonNode data) {
-        try {
-            BinancePartialBookDepthDTO partialBookDepth = objectMapper.treeToValue(data, BinancePartialBookDepthDTO.class);
-            partialBookDepthService.savePartialBookDepth(partialBookDepth);
-            logger.info("📊 호가 데이터 저장됨");
-        } catch (Exception e) {
-            logger.error("❌ 호가 데이터 저장 오류: ", e);
+    @Override
+    public void onMessage(String message) {
+        lastFrameNanos = System.nanoTime();
+        framesReceived++;
+        if (BinanceControlChannel.isResponse(message)) {
+            controlChannel.onResponse(message);
+        } else if (!retired && !standby) {
+            publishing = true;
+            try {
+                if (!retired) { // retire 와 엇갈린 경우 (retired 기록 → publishing 확인 순서이므로 둘 중 하나는 상대를 봄)
+                    ingestPipeline.publish(message, replica);
+                }
+            } finally {
+                publishing = false;
+            }
         }
     }
 
     /**
-     * ✅ Kline (캔들) 5분 단위 데이터 저장
+     * 교체 연결로 만듭니다. (connect 전에 호출, {@link #activate()} 전까지 수신 프레임을 세기만 하고 발행하지 않음)
      */
-    private void handleKline5mMessage(JsonNode data) {
-        try {
-            BinanceKlineDTO klineDTO = objectMapper.treeToValue(data, BinanceKlineDTO.class);
-            if (klineDTO.getIsKlineClosed()) {
-                klineService.saveKline5m(klineDTO);
-                logger.info("📊 Kline 5m 저장됨");
-            }
-        } catch (Exception e) {
-            logger.error("❌ Kline 5m 저장 오류: ", e);
-        }
+    public void holdPublishing() {
+        standby = true;
     }
 
     /**
-     * ✅ Kline (캔들) 1시간 단위 데이터 저장
+     * 교체 연결의 발행을 시작합니다. (이전 연결을 {@link #retire()} 한 뒤 호출)
      */
-    private void handleKline1hMessage(JsonNode data) {
-        try {
-            BinanceKlineDTO klineDTO = objectMapper.treeToValue(data, BinanceKlineDTO.class);
-            if (klineDTO.getIsKlineClosed()) {
-                klineService.saveKline1h(klineDTO);
-                logger.info("📊 Kline 1h 저장됨");
-            }
-        } catch (Exception e) {
-            logger.error("❌ Kline 1h 저장 오류: ", e);
-        }
+    public void activate() {
+        standby = false;
     }
 
     /**
-     * ✅ Ticker (24시간 가격 변동) 데이터 저장
+     * 더 이상 발행하지 않도록 하고, 수신 스레드가 발행 중이던 프레임을 마칠 때까지 기다립니다.
+     * 반환 후에는 같은 replica 번호로 다른 연결이 발행해도 생산자가 겹치지 않습니다.
      */
-    private void handleTickerMessage(JsonNode data) {
-        try {
-            BinanceTickerDTO tickerDTO = objectMapper.treeToValue(data, BinanceTickerDTO.class);
-            tickerService.saveTicker(tickerDTO);
-            logger.info("📈 Ticker 저장됨");
-        } catch (Exception e) {
-            logger.error("❌ Ticker 저장 오류: ", e);
+    public void retire() {
+        retired = true;
+        while (publishing) {
+            Thread.onSpinWait(); // 링 버퍼 발행 한 번 (가득 찬 경우 소비자를 기다리는 시간까지)
         }
     }
 
     /**
-     * ✅ Trade (거래 체결 정보) 데이터 저장
+     * ✅ 연결을 유지한 채 스트림 구독 추가 (응답 수신 시 완료)
      */
-    private void handleTradeMessage(JsonNode data) {
-        try {
-            BinanceTradeDTO tradeDTO = objectMapper.treeToValue(data, BinanceTradeDTO.class);
-            tradeService.saveTrade(tradeDTO);
-            logger.info("💹 Trade 저장됨");
-        } catch (Exception e) {
-            logger.error("❌ Trade 저장 오류: ", e);
-        }
+    public CompletableFuture<Void> subscribe(List<String> streams) {
+        return controlChannel.subscribe(streams);
     }
 
     /**
-     * ✅ Aggregate Trade (묶음 거래) 데이터 저장
+     * ✅ 연결을 유지한 채 스트림 구독 해지 (응답 수신 시 완료)
      */
-    private void handleAggTradeMessage(JsonNode data) {
-        try {
-            BinanceAggTradeDTO aggTradeDTO = objectMapper.treeToValue(data, BinanceAggTradeDTO.class);
-            aggTradeService.saveAggTrade(aggTradeDTO);
-            logger.info("📦 Aggregate Trade 저장됨");
-        } catch (Exception e) {
-            logger.error("❌ Aggregate Trade 저장 오류: ", e);
-        }
+    public CompletableFuture<Void> unsubscribe(List<String> streams) {
+        return controlChannel.unsubscribe(streams);
     }
 
     /**
-     * ✅ Mark Price (시장 가격 및 펀딩 비율) 데이터 저장
+     * 재연결 시 사용할 URL 을 현재 구독 스트림 기준으로 교체합니다.
+     * (재연결 직후 받은 URL 이 최신 구독 상태를 반영하므로 SUBSCRIBE 를 다시 보낼 필요가 없음)
      */
-    private void handleMarkPriceMessage(JsonNode data) {
-        try {
-            BinanceFundingRateDTO fundingRateDTO = objectMapper.treeToValue(data, BinanceFundingRateDTO.class);
-            fundingRateService.saveFundingRate(fundingRateDTO);
-            logger.info("🔄 Mark Price 저장됨");
-        } catch (Exception e) {
-            logger.error("❌ Mark Price 저장 오류: ", e);
-        }
+    public void updateUri(URI uri) {
+        this.uri = uri;
+    }
+
+    public int getPendingControlMessages() {
+        return controlChannel.getPendingCount();
     }
 
     /**
@@ -286,7 +285,9 @@ public class BinanceWebSocketClient extends WebSocketClient {
      */
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        logger.warn("❌ Binance WebSocket 연결 종료 감지: code={}, reason='{}', remote={}", code, reason, remote);
+        logger.warn("❌ Binance WebSocket [{}] 연결 종료 감지: code={}, reason='{}', remote={}", name, code, reason, remote);
+        // 응답을 받지 못한 제어 메시지는 재연결 후 다시 전송
+        controlChannel.onDisconnected();
         // 연결 종료 시 재연결 시퀀스 시작
         initiateReconnectSequence();
     }
@@ -299,9 +300,9 @@ public class BinanceWebSocketClient extends WebSocketClient {
     public void onError(Exception ex) {
         // WebsocketNotConnectedException는 연결 시도 실패 시 발생 가능, 로깅 레벨 조절 가능
         if (ex instanceof WebsocketNotConnectedException) {
-            logger.warn("❌ Binance WebSocket 오류 발생 (연결 안됨): {}", ex.getMessage());
+            logger.warn("❌ Binance WebSocket [{}] 오류 발생 (연결 안됨): {}", name, ex.getMessage());
         } else {
-            logger.error("❌ Binance WebSocket 오류 발생: ", ex);
+            logger.error("❌ Binance WebSocket [{}] 오류 발생: ", name, ex);
         }
         // 오류 발생 시 재연결 시퀀스 시작
         initiateReconnectSequence();
@@ -437,9 +438,12 @@ public class BinanceWebSocketClient extends WebSocketClient {
      */
     @PreDestroy // 스프링 컨텍스트가 직접 관리할 경우에도 대비
     public synchronized void destroy() {
-        logger.info("BinanceWebSocketClient 리소스 정리 시작 (destroy 호출됨)...");
+        logger.info("BinanceWebSocketClient [{}] 리소스 정리 시작 (destroy 호출됨)...", name);
+        retire();
+        controlChannel.close();
 
         // 1. 스케줄러 종료 (먼저 실행하여 추가적인 재연결 시도 방지)
+        livenessScheduler.shutdownNow(); // 생존 확인은 짧은 작업이라 기다리지 않음
         shutdownScheduler();
 
         // 2. WebSocket 연결 종료 (closeBlocking 대신 close 사용)
@@ -483,4 +487,31 @@ public class BinanceWebSocketClient extends WebSocketClient {
     public synchronized boolean isWebSocketClosed() {
         return this.isClosed();
     }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getReplica() {
+        return replica;
+    }
+
+    /**
+     * 현재 연결이 열린 뒤 지난 시간 (열린 적 없으면 0)
+     */
+    public long getConnectionAgeMs() {
+        long opened = openedAtMillis;
+        return opened == 0 ? 0 : System.currentTimeMillis() - opened;
+    }
+
+    public long getFramesReceived() {
+        return framesReceived;
+    }
+
+    /**
+     * 마지막 수신(데이터 / ping / pong) 이후 지난 시간
+     */
+    public long getSilenceMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - Math.max(lastFrameNanos, lastPongNanos));
+    }
 }
@@ -1,7 +1,10 @@
 package com.example.binancewebsocket.service;
 
 import com.example.binancewebsocket.config.BinanceConfig;
+import com.example.binancewebsocket.dto.SymbolStreamTierDTO;
 import com.example.binancewebsocket.mapper.SymbolMapper;
+import com.example.binancewebsocket.stream.StreamKeyResolver;
+import com.example.binancewebsocket.stream.SymbolFilter;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
@@ -11,8 +14,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
-import java.util.List;
+import java.util.*;
 
 @Service
 public class BinanceWebSocketService {
@@ -23,29 +25,24 @@ public class BinanceWebSocketService {
     @Autowired
     private BinanceConfig binanceConfig;
     @Autowired
-    private BinanceKlineService binanceKlineService;
+    private BinanceConnectionManager connectionManager;
     @Autowired
-    private BinanceTickerService binanceTickerService;
+    private StreamKeyResolver streamKeyResolver;
     @Autowired
-    private BinanceTradeService binanceTradeService;
-    @Autowired
-    private BinanceAggTradeService binanceAggTradeService;
-    @Autowired
-    private BinanceFundingRateService binanceFundingRateService;
-    @Autowired
-    private BinanceLiquidationOrderService liquidationOrderService;
-    @Autowired
-    private BinancePartialBookDepthService partialBookDepthService;
+    private SymbolFilter symbolFilter;
     @Autowired
     private SymbolMapper symbolMapper;
+    @Autowired
+    private SymbolScaleService symbolScaleService;
 
     // --- 설정값 ---
     @Value("${enable.binance.websocket:false}") // application.properties 등에서 설정, 기본값 false
     private boolean enableWebSocket;
 
     // --- 내부 상태 ---
-    private volatile BinanceWebSocketClient webSocketClient; // volatile 추가로 가시성 확보
     private List<String> symbols; // 조회된 심볼 리스트 캐싱
+    private Map<String, String> symbolTiers = Map.of(); // 심볼 → 스트림 등급 (null 이면 기본 등급)
+    private boolean tierColumnWarned;
 
     /**
      * 서비스 초기화 시 WebSocket 연결 시도
@@ -60,6 +57,7 @@ public class BinanceWebSocketService {
         logger.info("Binance WebSocket 초기화 시작...");
         try {
             loadSymbolsFromDB(); // 심볼 로딩 로직 분리
+            symbolScaleService.refresh(); // 심볼별 가격/수량 scale (실패해도 연결은 진행)
             connectWebSocket();  // WebSocket 연결 로직 분리
             logger.info("✅ Binance WebSocket 초기화 및 연결 성공! 사용 symbols: {}", symbols.size());
         } catch (Exception e) {
@@ -76,60 +74,52 @@ public class BinanceWebSocketService {
     @PreDestroy
     public void shutdownWebSocket() {
         logger.info("BinanceWebSocketService 종료 시작...");
-        if (webSocketClient != null) {
-            logger.info("WebSocket 클라이언트 리소스 정리 시도...");
-            try {
-                // BinanceWebSocketClient에 destroy() 메소드가 구현되어 있다고 가정
-                webSocketClient.destroy();
-                logger.info("WebSocket 클라이언트 리소스 정리 완료.");
-            } catch (Exception e) {
-                logger.error("❌ WebSocket 클라이언트 리소스 정리 중 오류 발생", e);
-            }
-        }
+        // 모든 샤드 연결 종료 후 링 버퍼에 남은 이벤트를 저장하고 종료
+        connectionManager.shutdown();
         logger.info("BinanceWebSocketService 종료 완료.");
     }
 
     /**
-     * 매일 자정(00시)에 DB에서 symbols 값을 업데이트하고 WebSocket을 재연결.
-     * 동적 구독/구독 해지가 가능하다면 이 방식보다 효율적임. (API 확인 필요)
+     * 1분 주기로 샤드별 WebSocket 상태를 체크하고, 닫힌 샤드만 재연결 시도를 시작.
      */
-    @Scheduled(cron = "0 0 0 * * *")
-    public void updateSymbolsAndReconnect() {
+    @Scheduled(fixedRate = 60_000)  // 1분
+    public void checkWebSocketConnection() {
+        connectionManager.checkConnections();
+    }
+
+    /**
+     * 주기적으로 DB 의 symbols 를 다시 읽어, 바뀐 심볼만 기존 연결에 SUBSCRIBE / UNSUBSCRIBE 합니다.
+     * 재연결이 없으므로 데이터 공백 없이 언제든지 호출할 수 있습니다. (기존: 매일 00시 전체 재연결)
+     * 스트림 등급(stream_tier)이 바뀐 심볼도 같은 연결에서 바뀐 스트림만 구독 / 해지합니다.
+     */
+    @Scheduled(fixedDelayString = "${binance.websocket.symbol-refresh-ms:300000}",
+            initialDelayString = "${binance.websocket.symbol-refresh-ms:300000}")
+    public synchronized void refreshSymbols() {
         if (!enableWebSocket) {
-            logger.info("⚠ WebSocket이 비활성화되어 Symbols 업데이트 및 재연결 작업을 건너<0xEB><0x8A>니다.");
+            logger.debug("⚠ WebSocket이 비활성화되어 Symbols 갱신 작업을 건너뜁니다.");
             return;
         }
 
-        logger.info("Symbols 업데이트 및 WebSocket 재연결 작업 시작...");
-
-        BinanceWebSocketClient oldClient = this.webSocketClient; // 이전 클라이언트 참조 저장
-
         try {
+            List<String> previous = this.symbols;
+            Map<String, String> previousTiers = this.symbolTiers;
             // 1. 새 심볼 목록 로드
             loadSymbolsFromDB();
+            if (previous != null && previous.equals(this.symbols) && previousTiers.equals(this.symbolTiers)) {
+                logger.debug("symbols 변경 없음 ({}개).", symbols.size());
+                return;
+            }
 
-            // 2. 새 WebSocket 클라이언트 연결 (기존 연결과 교체)
-            //    (주의: connect()는 비동기일 수 있으므로, 즉시 연결 완료를 보장하지 않음)
-            connectWebSocket();
-            logger.info("✅ Symbols 업데이트 및 새 WebSocket 클라이언트 연결 시도 완료. 사용 symbols: {}", symbols.size());
-
-            // 3. 이전 WebSocket 클라이언트 리소스 정리
-            //    (새 클라이언트 연결 시도 *후에* 이전 클라이언트 정리)
-            if (oldClient != null) {
-                logger.info("이전 WebSocket 클라이언트 인스턴스 리소스 정리 시작.");
-                try {
-                    // BinanceWebSocketClient에 destroy() 메소드가 구현되어 있다고 가정
-                    oldClient.destroy();
-                    logger.info("이전 WebSocket 클라이언트 인스턴스 리소스 정리 완료.");
-                } catch (Exception destroyEx) {
-                    logger.error("❌ 이전 WebSocket 클라이언트 리소스 정리 중 오류 발생", destroyEx);
-                    // 로깅 후 계속 진행
-                }
+            // 2. 변경분만 구독 / 구독 해지 (연결 유지)
+            if (this.symbols.isEmpty()) {
+                logger.warn("symbols 목록이 비어있어 WebSocket 구독 변경을 건너뜁니다.");
+                return;
             }
+            symbolScaleService.refresh(); // 새 심볼의 tick / step scale
+            connectionManager.update(buildStreams());
+            logger.info("✅ Symbols 갱신 완료. 사용 symbols: {}", symbols.size());
         } catch (Exception e) {
-            logger.error("❌ Symbols 업데이트 및 WebSocket 재연결 작업 중 오류 발생", e);
-            // 심각한 오류 시, 현재 webSocketClient 참조를 이전 상태(oldClient)로 복원하는 로직 고려 가능
-            // 또는, 실패 알림 등의 추가 조치 고려
+            logger.error("❌ Symbols 갱신 및 구독 변경 작업 중 오류 발생", e);
         }
     }
 
@@ -139,17 +129,22 @@ public class BinanceWebSocketService {
     private void loadSymbolsFromDB() {
         logger.info("DB에서 symbols 목록 로드 시도...");
         try {
-            List<String> newSymbols = symbolMapper.selectAllSymbols();
+            List<SymbolStreamTierDTO> rows = selectSymbolStreamTiers();
+            List<String> newSymbols = rows.stream().map(SymbolStreamTierDTO::getSymbol).toList();
             // 조회 결과가 null 이거나 비어있는 경우 로깅 및 기존 값 유지 또는 빈 리스트로 처리
-            if (newSymbols == null || newSymbols.isEmpty()) {
+            if (newSymbols.isEmpty()) {
                 logger.warn("DB에서 조회된 symbols 목록이 비어있거나 null입니다. 기존 목록을 사용하거나 빈 목록으로 대체합니다.");
                 // 기존 목록 유지: this.symbols = Objects.requireNonNullElse(this.symbols, List.of());
                 // 빈 목록으로 설정: this.symbols = List.of();
                 // 여기서는 빈 목록으로 설정하는 것으로 가정
                 this.symbols = List.of();
+                this.symbolTiers = Map.of();
             } else {
+                Map<String, String> tiers = new LinkedHashMap<>();
+                rows.forEach(row -> tiers.put(row.getSymbol(), row.getStreamTier()));
                 this.symbols = newSymbols;
-                logger.info("DB에서 {}개의 symbols 로드 완료.", newSymbols.size());
+                this.symbolTiers = tiers;
+                logger.info("DB에서 {}개의 symbols 로드 완료. (등급별: {})", newSymbols.size(), countByTier(tiers));
                 logger.debug("로드된 symbols: {}", newSymbols); // DEBUG 레벨로 상세 로깅
             }
         } catch (Exception e) {
@@ -163,9 +158,39 @@ public class BinanceWebSocketService {
     }
 
     /**
-     * 현재 'symbols' 목록을 기반으로 WebSocket URL을 생성하고,
-     * 새로운 BinanceWebSocketClient 인스턴스를 생성하여 연결을 시도합니다.
-     * 기존 webSocketClient 참조는 새 인스턴스로 교체됩니다.
+     * symbol 과 stream_tier 를 조회합니다. stream_tier 컬럼이 없는 DB 에서는 symbol 만 조회하고 모두 기본 등급으로 처리합니다.
+     */
+    private List<SymbolStreamTierDTO> selectSymbolStreamTiers() {
+        try {
+            List<SymbolStreamTierDTO> rows = symbolMapper.selectSymbolStreamTiers();
+            return rows == null ? List.of() : rows;
+        } catch (Exception e) {
+            if (!tierColumnWarned) {
+                tierColumnWarned = true;
+                logger.warn("⚠️ symbols.stream_tier 조회 실패 → 모든 심볼에 기본 등급 적용: {}", e.getMessage());
+            }
+        }
+        List<String> newSymbols = symbolMapper.selectAllSymbols();
+        List<SymbolStreamTierDTO> rows = new ArrayList<>();
+        if (newSymbols != null) {
+            for (String symbol : newSymbols) {
+                SymbolStreamTierDTO row = new SymbolStreamTierDTO();
+                row.setSymbol(symbol);
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private Map<String, Integer> countByTier(Map<String, String> tiers) {
+        Map<String, Integer> counts = new TreeMap<>();
+        tiers.values().forEach(tier -> counts.merge(binanceConfig.profileOf(tier).name(), 1, Integer::sum));
+        return counts;
+    }
+
+    /**
+     * 현재 'symbols' 목록을 기반으로 스트림 목록을 만들고,
+     * BinanceConnectionManager 를 통해 여러 연결(샤드)로 나누어 연결을 시도합니다.
      *
      * @throws Exception WebSocket URL 생성 또는 클라이언트 생성/연결 중 발생할 수 있는 예외
      */
@@ -173,40 +198,31 @@ public class BinanceWebSocketService {
         if (this.symbols == null || this.symbols.isEmpty()) {
             logger.warn("symbols 목록이 비어있어 WebSocket에 연결할 수 없습니다.");
             // 기존 연결이 있다면 종료 처리
-            if (this.webSocketClient != null) {
-                logger.info("기존 WebSocket 클라이언트 종료 시도 (symbols 없음).");
-                this.webSocketClient.destroy(); // destroy()로 확실히 정리
-                this.webSocketClient = null; // 참조 제거
-            }
+            logger.info("기존 WebSocket 샤드 연결 종료 시도 (symbols 없음).");
+            connectionManager.disconnect();
             return;
         }
 
-        // 1. markets 리스트 구성 (소문자 변환)
-        List<String> markets = symbols.stream()
-                .map(String::toLowerCase) // Locale.ROOT 불필요 시 제거 가능
-                .toList();
-
-        // 2. WebSocket URL 생성
-        String webSocketUrl = binanceConfig.getFuturesWebSocketUrl(markets);
-        logger.info("생성된 WebSocket URL (길이: {}): {}...", webSocketUrl.length(), webSocketUrl.substring(0, Math.min(webSocketUrl.length(), 100))); // 너무 길면 일부만 로깅
-        URI webSocketUri = new URI(webSocketUrl);
-
-        // 3. 새 WebSocket 클라이언트 인스턴스 생성
-        //    (주의: BinanceWebSocketClient 내부에 자체적인 스케줄링 로직이 있다면,
-        //     이 서비스에서 매일 재생성하는 경우 해당 로직이 중복될 수 있으므로 검토 필요)
-        logger.info("새 BinanceWebSocketClient 인스턴스 생성...");
-        BinanceWebSocketClient newClient = new BinanceWebSocketClient(
-                webSocketUri, binanceKlineService, binanceTickerService,
-                binanceTradeService, binanceFundingRateService, binanceAggTradeService,
-                liquidationOrderService, partialBookDepthService
-        );
-
-        // 4. 새 클라이언트 연결 시도 (connect()는 비동기일 수 있음)
-        logger.info("새 WebSocket 클라이언트 연결 시도...");
-        newClient.connect(); // connect() 호출
-
-        // 5. 현재 webSocketClient 참조를 새 클라이언트로 교체
-        this.webSocketClient = newClient;
-        logger.info("WebSocket 클라이언트 참조가 새 인스턴스로 업데이트됨.");
+        // 연결당 스트림 수 / 예상 메시지 수 기준으로 샤드를 나누어 연결
+        connectionManager.connect(buildStreams());
+    }
+
+    /**
+     * 현재 'symbols' 목록과 심볼별 등급으로 구독할 스트림 목록을 만들고 StreamKey 를 미리 등록합니다.
+     */
+    private List<String> buildStreams() {
+        // 1. markets → 등급 구성 (소문자 변환)
+        Map<String, String> markets = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            markets.put(symbol.toLowerCase(Locale.ROOT), symbolTiers.get(symbol));
+        }
+
+        // 2. 스트림 목록 생성 및 StreamKey 사전 등록 (수신 시 스트림 이름 재해석 방지)
+        List<String> streams = binanceConfig.getFuturesStreams(markets);
+        streamKeyResolver.register(streams);
+
+        // 3. 전체 시장 스트림(!ticker@arr 등)의 원소를 거를 심볼 집합 갱신
+        symbolFilter.update(symbols);
+        return streams;
     }
 }
@@ -0,0 +1,221 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.journal.FlushSequence;
+import com.example.binancewebsocket.journal.JournalSink;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * 심볼별 최신값만 남기는 저장 버퍼 (conflation).
+ * <p>
+ * - {@link #offer} 는 값을 복사해 심볼별 대기 칸에 덮어씁니다. (풀 모드 payload 는 persist 후 재사용되므로 복사 필요)
+ * - 별도 스레드 하나가 flush 간격마다 대기 칸을 비우고 여러 행 INSERT 한 번(최대 maxBatchSize 행씩)으로 저장합니다.
+ * - 마지막으로 저장한 값과 비교해 의미 있는 변화(materialChange)가 생기면 간격을 기다리지 않고 바로 flush 합니다.
+ * - 간격 사이의 중간 값은 저장되지 않습니다.
+ * - 저널 확인({@link JournalSink})은 flush 회차로 합니다. (표식 이후 시작한 flush 가 끝나면 그 전 값은 저장 / 실패로 처리됨)
+ *
+ * @param <T> 저장할 DTO
+ */
+public final class ConflatingBuffer<T> implements JournalSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflatingBuffer.class);
+
+    private final String name;
+    private final Function<T, String> symbolOf;
+    private final UnaryOperator<T> copier;
+    private final BiPredicate<T, T> materialChange; // (마지막 저장 값, 새 값) → 바로 저장할지
+    private final Consumer<List<T>> writer;
+    private final int maxBatchSize;
+
+    private final Map<String, T> pending = new ConcurrentHashMap<>();
+    private final Map<String, T> written = new ConcurrentHashMap<>(); // 심볼별 마지막 저장 값
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final FlushSequence flushes = new FlushSequence();
+    private final ScheduledExecutorService flusher;
+
+    // --- 통계 ---
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong forcedFlushes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * @param flushIntervalMs flush 간격 (0 이면 주기 flush 없음, 의미 있는 변화 / {@link #flush()} 로만 저장)
+     */
+    public ConflatingBuffer(String name, long flushIntervalMs, int maxBatchSize,
+                            Function<T, String> symbolOf, UnaryOperator<T> copier,
+                            BiPredicate<T, T> materialChange, Consumer<List<T>> writer) {
+        this.name = name;
+        this.symbolOf = symbolOf;
+        this.copier = copier;
+        this.materialChange = materialChange;
+        this.writer = writer;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "binance-conflate-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (flushIntervalMs > 0) {
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * ✅ 최신값 갱신 (persist 스레드에서 호출, 즉시 반환)
+     */
+    public void offer(T value) {
+        String symbol = symbolOf.apply(value);
+        T copy = copier.apply(value);
+        pending.put(symbol, copy);
+        offered.incrementAndGet();
+        T last = written.get(symbol);
+        if (last != null && materialChange.test(last, copy) && flushRequested.compareAndSet(false, true)) {
+            forcedFlushes.incrementAndGet();
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false); // 종료 중 (shutdown 에서 마지막 flush)
+            }
+        }
+    }
+
+    /**
+     * 대기 중인 최신값을 모두 저장합니다. (flush 스레드 또는 종료 시 호출)
+     */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        flushes.begin();
+        try {
+            drain();
+        } finally {
+            flushes.end();
+        }
+    }
+
+    private void drain() {
+        List<T> batch = new ArrayList<>(Math.min(maxBatchSize, Math.max(1, pending.size())));
+        Iterator<Map.Entry<String, T>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, T> entry = it.next();
+            T value = entry.getValue();
+            if (!pending.remove(entry.getKey(), value)) {
+                continue; // 방금 더 새 값으로 바뀜 → 다음 flush 에서 저장
+            }
+            written.put(entry.getKey(), value);
+            batch.add(value);
+            if (batch.size() == maxBatchSize) {
+                write(batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @Override
+    public long mark() {
+        return flushes.mark();
+    }
+
+    @Override
+    public boolean acknowledged(long mark) {
+        return flushes.acknowledged(mark);
+    }
+
+    private void write(List<T> batch) {
+        try {
+            writer.accept(batch);
+            rowsWritten.addAndGet(batch.size());
+            writes.incrementAndGet();
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            logger.error("❌ [{}] 최신값 저장 오류 ({}건): {}", name, batch.size(), e.getMessage());
+        }
+        batch.clear();
+    }
+
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush(); // 마지막 값 저장
+    }
+
+    /**
+     * 두 가격(FixedDecimal)의 변화 크기 (bps, 절댓값). 이전 값이 0 이면 무한대
+     */
+    public static double changeBps(long previous, long current) {
+        double before = FixedDecimal.toDouble(previous);
+        if (before == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.abs(FixedDecimal.toDouble(current) - before) / Math.abs(before) * 10_000;
+    }
+
+    public long getOffered() {
+        return offered.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getWrites() {
+        return writes.get();
+    }
+
+    public long getForcedFlushes() {
+        return forcedFlushes.get();
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    public void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("binance.conflation.offered", offered, AtomicLong::get)
+                .tag("stream", name)
+                .description("conflation 버퍼에 들어온 갱신 수")
+                .register(registry);
+        FunctionCounter.builder("binance.conflation.rows", rowsWritten, AtomicLong::get)
+                .tag("stream", name)
+                .description("conflation 후 저장한 행 수")
+                .register(registry);
+        FunctionCounter.builder("binance.conflation.writes", writes, AtomicLong::get)
+                .tag("stream", name)
+                .description("여러 행 INSERT 실행 수")
+                .register(registry);
+        FunctionCounter.builder("binance.conflation.forced", forcedFlushes, AtomicLong::get)
+                .tag("stream", name)
+                .description("의미 있는 변화로 간격 전에 실행한 flush 수")
+                .register(registry);
+        FunctionCounter.builder("binance.conflation.failures", failures, AtomicLong::get)
+                .tag("stream", name)
+                .register(registry);
+        Gauge.builder("binance.conflation.pending", pending, Map::size)
+                .tag("stream", name)
+                .description("저장 대기 중인 심볼 수")
+                .register(registry);
+    }
+}
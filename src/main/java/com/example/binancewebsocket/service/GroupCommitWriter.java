@@ -0,0 +1,338 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.journal.JournalSink;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 테이블 하나의 group commit 저장기.
+ * <p>
+ * - {@link #offer} 는 행을 크기가 정해진 큐에 넣기만 합니다. 큐가 가득 차면 offerTimeoutMs 동안 기다린 뒤 버립니다. (메모리 상한)
+ * - 별도 스레드 하나가 큐의 첫 행을 꺼낸 뒤 maxBatchSize 행이 모이거나 maxLatencyMs 가 지나면 한 번에 저장합니다.
+ * - writer 는 한 번의 호출을 트랜잭션 하나로 저장해야 합니다. ({@link GroupCommitWriters} 가 BATCH 세션으로 구성)
+ *   일시적 오류(데드락 / 락 대기 / 쿼리 타임아웃 / 연결 일시 장애)는 retryBackoffMs 부터 2배씩 늘려 최대 maxRetries 번 다시 시도하고,
+ *   그 밖의 오류는 묶음을 반으로 나눠 다시 저장해 문제 행만 실패로 셉니다. (행 1개까지, 나머지 행은 저장)
+ *   ⚠️ 재시도 / 분할 중에는 flush 스레드가 막혀 대기열이 찰 수 있고, 모든 행이 실패하는 오류(테이블 없음 등)는 최대 2n - 1 번 호출됩니다.
+ * - ⚠️ 행은 flush 까지 큐에 남으므로 풀 모드 payload 는 회수되지 않도록 해야 합니다. ({@link com.example.binancewebsocket.pipeline.IngestEvent#retainPayload})
+ * - {@link #shutdown()} 은 새 행을 받지 않고 큐에 남은 행을 모두 저장한 뒤 반환합니다.
+ * - 저널 확인({@link JournalSink}): 표식은 큐에 넣은 행 수, 저장 / 실패로 처리한 행 수가 표식에 이르면 확인입니다. (큐는 FIFO)
+ *   넣기와 세기를 offerLock 안에서 함께 하므로 표식보다 앞선 자리의 행은 모두 표식에 포함됩니다.
+ *
+ * @param <T> 저장할 DTO
+ */
+public final class GroupCommitWriter<T> implements JournalSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitWriter.class);
+    private static final long IDLE_POLL_MS = 100;
+    private static final long MAX_RETRY_BACKOFF_MS = 5_000;
+    private static final long FULL_QUEUE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+    private final long offerTimeoutMs;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+    private final Consumer<List<T>> writer;
+    private final BlockingQueue<T> queue;
+    private final Thread flusher;
+    private volatile boolean running = true;
+    private final Object offerLock = new Object();
+    private long enqueued; // offerLock 안에서만 접근 (큐에 넣은 행 수)
+
+    // --- 통계 ---
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private volatile DistributionSummary flushSize;   // registerMetrics 전에는 null
+    private volatile Timer flushLatency;
+
+    /**
+     * @param maxBatchSize   한 번에 저장할 최대 행 수 (이만큼 모이면 바로 저장)
+     * @param maxLatencyMs   첫 행을 꺼낸 뒤 저장까지 기다릴 최대 시간
+     * @param capacity       저장 대기 행 수 상한
+     * @param offerTimeoutMs 큐가 가득 찼을 때 persist 스레드가 기다릴 시간 (지나면 버림)
+     * @param writer         행 묶음을 트랜잭션 하나로 저장 (실패 시 예외)
+     */
+    public GroupCommitWriter(String name, int maxBatchSize, long maxLatencyMs, int capacity, long offerTimeoutMs,
+                             Consumer<List<T>> writer) {
+        this(name, maxBatchSize, maxLatencyMs, capacity, offerTimeoutMs, 0, 0, writer);
+    }
+
+    /**
+     * @param maxRetries     일시적 오류 재시도 횟수 (0 이면 재시도하지 않음)
+     * @param retryBackoffMs 첫 재시도 전 대기 시간 (재시도마다 2배, 최대 5초)
+     */
+    public GroupCommitWriter(String name, int maxBatchSize, long maxLatencyMs, int capacity, long offerTimeoutMs,
+                             int maxRetries, long retryBackoffMs, Consumer<List<T>> writer) {
+        this.name = name;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxLatencyMs));
+        this.offerTimeoutMs = Math.max(0, offerTimeoutMs);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoffMs = Math.max(0, retryBackoffMs);
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(Math.max(this.maxBatchSize, capacity));
+        this.flusher = new Thread(this::run, "binance-group-commit-" + name);
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * ✅ 행 추가 (persist 스레드에서 호출, 큐가 가득 차지 않으면 즉시 반환)
+     *
+     * @return 저장 대기열에 들어갔는지 (false 이면 버려짐)
+     */
+    public boolean offer(T row) {
+        offered.incrementAndGet();
+        if (running && enqueue(row)) {
+            return true;
+        }
+        if (offerTimeoutMs > 0) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+            while (running && !Thread.currentThread().isInterrupted() && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(FULL_QUEUE_PARK_NANOS); // 잠금을 쥔 채 기다리지 않도록 짧게 쉬며 다시 시도
+                if (enqueue(row)) {
+                    return true;
+                }
+            }
+        }
+        long count = dropped.incrementAndGet();
+        if (count == 1 || count % 10_000 == 0) {
+            logger.warn("⚠️ [{}] group commit 대기열이 가득 차 행을 버렸습니다 (누적 {}건)", name, count);
+        }
+        return false;
+    }
+
+    private boolean enqueue(T row) {
+        synchronized (offerLock) {
+            if (!queue.offer(row)) {
+                return false;
+            }
+            enqueued++;
+            return true;
+        }
+    }
+
+    @Override
+    public long mark() {
+        synchronized (offerLock) {
+            return enqueued;
+        }
+    }
+
+    @Override
+    public boolean acknowledged(long mark) {
+        return rowsWritten.get() + rowsFailed.get() >= mark; // 처리 순서가 큐 순서와 같음
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxLatencyNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0 || !running) {
+                        break; // 종료 중에는 기다리지 않고 남은 행을 바로 저장
+                    }
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<T> batch) {
+        long start = System.nanoTime();
+        write(batch);
+        flushes.incrementAndGet();
+        DistributionSummary size = flushSize;
+        Timer latency = flushLatency;
+        if (size != null) {
+            size.record(batch.size());
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 행 묶음을 저장합니다. 일시적이지 않은 오류면 반으로 나눠 각각 다시 저장합니다. (순서 유지)
+     */
+    private void write(List<T> rows) {
+        RuntimeException error = attempt(rows);
+        if (error == null) {
+            rowsWritten.addAndGet(rows.size());
+            return;
+        }
+        if (rows.size() == 1 || isTransient(error)) { // 재시도를 다 쓴 일시적 오류는 행 문제가 아니므로 나누지 않음
+            failures.incrementAndGet();
+            rowsFailed.addAndGet(rows.size());
+            logger.error("❌ [{}] group commit 저장 오류 ({}건 버림): {}", name, rows.size(), error.getMessage());
+            return;
+        }
+        int half = rows.size() >>> 1;
+        write(rows.subList(0, half));
+        write(rows.subList(half, rows.size()));
+    }
+
+    /**
+     * 일시적 오류는 backoff 후 최대 maxRetries 번 다시 시도합니다.
+     *
+     * @return 마지막 오류 (저장했으면 null)
+     */
+    private RuntimeException attempt(List<T> rows) {
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                writer.accept(rows);
+                return null;
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries || !isTransient(e)) {
+                    return e;
+                }
+                retries.incrementAndGet();
+                logger.warn("⚠️ [{}] group commit 일시적 오류, {}ms 후 재시도 ({}/{}): {}",
+                        name, backoffMs, attempt + 1, maxRetries, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt(); // 다음 poll 에서 종료
+                    return e;
+                }
+                backoffMs = Math.min(Math.max(1, backoffMs * 2), MAX_RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * 데드락 / 락 대기 / 쿼리 타임아웃 / 연결 일시 장애처럼 같은 행으로 다시 시도하면 성공할 수 있는 오류인지 (원인 체인 포함)
+     */
+    static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 새 행을 받지 않고 큐에 남은 행을 모두 저장합니다. (최대 timeoutMs 대기)
+     */
+    public void shutdown(long timeoutMs) {
+        running = false;
+        try {
+            flusher.join(Math.max(1, timeoutMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive() || !queue.isEmpty()) {
+            logger.warn("⚠️ [{}] 종료 시간 안에 저장하지 못한 행 {}건", name, queue.size());
+        }
+    }
+
+    public void registerMetrics(MeterRegistry registry) {
+        this.flushSize = DistributionSummary.builder("binance.groupcommit.flush.size")
+                .tag("table", name)
+                .baseUnit("rows")
+                .publishPercentileHistogram()
+                .description("group commit 1회당 저장한 행 수")
+                .register(registry);
+        this.flushLatency = Timer.builder("binance.groupcommit.flush.latency")
+                .tag("table", name)
+                .publishPercentileHistogram()
+                .description("group commit 1회 저장(트랜잭션) 시간")
+                .register(registry);
+        FunctionCounter.builder("binance.groupcommit.rows", rowsWritten, AtomicLong::get)
+                .tag("table", name).tag("result", "written")
+                .description("저장 / 저장 실패 / 대기열 초과로 버린 행 수")
+                .register(registry);
+        FunctionCounter.builder("binance.groupcommit.rows", rowsFailed, AtomicLong::get)
+                .tag("table", name).tag("result", "failed")
+                .register(registry);
+        FunctionCounter.builder("binance.groupcommit.rows", dropped, AtomicLong::get)
+                .tag("table", name).tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("binance.groupcommit.flush.failures", failures, AtomicLong::get)
+                .tag("table", name)
+                .register(registry);
+        FunctionCounter.builder("binance.groupcommit.retries", retries, AtomicLong::get)
+                .tag("table", name)
+                .description("일시적 오류로 다시 시도한 저장 횟수")
+                .register(registry);
+        Gauge.builder("binance.groupcommit.queue", queue, BlockingQueue::size)
+                .tag("table", name)
+                .description("저장 대기 중인 행 수")
+                .register(registry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public long getOffered() {
+        return offered.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.get();
+    }
+
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+}
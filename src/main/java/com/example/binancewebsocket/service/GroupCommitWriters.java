@@ -0,0 +1,158 @@
+package com.example.binancewebsocket.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * 수집 테이블별 {@link GroupCommitWriter} 생성 / 종료 관리.
+ * <p>
+ * - 각 저장 서비스는 테이블마다 writer 하나를 만들고, 사용하지 않으면(enabled=false) null 을 받아 기존처럼 이벤트마다 저장합니다.
+ * - flush 1회는 BATCH 실행기 세션(autoCommit=false) 하나에서 저장한 뒤 commit 합니다. (트랜잭션 하나)
+ *   여러 행 INSERT mapper 가 있으면 그것을 한 번, 없으면 단건 INSERT 를 반복해 JDBC executeBatch 한 번으로 보내며,
+ *   DB URL 에 rewriteBatchedStatements=true 이면 드라이버가 여러 행 INSERT 로 바꿉니다.
+ *   (DatabaseConfig 가 binance.group-commit.rewrite-batched-statements 설정에 따라 붙여줌)
+ * - 종료 시 모든 writer 의 대기 행을 저장합니다. (수집 파이프라인이 먼저 멈춘 뒤 호출됨)
+ */
+@Component
+public class GroupCommitWriters {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitWriters.class);
+
+    // --- 의존성 ---
+    private final SqlSessionFactory sqlSessionFactory;
+    private final MeterRegistry meterRegistry;
+
+    // --- 설정값 ---
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxLatencyMs;
+    private final int capacity;
+    private final long offerTimeoutMs;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+    private final long shutdownTimeoutMs;
+
+    private final List<GroupCommitWriter<?>> writers = new CopyOnWriteArrayList<>();
+
+    public GroupCommitWriters(SqlSessionFactory sqlSessionFactory,
+                              MeterRegistry meterRegistry,
+                              @Value("${binance.group-commit.enabled:true}") boolean enabled,
+                              @Value("${binance.group-commit.max-batch-size:1000}") int maxBatchSize,
+                              @Value("${binance.group-commit.max-latency-ms:200}") long maxLatencyMs,
+                              @Value("${binance.group-commit.capacity:50000}") int capacity,
+                              @Value("${binance.group-commit.offer-timeout-ms:1000}") long offerTimeoutMs,
+                              @Value("${binance.group-commit.max-retries:3}") int maxRetries,
+                              @Value("${binance.group-commit.retry-backoff-ms:100}") long retryBackoffMs,
+                              @Value("${binance.group-commit.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyMs = maxLatencyMs;
+        this.capacity = capacity;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxRetries = maxRetries;
+        this.retryBackoffMs = retryBackoffMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        if (enabled) {
+            logger.info("✅ group commit 저장 사용 (최대 {}행 / {}ms, 테이블별 대기 {}행)", maxBatchSize, maxLatencyMs, capacity);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 행마다 mapper 의 단건 INSERT 를 호출하는 writer (사용하지 않으면 null)
+     *
+     * @param table  지표 / 스레드 이름 (예: trade)
+     * @param insert (mapper, 행) → 단건 INSERT
+     */
+    public <M, T> GroupCommitWriter<T> create(String table, Class<M> mapperType, BiConsumer<M, T> insert) {
+        return createBatch(table, mapperType, eachRow(insert), null);
+    }
+
+    /**
+     * 먼저 bulkLoad(예: {@link LoadDataInfileSink}) 로 적재하고, false 를 반환하면 단건 INSERT 배치로 저장하는 writer
+     * (사용하지 않으면 null)
+     *
+     * @param bulkLoad 묶음 적재 (적재할 수 없으면 false, null 이면 항상 INSERT)
+     */
+    public <M, T> GroupCommitWriter<T> create(String table, Class<M> mapperType, BiConsumer<M, T> insert,
+                                              Predicate<List<T>> bulkLoad) {
+        return createBatch(table, mapperType, eachRow(insert), bulkLoad);
+    }
+
+    /**
+     * 묶음 하나를 직접 저장하는 writer (여러 행 INSERT mapper 또는 여러 테이블에 나눠 쓰는 경우, 사용하지 않으면 null)
+     * 같은 SQL 이 연속되어야 JDBC 배치 하나로 묶이므로 문장 종류별로 나눠 호출합니다.
+     */
+    public <M, T> GroupCommitWriter<T> createBatch(String table, Class<M> mapperType, BiConsumer<M, List<T>> statements) {
+        return createBatch(table, mapperType, statements, null);
+    }
+
+    /**
+     * bulkLoad 가 있으면 먼저 적재하고, false 를 반환하면 statements 로 저장하는 writer (사용하지 않으면 null)
+     */
+    public <M, T> GroupCommitWriter<T> createBatch(String table, Class<M> mapperType, BiConsumer<M, List<T>> statements,
+                                                   Predicate<List<T>> bulkLoad) {
+        if (!enabled) {
+            return null;
+        }
+        GroupCommitWriter<T> writer = new GroupCommitWriter<>(table, maxBatchSize, maxLatencyMs, capacity, offerTimeoutMs,
+                maxRetries, retryBackoffMs, batch -> {
+            if (bulkLoad == null || !bulkLoad.test(batch)) {
+                writeInTransaction(mapperType, statements, batch);
+            }
+        });
+        writer.registerMetrics(meterRegistry);
+        writers.add(writer);
+        return writer;
+    }
+
+    /**
+     * 생성된 writer 목록 (생성 순서, 추가만 됨)
+     */
+    public List<GroupCommitWriter<?>> getWriters() {
+        return Collections.unmodifiableList(writers);
+    }
+
+    private static <M, T> BiConsumer<M, List<T>> eachRow(BiConsumer<M, T> insert) {
+        return (mapper, batch) -> {
+            for (T row : batch) {
+                insert.accept(mapper, row);
+            }
+        };
+    }
+
+    private <M, T> void writeInTransaction(Class<M> mapperType, BiConsumer<M, List<T>> statements, List<T> batch) {
+        // commit 하지 않고 닫히면 롤백
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            statements.accept(session.getMapper(mapperType), batch);
+            session.commit(); // 대기 중인 배치 실행 후 commit
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (GroupCommitWriter<?> writer : writers) {
+            writer.shutdown(shutdownTimeoutMs);
+            logger.info("✅ [{}] group commit 종료 (저장 {}건, 실패 {}건, 버림 {}건)",
+                    writer.getName(), writer.getRowsWritten(), writer.getRowsFailed(), writer.getDropped());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinanceAggTradeDTO;
+import com.example.binancewebsocket.dto.BinanceTradeDTO;
+import com.mysql.cj.jdbc.JdbcStatement;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * binance_trade / binance_agg_trade (/ binance_agg_trade_derived) 대량 저장용 LOAD DATA LOCAL INFILE 싱크.
+ * <p>
+ * - group commit 묶음을 CSV 로 만들어 메모리 InputStream 으로 드라이버에 넘깁니다. (임시 파일 없음)
+ *   → MySQL 의 대량 적재 경로를 사용하므로 INSERT ... ON DUPLICATE KEY UPDATE 보다 빠릅니다.
+ * - 중복 키 처리: replace(기존 행을 새 행으로 교체, 기존 UPSERT 와 같은 결과) | ignore(기존 행 유지, 더 빠름)
+ * - 클라이언트(allowLoadLocalInfile) 또는 서버(local_infile)에서 LOCAL INFILE 이 꺼져 있으면
+ *   경고를 한 번 남기고 사용을 멈춥니다. 이후 호출은 false 를 반환하고 호출부가 기존 일괄 INSERT 로 저장합니다.
+ * - DB URL 의 allowLoadLocalInfile=true 는 DatabaseConfig 가 이 설정에 따라 붙여줍니다.
+ */
+@Component
+public class LoadDataInfileSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadDataInfileSink.class);
+
+    // --- MySQL 오류 코드 ---
+    private static final int ER_NOT_ALLOWED_COMMAND = 1148;          // 서버 local_infile=OFF
+    private static final int ER_CLIENT_LOCAL_FILES_DISABLED = 3948;  // 클라이언트 / 서버 양쪽 설정 필요
+
+    private static final String TRADE_COLUMNS = "(symbol, price, quantity, trade_time, buyer_maker)";
+    private static final String AGG_TRADE_COLUMNS = "(symbol, agg_trade_id, price, quantity, first_trade_id, last_trade_id, trade_time, buyer_maker)"
+            + " SET created_at = NOW()";
+
+    // --- 의존성 ---
+    private final DataSource dataSource;
+
+    // --- 설정값 ---
+    private final boolean enabled;
+    private final String duplicate; // REPLACE | IGNORE
+
+    // --- 상태 ---
+    private volatile boolean available;
+
+    // --- 통계 ---
+    private final AtomicLong rowsLoaded = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public LoadDataInfileSink(DataSource dataSource,
+                              MeterRegistry meterRegistry,
+                              @Value("${binance.load-data.enabled:false}") boolean enabled,
+                              @Value("${binance.load-data.duplicate:replace}") String duplicate) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.duplicate = duplicate.trim().toUpperCase(Locale.ROOT);
+        if (!List.of("REPLACE", "IGNORE").contains(this.duplicate)) {
+            throw new IllegalArgumentException("binance.loaddata.duplicate 는 replace / ignore 중 하나여야 합니다: " + duplicate);
+        }
+        this.available = enabled;
+        if (enabled) {
+            logger.info("✅ trade / aggTrade 를 LOAD DATA LOCAL INFILE 로 저장 (중복 키: {})", this.duplicate);
+        }
+        registerMetrics(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * ✅ 체결 묶음 적재
+     *
+     * @return 적재했는지 (false 이면 LOCAL INFILE 을 쓸 수 없으므로 호출부가 INSERT 로 저장)
+     */
+    public boolean loadTrades(List<BinanceTradeDTO> trades) {
+        return load("binance_trade", TRADE_COLUMNS, trades, LoadDataInfileSink::appendTrade);
+    }
+
+    /**
+     * ✅ aggTrade 묶음 적재
+     *
+     * @return 적재했는지 (false 이면 LOCAL INFILE 을 쓸 수 없으므로 호출부가 INSERT 로 저장)
+     */
+    public boolean loadAggTrades(List<BinanceAggTradeDTO> aggTrades) {
+        return load("binance_agg_trade", AGG_TRADE_COLUMNS, aggTrades, LoadDataInfileSink::appendAggTrade);
+    }
+
+    /**
+     * ✅ @trade 로 만든 aggTrade 묶음 적재 (binance_agg_trade_derived)
+     *
+     * @return 적재했는지 (false 이면 LOCAL INFILE 을 쓸 수 없으므로 호출부가 INSERT 로 저장)
+     */
+    public boolean loadDerivedAggTrades(List<BinanceAggTradeDTO> aggTrades) {
+        return load("binance_agg_trade_derived", AGG_TRADE_COLUMNS, aggTrades, LoadDataInfileSink::appendAggTrade);
+    }
+
+    private <T> boolean load(String table, String columns, List<T> rows, BiConsumer<StringBuilder, T> appendRow) {
+        if (!available) {
+            return false;
+        }
+        if (rows.isEmpty()) {
+            return true;
+        }
+        byte[] csv = toCsv(rows, appendRow);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            // 드라이버는 파일 이름 대신 이 스트림을 읽어 전송 (문장 하나 = 트랜잭션 하나)
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(csv));
+            statement.execute(loadDataSql(table, duplicate, columns));
+            rowsLoaded.addAndGet(rows.size());
+            loads.incrementAndGet();
+            return true;
+        } catch (SQLException e) {
+            if (!isLocalInfileDisabled(e)) {
+                throw new IllegalStateException(table + " LOAD DATA 실패: " + e.getMessage(), e);
+            }
+            available = false;
+            fallbacks.incrementAndGet();
+            logger.warn("⚠️ LOAD DATA LOCAL INFILE 을 사용할 수 없어 일괄 INSERT 로 저장합니다 (클라이언트 allowLoadLocalInfile / 서버 local_infile 확인): {}",
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    static String loadDataSql(String table, String duplicate, String columns) {
+        return "LOAD DATA LOCAL INFILE 'stream' " + duplicate + " INTO TABLE " + table
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' LINES TERMINATED BY '\\n' " + columns;
+    }
+
+    static <T> byte[] toCsv(List<T> rows, BiConsumer<StringBuilder, T> appendRow) {
+        StringBuilder csv = new StringBuilder(rows.size() * 96);
+        for (T row : rows) {
+            appendRow.accept(csv, row);
+            csv.append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static void appendTrade(StringBuilder csv, BinanceTradeDTO trade) {
+        csv.append(trade.getSymbol()).append(',')
+                .append(FixedDecimal.toString(trade.getPrice())).append(',')
+                .append(FixedDecimal.toString(trade.getQuantity())).append(',')
+                .append(trade.getTradeTime()).append(',');
+        appendBoolean(csv, trade.getBuyerMaker());
+    }
+
+    static void appendAggTrade(StringBuilder csv, BinanceAggTradeDTO aggTrade) {
+        csv.append(aggTrade.getSymbol()).append(',')
+                .append(aggTrade.getAggTradeId()).append(',')
+                .append(FixedDecimal.toString(aggTrade.getPrice())).append(',')
+                .append(FixedDecimal.toString(aggTrade.getQuantity())).append(',')
+                .append(aggTrade.getFirstTradeId()).append(',')
+                .append(aggTrade.getLastTradeId()).append(',')
+                .append(aggTrade.getTradeTime()).append(',');
+        appendBoolean(csv, aggTrade.getBuyerMaker());
+    }
+
+    private static void appendBoolean(StringBuilder csv, Boolean value) {
+        csv.append(value == null ? "\\N" : value ? "1" : "0"); // \N = NULL
+    }
+
+    private static boolean isLocalInfileDisabled(SQLException e) {
+        if (e.getErrorCode() == ER_NOT_ALLOWED_COMMAND || e.getErrorCode() == ER_CLIENT_LOCAL_FILES_DISABLED) {
+            return true;
+        }
+        String message = e.getMessage() == null ? "" : e.getMessage().toLowerCase(Locale.ROOT);
+        return message.contains("local") && (message.contains("disabled") || message.contains("not allowed"));
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("binance.loaddata.rows", rowsLoaded, AtomicLong::get)
+                .description("LOAD DATA LOCAL INFILE 로 적재한 행 수")
+                .register(registry);
+        FunctionCounter.builder("binance.loaddata.loads", loads, AtomicLong::get)
+                .description("LOAD DATA 실행 수")
+                .register(registry);
+        FunctionCounter.builder("binance.loaddata.fallbacks", fallbacks, AtomicLong::get)
+                .description("LOCAL INFILE 을 쓸 수 없어 INSERT 로 전환한 횟수")
+                .register(registry);
+    }
+}
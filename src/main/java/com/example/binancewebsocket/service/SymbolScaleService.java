@@ -0,0 +1,163 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.config.BinanceConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 심볼별 가격 / 수량 scale (소수 자릿수) 관리.
+ * <pre>
+ *   GET /fapi/v1/exchangeInfo
+ *     PRICE_FILTER.tickSize "0.10"  → priceScale 1
+ *     LOT_SIZE.stepSize     "0.001" → quantityScale 3
+ * </pre>
+ * - 스트림 파싱은 받은 문자열의 자릿수 그대로 {@link FixedDecimal} 로 읽으므로 이 정보 없이도 동작합니다.
+ * - 호가창 / 스냅샷처럼 같은 심볼의 값을 mantissa 만으로 비교 / 차분해야 하는 곳에서 {@link #normalizePrice} 로 scale 을 맞춥니다.
+ * - 조회 실패 시 기존 값을 유지하며, 모르는 심볼은 값을 그대로 반환합니다.
+ */
+@Service
+public class SymbolScaleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SymbolScaleService.class);
+
+    public static final int UNKNOWN = -1;
+
+    /**
+     * 심볼 하나의 가격 / 수량 scale
+     */
+    public record Scales(int priceScale, int quantityScale) {
+    }
+
+    private final BinanceConfig binanceConfig;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WebClient webClient = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(
+                    HttpClient.create()
+                            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                            .responseTimeout(Duration.ofSeconds(10))
+            ))
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(16 * 1024 * 1024)) // exchangeInfo 는 수 MB
+            .build();
+
+    // 갱신 시 통째로 교체 (읽기 쪽 잠금 없음)
+    private volatile Map<String, Scales> scales = Map.of();
+
+    public SymbolScaleService(BinanceConfig binanceConfig) {
+        this.binanceConfig = binanceConfig;
+    }
+
+    /**
+     * ✅ exchangeInfo 에서 전체 심볼의 tickSize / stepSize 를 읽어 scale 을 갱신합니다.
+     */
+    public void refresh() {
+        String url = binanceConfig.getBinanceApiUri() + "/fapi/v1/exchangeInfo";
+        try {
+            String body = webClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .block();
+            Map<String, Scales> loaded = parseExchangeInfo(objectMapper.readTree(body));
+            if (loaded.isEmpty()) {
+                logger.warn("⚠️ exchangeInfo 에서 심볼 scale 을 찾지 못했습니다. 기존 값({}개)을 유지합니다.", scales.size());
+                return;
+            }
+            scales = loaded;
+            logger.info("✅ 심볼 scale {}개 로드 완료", loaded.size());
+        } catch (WebClientResponseException e) {
+            logger.error("❌ exchangeInfo 조회 실패 - Binance API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+        } catch (Exception e) {
+            logger.error("❌ exchangeInfo 조회 실패: {}", e.getMessage());
+        }
+    }
+
+    static Map<String, Scales> parseExchangeInfo(JsonNode root) {
+        Map<String, Scales> loaded = new HashMap<>();
+        if (root == null) {
+            return loaded;
+        }
+        for (JsonNode symbol : root.path("symbols")) {
+            int priceScale = UNKNOWN;
+            int quantityScale = UNKNOWN;
+            for (JsonNode filter : symbol.path("filters")) {
+                switch (filter.path("filterType").asText()) {
+                    case "PRICE_FILTER" -> priceScale = scaleOf(filter.path("tickSize").asText());
+                    case "LOT_SIZE" -> quantityScale = scaleOf(filter.path("stepSize").asText());
+                    default -> {
+                    }
+                }
+            }
+            if (priceScale != UNKNOWN || quantityScale != UNKNOWN) {
+                loaded.put(symbol.path("symbol").asText(), new Scales(priceScale, quantityScale));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * "0.0100" → 2 (뒤쪽 0 제외 소수 자릿수)
+     */
+    static int scaleOf(String step) {
+        if (step == null || step.isEmpty()) {
+            return UNKNOWN;
+        }
+        try {
+            long value = FixedDecimal.parse(step);
+            long mantissa = FixedDecimal.mantissa(value);
+            int scale = FixedDecimal.scale(value);
+            if (mantissa == 0) {
+                return UNKNOWN;
+            }
+            while (scale > 0 && mantissa % 10 == 0) {
+                mantissa /= 10;
+                scale--;
+            }
+            return scale;
+        } catch (RuntimeException e) {
+            return UNKNOWN;
+        }
+    }
+
+    public int priceScale(String symbol) {
+        Scales s = scales.get(symbol);
+        return s != null ? s.priceScale() : UNKNOWN;
+    }
+
+    public int quantityScale(String symbol) {
+        Scales s = scales.get(symbol);
+        return s != null ? s.quantityScale() : UNKNOWN;
+    }
+
+    /**
+     * 가격을 심볼의 tick scale 로 맞춥니다. (모르는 심볼이면 그대로)
+     */
+    public long normalizePrice(String symbol, long price) {
+        int scale = priceScale(symbol);
+        return scale == UNKNOWN ? price : FixedDecimal.rescale(price, scale);
+    }
+
+    /**
+     * 수량을 심볼의 step scale 로 맞춥니다. (모르는 심볼이면 그대로)
+     */
+    public long normalizeQuantity(String symbol, long quantity) {
+        int scale = quantityScale(symbol);
+        return scale == UNKNOWN ? quantity : FixedDecimal.rescale(quantity, scale);
+    }
+
+    public int size() {
+        return scales.size();
+    }
+}
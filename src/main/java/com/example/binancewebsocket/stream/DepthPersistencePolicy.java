@@ -0,0 +1,265 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO;
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO.OrderBookEntry;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 부분 호가({@code <symbol>@depth10@100ms} 등) 스냅샷 중 저장할 것만 통과시키는 parse 스테이지 필터.
+ * <p>
+ * 스냅샷 하나는 insertPartialBookDepth 1행 + 호가 단계 수만큼의 binance_order_book_entries 행이므로,
+ * 바뀌지 않았거나 거의 바뀌지 않은 스냅샷을 거르면 저장 행 수가 크게 줄어듭니다.
+ * <pre>
+ *   공통         : 모든 단계 (가격, 수량) 의 64bit 해시가 마지막으로 저장한 스냅샷과 같으면 생략
+ *   CHANGE      : 해시가 바뀌면 저장
+ *   TOP_OF_BOOK : 최우선 매수 / 매도 호가(가격 또는 수량)가 바뀌면 저장
+ *   INTERVAL    : 마지막 저장 후 N ms (이벤트 시간 기준) 가 지났으면 저장
+ *   DEPTH_BPS   : 매수 / 매도 누적 수량 중 하나가 마지막 저장 대비 X bps 넘게 움직이면 저장
+ *   ALL         : 거르지 않음 (기존 동작)
+ * </pre>
+ * - 심볼별 규칙은 스트림을 처음 볼 때 한 번만 찾고, 스트림별 상태는 StreamKey.id 로 인덱싱한 primitive 배열에 둡니다. (할당 없음)
+ * - 부분 호가 외의 이벤트는 그대로 통과합니다. 연속성 추적이 모든 이벤트를 보도록 {@link SequenceGapTracker} 뒤에 연결합니다.
+ */
+public final class DepthPersistencePolicy implements IngestFilter {
+
+    private static final int INITIAL_STREAMS = 256;
+
+    public enum Mode {
+        ALL,
+        CHANGE,
+        TOP_OF_BOOK,
+        INTERVAL,
+        DEPTH_BPS;
+
+        /**
+         * 설정 문자열 (top-of-book, depth-bps 등) → Mode
+         */
+        public static Mode fromConfig(String value) {
+            return Mode.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    /**
+     * 심볼 하나에 적용할 규칙
+     *
+     * @param intervalMs INTERVAL 모드의 저장 간격
+     * @param bps        DEPTH_BPS 모드의 누적 수량 변화 기준 (1bps = 0.01%)
+     */
+    public record Rule(Mode mode, long intervalMs, double bps) {
+    }
+
+    private final Rule defaultRule;
+    private final Map<String, Rule> symbolRules;
+
+    // --- 스트림별 마지막 저장 상태 (StreamKey.id 인덱스, parse 스레드 전용) ---
+    private Rule[] rules = new Rule[INITIAL_STREAMS];
+    private boolean[] persisted = new boolean[INITIAL_STREAMS];
+    private long[] lastHash = new long[INITIAL_STREAMS];
+    private long[] lastTime = new long[INITIAL_STREAMS];
+    private long[] lastTop = new long[INITIAL_STREAMS * 4]; // 최우선 매수가, 매수량, 매도가, 매도량
+    private double[] lastDepth = new double[INITIAL_STREAMS * 2]; // 매수 / 매도 누적 수량
+
+    // --- 통계 ---
+    private final AtomicLong snapshotsWritten = new AtomicLong();
+    private final AtomicLong snapshotsSkipped = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong rowsAvoided = new AtomicLong();
+
+    /**
+     * @param symbolRules 심볼(대문자) → 규칙, 없는 심볼은 defaultRule
+     */
+    public DepthPersistencePolicy(Rule defaultRule, Map<String, Rule> symbolRules) {
+        this.defaultRule = defaultRule;
+        this.symbolRules = Map.copyOf(symbolRules);
+    }
+
+    @Override
+    public boolean accept(IngestEvent event) {
+        StreamKey key = event.getStreamKey();
+        if (key == null || key.type() != StreamType.PARTIAL_DEPTH || key.id() < 0) {
+            return true;
+        }
+        int id = key.id();
+        if (id >= rules.length) {
+            grow(id);
+        }
+        Rule rule = rules[id];
+        if (rule == null) {
+            rule = symbolRules.getOrDefault(key.symbol(), defaultRule);
+            rules[id] = rule;
+        }
+        BinancePartialBookDepthDTO depth = (BinancePartialBookDepthDTO) event.getPayload();
+        long rows = 1L + size(depth.getBids()) + size(depth.getAsks());
+        if (rule.mode() == Mode.ALL || shouldPersist(id, rule, depth)) {
+            snapshotsWritten.lazySet(snapshotsWritten.get() + 1);
+            rowsWritten.lazySet(rowsWritten.get() + rows);
+            return true;
+        }
+        snapshotsSkipped.lazySet(snapshotsSkipped.get() + 1);
+        rowsAvoided.lazySet(rowsAvoided.get() + rows);
+        return false;
+    }
+
+    private boolean shouldPersist(int id, Rule rule, BinancePartialBookDepthDTO depth) {
+        long hash = hash(depth);
+        if (persisted[id] && hash == lastHash[id]) {
+            return false; // 마지막으로 저장한 스냅샷과 동일
+        }
+        long time = depth.getTransactionTime() != 0 ? depth.getTransactionTime() : depth.getEventTime();
+        boolean persist = !persisted[id] || switch (rule.mode()) {
+            case TOP_OF_BOOK -> topChanged(id, depth);
+            case INTERVAL -> time - lastTime[id] >= rule.intervalMs();
+            case DEPTH_BPS -> depthMoved(id, depth, rule.bps());
+            default -> true;
+        };
+        if (!persist) {
+            return false;
+        }
+        persisted[id] = true;
+        lastHash[id] = hash;
+        lastTime[id] = time;
+        if (rule.mode() == Mode.TOP_OF_BOOK) {
+            storeTop(id, depth);
+        } else if (rule.mode() == Mode.DEPTH_BPS) {
+            lastDepth[id * 2] = cumulative(depth.getBids());
+            lastDepth[id * 2 + 1] = cumulative(depth.getAsks());
+        }
+        return true;
+    }
+
+    private boolean topChanged(int id, BinancePartialBookDepthDTO depth) {
+        int offset = id * 4;
+        return lastTop[offset] != bestPrice(depth.getBids())
+                || lastTop[offset + 1] != bestQuantity(depth.getBids())
+                || lastTop[offset + 2] != bestPrice(depth.getAsks())
+                || lastTop[offset + 3] != bestQuantity(depth.getAsks());
+    }
+
+    private void storeTop(int id, BinancePartialBookDepthDTO depth) {
+        int offset = id * 4;
+        lastTop[offset] = bestPrice(depth.getBids());
+        lastTop[offset + 1] = bestQuantity(depth.getBids());
+        lastTop[offset + 2] = bestPrice(depth.getAsks());
+        lastTop[offset + 3] = bestQuantity(depth.getAsks());
+    }
+
+    private boolean depthMoved(int id, BinancePartialBookDepthDTO depth, double bps) {
+        return movedBps(lastDepth[id * 2], cumulative(depth.getBids())) > bps
+                || movedBps(lastDepth[id * 2 + 1], cumulative(depth.getAsks())) > bps;
+    }
+
+    private static double movedBps(double previous, double current) {
+        if (previous == 0) {
+            return current == 0 ? 0 : Double.POSITIVE_INFINITY;
+        }
+        return Math.abs(current - previous) / previous * 10_000;
+    }
+
+    private static double cumulative(List<OrderBookEntry> entries) {
+        double total = 0;
+        if (entries != null) {
+            for (int i = 0, n = entries.size(); i < n; i++) {
+                total += FixedDecimal.toDouble(entries.get(i).getQuantity());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 모든 단계의 (가격, 수량) 을 순서대로 섞은 64bit 해시 (매수 / 매도 구분 포함)
+     */
+    static long hash(BinancePartialBookDepthDTO depth) {
+        long hash = hashLevels(0x9E3779B97F4A7C15L, depth.getBids());
+        return hashLevels(mix(hash ^ 0x632BE59BD9B4E019L), depth.getAsks());
+    }
+
+    private static long hashLevels(long hash, List<OrderBookEntry> entries) {
+        if (entries != null) {
+            for (int i = 0, n = entries.size(); i < n; i++) {
+                OrderBookEntry entry = entries.get(i);
+                hash = mix(hash ^ entry.getPrice());
+                hash = mix(hash ^ entry.getQuantity());
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * splitmix64 finalizer
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    private static long bestPrice(List<OrderBookEntry> entries) {
+        return entries != null && !entries.isEmpty() ? entries.get(0).getPrice() : 0;
+    }
+
+    private static long bestQuantity(List<OrderBookEntry> entries) {
+        return entries != null && !entries.isEmpty() ? entries.get(0).getQuantity() : 0;
+    }
+
+    private static int size(List<OrderBookEntry> entries) {
+        return entries != null ? entries.size() : 0;
+    }
+
+    private void grow(int id) {
+        int capacity = rules.length;
+        while (capacity <= id) {
+            capacity <<= 1;
+        }
+        rules = Arrays.copyOf(rules, capacity);
+        persisted = Arrays.copyOf(persisted, capacity);
+        lastHash = Arrays.copyOf(lastHash, capacity);
+        lastTime = Arrays.copyOf(lastTime, capacity);
+        lastTop = Arrays.copyOf(lastTop, capacity * 4);
+        lastDepth = Arrays.copyOf(lastDepth, capacity * 2);
+    }
+
+    public long getSnapshotsWritten() {
+        return snapshotsWritten.get();
+    }
+
+    public long getSnapshotsSkipped() {
+        return snapshotsSkipped.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getRowsAvoided() {
+        return rowsAvoided.get();
+    }
+
+    /**
+     * 저장 / 생략한 스냅샷 수와 행 수를 등록합니다.
+     */
+    public void registerMetrics(MeterRegistry registry, String pipeline) {
+        FunctionCounter.builder("binance.depth.persistence.snapshots", this, DepthPersistencePolicy::getSnapshotsWritten)
+                .tags("pipeline", pipeline, "result", "written")
+                .description("저장 정책을 통과 / 생략한 부분 호가 스냅샷 수")
+                .register(registry);
+        FunctionCounter.builder("binance.depth.persistence.snapshots", this, DepthPersistencePolicy::getSnapshotsSkipped)
+                .tags("pipeline", pipeline, "result", "skipped")
+                .register(registry);
+        FunctionCounter.builder("binance.depth.persistence.rows", this, DepthPersistencePolicy::getRowsWritten)
+                .tags("pipeline", pipeline, "result", "written")
+                .description("부분 호가 저장 행 수 (스냅샷 1행 + 호가 단계 행), 생략분은 avoided")
+                .register(registry);
+        FunctionCounter.builder("binance.depth.persistence.rows", this, DepthPersistencePolicy::getRowsAvoided)
+                .tags("pipeline", pipeline, "result", "avoided")
+                .register(registry);
+    }
+}
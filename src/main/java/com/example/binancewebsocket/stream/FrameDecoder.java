@@ -0,0 +1,17 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.pipeline.IngestEvent;
+
+import java.io.IOException;
+
+/**
+ * combined stream 프레임({"stream": ..., "data": {...}})을 해석하여
+ * IngestEvent 에 StreamKey / payload / partitionKey 를 채웁니다.
+ */
+public interface FrameDecoder {
+
+    /**
+     * @return 처리 대상 메시지이면 true (stream/data 누락, 알 수 없는 스트림이면 false)
+     */
+    boolean decode(String frame, IngestEvent event) throws IOException;
+}
@@ -0,0 +1,143 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.codec.GeneratedDecoder;
+import com.example.binancewebsocket.dto.BinanceFundingRateDTO;
+import com.example.binancewebsocket.dto.BinanceLiquidationOrderDTO;
+import com.example.binancewebsocket.dto.BinanceTickerDTO;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 전체 시장 스트림({@code !ticker@arr}, {@code !markPrice@arr@1s}, {@code !forceOrder@arr}) 프레임 하나의 payload.
+ * <p>
+ * - data 배열을 트리로 만들지 않고 원소 하나씩 DTO 로 디코딩하면서 {@link SymbolFilter} 로 구독 심볼만 남깁니다.
+ *   (data 가 객체 하나인 {@code !forceOrder@arr} 는 원소 하나짜리 배치)
+ * - 걸러진 원소의 DTO 는 다음 원소 디코딩에 다시 쓰고, 풀 모드에서는 배치째 회수되어 원소 DTO 까지 재사용됩니다.
+ * - persist 스테이지는 원소마다 기존 심볼별 스트림과 같은 서비스로 저장합니다.
+ */
+public final class MarketBatch {
+
+    private final StreamType type;
+    private Object[] items = new Object[16];
+    private int size;        // 통과한 원소 수 (items[0, size))
+    private int received;    // 프레임의 전체 원소 수 (필터 전)
+    private long eventTime;  // 통과한 원소 중 가장 큰 이벤트 시간 (이중화 중복 제거 키)
+
+    public MarketBatch(StreamType type) {
+        this.type = type;
+    }
+
+    /**
+     * data(배열 또는 객체 하나)를 원소별로 디코딩합니다. 파서는 data 의 시작 토큰에 위치해야 합니다.
+     *
+     * @param decoder  생성된 디코더 (없으면 fallback 사용)
+     * @param fallback Jackson reader
+     */
+    void read(JsonParser p, GeneratedDecoder<Object> decoder, ObjectReader fallback, SymbolFilter filter) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            readElement(p, decoder, fallback, filter);
+            return;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return;
+        }
+        for (token = p.nextToken(); token == JsonToken.START_OBJECT; token = p.nextToken()) {
+            readElement(p, decoder, fallback, filter);
+        }
+        if (token != JsonToken.END_ARRAY) {
+            throw new IOException("전체 시장 스트림 배열에 객체가 아닌 원소가 있습니다: " + token);
+        }
+    }
+
+    private void readElement(JsonParser p, GeneratedDecoder<Object> decoder, ObjectReader fallback, SymbolFilter filter)
+            throws IOException {
+        Object element;
+        if (decoder == null) {
+            element = fallback.readValue(p);
+        } else {
+            element = size < items.length ? items[size] : null; // 걸러졌거나 이전 프레임에서 쓰던 DTO
+            if (element == null) {
+                element = decoder.decode(p);
+            } else {
+                decoder.reset(element);
+                decoder.decodeInto(p, element);
+            }
+        }
+        received++;
+        offer(element, filter);
+    }
+
+    /**
+     * 구독 심볼이면 배치에 남기고, 아니면 다음 원소용으로 자리만 보관합니다.
+     */
+    void offer(Object element, SymbolFilter filter) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+        }
+        items[size] = element;
+        if (filter.contains(symbolOf(element))) {
+            size++;
+            eventTime = Math.max(eventTime, eventTimeOf(element));
+        }
+    }
+
+    void countReceived() {
+        received++;
+    }
+
+    /**
+     * 재사용 전에 비웁니다. (원소 DTO 인스턴스는 유지)
+     */
+    void clear() {
+        size = 0;
+        received = 0;
+        eventTime = 0;
+    }
+
+    public StreamType getType() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Object get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return items[index];
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public long getEventTime() {
+        return eventTime;
+    }
+
+    private String symbolOf(Object element) {
+        return switch (type) {
+            case TICKER -> ((BinanceTickerDTO) element).getSymbol();
+            case MARK_PRICE -> ((BinanceFundingRateDTO) element).getSymbol();
+            case FORCE_ORDER -> ((BinanceLiquidationOrderDTO) element).getLiquidation().getSymbol();
+            default -> null;
+        };
+    }
+
+    private long eventTimeOf(Object element) {
+        return switch (type) {
+            case TICKER -> ((BinanceTickerDTO) element).getEventTime();
+            case MARK_PRICE -> ((BinanceFundingRateDTO) element).getFundingTime();
+            case FORCE_ORDER -> ((BinanceLiquidationOrderDTO) element).getEventTime();
+            default -> 0;
+        };
+    }
+}
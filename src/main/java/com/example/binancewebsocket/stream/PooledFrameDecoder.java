@@ -0,0 +1,239 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.codec.GeneratedDecoder;
+import com.example.binancewebsocket.dto.GeneratedDecoders;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * 할당 없는 디코더 (풀 모드).
+ * <p>
+ * - 파서를 프레임마다 만들지 않고, non-blocking 파서 하나에 프레임 바이트를 이어서 공급합니다.
+ *   (프레임 = 최상위 JSON 객체 하나, 파서 / 버퍼 / 이름 테이블 모두 재사용)
+ * - payload 는 {@link IngestEvent#acquireRecycled} 로 회수된 객체를 받아 생성된 디코더로 reset 후 채웁니다.
+ * - 짧은 문자열은 DecoderSupport 공유 테이블, 가격 / 수량은 FixedDecimal, 호가 목록은 재사용 목록을 사용합니다.
+ * - 전체 시장 스트림은 {@link MarketBatch} 를 배치 전용 free-list 로 회수하여 원소 DTO 까지 재사용합니다.
+ * <p>
+ * ⚠️ 파서 / 입력 버퍼를 상태로 가지므로 스레드 하나(parse 스레드)에서만 사용해야 합니다.
+ * 형식 오류 등으로 파서 상태가 깨지면 파서를 새로 만듭니다.
+ */
+public class PooledFrameDecoder implements FrameDecoder {
+
+    private static final String FIELD_STREAM = "stream";
+    private static final String FIELD_DATA = "data";
+    private static final StreamType[] TYPES = StreamType.values();
+
+    private final Logger logger = LoggerFactory.getLogger(PooledFrameDecoder.class);
+
+    private final ObjectMapper objectMapper;
+    private final StreamKeyResolver streamKeyResolver;
+    private final SymbolFilter symbolFilter;
+    private final GeneratedDecoder<Object>[] decoders;
+    private final ObjectReader[] fallbackReaders;
+
+    // --- 스레드 전용 상태 ---
+    private JsonParser parser;
+    private ByteArrayFeeder feeder;
+    private byte[] input = new byte[16 * 1024];
+
+    public PooledFrameDecoder(ObjectMapper objectMapper, StreamKeyResolver streamKeyResolver) {
+        this(objectMapper, streamKeyResolver, new SymbolFilter());
+    }
+
+    @SuppressWarnings("unchecked")
+    public PooledFrameDecoder(ObjectMapper objectMapper, StreamKeyResolver streamKeyResolver, SymbolFilter symbolFilter) {
+        this.objectMapper = objectMapper;
+        this.streamKeyResolver = streamKeyResolver;
+        this.symbolFilter = symbolFilter;
+        this.decoders = new GeneratedDecoder[TYPES.length];
+        this.fallbackReaders = new ObjectReader[TYPES.length];
+        for (StreamType type : TYPES) {
+            GeneratedDecoder<?> generated = GeneratedDecoders.forType(type.getPayloadType());
+            if (generated != null) {
+                decoders[type.ordinal()] = (GeneratedDecoder<Object>) generated;
+            } else {
+                fallbackReaders[type.ordinal()] = objectMapper.readerFor(type.getPayloadType());
+            }
+        }
+        resetParser();
+    }
+
+    @Override
+    public boolean decode(String frame, IngestEvent event) throws IOException {
+        int length = encode(frame);
+        boolean decoded;
+        try {
+            feeder.feedInput(input, 0, length);
+            decoded = decodeFrame(frame, event);
+            // 프레임 끝까지 읽었는지 확인 (불완전 / 뒤에 남은 토큰이 있으면 파서를 새로 시작)
+            if (!parser.getParsingContext().inRoot() || parser.nextToken() != JsonToken.NOT_AVAILABLE) {
+                logger.warn("⚠️ 불완전하거나 여러 값이 이어진 WebSocket 메시지: {}", frame);
+                resetParser();
+                event.setPayload(null);
+                return false;
+            }
+        } catch (IOException | RuntimeException e) {
+            resetParser();
+            event.setPayload(null);
+            throw e;
+        }
+        return decoded;
+    }
+
+    private boolean decodeFrame(String frame, IngestEvent event) throws IOException {
+        JsonParser p = this.parser;
+        if (p.nextToken() != JsonToken.START_OBJECT) {
+            logger.warn("⚠️ JSON 객체가 아닌 WebSocket 메시지: {}", frame);
+            resetParser(); // 남은 입력을 버리고 다음 프레임부터 새로 시작
+            return false;
+        }
+
+        StreamKey key = null;
+        boolean streamSeen = false;
+        boolean payloadRead = false;
+        TokenBuffer deferredData = null;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+
+            if (FIELD_STREAM.equals(field)) {
+                streamSeen = true;
+                if (value == JsonToken.VALUE_STRING) {
+                    key = streamKeyResolver.resolve(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                }
+                if (key != null && deferredData != null) {
+                    try (JsonParser buffered = deferredData.asParser(objectMapper)) {
+                        buffered.nextToken();
+                        readPayload(key, buffered, event);
+                    }
+                    payloadRead = true;
+                    deferredData = null;
+                }
+            } else if (FIELD_DATA.equals(field)) {
+                if (key != null) {
+                    readPayload(key, p, event);
+                    payloadRead = true;
+                } else if (!streamSeen) {
+                    // data 가 stream 보다 먼저 온 경우 (드묾): 토큰만 복사해 두고 stream 확인 후 바인딩
+                    deferredData = new TokenBuffer(p);
+                    deferredData.copyCurrentStructure(p);
+                } else {
+                    p.skipChildren();
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+
+        if (!streamSeen) {
+            logger.warn("⚠️ WebSocket 메시지에 'stream' 필드가 없음: {}", frame);
+            return false;
+        }
+        if (key == null) {
+            logger.warn("⚠️ 알 수 없는 데이터 수신: {}", frame);
+            return false;
+        }
+        if (!payloadRead) {
+            logger.warn("⚠️ WebSocket 메시지에 'data' 필드가 없음: {}", frame);
+            return false;
+        }
+
+        event.setStreamKey(key);
+        event.setPartitionKey(key.partitionKey());
+        return true;
+    }
+
+    /**
+     * 회수된 payload 를 reset 후 채웁니다. (없으면 새로 생성, 생성된 디코더가 없는 타입은 Jackson)
+     */
+    private void readPayload(StreamKey key, JsonParser p, IngestEvent event) throws IOException {
+        int type = key.type().ordinal();
+        if (key.allMarket()) {
+            readBatch(key, p, event, type);
+            return;
+        }
+        GeneratedDecoder<Object> decoder = decoders[type];
+        if (decoder == null) {
+            event.setPayload(fallbackReaders[type].readValue(p));
+            return;
+        }
+        Object target = event.acquireRecycled(type);
+        if (target == null) {
+            target = decoder.create();
+        } else {
+            decoder.reset(target);
+        }
+        // 디코딩 도중 실패해도 회수되도록 먼저 등록
+        event.setRecyclablePayload(target, type);
+        decoder.decodeInto(p, target);
+    }
+
+    /**
+     * 전체 시장 배치 (free-list 종류는 원소 타입 뒤에 따로 둠)
+     */
+    private void readBatch(StreamKey key, JsonParser p, IngestEvent event, int type) throws IOException {
+        int batchType = TYPES.length + type;
+        MarketBatch batch = (MarketBatch) event.acquireRecycled(batchType);
+        if (batch == null) {
+            batch = new MarketBatch(key.type());
+        } else {
+            batch.clear();
+        }
+        event.setRecyclablePayload(batch, batchType);
+        batch.read(p, decoders[type], fallbackReaders[type], symbolFilter);
+    }
+
+    /**
+     * 프레임 문자열을 재사용 바이트 버퍼에 UTF-8 로 기록합니다. (Binance 메시지는 대부분 ASCII)
+     */
+    private int encode(String frame) {
+        int length = frame.length();
+        if (input.length < length * 3) {
+            input = new byte[Math.max(length * 3, input.length * 2)];
+        }
+        byte[] out = input;
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            char c = frame.charAt(i);
+            if (c < 0x80) {
+                out[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xC0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(frame.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, frame.charAt(++i));
+                out[pos++] = (byte) (0xF0 | (cp >> 18));
+                out[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                out[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                out[pos++] = (byte) (0xE0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    private void resetParser() {
+        try {
+            if (parser != null) {
+                parser.close();
+            }
+            parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+            feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        } catch (IOException e) {
+            throw new IllegalStateException("non-blocking JSON 파서 생성 실패", e);
+        }
+    }
+}
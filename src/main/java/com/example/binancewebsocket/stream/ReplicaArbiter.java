@@ -0,0 +1,180 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.dto.*;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 같은 스트림을 여러 연결(replica)로 동시에 받을 때, 먼저 도착한 사본만 통과시키는 필터.
+ * <p>
+ * 스트림별로 지금까지 통과한 이벤트의 자연 키(natural key) 최댓값을 기억하고, 그보다 큰 키만 새 이벤트로 인정합니다.
+ * <pre>
+ *   trade        : t (trade id)
+ *   aggTrade     : a (aggregate trade id)
+ *   depth        : u (final update id)
+ *   kline        : (t open time, x 종료 여부, E) - 진행 중 갱신은 E 로 구분, 종료 캔들은 한 번만
+ *   그 외         : E (event time)
+ *   전체 시장 배열 : 배치 원소 중 가장 큰 E (!forceOrder@arr 는 비교 없이 통과)
+ * </pre>
+ * - 한 연결이 끊겨도 다른 연결의 사본이 그대로 통과하므로 페일오버 지연이 없습니다.
+ * - parse 스레드 하나에서만 호출되므로 스트림별 상태는 StreamKey.id 로 인덱싱한 primitive 배열에 둡니다.
+ * - 연결별 선착(win) / 중복(duplicate) 수를 집계하여 어느 연결이 더 빠른지 확인할 수 있습니다.
+ */
+public final class ReplicaArbiter implements IngestFilter {
+
+    private static final int INITIAL_STREAMS = 256;
+
+    private final int replicas;
+
+    // --- 스트림별 마지막으로 통과한 키 (StreamKey.id 인덱스, parse 스레드 전용) ---
+    private long[] lastMajor = newWatermarks(INITIAL_STREAMS);
+    private long[] lastMinor = newWatermarks(INITIAL_STREAMS);
+
+    // --- 연결별 통계 (parse 스레드가 기록, 메트릭 스레드가 조회) ---
+    private final AtomicLongArray wins;
+    private final AtomicLongArray duplicates;
+
+    public ReplicaArbiter(int replicas) {
+        if (replicas < 1) {
+            throw new IllegalArgumentException("replica 수는 1 이상이어야 합니다: " + replicas);
+        }
+        this.replicas = replicas;
+        this.wins = new AtomicLongArray(replicas);
+        this.duplicates = new AtomicLongArray(replicas);
+    }
+
+    /**
+     * ✅ 처음 도착한 사본이면 true, 이미 다른 연결에서 받은 이벤트면 false
+     */
+    @Override
+    public boolean accept(IngestEvent event) {
+        StreamKey key = event.getStreamKey();
+        int id = key != null ? key.id() : StreamKey.UNREGISTERED;
+        if (id < 0) {
+            return true; // 스트림별 상태를 둘 수 없는 키는 그대로 통과
+        }
+        long major;
+        long minor = 0;
+        Object payload = event.getPayload();
+        if (key.allMarket()) {
+            // 전체 시장 배치: 프레임에서 가장 큰 이벤트 시간 (청산은 여러 심볼이 같은 시간일 수 있어 비교하지 않음)
+            major = key.type() != StreamType.FORCE_ORDER ? valueOf(((MarketBatch) payload).getEventTime()) : Long.MIN_VALUE;
+        } else {
+            switch (key.type()) {
+                case TRADE -> major = valueOf(((BinanceTradeDTO) payload).getTradeId());
+                case AGG_TRADE -> major = valueOf(((BinanceAggTradeDTO) payload).getAggTradeId());
+                case PARTIAL_DEPTH, DIFF_DEPTH -> major = valueOf(((BinancePartialBookDepthDTO) payload).getFinalUpdateId());
+                case KLINE -> {
+                    BinanceKlineDTO kline = (BinanceKlineDTO) payload;
+                    major = valueOf(kline.getKline().getOpenTime());
+                    // 종료 캔들은 진행 중 갱신보다 항상 뒤, 같은 종료 캔들의 사본은 중복
+                    minor = Boolean.TRUE.equals(kline.getKline().getIsKlineClosed()) ? Long.MAX_VALUE : valueOf(kline.getEventTime());
+                }
+                case TICKER -> major = valueOf(((BinanceTickerDTO) payload).getEventTime());
+                case MARK_PRICE -> major = valueOf(((BinanceFundingRateDTO) payload).getFundingTime());
+                case FORCE_ORDER -> major = valueOf(((BinanceLiquidationOrderDTO) payload).getEventTime());
+                case BOOK_TICKER -> major = valueOf(((BinanceBookTickerDTO) payload).getUpdateId());
+                default -> major = Long.MIN_VALUE;
+            }
+        }
+        if (major == Long.MIN_VALUE) {
+            return true; // 자연 키가 없는 이벤트는 비교할 수 없으므로 통과
+        }
+        return arbitrate(id, major, minor, event.getSource());
+    }
+
+    /**
+     * (major, minor) 가 지금까지 통과한 키보다 크면 통과시키고 기준값을 갱신합니다.
+     */
+    boolean arbitrate(int id, long major, long minor, int source) {
+        if (id >= lastMajor.length) {
+            grow(id);
+        }
+        long currentMajor = lastMajor[id];
+        boolean first = major > currentMajor || (major == currentMajor && minor > lastMinor[id]);
+        int replica = Math.floorMod(source, replicas);
+        if (first) {
+            lastMajor[id] = major;
+            lastMinor[id] = minor;
+            wins.lazySet(replica, wins.get(replica) + 1);
+        } else {
+            duplicates.lazySet(replica, duplicates.get(replica) + 1);
+        }
+        return first;
+    }
+
+    private void grow(int id) {
+        int capacity = lastMajor.length;
+        while (capacity <= id) {
+            capacity <<= 1;
+        }
+        int previous = lastMajor.length;
+        lastMajor = Arrays.copyOf(lastMajor, capacity);
+        lastMinor = Arrays.copyOf(lastMinor, capacity);
+        Arrays.fill(lastMajor, previous, capacity, Long.MIN_VALUE);
+        Arrays.fill(lastMinor, previous, capacity, Long.MIN_VALUE);
+    }
+
+    private static long[] newWatermarks(int size) {
+        long[] watermarks = new long[size];
+        Arrays.fill(watermarks, Long.MIN_VALUE);
+        return watermarks;
+    }
+
+    /**
+     * primitive 필드는 값이 없으면 0 이므로 0 을 "값 없음" 으로 취급합니다. (Binance id / 시간은 0 이 아님)
+     */
+    private static long valueOf(long value) {
+        return value != 0 ? value : Long.MIN_VALUE;
+    }
+
+    public long getWins(int replica) {
+        return wins.get(replica);
+    }
+
+    public long getDuplicates(int replica) {
+        return duplicates.get(replica);
+    }
+
+    /**
+     * 전체 선착 이벤트 중 해당 연결이 먼저 받은 비율 (0 ~ 1)
+     */
+    public double getWinRatio(int replica) {
+        long total = 0;
+        for (int i = 0; i < replicas; i++) {
+            total += wins.get(i);
+        }
+        return total == 0 ? 0 : (double) wins.get(replica) / total;
+    }
+
+    public int getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 연결별 선착 / 중복 수와 선착 비율을 등록합니다.
+     */
+    public void registerMetrics(MeterRegistry registry, String pipeline) {
+        for (int i = 0; i < replicas; i++) {
+            final int replica = i;
+            String tag = "r" + i;
+            FunctionCounter.builder("binance.ws.replica.wins", this, a -> a.getWins(replica))
+                    .tags("pipeline", pipeline, "replica", tag)
+                    .description("이중화 연결 중 해당 연결이 먼저 받은 이벤트 수")
+                    .register(registry);
+            FunctionCounter.builder("binance.ws.replica.duplicates", this, a -> a.getDuplicates(replica))
+                    .tags("pipeline", pipeline, "replica", tag)
+                    .description("다른 연결이 먼저 받아 버려진 사본 수")
+                    .register(registry);
+            Gauge.builder("binance.ws.replica.win.ratio", this, a -> a.getWinRatio(replica))
+                    .tags("pipeline", pipeline, "replica", tag)
+                    .register(registry);
+        }
+    }
+}
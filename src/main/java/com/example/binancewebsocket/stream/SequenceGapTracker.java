@@ -0,0 +1,234 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.dto.BinanceAggTradeDTO;
+import com.example.binancewebsocket.dto.BinanceKlineDTO;
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO;
+import com.example.binancewebsocket.dto.BinanceTradeDTO;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 스트림별 연속성(sequence)을 추적하여 재연결 등으로 빠진 구간을 감지합니다.
+ * <pre>
+ *   trade    : t 가 1씩 증가
+ *   aggTrade : a 가 1씩 증가                      → 빠진 a 구간 [from, to]
+ *   depth    : 이번 이벤트의 pu == 직전 이벤트의 u
+ *   kline    : 새 캔들의 t == 직전 종료 캔들 t + 간격   → 빠진 캔들 open time 구간 [from, to]
+ * </pre>
+ * - parse 스레드 하나에서만 호출되므로 스트림별 상태는 StreamKey.id 로 인덱싱한 long[] 에 둡니다. (객체 할당 없음)
+ * - 구간이 확인되면 {@link GapListener} 에 넘기고 바로 반환합니다. (REST 보충은 리스너가 별도 스레드에서 처리)
+ * - 이벤트를 거르지 않으므로 항상 true 를 반환합니다. 이중화 사용 시 {@link ReplicaArbiter} 뒤에 연결합니다.
+ */
+public final class SequenceGapTracker implements IngestFilter {
+
+    private static final int INITIAL_STREAMS = 256;
+    private static final long UNKNOWN = Long.MIN_VALUE;
+    private static final StreamType[] TYPES = StreamType.values();
+
+    /**
+     * 빠진 구간 통지 (parse 스레드에서 호출되므로 오래 걸리는 작업을 하면 안 됨)
+     */
+    @FunctionalInterface
+    public interface GapListener {
+        /**
+         * @param key  스트림
+         * @param from 빠진 첫 번째 값 (aggTrade: id, kline: open time)
+         * @param to   빠진 마지막 값 (포함)
+         */
+        void onGap(StreamKey key, long from, long to);
+    }
+
+    private final GapListener listener;
+
+    // --- 스트림별 마지막 값 (StreamKey.id 인덱스, parse 스레드 전용) ---
+    private long[] last = newState(INITIAL_STREAMS);
+    private long[] intervalMs = new long[INITIAL_STREAMS]; // kline 간격 (0 = 아직 계산 안 함, -1 = 고정 간격 아님)
+
+    // --- 스트림 종류별 통계 (StreamType.ordinal 인덱스) ---
+    private final AtomicLongArray gaps = new AtomicLongArray(TYPES.length);
+    private final AtomicLongArray missing = new AtomicLongArray(TYPES.length);
+
+    public SequenceGapTracker(GapListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean accept(IngestEvent event) {
+        StreamKey key = event.getStreamKey();
+        if (key == null || key.id() < 0) {
+            return true;
+        }
+        int id = key.id();
+        if (id >= last.length) {
+            grow(id);
+        }
+        Object payload = event.getPayload();
+        switch (key.type()) {
+            case TRADE -> trackIncrement(key, id, valueOf(((BinanceTradeDTO) payload).getTradeId()), false);
+            case AGG_TRADE -> trackIncrement(key, id, valueOf(((BinanceAggTradeDTO) payload).getAggTradeId()), true);
+            case PARTIAL_DEPTH, DIFF_DEPTH -> trackDepth(key, id, (BinancePartialBookDepthDTO) payload);
+            case KLINE -> trackKline(key, id, (BinanceKlineDTO) payload);
+            default -> {
+                // 연속성 키가 없는 스트림 (ticker, markPrice, forceOrder)
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 1씩 증가하는 id (trade t, aggTrade a)
+     */
+    private void trackIncrement(StreamKey key, int id, long value, boolean backfill) {
+        if (value == UNKNOWN) {
+            return;
+        }
+        long previous = last[id];
+        if (value <= previous) {
+            return; // 중복 / 역순 (이중화 중복 제거 전 등)
+        }
+        last[id] = value;
+        if (previous != UNKNOWN && value > previous + 1) {
+            record(key, value - previous - 1);
+            if (backfill) {
+                listener.onGap(key, previous + 1, value - 1);
+            }
+        }
+    }
+
+    /**
+     * depth 이벤트 체인: pu(직전 이벤트의 u) 가 직전에 받은 u 와 같아야 합니다.
+     * 부분 호가(depth10 등)는 매 이벤트가 스냅샷이므로 REST 보충 없이 다음 이벤트로 회복되며, 끊김만 집계합니다.
+     * diff 호가(depth@100ms)의 재동기화는 로컬 호가창 엔진이 스냅샷으로 처리합니다.
+     */
+    private void trackDepth(StreamKey key, int id, BinancePartialBookDepthDTO depth) {
+        long finalUpdateId = valueOf(depth.getFinalUpdateId());
+        if (finalUpdateId == UNKNOWN || finalUpdateId <= last[id]) {
+            return;
+        }
+        long previous = last[id];
+        long previousUpdateId = valueOf(depth.getPreviousUpdateId());
+        last[id] = finalUpdateId;
+        if (previous != UNKNOWN && previousUpdateId != UNKNOWN && previousUpdateId != previous) {
+            record(key, 1);
+        }
+    }
+
+    /**
+     * kline: 마지막으로 종료된 캔들의 open time 을 기억하고, 새 캔들이 시작될 때 사이에 빠진 캔들이 있는지 확인합니다.
+     * (처음 받은 캔들은 직전 캔들이 정상 종료된 것으로 간주)
+     */
+    private void trackKline(StreamKey key, int id, BinanceKlineDTO kline) {
+        long openTime = valueOf(kline.getOpenTime());
+        long interval = intervalOf(key, id);
+        if (openTime == UNKNOWN || interval <= 0) {
+            return;
+        }
+        long lastClosed = last[id];
+        if (lastClosed == UNKNOWN) {
+            lastClosed = openTime - interval;
+        }
+        long expected = lastClosed + interval;
+        if (openTime > expected) {
+            long missedCandles = (openTime - expected) / interval;
+            record(key, missedCandles);
+            listener.onGap(key, expected, openTime - interval);
+            lastClosed = openTime - interval;
+        }
+        if (Boolean.TRUE.equals(kline.getIsKlineClosed()) && openTime > lastClosed) {
+            lastClosed = openTime;
+        }
+        last[id] = lastClosed;
+    }
+
+    private long intervalOf(StreamKey key, int id) {
+        long interval = intervalMs[id];
+        if (interval == 0) {
+            interval = intervalMillis(key.interval());
+            intervalMs[id] = interval;
+        }
+        return interval;
+    }
+
+    /**
+     * kline 간격 문자열 → 밀리초 (월봉처럼 고정 길이가 아니면 -1)
+     */
+    public static long intervalMillis(String interval) {
+        if (interval == null || interval.length() < 2) {
+            return -1;
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(interval.substring(0, interval.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return switch (interval.charAt(interval.length() - 1)) {
+            case 'm' -> TimeUnit.MINUTES.toMillis(amount);
+            case 'h' -> TimeUnit.HOURS.toMillis(amount);
+            case 'd' -> TimeUnit.DAYS.toMillis(amount);
+            case 'w' -> TimeUnit.DAYS.toMillis(amount * 7);
+            default -> -1;
+        };
+    }
+
+    private void record(StreamKey key, long missingCount) {
+        int type = key.type().ordinal();
+        gaps.lazySet(type, gaps.get(type) + 1);
+        missing.lazySet(type, missing.get(type) + missingCount);
+    }
+
+    private void grow(int id) {
+        int capacity = last.length;
+        while (capacity <= id) {
+            capacity <<= 1;
+        }
+        int previous = last.length;
+        last = Arrays.copyOf(last, capacity);
+        Arrays.fill(last, previous, capacity, UNKNOWN);
+        intervalMs = Arrays.copyOf(intervalMs, capacity);
+    }
+
+    private static long[] newState(int size) {
+        long[] state = new long[size];
+        Arrays.fill(state, UNKNOWN);
+        return state;
+    }
+
+    /**
+     * primitive 필드는 값이 없으면 0 이므로 0 을 "값 없음" 으로 취급합니다. (Binance id / 시간은 0 이 아님)
+     */
+    private static long valueOf(long value) {
+        return value != 0 ? value : UNKNOWN;
+    }
+
+    public long getGaps(StreamType type) {
+        return gaps.get(type.ordinal());
+    }
+
+    public long getMissing(StreamType type) {
+        return missing.get(type.ordinal());
+    }
+
+    /**
+     * 스트림 종류별 끊김 수 / 빠진 항목 수를 등록합니다.
+     */
+    public void registerMetrics(MeterRegistry registry, String pipeline) {
+        for (StreamType type : new StreamType[]{StreamType.TRADE, StreamType.AGG_TRADE, StreamType.PARTIAL_DEPTH, StreamType.DIFF_DEPTH, StreamType.KLINE}) {
+            String tag = type.name().toLowerCase();
+            FunctionCounter.builder("binance.ingest.sequence.gaps", this, t -> t.getGaps(type))
+                    .tags("pipeline", pipeline, "type", tag)
+                    .description("연속성이 끊긴 횟수")
+                    .register(registry);
+            FunctionCounter.builder("binance.ingest.sequence.missing", this, t -> t.getMissing(type))
+                    .tags("pipeline", pipeline, "type", tag)
+                    .description("끊긴 구간에서 빠진 항목 수 (id / 캔들 / depth 이벤트)")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.binancewebsocket.stream;
+
+import java.util.Locale;
+
+/**
+ * combined stream 이름(예: btcusdt@kline_5m)을 한 번만 해석해 둔 결과.
+ *
+ * @param stream       원본 스트림 이름
+ * @param type         스트림 종류
+ * @param symbol       대문자 심볼 (예: BTCUSDT), 전체 시장 스트림은 스트림 이름 그대로 (예: !ticker@arr)
+ * @param interval     kline 간격 (kline 이 아니면 null)
+ * @param partitionKey persist 소비자 분배 키 (심볼 기준)
+ * @param id           StreamKeyResolver 가 등록 순서대로 부여하는 번호 (0부터, 스트림별 배열 상태의 인덱스)
+ *                     등록되지 않은 키는 -1
+ */
+public record StreamKey(String stream, StreamType type, String symbol, String interval, int partitionKey, int id) {
+
+    public static final int UNREGISTERED = -1;
+
+    private static final char ALL_MARKET_PREFIX = '!';
+
+    /**
+     * 스트림 이름을 해석합니다. 지원하지 않는 스트림이면 null 을 반환합니다.
+     */
+    public static StreamKey parse(String stream) {
+        if (!stream.isEmpty() && stream.charAt(0) == ALL_MARKET_PREFIX) {
+            StreamType type = StreamType.fromAllMarketName(stream.substring(1));
+            return type != null ? new StreamKey(stream, type, stream, null, stream.hashCode(), UNREGISTERED) : null;
+        }
+        int at = stream.indexOf('@');
+        if (at <= 0 || at == stream.length() - 1) {
+            return null;
+        }
+        String name = stream.substring(at + 1);
+        StreamType type = StreamType.fromStreamName(name);
+        if (type == null) {
+            return null;
+        }
+        String symbol = stream.substring(0, at).toUpperCase(Locale.ROOT);
+        String interval = type == StreamType.KLINE ? name.substring("kline_".length()) : null;
+        return new StreamKey(stream, type, symbol, interval, symbol.hashCode(), UNREGISTERED);
+    }
+
+    /**
+     * 전체 시장 스트림(모든 심볼을 한 프레임에 담는 !ticker@arr 등)이면 true. payload 는 {@link MarketBatch}
+     */
+    public boolean allMarket() {
+        return stream.charAt(0) == ALL_MARKET_PREFIX;
+    }
+
+    StreamKey withId(int id) {
+        return new StreamKey(stream, type, symbol, interval, partitionKey, id);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.binancewebsocket.stream;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 스트림 이름 → StreamKey 조회 테이블.
+ * <p>
+ * 구독 시점에 스트림 목록을 미리 등록해 두고, 메시지 수신 시에는 파서의 char 버퍼를 그대로 조회하므로
+ * 메시지마다 String 을 만들거나 '@' 뒤 문자열을 다시 비교하지 않습니다.
+ * 조회는 lock-free (copy-on-write 테이블), 등록은 드물게 일어나므로 synchronized 로 처리합니다.
+ * 목록 등록 시에는 새 테이블을 한 번만 만들어 교체하므로, 스트림 N 개 등록 비용은 O(N) 입니다.
+ * 등록된 키에는 0부터 순서대로 id 를 부여하여, 스트림별 상태를 Map 대신 배열로 관리할 수 있게 합니다.
+ */
+@Component
+public class StreamKeyResolver {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile Node[] table = new Node[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * 구독할 스트림 목록을 미리 등록합니다.
+     */
+    public synchronized void register(Collection<String> streams) {
+        List<StreamKey> keys = new ArrayList<>(streams.size());
+        for (String stream : streams) {
+            StreamKey key = StreamKey.parse(stream);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        putAll(keys);
+    }
+
+    /**
+     * ✅ 파서 버퍼에서 직접 조회 (할당 없음). 등록되지 않은 스트림은 해석 후 등록합니다.
+     */
+    public StreamKey resolve(char[] buffer, int offset, int length) {
+        int hash = hash(buffer, offset, length);
+        Node[] current = this.table;
+        for (Node node = current[hash & (current.length - 1)]; node != null; node = node.next) {
+            if (node.hash == hash && node.matches(buffer, offset, length)) {
+                return node.key;
+            }
+        }
+        return resolveMiss(new String(buffer, offset, length));
+    }
+
+    public StreamKey resolve(String stream) {
+        char[] chars = stream.toCharArray();
+        return resolve(chars, 0, chars.length);
+    }
+
+    private synchronized StreamKey resolveMiss(String stream) {
+        StreamKey key = StreamKey.parse(stream);
+        return key != null ? putAll(List.of(key)) : null;
+    }
+
+    /**
+     * 키들을 등록하고 마지막 키의 id 가 부여된 키를 반환합니다. (이미 등록된 경우 기존 키)
+     * 새 키가 있으면 새 배열 하나에 모두 기록한 뒤 한 번에 교체합니다. (조회 스레드는 락 없이 읽음)
+     */
+    private StreamKey putAll(List<StreamKey> keys) {
+        Node[] current = this.table;
+        Node[] updated = current;
+        StreamKey last = null;
+        for (int i = 0; i < keys.size(); i++) {
+            char[] name = keys.get(i).stream().toCharArray();
+            int hash = hash(name, 0, name.length);
+            StreamKey existing = find(updated, name, hash);
+            if (existing != null) {
+                last = existing; // 이미 등록됨
+                continue;
+            }
+            if (updated == current) {
+                // 남은 키가 모두 새 키여도 부하율 0.5 이하가 되도록 한 번만 확장 / 복사
+                int capacity = current.length;
+                while ((size + keys.size() - i) * 2 > capacity) {
+                    capacity *= 2;
+                }
+                updated = rehash(current, capacity);
+            }
+            last = keys.get(i).withId(size++);
+            int index = hash & (updated.length - 1);
+            updated[index] = new Node(name, hash, last, updated[index]);
+        }
+        if (updated != current) {
+            this.table = updated;
+        }
+        return last;
+    }
+
+    private static StreamKey find(Node[] table, char[] name, int hash) {
+        for (Node node = table[hash & (table.length - 1)]; node != null; node = node.next) {
+            if (node.hash == hash && node.matches(name, 0, name.length)) {
+                return node.key;
+            }
+        }
+        return null;
+    }
+
+    private static Node[] rehash(Node[] current, int capacity) {
+        Node[] updated = new Node[capacity];
+        for (Node head : current) {
+            for (Node node = head; node != null; node = node.next) {
+                int index = node.hash & (capacity - 1);
+                updated[index] = new Node(node.name, node.hash, node.key, updated[index]);
+            }
+        }
+        return updated;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int hash(char[] buffer, int offset, int length) {
+        int h = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = 31 * h + buffer[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private record Node(char[] name, int hash, StreamKey key, Node next) {
+        boolean matches(char[] buffer, int offset, int length) {
+            if (name.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (name[i] != buffer[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
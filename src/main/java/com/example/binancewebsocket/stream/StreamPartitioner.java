@@ -0,0 +1,158 @@
+package com.example.binancewebsocket.stream;
+
+import java.util.*;
+
+/**
+ * 구독 스트림을 여러 WebSocket 연결(샤드)로 나눕니다.
+ * <p>
+ * - 한 심볼의 스트림은 항상 같은 샤드에 배치합니다. (심볼 단위 구독/해지, persist 순서 유지)
+ * - 연결당 스트림 수 상한(maxStreamsPerConnection)을 넘지 않습니다.
+ * - 예상 메시지 수가 큰 심볼부터, 현재 부하가 가장 작은 샤드에 배치합니다. (LPT greedy)
+ */
+public final class StreamPartitioner {
+
+    private final int maxStreamsPerConnection;
+    private final int minConnections;
+
+    public StreamPartitioner(int maxStreamsPerConnection, int minConnections) {
+        if (maxStreamsPerConnection < 1) {
+            throw new IllegalArgumentException("연결당 스트림 수는 1 이상이어야 합니다: " + maxStreamsPerConnection);
+        }
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
+        this.minConnections = Math.max(1, minConnections);
+    }
+
+    /**
+     * 스트림 목록을 샤드별로 나눕니다.
+     *
+     * @param streams 스트림 이름 목록 (예: ["btcusdt@trade", "btcusdt@depth10@100ms", ...])
+     * @return 샤드 목록 (index 순서)
+     */
+    public List<Partition> partition(Collection<String> streams) {
+        // 1. 심볼별로 묶기 (입력 순서 유지)
+        Map<String, List<String>> streamsBySymbol = groupBySymbol(streams);
+        Map<String, Double> rateBySymbol = new HashMap<>();
+        streamsBySymbol.forEach((symbol, symbolStreams) -> rateBySymbol.put(symbol, expectedRate(symbolStreams)));
+
+        // 2. 필요한 샤드 수 = max(설정값, 스트림 수 / 상한)
+        int required = (int) Math.ceil((double) streams.size() / maxStreamsPerConnection);
+        int connections = Math.max(minConnections, required);
+        List<Builder> builders = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            builders.add(new Builder(i));
+        }
+
+        // 3. 예상 메시지 수 내림차순으로 가장 한가한 샤드에 배치
+        List<String> symbols = new ArrayList<>(streamsBySymbol.keySet());
+        symbols.sort(Comparator.comparingDouble((String s) -> rateBySymbol.get(s)).reversed());
+        for (String symbol : symbols) {
+            List<String> symbolStreams = streamsBySymbol.get(symbol);
+            if (symbolStreams.size() > maxStreamsPerConnection) {
+                throw new IllegalArgumentException("심볼 " + symbol + " 의 스트림 수(" + symbolStreams.size()
+                        + ")가 연결당 상한(" + maxStreamsPerConnection + ")을 초과합니다.");
+            }
+            Builder target = null;
+            for (Builder builder : builders) {
+                if (builder.streams.size() + symbolStreams.size() <= maxStreamsPerConnection
+                        && (target == null || builder.rate < target.rate)) {
+                    target = builder;
+                }
+            }
+            if (target == null) {
+                // 심볼 단위 배치로 남는 자리가 부족한 경우 샤드 추가
+                target = new Builder(builders.size());
+                builders.add(target);
+            }
+            target.add(symbol, symbolStreams, rateBySymbol.get(symbol));
+        }
+
+        return builders.stream()
+                .map(b -> new Partition(b.index, List.copyOf(b.symbols), List.copyOf(b.streams), b.rate))
+                .toList();
+    }
+
+    /**
+     * 스트림을 심볼(대문자)별로 묶습니다. (입력 순서 유지)
+     */
+    public static Map<String, List<String>> groupBySymbol(Collection<String> streams) {
+        Map<String, List<String>> streamsBySymbol = new LinkedHashMap<>();
+        for (String stream : streams) {
+            StreamKey key = StreamKey.parse(stream);
+            String symbol = key != null ? key.symbol() : stream;
+            streamsBySymbol.computeIfAbsent(symbol, s -> new ArrayList<>()).add(stream);
+        }
+        return streamsBySymbol;
+    }
+
+    /**
+     * 스트림 목록의 예상 초당 메시지 수 합계
+     */
+    public static double expectedRate(Collection<String> streams) {
+        double rate = 0;
+        for (String stream : streams) {
+            rate += expectedRate(StreamKey.parse(stream));
+        }
+        return rate;
+    }
+
+    /**
+     * 스트림별 예상 초당 메시지 수.
+     * 체결 스트림은 심볼마다 편차가 크지만, 연결 간 균형을 잡는 용도로는 종류별 평균값으로 충분합니다.
+     */
+    public static double expectedRate(StreamKey key) {
+        if (key == null) {
+            return 1.0;
+        }
+        String stream = key.stream();
+        if (key.allMarket()) {
+            return key.type() == StreamType.FORCE_ORDER ? 0.5 : 1.0; // 배열은 1초마다 한 프레임, 청산은 발생 시마다
+        }
+        return switch (key.type()) {
+            case TRADE -> 10.0;
+            case AGG_TRADE -> 5.0;
+            case MARK_PRICE -> stream.endsWith("@1s") ? 1.0 : 1.0 / 3;   // 기본 3초
+            case KLINE -> 4.0;                                           // 250ms 마다 갱신
+            case TICKER -> 1.0;
+            case FORCE_ORDER -> 0.1;
+            case PARTIAL_DEPTH, DIFF_DEPTH -> depthRate(stream);
+            case BOOK_TICKER -> 30.0;                                    // 최우선 호가가 바뀔 때마다 (유동 심볼은 훨씬 많음)
+        };
+    }
+
+    private static double depthRate(String stream) {
+        if (stream.endsWith("@100ms")) {
+            return 10.0;
+        } else if (stream.endsWith("@500ms")) {
+            return 2.0;
+        }
+        return 4.0; // 기본 250ms
+    }
+
+    /**
+     * 샤드 하나에 배정된 심볼 / 스트림
+     *
+     * @param index        샤드 번호 (0부터)
+     * @param symbols      배정된 심볼 (대문자)
+     * @param streams      구독할 스트림 이름
+     * @param expectedRate 예상 초당 메시지 수
+     */
+    public record Partition(int index, List<String> symbols, List<String> streams, double expectedRate) {
+    }
+
+    private static final class Builder {
+        private final int index;
+        private final List<String> symbols = new ArrayList<>();
+        private final List<String> streams = new ArrayList<>();
+        private double rate;
+
+        private Builder(int index) {
+            this.index = index;
+        }
+
+        private void add(String symbol, List<String> symbolStreams, double symbolRate) {
+            symbols.add(symbol);
+            streams.addAll(symbolStreams);
+            rate += symbolRate;
+        }
+    }
+}
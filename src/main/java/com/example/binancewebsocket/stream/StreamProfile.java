@@ -0,0 +1,108 @@
+package com.example.binancewebsocket.stream;
+
+import java.util.*;
+
+/**
+ * 심볼 등급(tier)별 구독 스트림 구성.
+ * <p>
+ * - symbols.stream_tier 로 심볼마다 등급을 지정하고, 등급마다 구독할 스트림 / 부분 호가 단계 수 / 갱신 간격을 정합니다.
+ *   (유동성이 낮은 심볼은 depth5@500ms 만 받는 식으로 수신 / 저장량을 줄임)
+ * - 전역 설정(orderbook.enabled, book-ticker.enabled, kline-rollup.enabled, 전체 시장 구독 모드)이 우선합니다.
+ *   등급에 포함되어 있어도 전역 설정으로 꺼진 스트림은 구독하지 않습니다. (BinanceConfig)
+ *
+ * @param name         등급 이름
+ * @param types        구독할 스트림 종류
+ * @param depthLevels  부분 호가 단계 수 (5 / 10 / 20)
+ * @param depthSpeedMs 부분 호가 갱신 간격 (100 / 250 / 500 ms)
+ */
+public record StreamProfile(String name, Set<StreamType> types, int depthLevels, int depthSpeedMs) {
+
+    /**
+     * 등급 미지정 시 기본값 (기존 구독 구성과 동일: 모든 스트림 + depth10@100ms)
+     */
+    public static final StreamProfile FULL = new StreamProfile("full", EnumSet.allOf(StreamType.class), 10, 100);
+
+    public StreamProfile {
+        if (depthLevels != 5 && depthLevels != 10 && depthLevels != 20) {
+            throw new IllegalArgumentException("부분 호가 단계 수는 5 / 10 / 20 중 하나여야 합니다: " + name + "=" + depthLevels);
+        }
+        if (depthSpeedMs != 100 && depthSpeedMs != 250 && depthSpeedMs != 500) {
+            throw new IllegalArgumentException("부분 호가 갱신 간격은 100 / 250 / 500ms 중 하나여야 합니다: " + name + "=" + depthSpeedMs);
+        }
+        types = types.isEmpty() ? Collections.unmodifiableSet(EnumSet.noneOf(StreamType.class))
+                : Collections.unmodifiableSet(EnumSet.copyOf(types));
+    }
+
+    public boolean includes(StreamType type) {
+        return types.contains(type);
+    }
+
+    /**
+     * 부분 호가 스트림 이름 ('@' 뒤, 예: "depth10@100ms", 250ms 는 기본값이라 "depth5")
+     */
+    public String depthStream() {
+        return depthSpeedMs == 250 ? "depth" + depthLevels : "depth" + depthLevels + "@" + depthSpeedMs + "ms";
+    }
+
+    /**
+     * "trade,aggTrade,markPrice,ticker,forceOrder,kline,depth10@100ms,depth,bookTicker" → 등급 하나
+     * <p>
+     * 항목은 스트림 이름('@' 뒤)과 같습니다. 단, kline 은 간격 없이 쓰고, 단계 수가 없는 depth 는 로컬 호가창용 diff depth 입니다.
+     */
+    public static StreamProfile parse(String name, String spec) {
+        Set<StreamType> types = EnumSet.noneOf(StreamType.class);
+        int depthLevels = 10;
+        int depthSpeedMs = 250;
+        for (String item : spec.split(",")) {
+            String stream = item.trim();
+            if (stream.isEmpty()) {
+                continue;
+            }
+            StreamType type = stream.equals("kline") ? StreamType.KLINE : StreamType.fromStreamName(stream);
+            if (type == null || type == StreamType.KLINE && !stream.equals("kline")) {
+                throw new IllegalArgumentException("등급 " + name + " 에 알 수 없는 스트림이 있습니다: " + stream);
+            }
+            if (type == StreamType.PARTIAL_DEPTH) {
+                if (types.contains(type)) {
+                    throw new IllegalArgumentException("등급 " + name + " 에 부분 호가 스트림이 두 개 이상 있습니다: " + spec);
+                }
+                int at = stream.indexOf('@');
+                try {
+                    depthLevels = Integer.parseInt(at < 0 ? stream.substring(5) : stream.substring(5, at));
+                    if (at >= 0) {
+                        if (!stream.endsWith("ms")) {
+                            throw new NumberFormatException();
+                        }
+                        depthSpeedMs = Integer.parseInt(stream.substring(at + 1, stream.length() - 2));
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("잘못된 부분 호가 스트림: " + name + "=" + stream);
+                }
+            }
+            types.add(type);
+        }
+        return new StreamProfile(name, types, depthLevels, depthSpeedMs);
+    }
+
+    /**
+     * "full=trade,aggTrade,...;light=ticker,markPrice,depth5@500ms" → 등급 이름(소문자)별 구성 (설정 순서 유지)
+     */
+    public static Map<String, StreamProfile> parseTiers(String value) {
+        Map<String, StreamProfile> profiles = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) {
+            return profiles;
+        }
+        for (String item : value.split(";")) {
+            if (item.isBlank()) {
+                continue;
+            }
+            String[] pair = item.split("=", 2);
+            if (pair.length != 2 || pair[0].isBlank()) {
+                throw new IllegalArgumentException("잘못된 스트림 등급 설정: " + item);
+            }
+            String name = pair[0].trim().toLowerCase(Locale.ROOT);
+            profiles.put(name, parse(name, pair[1]));
+        }
+        return profiles;
+    }
+}
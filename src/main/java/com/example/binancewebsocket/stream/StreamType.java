@@ -0,0 +1,73 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.dto.*;
+
+/**
+ * Binance combined stream 종류와 각 스트림의 data 가 바인딩될 DTO 타입.
+ */
+public enum StreamType {
+
+    TRADE(BinanceTradeDTO.class),                        // <symbol>@trade
+    AGG_TRADE(BinanceAggTradeDTO.class),                 // <symbol>@aggTrade
+    MARK_PRICE(BinanceFundingRateDTO.class),             // <symbol>@markPrice, <symbol>@markPrice@1s, !markPrice@arr[@1s]
+    KLINE(BinanceKlineDTO.class),                        // <symbol>@kline_<interval>
+    TICKER(BinanceTickerDTO.class),                      // <symbol>@ticker, !ticker@arr
+    FORCE_ORDER(BinanceLiquidationOrderDTO.class),       // <symbol>@forceOrder, !forceOrder@arr
+    PARTIAL_DEPTH(BinancePartialBookDepthDTO.class),     // <symbol>@depth<levels>[@<speed>]
+    DIFF_DEPTH(BinancePartialBookDepthDTO.class),        // <symbol>@depth[@<speed>] (diff, 로컬 호가창용)
+    BOOK_TICKER(BinanceBookTickerDTO.class);             // <symbol>@bookTicker (실시간 최우선 호가)
+
+    private final Class<?> payloadType;
+
+    StreamType(Class<?> payloadType) {
+        this.payloadType = payloadType;
+    }
+
+    public Class<?> getPayloadType() {
+        return payloadType;
+    }
+
+    /**
+     * '@' 뒤의 스트림 이름으로 타입을 결정합니다. (알 수 없으면 null)
+     *
+     * @param name 예: "trade", "kline_5m", "depth10@100ms", "depth@100ms", "bookTicker"
+     */
+    public static StreamType fromStreamName(String name) {
+        if (name.equals("trade")) {
+            return TRADE;
+        } else if (name.equals("aggTrade")) {
+            return AGG_TRADE;
+        } else if (name.equals("ticker")) {
+            return TICKER;
+        } else if (name.equals("bookTicker")) {
+            return BOOK_TICKER;
+        } else if (name.equals("forceOrder")) {
+            return FORCE_ORDER;
+        } else if (name.startsWith("markPrice")) {
+            return MARK_PRICE;
+        } else if (name.startsWith("kline_")) {
+            return KLINE;
+        } else if (name.startsWith("depth") && name.length() > 5 && Character.isDigit(name.charAt(5))) {
+            return PARTIAL_DEPTH;
+        } else if (name.equals("depth") || name.startsWith("depth@")) {
+            return DIFF_DEPTH;
+        }
+        return null;
+    }
+
+    /**
+     * 전체 시장 스트림 이름('!' 뒤)으로 원소 타입을 결정합니다. (지원하지 않으면 null)
+     *
+     * @param name 예: "ticker@arr", "markPrice@arr@1s", "forceOrder@arr"
+     */
+    public static StreamType fromAllMarketName(String name) {
+        if (name.equals("ticker@arr")) {
+            return TICKER;
+        } else if (name.equals("markPrice@arr") || name.startsWith("markPrice@arr@")) {
+            return MARK_PRICE;
+        } else if (name.equals("forceOrder@arr")) {
+            return FORCE_ORDER;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.codec.GeneratedDecoder;
+import com.example.binancewebsocket.dto.GeneratedDecoders;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * JsonParser 기반 단일 패스 디코더.
+ * <p>
+ * - stream 토큰은 파서 char 버퍼에서 바로 StreamKey 로 조회합니다. (String 생성 없음)
+ * - data 는 트리를 만들지 않고 파서에서 곧바로 대상 DTO 로 바인딩합니다.
+ * - data 가 stream 보다 먼저 오는 경우에만 data 를 TokenBuffer 에 복사해 두었다가 바인딩합니다.
+ * - generated 모드에서는 컴파일 시 생성된 디코더({@link GeneratedDecoder})로 바인딩하고,
+ *   생성된 디코더가 없는 타입만 Jackson ObjectReader 를 사용합니다.
+ * - 전체 시장 스트림(!ticker@arr 등)은 data 배열을 원소별로 디코딩하며 {@link SymbolFilter} 로 구독 심볼만 남긴 {@link MarketBatch} 를 만듭니다.
+ */
+public class StreamingFrameDecoder implements FrameDecoder {
+
+    private static final String FIELD_STREAM = "stream";
+    private static final String FIELD_DATA = "data";
+
+    private final Logger logger = LoggerFactory.getLogger(StreamingFrameDecoder.class);
+
+    private final ObjectMapper objectMapper;
+    private final StreamKeyResolver streamKeyResolver;
+    private final SymbolFilter symbolFilter;
+    private final Map<StreamType, PayloadReader> readers = new EnumMap<>(StreamType.class);
+    private final Map<StreamType, GeneratedDecoder<Object>> elementDecoders = new EnumMap<>(StreamType.class);
+    private final Map<StreamType, ObjectReader> elementReaders = new EnumMap<>(StreamType.class);
+
+    public StreamingFrameDecoder(ObjectMapper objectMapper, StreamKeyResolver streamKeyResolver) {
+        this(objectMapper, streamKeyResolver, false);
+    }
+
+    public StreamingFrameDecoder(ObjectMapper objectMapper, StreamKeyResolver streamKeyResolver, boolean useGeneratedDecoders) {
+        this(objectMapper, streamKeyResolver, new SymbolFilter(), useGeneratedDecoders);
+    }
+
+    @SuppressWarnings("unchecked")
+    public StreamingFrameDecoder(ObjectMapper objectMapper, StreamKeyResolver streamKeyResolver, SymbolFilter symbolFilter,
+                                 boolean useGeneratedDecoders) {
+        this.objectMapper = objectMapper;
+        this.streamKeyResolver = streamKeyResolver;
+        this.symbolFilter = symbolFilter;
+        for (StreamType type : StreamType.values()) {
+            GeneratedDecoder<?> generated = useGeneratedDecoders ? GeneratedDecoders.forType(type.getPayloadType()) : null;
+            ObjectReader reader = objectMapper.readerFor(type.getPayloadType());
+            elementReaders.put(type, reader);
+            if (generated != null) {
+                readers.put(type, generated::decode);
+                elementDecoders.put(type, (GeneratedDecoder<Object>) generated);
+            } else {
+                readers.put(type, reader::readValue);
+            }
+        }
+    }
+
+    @Override
+    public boolean decode(String frame, IngestEvent event) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(frame)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                logger.warn("⚠️ JSON 객체가 아닌 WebSocket 메시지: {}", frame);
+                return false;
+            }
+
+            StreamKey key = null;
+            boolean streamSeen = false;
+            Object payload = null;
+            TokenBuffer deferredData = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if (FIELD_STREAM.equals(field)) {
+                    streamSeen = true;
+                    if (value == JsonToken.VALUE_STRING) {
+                        key = streamKeyResolver.resolve(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                    }
+                    if (key != null && deferredData != null) {
+                        try (JsonParser buffered = deferredData.asParser(objectMapper)) {
+                            buffered.nextToken();
+                            payload = readPayload(key, buffered);
+                        }
+                        deferredData = null;
+                    }
+                } else if (FIELD_DATA.equals(field)) {
+                    if (key != null) {
+                        payload = readPayload(key, parser);
+                    } else if (!streamSeen) {
+                        // data 가 stream 보다 먼저 온 경우: 토큰만 복사해 두고 stream 확인 후 바인딩
+                        deferredData = new TokenBuffer(parser);
+                        deferredData.copyCurrentStructure(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (!streamSeen) {
+                logger.warn("⚠️ WebSocket 메시지에 'stream' 필드가 없음: {}", frame);
+                return false;
+            }
+            if (key == null) {
+                logger.warn("⚠️ 알 수 없는 데이터 수신: {}", frame);
+                return false;
+            }
+            if (payload == null) {
+                logger.warn("⚠️ WebSocket 메시지에 'data' 필드가 없음: {}", frame);
+                return false;
+            }
+
+            event.setStreamKey(key);
+            event.setPayload(payload);
+            event.setPartitionKey(key.partitionKey());
+            return true;
+        }
+    }
+
+    private Object readPayload(StreamKey key, JsonParser parser) throws IOException {
+        if (!key.allMarket()) {
+            return readers.get(key.type()).read(parser);
+        }
+        MarketBatch batch = new MarketBatch(key.type());
+        batch.read(parser, elementDecoders.get(key.type()), elementReaders.get(key.type()), symbolFilter);
+        return batch;
+    }
+
+    /**
+     * data 객체 하나를 DTO 로 변환 (파서는 data 의 START_OBJECT 에 위치)
+     */
+    @FunctionalInterface
+    private interface PayloadReader {
+        Object read(JsonParser parser) throws IOException;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.binancewebsocket.stream;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * 구독 심볼 집합 (전체 시장 스트림의 원소를 거르는 용도).
+ * <p>
+ * - {@code !ticker@arr} 등은 모든 심볼을 한 프레임에 보내므로, 디코더가 원소마다 심볼을 조회해 구독 심볼만 남깁니다.
+ * - open addressing 테이블(String[] + 캐시된 hash)이며, 조회는 lock-free (심볼 갱신 시 새 테이블로 교체) 입니다.
+ *   DTO 의 심볼 문자열은 DecoderSupport 공유 테이블의 같은 인스턴스인 경우가 많아 대부분 == 비교로 끝납니다.
+ * - 심볼이 한 번도 등록되지 않았으면 모든 심볼을 통과시킵니다.
+ */
+@Component
+public class SymbolFilter {
+
+    private volatile Table table = null; // null 이면 전체 통과
+
+    /**
+     * 심볼 집합을 교체합니다. (대소문자 무관, 대문자로 저장)
+     */
+    public void update(Collection<String> symbols) {
+        int capacity = Integer.highestOneBit(Math.max(4, symbols.size() * 4) - 1) << 1; // 부하율 0.25 이하
+        String[] keys = new String[capacity];
+        int[] hashes = new int[capacity];
+        int size = 0;
+        for (String raw : symbols) {
+            String symbol = raw.toUpperCase(Locale.ROOT);
+            int hash = symbol.hashCode();
+            int index = hash & (capacity - 1);
+            while (keys[index] != null && !keys[index].equals(symbol)) {
+                index = (index + 1) & (capacity - 1);
+            }
+            if (keys[index] == null) {
+                keys[index] = symbol;
+                hashes[index] = hash;
+                size++;
+            }
+        }
+        this.table = new Table(keys, hashes, size);
+    }
+
+    /**
+     * ✅ 구독 심볼이면 true (할당 없음)
+     */
+    public boolean contains(String symbol) {
+        Table current = this.table;
+        if (current == null) {
+            return true;
+        }
+        if (symbol == null) {
+            return false;
+        }
+        String[] keys = current.keys;
+        int mask = keys.length - 1;
+        int hash = symbol.hashCode();
+        for (int index = hash & mask; ; index = (index + 1) & mask) {
+            String key = keys[index];
+            if (key == null) {
+                return false;
+            }
+            if (key == symbol || (current.hashes[index] == hash && key.equals(symbol))) {
+                return true;
+            }
+        }
+    }
+
+    public int size() {
+        Table current = this.table;
+        return current == null ? 0 : current.size;
+    }
+
+    private record Table(String[] keys, int[] hashes, int size) {
+    }
+}
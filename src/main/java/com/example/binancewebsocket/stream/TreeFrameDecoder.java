@@ -0,0 +1,75 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * JsonNode 트리 기반 디코더 (기존 방식).
+ * 전체 트리를 만든 뒤 data 서브트리를 treeToValue 로 다시 바인딩합니다.
+ * StreamingFrameDecoder 와의 비교 측정용으로 유지합니다. (binance.ingest.decoder=tree)
+ */
+public class TreeFrameDecoder implements FrameDecoder {
+
+    private final Logger logger = LoggerFactory.getLogger(TreeFrameDecoder.class);
+
+    private final ObjectMapper objectMapper;
+    private final StreamKeyResolver streamKeyResolver;
+    private final SymbolFilter symbolFilter;
+
+    public TreeFrameDecoder(ObjectMapper objectMapper, StreamKeyResolver streamKeyResolver) {
+        this(objectMapper, streamKeyResolver, new SymbolFilter());
+    }
+
+    public TreeFrameDecoder(ObjectMapper objectMapper, StreamKeyResolver streamKeyResolver, SymbolFilter symbolFilter) {
+        this.objectMapper = objectMapper;
+        this.streamKeyResolver = streamKeyResolver;
+        this.symbolFilter = symbolFilter;
+    }
+
+    @Override
+    public boolean decode(String frame, IngestEvent event) throws IOException {
+        JsonNode root = objectMapper.readTree(frame);
+
+        // ✅ `stream` 필드 존재 여부 확인 후 처리
+        if (!root.has("stream")) {
+            logger.warn("⚠️ WebSocket 메시지에 'stream' 필드가 없음: {}", frame);
+            return false;
+        }
+
+        String stream = root.get("stream").asText();
+        JsonNode data = root.get("data");
+
+        // ✅ `data` 필드 존재 여부 확인
+        if (data == null) {
+            logger.warn("⚠️ WebSocket 메시지에 'data' 필드가 없음: {}", frame);
+            return false;
+        }
+
+        StreamKey key = streamKeyResolver.resolve(stream);
+        if (key == null) {
+            logger.warn("⚠️ 알 수 없는 데이터 수신: {}", stream);
+            return false;
+        }
+
+        event.setStreamKey(key);
+        if (key.allMarket()) {
+            // ✅ 전체 시장 스트림: 배열(또는 객체 하나)의 원소별로 변환 후 구독 심볼만 남김
+            MarketBatch batch = new MarketBatch(key.type());
+            for (JsonNode element : data.isArray() ? data : List.of(data)) {
+                batch.countReceived();
+                batch.offer(objectMapper.treeToValue(element, key.type().getPayloadType()), symbolFilter);
+            }
+            event.setPayload(batch);
+        } else {
+            event.setPayload(objectMapper.treeToValue(data, key.type().getPayloadType()));
+        }
+        event.setPartitionKey(key.partitionKey());
+        return true;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.binancewebsocket.trade;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinanceAggTradeDTO;
+import com.example.binancewebsocket.dto.BinanceTradeDTO;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestFilter;
+import com.example.binancewebsocket.stream.StreamKey;
+import com.example.binancewebsocket.stream.StreamType;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * parse 스테이지에서 {@code <symbol>@trade} 체결을 묶어 aggTrade 를 직접 만드는 필터. (@aggTrade 구독 대체)
+ * <p>
+ * - 연속된 trade id 이면서 가격 / 방향(m) / 체결 시간(T)이 같은 체결을 하나의 aggTrade 로 묶습니다.
+ *   (Binance 는 같은 테이커 주문의 같은 가격 체결을 묶으며, 같은 주문의 체결은 같은 ms / 연속 id 로 옵니다)
+ * - aggTradeId 는 Binance 의 값을 알 수 없으므로 firstTradeId 를 사용합니다. (심볼 안에서 유일하고 증가)
+ * - Binance 와 같이 INSURANCE_FUND / ADL 체결은 묶지 않습니다.
+ * - 묶음은 다음 체결이 조건을 벗어날 때 확정됩니다. 체결이 뜸한 심볼은 idleCloseMs 동안 다음 체결이 없으면
+ *   같은 파이프라인의 다음 이벤트에서 확정합니다. ⚠️ 종료 시 진행 중인 묶음은 저장되지 않습니다.
+ * - 확정된 aggTrade 는 새로 만든 객체로 {@link AggTradeSink} 에 넘깁니다. (보관 가능)
+ * - 검증 모드에서는 표본 심볼의 @aggTrade 를 함께 받아 {@link AggTradeVerifier} 로 비교하고, 표본 심볼의 결과는 싱크에 넘기지 않습니다.
+ * - 이벤트를 거르지 않으므로 항상 true 를 반환합니다. (trade / aggTrade 자체 저장은 그대로)
+ *   이중화 사용 시 {@link com.example.binancewebsocket.stream.ReplicaArbiter} 뒤, 캔들 집계 앞에 연결합니다.
+ */
+public final class AggTradeDeriver implements IngestFilter {
+
+    private static final int INITIAL_STREAMS = 256;
+
+    /**
+     * 확정된 aggTrade 를 받는 싱크 (구현: BinanceAggTradeDerivationService)
+     */
+    public interface AggTradeSink {
+        /**
+         * parse 스레드에서 호출되므로 즉시 반환해야 합니다.
+         *
+         * @param key 원본 trade 스트림
+         */
+        void onAggTrade(StreamKey key, BinanceAggTradeDTO aggTrade);
+    }
+
+    private final AggTradeSink sink;
+    private final AggTradeVerifier verifier; // 검증 모드가 아니면 null
+    private final long idleCloseNanos;
+
+    // --- 스트림별 진행 중인 묶음 (StreamKey.id 인덱스, parse 스레드 전용) ---
+    private StreamKey[] keys = new StreamKey[INITIAL_STREAMS]; // null 이면 진행 중인 묶음 없음
+    private long[] firstId = new long[INITIAL_STREAMS];
+    private long[] lastId = new long[INITIAL_STREAMS];
+    private long[] price = new long[INITIAL_STREAMS];
+    private long[] quantity = new long[INITIAL_STREAMS];
+    private long[] tradeTime = new long[INITIAL_STREAMS];
+    private long[] eventTime = new long[INITIAL_STREAMS];
+    private boolean[] buyerMaker = new boolean[INITIAL_STREAMS];
+    private long[] lastTradeId = new long[INITIAL_STREAMS]; // 중복 / 역순 판단 (묶음 확정 후에도 유지)
+    private long[] updatedAt = new long[INITIAL_STREAMS];   // 마지막 체결 수신 시각 (nanoTime)
+    private int maxId = -1;
+    private long nextSweepNanos;
+
+    // --- 통계 ---
+    private final AtomicLong trades = new AtomicLong();
+    private final AtomicLong aggTrades = new AtomicLong();
+    private final AtomicLong idleClosed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    /**
+     * @param verifier    검증 모드의 비교기 (사용하지 않으면 null)
+     * @param idleCloseMs 다음 체결 없이 묶음을 확정할 때까지의 시간
+     */
+    public AggTradeDeriver(AggTradeSink sink, AggTradeVerifier verifier, long idleCloseMs) {
+        this.sink = sink;
+        this.verifier = verifier;
+        this.idleCloseNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, idleCloseMs));
+    }
+
+    @Override
+    public boolean accept(IngestEvent event) {
+        StreamKey key = event.getStreamKey();
+        long now = event.getReceivedAtNanos();
+        if (now - nextSweepNanos >= 0) {
+            sweep(now);
+        }
+        if (key == null || key.id() < 0) {
+            return true;
+        }
+        if (key.type() == StreamType.AGG_TRADE) {
+            if (verifier != null) {
+                verifier.onLive(key.symbol(), (BinanceAggTradeDTO) event.getPayload());
+            }
+            return true;
+        }
+        if (key.type() != StreamType.TRADE) {
+            return true;
+        }
+
+        int id = key.id();
+        ensureCapacity(id);
+        BinanceTradeDTO trade = (BinanceTradeDTO) event.getPayload();
+        long tradeId = trade.getTradeId();
+        if (lastTradeId[id] != 0 && tradeId <= lastTradeId[id]) {
+            skipped.lazySet(skipped.get() + 1); // 중복 / 역순
+            return true;
+        }
+        lastTradeId[id] = tradeId;
+        trades.lazySet(trades.get() + 1);
+
+        String orderType = trade.getOrderType();
+        if ("INSURANCE_FUND".equals(orderType) || "ADL".equals(orderType)) {
+            close(id); // aggTrade 에 포함되지 않는 체결
+            skipped.lazySet(skipped.get() + 1);
+            return true;
+        }
+        boolean maker = Boolean.TRUE.equals(trade.getBuyerMaker());
+        if (keys[id] != null && tradeId == lastId[id] + 1 && trade.getTradeTime() == tradeTime[id]
+                && maker == buyerMaker[id] && FixedDecimal.compare(trade.getPrice(), price[id]) == 0) {
+            lastId[id] = tradeId;
+            quantity[id] = FixedDecimal.add(quantity[id], trade.getQuantity());
+            eventTime[id] = trade.getEventTime();
+            updatedAt[id] = now;
+            return true;
+        }
+        close(id);
+        keys[id] = key;
+        firstId[id] = tradeId;
+        lastId[id] = tradeId;
+        price[id] = trade.getPrice();
+        quantity[id] = trade.getQuantity();
+        tradeTime[id] = trade.getTradeTime();
+        eventTime[id] = trade.getEventTime();
+        buyerMaker[id] = maker;
+        updatedAt[id] = now;
+        return true;
+    }
+
+    /**
+     * idleCloseMs 동안 체결이 없던 묶음을 확정합니다.
+     */
+    private void sweep(long now) {
+        nextSweepNanos = now + idleCloseNanos / 2;
+        for (int id = 0; id <= maxId; id++) {
+            if (keys[id] != null && now - updatedAt[id] >= idleCloseNanos) {
+                close(id);
+                idleClosed.lazySet(idleClosed.get() + 1);
+            }
+        }
+    }
+
+    /**
+     * 진행 중인 묶음을 aggTrade 로 확정합니다.
+     */
+    private void close(int id) {
+        StreamKey key = keys[id];
+        if (key == null) {
+            return;
+        }
+        keys[id] = null;
+        BinanceAggTradeDTO aggTrade = new BinanceAggTradeDTO();
+        aggTrade.setEventType("aggTrade");
+        aggTrade.setEventTime(eventTime[id]);
+        aggTrade.setSymbol(key.symbol());
+        aggTrade.setAggTradeId(firstId[id]); // 실제 aggTrade 번호가 아니므로 binance_agg_trade_derived 에만 저장
+        aggTrade.setPrice(price[id]);
+        aggTrade.setQuantity(quantity[id]);
+        aggTrade.setFirstTradeId(firstId[id]);
+        aggTrade.setLastTradeId(lastId[id]);
+        aggTrade.setTradeTime(tradeTime[id]);
+        aggTrade.setBuyerMaker(buyerMaker[id]);
+        aggTrades.lazySet(aggTrades.get() + 1);
+        if (verifier != null && verifier.isSampled(key.symbol())) {
+            verifier.onDerived(aggTrade); // 표본 심볼은 @aggTrade 를 저장하므로 비교만
+        } else {
+            sink.onAggTrade(key, aggTrade);
+        }
+    }
+
+    private void ensureCapacity(int id) {
+        maxId = Math.max(maxId, id);
+        if (id < keys.length) {
+            return;
+        }
+        int capacity = Math.max(keys.length * 2, id + 1);
+        keys = Arrays.copyOf(keys, capacity);
+        firstId = Arrays.copyOf(firstId, capacity);
+        lastId = Arrays.copyOf(lastId, capacity);
+        price = Arrays.copyOf(price, capacity);
+        quantity = Arrays.copyOf(quantity, capacity);
+        tradeTime = Arrays.copyOf(tradeTime, capacity);
+        eventTime = Arrays.copyOf(eventTime, capacity);
+        buyerMaker = Arrays.copyOf(buyerMaker, capacity);
+        lastTradeId = Arrays.copyOf(lastTradeId, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+    }
+
+    public long getTrades() {
+        return trades.get();
+    }
+
+    public long getAggTrades() {
+        return aggTrades.get();
+    }
+
+    public long getIdleClosed() {
+        return idleClosed.get();
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public AggTradeVerifier getVerifier() {
+        return verifier;
+    }
+}
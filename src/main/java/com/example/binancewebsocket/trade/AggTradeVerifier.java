@@ -0,0 +1,147 @@
+package com.example.binancewebsocket.trade;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinanceAggTradeDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 검증 모드에서 @trade 로 만든 aggTrade 와 실제 @aggTrade 표본을 비교합니다.
+ * <p>
+ * - 같은 심볼의 두 스트림은 같은 파이프라인에 있으므로 parse 스레드 하나에서만 호출됩니다. (파이프라인마다 하나)
+ * - firstTradeId 로 짝을 지어 lastTradeId / 가격 / 수량 / 체결 시간 / 방향을 비교합니다.
+ *   먼저 도착한 쪽은 짝이 올 때까지 보관하며, 심볼당 maxPending 개를 넘으면 오래된 것부터 짝 없음으로 버립니다.
+ * - 불일치는 처음 몇 건만 로그로 남기고 이후에는 지표로만 집계합니다.
+ */
+public final class AggTradeVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggTradeVerifier.class);
+    private static final int MAX_LOGGED_MISMATCHES = 20;
+
+    // --- 비교 값 배열의 인덱스 ---
+    private static final int FIRST_ID = 0;
+    private static final int LAST_ID = 1;
+    private static final int PRICE = 2;
+    private static final int QUANTITY = 3;
+    private static final int TIME = 4;
+    private static final int MAKER = 5;
+
+    private final Set<String> symbols;
+    private final int maxPending;
+    private final Map<String, Sample> samples = new HashMap<>();
+
+    // --- 통계 ---
+    private final AtomicLong matched = new AtomicLong();
+    private final AtomicLong mismatched = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+
+    /**
+     * @param symbols    비교할 표본 심볼 (대문자, @aggTrade 도 구독하는 심볼)
+     * @param maxPending 심볼별로 짝을 기다릴 aggTrade 수
+     */
+    public AggTradeVerifier(Set<String> symbols, int maxPending) {
+        this.symbols = Set.copyOf(symbols);
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    public boolean isSampled(String symbol) {
+        return symbols.contains(symbol);
+    }
+
+    /**
+     * 실제 @aggTrade 수신 (payload 는 재사용될 수 있으므로 값만 복사)
+     */
+    public void onLive(String symbol, BinanceAggTradeDTO live) {
+        if (!isSampled(symbol)) {
+            return;
+        }
+        Sample sample = sample(symbol);
+        long[] values = valuesOf(live);
+        long[] derived = sample.derived.remove(live.getFirstTradeId());
+        if (derived != null) {
+            compare(symbol, values, derived);
+        } else {
+            sample.live.put(live.getFirstTradeId(), values);
+        }
+    }
+
+    /**
+     * @trade 로 만든 aggTrade
+     */
+    public void onDerived(BinanceAggTradeDTO derived) {
+        Sample sample = sample(derived.getSymbol());
+        long[] values = valuesOf(derived);
+        long[] live = sample.live.remove(derived.getFirstTradeId());
+        if (live != null) {
+            compare(derived.getSymbol(), live, values);
+        } else {
+            sample.derived.put(derived.getFirstTradeId(), values);
+        }
+    }
+
+    private void compare(String symbol, long[] live, long[] derived) {
+        boolean same = live[LAST_ID] == derived[LAST_ID]
+                && FixedDecimal.compare(live[PRICE], derived[PRICE]) == 0
+                && FixedDecimal.compare(live[QUANTITY], derived[QUANTITY]) == 0
+                && live[TIME] == derived[TIME]
+                && live[MAKER] == derived[MAKER];
+        if (same) {
+            matched.lazySet(matched.get() + 1);
+            return;
+        }
+        long count = mismatched.get() + 1;
+        mismatched.lazySet(count);
+        if (count <= MAX_LOGGED_MISMATCHES) {
+            logger.warn("⚠️ [{}] aggTrade 불일치 (first={}): 실제 last={} p={} q={} T={} m={} / 생성 last={} p={} q={} T={} m={}",
+                    symbol, live[FIRST_ID],
+                    live[LAST_ID], FixedDecimal.toString(live[PRICE]), FixedDecimal.toString(live[QUANTITY]), live[TIME], live[MAKER] == 1,
+                    derived[LAST_ID], FixedDecimal.toString(derived[PRICE]), FixedDecimal.toString(derived[QUANTITY]), derived[TIME], derived[MAKER] == 1);
+        }
+    }
+
+    private Sample sample(String symbol) {
+        return samples.computeIfAbsent(symbol, s -> new Sample());
+    }
+
+    private static long[] valuesOf(BinanceAggTradeDTO aggTrade) {
+        return new long[]{aggTrade.getFirstTradeId(), aggTrade.getLastTradeId(), aggTrade.getPrice(), aggTrade.getQuantity(),
+                aggTrade.getTradeTime(), Boolean.TRUE.equals(aggTrade.getBuyerMaker()) ? 1 : 0};
+    }
+
+    public long getMatched() {
+        return matched.get();
+    }
+
+    public long getMismatched() {
+        return mismatched.get();
+    }
+
+    public long getUnmatched() {
+        return unmatched.get();
+    }
+
+    /**
+     * 심볼 하나의 짝을 기다리는 aggTrade (firstTradeId → 값, 도착 순서)
+     */
+    private final class Sample {
+        private final Map<Long, long[]> live = new Pending();
+        private final Map<Long, long[]> derived = new Pending();
+    }
+
+    private final class Pending extends LinkedHashMap<Long, long[]> {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+            if (size() > maxPending) {
+                unmatched.lazySet(unmatched.get() + 1);
+                return true;
+            }
+            return false;
+        }
+    }
+}
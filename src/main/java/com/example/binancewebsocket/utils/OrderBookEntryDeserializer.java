@@ -1,32 +1,67 @@
 package com.example.binancewebsocket.utils;
 
 
+import com.example.binancewebsocket.codec.DecoderSupport;
 import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 
 public class OrderBookEntryDeserializer extends JsonDeserializer<List<BinancePartialBookDepthDTO.OrderBookEntry>> {
     @Override
     public List<BinancePartialBookDepthDTO.OrderBookEntry> deserialize(JsonParser jsonParser, DeserializationContext ctxt)
             throws IOException, JsonProcessingException {
-        JsonNode node = jsonParser.getCodec().readTree(jsonParser);
-        List<BinancePartialBookDepthDTO.OrderBookEntry> orderBookEntries = new ArrayList<>();
+        return read(jsonParser);
+    }
+
+    /**
+     * ✅ [["price","qty"], ...] 배열을 토큰 단위로 읽습니다. (JsonNode 트리 생성 없음)
+     * 생성된 디코더도 이 메서드를 직접 호출합니다. 2개 값이 아닌 항목은 건너뜁니다.
+     * 가격 / 수량은 FixedDecimal packed long 으로 읽습니다.
+     */
+    public static List<BinancePartialBookDepthDTO.OrderBookEntry> read(JsonParser jsonParser) throws IOException {
+        return readInto(jsonParser, null);
+    }
 
-        if (node.isArray()) {
-            for (JsonNode entry : node) {
-                if (entry.isArray() && entry.size() == 2) {
-                    BigDecimal price = new BigDecimal(entry.get(0).asText());
-                    BigDecimal quantity = new BigDecimal(entry.get(1).asText());
-                    orderBookEntries.add(new BinancePartialBookDepthDTO.OrderBookEntry(price, quantity));
+    /**
+     * ✅ 기존 목록이 재사용 목록(OrderBookEntries)이면 비운 뒤 항목 객체를 재사용하여 채웁니다. (아니면 새 목록)
+     */
+    public static List<BinancePartialBookDepthDTO.OrderBookEntry> readInto(JsonParser jsonParser,
+                                                                         List<BinancePartialBookDepthDTO.OrderBookEntry> reuse)
+            throws IOException {
+        BinancePartialBookDepthDTO.OrderBookEntries orderBookEntries =
+                reuse instanceof BinancePartialBookDepthDTO.OrderBookEntries entries ? entries : new BinancePartialBookDepthDTO.OrderBookEntries();
+        orderBookEntries.clear();
+        if (jsonParser.currentToken() != JsonToken.START_ARRAY) {
+            jsonParser.skipChildren();
+            return orderBookEntries;
+        }
+
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            if (jsonParser.currentToken() != JsonToken.START_ARRAY) {
+                jsonParser.skipChildren();
+                continue;
+            }
+            long price = 0;
+            long quantity = 0;
+            int size = 0;
+            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                if (size == 0) {
+                    price = DecoderSupport.readFixedDecimal(jsonParser);
+                } else if (size == 1) {
+                    quantity = DecoderSupport.readFixedDecimal(jsonParser);
+                } else {
+                    jsonParser.skipChildren();
                 }
+                size++;
+            }
+            if (size == 2) {
+                orderBookEntries.add(price, quantity);
             }
         }
         return orderBookEntries;
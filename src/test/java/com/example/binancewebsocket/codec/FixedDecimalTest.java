@@ -0,0 +1,63 @@
+package com.example.binancewebsocket.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedDecimalTest {
+
+    @Test
+    void parsesWithNaturalScaleAndFormatsBack() {
+        for (String text : new String[]{"37000.10", "0.001", "-12.5", "0", "0.00000000", "123456789012.12345"}) {
+            long value = FixedDecimal.parse(text);
+            assertEquals(new BigDecimal(text), FixedDecimal.toBigDecimal(value));
+            assertEquals(text, FixedDecimal.toString(value));
+        }
+        long price = FixedDecimal.parse("37000.10");
+        assertEquals(3700010, FixedDecimal.mantissa(price));
+        assertEquals(2, FixedDecimal.scale(price));
+    }
+
+    @Test
+    void roundsDigitsBeyondMaxScale() {
+        assertEquals("0.000000000000001", FixedDecimal.toString(FixedDecimal.parse("0.0000000000000005")));
+        assertEquals("1.5", FixedDecimal.toString(FixedDecimal.parse("1.50000000000000000000")));
+        assertEquals("1.000000000000001", FixedDecimal.toString(FixedDecimal.parse("1.0000000000000006")));
+        assertThrows(NumberFormatException.class, () -> FixedDecimal.parse("1.2.3"));
+        assertThrows(ArithmeticException.class, () -> FixedDecimal.parse("9999999999999999999"));
+    }
+
+    @Test
+    void rescalesAndComparesAcrossScales() {
+        long a = FixedDecimal.parse("2000.1");
+        long b = FixedDecimal.parse("2000.10");
+        assertEquals(0, FixedDecimal.compare(a, b));
+        assertEquals(b, FixedDecimal.rescale(a, 2));
+        assertEquals("2000.2", FixedDecimal.toString(FixedDecimal.rescale(FixedDecimal.parse("2000.15"), 1)));
+        assertTrue(FixedDecimal.compare(FixedDecimal.parse("0.9"), FixedDecimal.parse("0.10")) > 0);
+        assertEquals(2000.1, FixedDecimal.toDouble(a), 1e-9);
+    }
+
+    @Test
+    void readsStringAndNumberTokensFromParserBuffer() throws Exception {
+        try (JsonParser p = new JsonFactory().createParser("[\"37000.10\", 0.005, 12, 1E-8, null, \"\"]")) {
+            p.nextToken();
+            p.nextToken();
+            assertEquals(FixedDecimal.parse("37000.10"), DecoderSupport.readFixedDecimal(p));
+            p.nextToken();
+            assertEquals(FixedDecimal.parse("0.005"), DecoderSupport.readFixedDecimal(p));
+            p.nextToken();
+            assertEquals(FixedDecimal.valueOf(12), DecoderSupport.readFixedDecimal(p));
+            p.nextToken();
+            assertEquals(0, new BigDecimal("1E-8").compareTo(FixedDecimal.toBigDecimal(DecoderSupport.readFixedDecimal(p))));
+            p.nextToken();
+            assertEquals(FixedDecimal.ZERO, DecoderSupport.readFixedDecimal(p));
+            p.nextToken();
+            assertEquals(FixedDecimal.ZERO, DecoderSupport.readFixedDecimal(p));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.binancewebsocket.codec;
+
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO.OrderBookEntry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookSnapshotCodecTest {
+
+    /**
+     * insertOrderBookEntries 가 만드는 행 (type, price, quantity) 을 DECIMAL 컬럼 값으로 표현
+     */
+    private static List<String> rows(List<OrderBookEntry> bids, List<OrderBookEntry> asks) {
+        List<String> rows = new ArrayList<>();
+        for (OrderBookEntry bid : bids) {
+            rows.add("BID " + decimal(bid.getPrice()) + " " + decimal(bid.getQuantity()));
+        }
+        for (OrderBookEntry ask : asks) {
+            rows.add("ASK " + decimal(ask.getPrice()) + " " + decimal(ask.getQuantity()));
+        }
+        return rows;
+    }
+
+    private static String decimal(long packed) {
+        BigDecimal value = new BigDecimal(FixedDecimal.toString(packed)).stripTrailingZeros();
+        return value.signum() == 0 ? "0" : value.toPlainString();
+    }
+
+    private static List<OrderBookEntry> ladder(String best, String tick, int levels, int direction, Random random) {
+        List<OrderBookEntry> entries = new ArrayList<>();
+        BigDecimal price = new BigDecimal(best);
+        for (int i = 0; i < levels; i++) {
+            String quantity = BigDecimal.valueOf(1 + random.nextInt(5_000), 3).toPlainString(); // 0.001 ~ 5.000
+            entries.add(new OrderBookEntry(FixedDecimal.parse(price.toPlainString()), FixedDecimal.parse(quantity)));
+            price = price.add(new BigDecimal(tick).multiply(BigDecimal.valueOf(direction * (1 + random.nextInt(3)))));
+        }
+        return entries;
+    }
+
+    private static void assertRoundTrip(List<OrderBookEntry> bids, List<OrderBookEntry> asks) {
+        byte[] blob = OrderBookSnapshotCodec.encode(bids, asks);
+        List<OrderBookEntry> decodedBids = new ArrayList<>();
+        List<OrderBookEntry> decodedAsks = new ArrayList<>();
+        OrderBookSnapshotCodec.decode(blob, decodedBids, decodedAsks);
+        assertEquals(rows(bids, asks), rows(decodedBids, decodedAsks));
+    }
+
+    @Test
+    void roundTripsRealisticSnapshotsLosslessly() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            int levels = 1 + random.nextInt(20);
+            assertRoundTrip(ladder("37000.10", "0.10", levels, -1, random),
+                    ladder("37000.20", "0.10", levels, 1, random));
+        }
+    }
+
+    @Test
+    void roundTripsIrregularInput() {
+        List<OrderBookEntry> bids = List.of(
+                new OrderBookEntry(FixedDecimal.parse("0.00001234"), FixedDecimal.parse("1500000")),
+                new OrderBookEntry(FixedDecimal.parse("0.0000124"), FixedDecimal.parse("0")),      // 역순 + 다른 scale
+                new OrderBookEntry(FixedDecimal.parse("-1.5"), FixedDecimal.parse("-2.25")));     // 음수
+        List<OrderBookEntry> asks = List.of(
+                new OrderBookEntry(FixedDecimal.parse("98765432.1"), FixedDecimal.parse("0.001")));
+        assertRoundTrip(bids, asks);
+        assertRoundTrip(List.of(), asks);
+        assertRoundTrip(List.of(), List.of());
+    }
+
+    @Test
+    void isAnOrderOfMagnitudeSmallerThanRows() {
+        Random random = new Random(7);
+        List<OrderBookEntry> bids = ladder("37000.10", "0.10", 10, -1, random);
+        List<OrderBookEntry> asks = ladder("37000.20", "0.10", 10, 1, random);
+        byte[] blob = OrderBookSnapshotCodec.encode(bids, asks);
+
+        // 기존 형식: 단계마다 transaction_time(8) + type(3) + price / quantity DECIMAL(≈ 9 + 9) + InnoDB 행 헤더 / 트랜잭션 정보(18)
+        // 새 형식 : 스냅샷마다 BLOB + 같은 행 오버헤드 1회
+        int rowOverhead = 18;
+        int rowBytes = 20 * (8 + 3 + 9 + 9 + rowOverhead);
+        int blobBytes = blob.length + rowOverhead;
+        double ratio = (double) rowBytes / blobBytes;
+        assertTrue(ratio >= 10.0, "blob " + blob.length + " bytes, rows ≈ " + rowBytes + " bytes, " + ratio + "x");
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        assertThrows(IllegalArgumentException.class,
+                () -> OrderBookSnapshotCodec.decode(new byte[]{9, 0, 0, 0, 0, 0}, new ArrayList<>(), new ArrayList<>()));
+    }
+
+    @Test
+    void rejectsTruncatedOrCorruptBlobs() {
+        Random random = new Random(3);
+        byte[] blob = OrderBookSnapshotCodec.encode(ladder("37000.10", "0.10", 5, -1, random),
+                ladder("37000.20", "0.10", 5, 1, random));
+        for (int length = 0; length < blob.length; length++) {
+            byte[] truncated = Arrays.copyOf(blob, length);
+            assertThrows(IllegalArgumentException.class,
+                    () -> OrderBookSnapshotCodec.decode(truncated, new ArrayList<>(), new ArrayList<>()));
+        }
+        byte[] trailing = Arrays.copyOf(blob, blob.length + 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> OrderBookSnapshotCodec.decode(trailing, new ArrayList<>(), new ArrayList<>()));
+        byte[] badScale = blob.clone();
+        badScale[1] = 99;
+        assertThrows(IllegalArgumentException.class,
+                () -> OrderBookSnapshotCodec.decode(badScale, new ArrayList<>(), new ArrayList<>()));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.binancewebsocket.journal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestJournalTest {
+
+    private static final String TRADE = "{\"stream\":\"btcusdt@trade\",\"data\":{\"e\":\"trade\",\"t\":1}}";
+    private static final String AGG_TRADE = "{\"stream\":\"btcusdt@aggTrade\",\"data\":{\"e\":\"aggTrade\",\"a\":2}}";
+    private static final String TICKER = "{\"stream\":\"ethusdt@ticker\",\"data\":{\"e\":\"24hrTicker\",\"s\":\"이더\"}}"; // UTF-8 경로
+
+    private final List<String> frames = new ArrayList<>();
+    private final List<Integer> sources = new ArrayList<>();
+    private final List<Long> positions = new ArrayList<>();
+
+    @Test
+    void replaysOnlyRecordsAfterCommitOnReopen() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        IngestJournal journal = IngestJournal.open(dir, "futures-0", 1 << 16, false);
+        long first = journal.append(TRADE, 0);
+        long second = journal.append(AGG_TRADE, 1);
+        long third = journal.append(TICKER, 0);
+        journal.commit(first);
+        journal.close();
+
+        IngestJournal reopened = IngestJournal.open(dir, "futures-0", 1 << 16, false);
+        assertEquals(2L, reopened.replay(this::collect), "commit 이후 레코드만 재생");
+        assertEquals(List.of(AGG_TRADE, TICKER), frames);
+        assertEquals(List.of(1, 0), sources);
+        assertEquals(List.of(second, third), positions);
+        assertEquals(third, reopened.getWritePosition(), "마지막 레코드 뒤부터 이어서 기록");
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesCommittedOnes() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        IngestJournal journal = IngestJournal.open(dir, "futures-0", 128, false); // 세그먼트당 레코드 1~2개
+        long last = 0;
+        for (int i = 0; i < 6; i++) {
+            last = journal.append(TRADE, 0);
+        }
+        assertTrue(journal.getSegmentCount() > 1, "segments " + journal.getSegmentCount());
+
+        journal.commit(last);
+        assertEquals(1, journal.getSegmentCount(), "기록 중인 세그먼트만 남음");
+        journal.close();
+
+        IngestJournal reopened = IngestJournal.open(dir, "futures-0", 128, false);
+        assertEquals(0L, reopened.replay(this::collect));
+        assertEquals(last, reopened.getWritePosition());
+    }
+
+    @Test
+    void stopsAtCorruptRecordAndOverwritesTail() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        IngestJournal journal = IngestJournal.open(dir, "futures-0", 1 << 16, false);
+        long first = journal.append(TRADE, 0);
+        journal.append(AGG_TRADE, 0);
+        journal.close();
+
+        Path segment;
+        try (var files = Files.list(dir)) {
+            segment = files.filter(path -> path.toString().endsWith(".journal")).findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(first + IngestJournal.HEADER_SIZE + 5); // 두 번째 레코드 내용 손상
+            file.write('X');
+        }
+
+        IngestJournal recovered = IngestJournal.open(dir, "futures-0", 1 << 16, false);
+        assertEquals(first, recovered.getWritePosition(), "손상된 레코드 앞에서 끝남");
+        recovered.append(TICKER, 0);
+        recovered.close();
+
+        IngestJournal reopened = IngestJournal.open(dir, "futures-0", 1 << 16, false);
+        reopened.replay(this::collect);
+        assertEquals(List.of(TRADE, TICKER), frames);
+    }
+
+    private void collect(String frame, int source, long position) {
+        frames.add(frame);
+        sources.add(source);
+        positions.add(position);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.binancewebsocket.kline;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinanceKlineDTO;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.stream.StreamKeyResolver;
+import com.example.binancewebsocket.stream.StreamingFrameDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KlineRollupEngineTest {
+
+    private static final long T0 = 1_700_000_100_000L; // 5분 경계 (UTC)
+
+    private final StreamingFrameDecoder decoder = new StreamingFrameDecoder(new ObjectMapper(), new StreamKeyResolver(), true);
+    private final List<BinanceKlineDTO> closed = new ArrayList<>();
+    private final KlineRollupEngine engine = new KlineRollupEngine(closed::add, List.of("1m", "5m"), 8, 2);
+    private long nextId = 1;
+    private int streamId;
+
+    private void trade(long time, String price, String quantity, int trades, boolean buyerMaker) throws Exception {
+        long id = nextId++;
+        String frame = "{\"stream\":\"btcusdt@aggTrade\",\"data\":{\"e\":\"aggTrade\",\"E\":" + time + ",\"s\":\"BTCUSDT\","
+                + "\"a\":" + id + ",\"p\":\"" + price + "\",\"q\":\"" + quantity + "\",\"f\":" + (id * 10)
+                + ",\"l\":" + (id * 10 + trades - 1) + ",\"T\":" + time + ",\"m\":" + buyerMaker + "}}";
+        IngestEvent event = new IngestEvent();
+        assertTrue(decoder.decode(frame, event));
+        streamId = event.getStreamKey().id();
+        assertTrue(engine.accept(event)); // aggTrade 저장은 그대로
+    }
+
+    /**
+     * 직전 구간에 체결 하나 (구간 중간부터 시작한 첫 캔들은 partial 이라 넘기지 않음)
+     */
+    private void warmUp() throws Exception {
+        trade(T0 - 1_000, "1.0", "1", 1, false);
+    }
+
+    private static void assertDecimal(String expected, long actual) {
+        assertEquals(0, FixedDecimal.compare(FixedDecimal.parse(expected), actual),
+                expected + " != " + FixedDecimal.toString(actual));
+    }
+
+    @Test
+    void buildsOhlcvTradeCountAndTakerBuyVolumeAndClosesOnBoundary() throws Exception {
+        warmUp();
+        trade(T0 + 1_000, "100.0", "1.5", 3, false);  // 테이커 매수
+        trade(T0 + 20_000, "101.5", "0.25", 1, true);
+        trade(T0 + 40_000, "99.5", "2", 2, false);   // 테이커 매수
+        trade(T0 + 59_999, "100.2", "0.75", 1, true);
+        assertTrue(closed.isEmpty()); // 첫 캔들(1m / 5m)은 partial 이라 넘기지 않음
+        assertEquals(2, engine.getPartialBars());
+
+        trade(T0 + 60_000, "100.4", "1", 1, true); // 다음 1분 → 첫 1분 캔들 종료
+        assertEquals(1, closed.size());
+        BinanceKlineDTO bar = closed.get(0);
+        assertEquals("BTCUSDT", bar.getSymbol());
+        assertEquals("1m", bar.getKline().getInterval());
+        assertEquals(T0, bar.getOpenTime());
+        assertEquals(T0 + 59_999, bar.getCloseTime());
+        assertDecimal("100.0", bar.getOpenPrice());
+        assertDecimal("101.5", bar.getHighPrice());
+        assertDecimal("99.5", bar.getLowPrice());
+        assertDecimal("100.2", bar.getClosePrice());
+        assertDecimal("4.5", bar.getVolume());
+        assertDecimal("3.5", bar.getTakerBuyVolume());
+        assertEquals(7, bar.getTradeCount());
+        assertTrue(bar.getIsKlineClosed());
+
+        BarRing ring = engine.ring(streamId);
+        int fiveMinutes = engine.timeframeOf("5m");
+        assertEquals(2, ring.size(fiveMinutes)); // 5분 캔들은 아직 진행 중
+        assertFalse(ring.isPartial(fiveMinutes));
+        assertDecimal("5.5", ring.get(fiveMinutes, 0, BarRing.VOLUME));
+        assertEquals(8, ring.get(fiveMinutes, 0, BarRing.TRADE_COUNT));
+    }
+
+    @Test
+    void fiveMinuteBarEqualsRollupOfOneMinuteBars() throws Exception {
+        String[] prices = {"50.10", "50.35", "49.80", "50.00", "50.55", "50.20", "49.95", "50.40", "50.05", "50.30"};
+        warmUp();
+        for (int i = 0; i < prices.length; i++) {
+            trade(T0 + i * 30_000L + 500, prices[i], "0." + (i + 1), i % 3 + 1, i % 2 == 0);
+        }
+        trade(T0 + 300_000, "50.00", "1", 1, false); // 다음 5분 → 1분 캔들 5개 + 5분 캔들 1개 종료
+
+        List<BinanceKlineDTO> minutes = closed.stream().filter(b -> "1m".equals(b.getKline().getInterval())).toList();
+        List<BinanceKlineDTO> five = closed.stream().filter(b -> "5m".equals(b.getKline().getInterval())).toList();
+        assertEquals(5, minutes.size());
+        assertEquals(1, five.size());
+
+        long volume = FixedDecimal.ZERO;
+        long takerBuy = FixedDecimal.ZERO;
+        long trades = 0;
+        long high = minutes.get(0).getHighPrice();
+        long low = minutes.get(0).getLowPrice();
+        for (BinanceKlineDTO minute : minutes) {
+            volume = FixedDecimal.add(volume, minute.getVolume());
+            takerBuy = FixedDecimal.add(takerBuy, minute.getTakerBuyVolume());
+            trades += minute.getTradeCount();
+            high = FixedDecimal.compare(minute.getHighPrice(), high) > 0 ? minute.getHighPrice() : high;
+            low = FixedDecimal.compare(minute.getLowPrice(), low) < 0 ? minute.getLowPrice() : low;
+        }
+        BinanceKlineDTO bar = five.get(0);
+        assertEquals(T0, bar.getOpenTime());
+        assertEquals(minutes.get(0).getOpenPrice(), bar.getOpenPrice());
+        assertEquals(minutes.get(4).getClosePrice(), bar.getClosePrice());
+        assertEquals(0, FixedDecimal.compare(high, bar.getHighPrice()));
+        assertEquals(0, FixedDecimal.compare(low, bar.getLowPrice()));
+        assertEquals(0, FixedDecimal.compare(volume, bar.getVolume()));
+        assertEquals(0, FixedDecimal.compare(takerBuy, bar.getTakerBuyVolume()));
+        assertEquals(trades, bar.getTradeCount());
+    }
+
+    @Test
+    void fillsQuietMinutesWithFlatBarsUpToLimitAndIgnoresOutOfOrderTrades() throws Exception {
+        warmUp();
+        trade(T0 + 1_000, "10.0", "1", 1, false);
+        trade(T0 + 5 * 60_000 + 1_000, "11.0", "1", 1, false); // 4분 동안 체결 없음 → 빈 캔들 2개만 (max-gap-bars 2)
+
+        List<BinanceKlineDTO> minutes = closed.stream().filter(b -> "1m".equals(b.getKline().getInterval())).toList();
+        assertEquals(3, minutes.size());
+        assertEquals(T0 + 60_000, minutes.get(1).getOpenTime());
+        assertDecimal("10.0", minutes.get(1).getOpenPrice());
+        assertDecimal("10.0", minutes.get(2).getClosePrice());
+        assertEquals(0, minutes.get(2).getTradeCount());
+        assertTrue(FixedDecimal.isZero(minutes.get(2).getVolume()));
+        assertEquals(2, engine.getEmptyBars());
+        assertEquals(2, engine.getSkippedBars());
+
+        int size = closed.size();
+        nextId = 1; // 재연결 직후 같은 aggTradeId 재수신
+        trade(T0 + 5 * 60_000 + 2_000, "99.0", "5", 1, false);
+        assertEquals(1, engine.getOutOfOrder());
+        assertEquals(size, closed.size());
+        assertDecimal("11.0", engine.ring(streamId).get(engine.timeframeOf("1m"), 0, BarRing.HIGH));
+    }
+
+    @Test
+    void skipsGapAndPartialBarsWhenAggTradeIdJumps() throws Exception {
+        warmUp();
+        trade(T0 + 1_000, "10.0", "1", 1, false);
+        trade(T0 + 2_000, "10.5", "1", 1, false);
+        nextId += 100; // 재연결 동안 체결 100건 누락
+        trade(T0 + 4 * 60_000 + 1_000, "12.0", "1", 1, false);
+
+        int oneMinute = engine.timeframeOf("1m");
+        BarRing ring = engine.ring(streamId);
+        assertTrue(closed.isEmpty()); // 끊기기 전 1분 캔들도 마지막 체결 이후를 놓쳤을 수 있음
+        assertEquals(0, engine.getEmptyBars());
+        assertEquals(3, engine.getSkippedBars()); // 빈 캔들로 채우지 않음
+        assertTrue(ring.isPartial(oneMinute));
+        assertTrue(ring.isPartial(engine.timeframeOf("5m")));
+
+        trade(T0 + 5 * 60_000, "12.5", "1", 1, false); // 번호가 이어지면 다음 캔들부터 다시 저장
+        assertTrue(closed.isEmpty());
+        trade(T0 + 6 * 60_000, "13.0", "1", 1, false);
+        assertEquals(1, closed.size());
+        assertEquals(T0 + 5 * 60_000, closed.get(0).getOpenTime());
+        assertFalse(ring.isPartial(oneMinute));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.binancewebsocket.orderbook;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO;
+import com.example.binancewebsocket.dto.BinancePartialBookDepthDTO.OrderBookEntry;
+import com.example.binancewebsocket.stream.StreamType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalOrderBookTest {
+
+    private final LocalOrderBook book = new LocalOrderBook("BTCUSDT", 2, 100);
+
+    private static long d(String value) {
+        return FixedDecimal.parse(value);
+    }
+
+    /**
+     * levels: "price:qty" 쌍, 매수 / 매도는 '|' 로 구분
+     */
+    private static BinancePartialBookDepthDTO diff(long first, long last, long previous, String levels) {
+        BinancePartialBookDepthDTO depth = new BinancePartialBookDepthDTO();
+        depth.setEventTime(last);
+        depth.setFirstUpdateId(first);
+        depth.setFinalUpdateId(last);
+        depth.setPreviousUpdateId(previous);
+        String[] sides = levels.split("\\|", -1);
+        depth.setBids(entries(sides[0]));
+        depth.setAsks(entries(sides.length > 1 ? sides[1] : ""));
+        return depth;
+    }
+
+    private static List<OrderBookEntry> entries(String side) {
+        List<OrderBookEntry> entries = new ArrayList<>();
+        for (String level : side.split(",")) {
+            if (!level.isBlank()) {
+                String[] pair = level.split(":");
+                entries.add(new OrderBookEntry(d(pair[0]), d(pair[1])));
+            }
+        }
+        return entries;
+    }
+
+    private static DepthSnapshot snapshot(long lastUpdateId) {
+        return new DepthSnapshot(lastUpdateId,
+                new long[]{d("100.0"), d("99.9")}, new long[]{d("1"), d("2")},
+                new long[]{d("100.1"), d("100.2")}, new long[]{d("3"), d("4")});
+    }
+
+    @Test
+    void bridgesBufferedEventsOntoSnapshot() {
+        assertEquals(LocalOrderBook.Result.BUFFERED, book.apply(diff(90, 95, 89, "100.0:5|")));   // u < L → 버림
+        assertEquals(LocalOrderBook.Result.BUFFERED, book.apply(diff(96, 105, 95, "99.9:0|")));   // U <= L <= u
+        assertTrue(book.needsSnapshot());
+        assertTrue(book.markSnapshotRequested());
+        assertFalse(book.markSnapshotRequested());
+
+        book.offerSnapshot(snapshot(100));
+        assertEquals(LocalOrderBook.Result.APPLIED, book.apply(diff(106, 110, 105, "|100.1:7")));
+        assertTrue(book.isLive());
+        assertEquals(110, book.getLastUpdateId());
+        assertEquals(d("1"), book.quantityAt(true, d("100.0"))); // 95 이하 이벤트는 적용되지 않음
+        assertEquals(0, book.quantityAt(true, d("99.9")));       // 수량 0 → 삭제
+        assertEquals(d("7"), book.quantityAt(false, d("100.1")));
+        assertEquals(LocalOrderBook.Result.IGNORED, book.apply(diff(106, 110, 105, "|100.1:8")));
+    }
+
+    @Test
+    void brokenChainTriggersResync() {
+        book.offerSnapshot(snapshot(100));
+        assertEquals(LocalOrderBook.Result.APPLIED, book.apply(diff(99, 101, 98, "|")));
+        assertEquals(LocalOrderBook.Result.RESYNC, book.apply(diff(105, 106, 104, "|"))); // pu != 101
+        assertFalse(book.isLive());
+        assertEquals(0, book.bidLevels());
+        assertTrue(book.needsSnapshot());
+        assertEquals(1, book.getResyncs());
+    }
+
+    @Test
+    void staleSnapshotIsRequestedAgain() {
+        book.apply(diff(120, 125, 119, "|"));
+        book.offerSnapshot(snapshot(100)); // U(120) > L(100)
+        assertEquals(LocalOrderBook.Result.BUFFERED, book.apply(diff(126, 130, 125, "|")));
+        assertTrue(book.needsSnapshot());
+        assertEquals(1, book.getStaleSnapshots());
+
+        book.offerSnapshot(snapshot(127));
+        assertEquals(LocalOrderBook.Result.APPLIED, book.apply(diff(131, 132, 130, "|")));
+        assertEquals(132, book.getLastUpdateId());
+    }
+
+    @Test
+    void copiesLevelsBestFirst() {
+        book.offerSnapshot(snapshot(100));
+        book.apply(diff(100, 101, 99, "99.95:1,99.8:1|100.15:1,100.05:2"));
+
+        long[] prices = new long[10];
+        long[] quantities = new long[10];
+        assertEquals(4, book.copyBids(10, prices, quantities));
+        assertEquals(0, FixedDecimal.compare(d("100.0"), prices[0]));
+        assertEquals(0, FixedDecimal.compare(d("99.95"), prices[1]));
+        assertEquals(0, FixedDecimal.compare(d("99.9"), prices[2]));
+        assertEquals(0, FixedDecimal.compare(d("99.8"), prices[3]));
+
+        assertEquals(2, book.copyAsks(2, prices, quantities));
+        assertEquals(0, FixedDecimal.compare(d("100.05"), prices[0]));
+        assertEquals(d("2"), quantities[0]);
+        assertEquals(0, FixedDecimal.compare(d("100.1"), prices[1]));
+        assertEquals(0, FixedDecimal.compare(d("100.0"), book.bestBid()));
+        assertEquals(0, FixedDecimal.compare(d("100.05"), book.bestAsk()));
+    }
+
+    @Test
+    void diffDepthStreamNameResolves() {
+        assertEquals(StreamType.DIFF_DEPTH, StreamType.fromStreamName("depth@100ms"));
+        assertEquals(StreamType.DIFF_DEPTH, StreamType.fromStreamName("depth"));
+        assertEquals(StreamType.PARTIAL_DEPTH, StreamType.fromStreamName("depth20@100ms"));
+    }
+}
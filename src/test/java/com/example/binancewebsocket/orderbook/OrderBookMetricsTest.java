@@ -0,0 +1,68 @@
+package com.example.binancewebsocket.orderbook;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.stream.StreamKeyResolver;
+import com.example.binancewebsocket.stream.StreamingFrameDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookMetricsTest {
+
+    private final StreamingFrameDecoder decoder = new StreamingFrameDecoder(new ObjectMapper(), new StreamKeyResolver(), true);
+    private final OrderBookMetrics row = new OrderBookMetrics("BTCUSDT");
+    private final List<Long> sampled = new ArrayList<>();
+    private final OrderBookMetricsCalculator calculator = new OrderBookMetricsCalculator(new OrderBookMetricsCalculator.SampleSink() {
+        @Override
+        public OrderBookMetrics row(String symbol) {
+            return row;
+        }
+
+        @Override
+        public void sample(OrderBookMetrics metrics) {
+            sampled.add(metrics.getEventTime());
+        }
+    }, 2, 10, 1000);
+
+    private void feed(long time) throws Exception {
+        String frame = "{\"stream\":\"btcusdt@depth10@100ms\",\"data\":{\"e\":\"depthUpdate\",\"E\":" + time + ",\"T\":" + time
+                + ",\"s\":\"BTCUSDT\",\"U\":1,\"u\":2,\"pu\":0,"
+                + "\"b\":[[\"100.00\",\"3\"],[\"99.95\",\"1\"],[\"99.80\",\"5\"]],"
+                + "\"a\":[[\"100.02\",\"1\"],[\"100.05\",\"1\"],[\"100.30\",\"7\"]]}}";
+        IngestEvent event = new IngestEvent();
+        assertTrue(decoder.decode(frame, event));
+        assertTrue(calculator.accept(event));
+    }
+
+    @Test
+    void computesSpreadMicropriceImbalanceAndBandDepth() throws Exception {
+        feed(1_000);
+        OrderBookMetrics copy = new OrderBookMetrics(null);
+        row.copyTo(copy);
+
+        assertEquals("BTCUSDT", copy.getSymbol());
+        assertEquals(0, FixedDecimal.compare(FixedDecimal.parse("100.00"), copy.getBestBid()));
+        assertEquals(0, FixedDecimal.compare(FixedDecimal.parse("100.02"), copy.getBestAsk()));
+        assertEquals(0.02 / 100.01 * 10_000, copy.getSpreadBps(), 1e-9);
+        assertEquals((100.02 * 3 + 100.00 * 1) / 4, copy.getMicroprice(), 1e-9);
+        assertEquals((4.0 - 2.0) / 6.0, copy.getImbalance(), 1e-12);  // 상위 2 단계
+        assertEquals(4.0, copy.getBidDepth(), 1e-12);                   // 99.91 이상
+        assertEquals(2.0, copy.getAskDepth(), 1e-12);                   // 100.11 이하
+    }
+
+    @Test
+    void samplesOncePerInterval() throws Exception {
+        feed(1_000);
+        feed(1_100);
+        feed(1_999);
+        feed(2_050);
+        feed(4_500);
+        assertEquals(List.of(1_000L, 2_050L, 4_500L), sampled);
+        assertEquals(5, row.getUpdates());
+    }
+}
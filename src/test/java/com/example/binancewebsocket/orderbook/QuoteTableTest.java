@@ -0,0 +1,104 @@
+package com.example.binancewebsocket.orderbook;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.stream.StreamKeyResolver;
+import com.example.binancewebsocket.stream.StreamType;
+import com.example.binancewebsocket.stream.StreamingFrameDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteTableTest {
+
+    @Test
+    void readersNeverSeeTornQuotes() throws Exception {
+        QuoteTable table = new QuoteTable(4);
+        int slot = table.slotOf("BTCUSDT");
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong torn = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                QuoteTable.Quote quote = new QuoteTable.Quote();
+                long count = 0;
+                while (running.get()) {
+                    if (table.read(slot, quote)) {
+                        long u = quote.updateId;
+                        // 기록 시 모든 필드를 updateId 에서 만들었으므로 하나라도 다르면 섞인 것
+                        if (quote.eventTime != u * 2 || quote.transactionTime != u * 3 || quote.bidPrice != u + 1
+                                || quote.bidQuantity != u + 2 || quote.askPrice != u + 3 || quote.askQuantity != u + 4) {
+                            torn.incrementAndGet();
+                        }
+                        count++;
+                    }
+                }
+                reads.addAndGet(count);
+            });
+            readers[r].start();
+        }
+        for (long u = 1; u <= 2_000_000; u++) {
+            table.write(slot, u, u * 2, u * 3, u + 1, u + 2, u + 3, u + 4);
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(0, torn.get());
+        assertTrue(reads.get() > 0);
+        assertEquals(2_000_000, table.writes(slot));
+    }
+
+    @Test
+    void concurrentWritersKeepNewestUpdateWithoutTearing() throws Exception {
+        QuoteTable table = new QuoteTable(4);
+        int slot = table.slotOf("BTCUSDT");
+        // 심볼 이동 중처럼 두 parse 스레드가 같은 칸에 번갈아 쓰는 경우 (짝수 / 홀수 updateId)
+        Thread[] writers = new Thread[2];
+        for (int w = 0; w < writers.length; w++) {
+            long first = w + 1;
+            writers[w] = new Thread(() -> {
+                for (long u = first; u <= 1_000_000; u += 2) {
+                    table.write(slot, u, u * 2, u * 3, u + 1, u + 2, u + 3, u + 4);
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        QuoteTable.Quote quote = new QuoteTable.Quote();
+        assertTrue(table.read(slot, quote));
+        assertEquals(1_000_000, quote.updateId, "역순 기록은 버려져 가장 최근 값이 남음");
+        assertEquals(quote.updateId * 3, quote.transactionTime);
+        assertEquals(quote.updateId + 4, quote.askQuantity);
+        assertFalse(table.write(slot, 5, 10, 15, 6, 7, 8, 9));
+    }
+
+    @Test
+    void updaterWritesBookTickerAndSkipsPersist() throws Exception {
+        StreamingFrameDecoder decoder = new StreamingFrameDecoder(new ObjectMapper(), new StreamKeyResolver(), true);
+        QuoteTable table = new QuoteTable(4);
+        QuoteTableUpdater updater = new QuoteTableUpdater(table);
+
+        IngestEvent event = new IngestEvent();
+        assertTrue(decoder.decode("{\"stream\":\"btcusdt@bookTicker\",\"data\":{\"e\":\"bookTicker\",\"u\":400900217,"
+                + "\"E\":1568014460893,\"T\":1568014460891,\"s\":\"BTCUSDT\",\"b\":\"25.35190000\",\"B\":\"31.21000000\","
+                + "\"a\":\"25.36520000\",\"A\":\"40.66000000\"}}", event));
+        assertEquals(StreamType.BOOK_TICKER, event.getStreamKey().type());
+        assertFalse(updater.accept(event));
+
+        QuoteTable.Quote quote = new QuoteTable.Quote();
+        assertTrue(table.read(table.find("BTCUSDT"), quote));
+        assertEquals(400900217, quote.updateId);
+        assertEquals(0, FixedDecimal.compare(FixedDecimal.parse("25.3519"), quote.bidPrice));
+        assertEquals(0, FixedDecimal.compare(FixedDecimal.parse("40.66"), quote.askQuantity));
+        assertEquals(1, updater.getUpdates());
+    }
+}
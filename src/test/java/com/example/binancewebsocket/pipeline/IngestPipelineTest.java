@@ -0,0 +1,46 @@
+package com.example.binancewebsocket.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestPipelineTest {
+
+    @Test
+    void shutdownDrainsEveryPublishedEventToPersist() {
+        List<String> persisted = new CopyOnWriteArrayList<>();
+        IngestPipeline pipeline = new IngestPipeline("drain-test", 16, WaitStrategy.of("blocking"), 1, new IngestHandler() {
+            @Override
+            public void onParse(IngestEvent event) {
+                event.setPayload(event.getFrame());
+            }
+
+            @Override
+            public void onPersist(IngestEvent event) {
+                try {
+                    Thread.sleep(1); // 느린 저장 → 종료 시점에 링에 이벤트가 남아 있음
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                persisted.add((String) event.getPayload());
+            }
+        });
+        pipeline.start();
+        int published = 100;
+        for (int i = 0; i < published; i++) {
+            pipeline.publish("frame-" + i);
+        }
+        assertTrue(pipeline.getRingBuffer().getDepth() > 0, "종료 전 처리 대기 이벤트가 있어야 함");
+
+        pipeline.shutdown(10_000);
+
+        assertEquals(0L, pipeline.getRingBuffer().getDepth());
+        assertEquals(published, persisted.size());
+        for (int i = 0; i < published; i++) {
+            assertEquals("frame-" + i, persisted.get(i));
+        }
+    }
+}
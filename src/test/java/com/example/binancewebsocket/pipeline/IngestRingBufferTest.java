@@ -0,0 +1,93 @@
+package com.example.binancewebsocket.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestRingBufferTest {
+
+    @Test
+    void producerBlocksAtBufferSizeAheadOfSlowestConsumer() throws Exception {
+        IngestRingBuffer ringBuffer = new IngestRingBuffer(8, WaitStrategy.of("sleeping"));
+        Sequence fast = new Sequence();
+        Sequence slow = new Sequence();
+        ringBuffer.addGatingSequences(fast, slow);
+        for (int i = 0; i < 8; i++) {
+            ringBuffer.publish("f" + i, 0);
+        }
+        assertEquals(0L, ringBuffer.getProducerWaits(), "한 바퀴까지는 대기 없음");
+        assertEquals(0L, ringBuffer.getRemainingCapacity());
+
+        fast.set(7); // 빠른 소비자만 진행 → 여전히 가장 느린 소비자에 막힘
+        Thread producer = new Thread(() -> ringBuffer.publish("f8", 0));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive(), "가장 느린 소비자를 한 바퀴 앞지르면 대기");
+        assertEquals(1L, ringBuffer.getProducerWaits());
+        assertEquals(7L, ringBuffer.getCursor().get());
+
+        slow.set(0); // 슬롯 하나 비움
+        producer.join(5_000);
+        assertFalse(producer.isAlive());
+        assertEquals(8L, ringBuffer.getCursor().get());
+        assertEquals("f8", ringBuffer.get(8).getFrame());
+        assertEquals(1L, ringBuffer.getProducerWaits());
+    }
+
+    @Test
+    void multiProducerPublishesEveryFrameInPerProducerOrder() throws Exception {
+        int producers = 3;
+        int framesPerProducer = 20_000;
+        IngestRingBuffer ringBuffer = new IngestRingBuffer(64, WaitStrategy.of("yielding"), true);
+        Sequence consumed = new Sequence();
+        ringBuffer.addGatingSequences(consumed);
+
+        List<List<Integer>> received = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            received.add(new ArrayList<>());
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread consumer = new Thread(() -> {
+            long next = 0;
+            while (running.get() || next <= ringBuffer.getCursor().get()) {
+                long available = ringBuffer.getCursor().get();
+                for (; next <= available; next++) {
+                    IngestEvent event = ringBuffer.get(next);
+                    received.get(event.getSource()).add(Integer.parseInt(event.getFrame()));
+                }
+                consumed.set(available);
+                Thread.onSpinWait();
+            }
+        });
+        consumer.start();
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int source = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < framesPerProducer; i++) {
+                    ringBuffer.publish(Integer.toString(i), 0, source);
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        running.set(false);
+        consumer.join();
+
+        assertEquals((long) producers * framesPerProducer - 1, ringBuffer.getCursor().get(), "sequence 중복 / 누락 없음");
+        for (int p = 0; p < producers; p++) {
+            List<Integer> frames = received.get(p);
+            assertEquals(framesPerProducer, frames.size(), "producer " + p);
+            for (int i = 0; i < framesPerProducer; i++) {
+                assertEquals(i, frames.get(i).intValue(), "producer " + p + " 의 발행 순서 유지");
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestHandler;
+import com.example.binancewebsocket.pipeline.IngestPipeline;
+import com.example.binancewebsocket.pipeline.WaitStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinanceConnectionManagerTest {
+
+    private final List<String> persisted = new CopyOnWriteArrayList<>();
+    private final BinanceConnectionManager manager = new BinanceConnectionManager(null, null, null, null, null, null, null,
+            null, null, null, new SimpleMeterRegistry());
+    // 교체 중에도 발행하는 연결은 하나 (단일 생산자)
+    private final IngestPipeline pipeline = new IngestPipeline("rotation-test", 64, WaitStrategy.of("blocking"), 1,
+            new IngestHandler() {
+                @Override
+                public void onParse(IngestEvent event) {
+                    event.setPayload(event.getFrame());
+                }
+
+                @Override
+                public void onPersist(IngestEvent event) {
+                    persisted.add((String) event.getPayload());
+                }
+            }, 1, null);
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown(1_000);
+    }
+
+    @Test
+    void handsOverOnlyAfterReplacementReceivesFrames() throws Exception {
+        pipeline.start();
+        TestWebSocketClient previous = new TestWebSocketClient("shard-0", 0, pipeline);
+        TestWebSocketClient replacement = new TestWebSocketClient("shard-0", 0, pipeline);
+        replacement.holdPublishing();
+        previous.connect();
+        previous.onMessage("p1");
+        replacement.connect();
+
+        AtomicBoolean swapped = new AtomicBoolean();
+        CompletableFuture<Boolean> handOver = CompletableFuture.supplyAsync(
+                () -> manager.handOver(previous, replacement, 5_000, () -> swapped.compareAndSet(false, true)));
+        Thread.sleep(200);
+        assertFalse(handOver.isDone(), "새 연결이 데이터를 받기 전에는 교체하지 않음");
+        previous.onMessage("p2"); // 교체 전까지 이전 연결만 발행
+        replacement.onMessage("r1"); // 수신 확인용 (발행하지 않음)
+
+        assertTrue(handOver.get(5, TimeUnit.SECONDS));
+        assertTrue(swapped.get());
+        assertFalse(previous.isWebSocketOpen());
+        assertTrue(replacement.isWebSocketOpen());
+
+        previous.onMessage("p3"); // 닫힌 뒤 늦게 도착한 프레임은 발행하지 않음
+        replacement.onMessage("r2");
+        awaitPersisted(3);
+        assertEquals(List.of("p1", "p2", "r2"), persisted);
+        replacement.destroy();
+    }
+
+    @Test
+    void keepsPreviousConnectionWhenReplacementStaysSilentOrShardChanged() throws Exception {
+        pipeline.start();
+        TestWebSocketClient previous = new TestWebSocketClient("shard-0", 0, pipeline);
+        previous.connect();
+
+        TestWebSocketClient silent = new TestWebSocketClient("shard-0", 0, pipeline);
+        silent.holdPublishing();
+        silent.connect();
+        AtomicBoolean swapped = new AtomicBoolean();
+        assertFalse(manager.handOver(previous, silent, 300, () -> swapped.compareAndSet(false, true)));
+        assertFalse(swapped.get(), "데이터가 없으면 교체하지 않음");
+        assertFalse(silent.isWebSocketOpen());
+
+        TestWebSocketClient stale = new TestWebSocketClient("shard-0", 0, pipeline);
+        stale.holdPublishing();
+        stale.connect();
+        stale.onMessage("s1");
+        assertFalse(manager.handOver(previous, stale, 1_000, () -> false)); // 그 사이 구독 변경 / 샤드 종료
+        assertFalse(stale.isWebSocketOpen());
+
+        assertTrue(previous.isWebSocketOpen());
+        previous.onMessage("p1");
+        awaitPersisted(1);
+        assertEquals(List.of("p1"), persisted);
+        previous.destroy();
+    }
+
+    private void awaitPersisted(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (persisted.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.binancewebsocket.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinanceControlChannelTest {
+
+    private final List<String> sent = new ArrayList<>();
+    private boolean open = true;
+
+    @Test
+    void sendsOneMessagePerTickAndCompletesOnAck() {
+        BinanceControlChannel channel = new BinanceControlChannel("test", sent::add, () -> open, 5_000, 3);
+        CompletableFuture<Void> subscribe = channel.subscribe(List.of("btcusdt@trade", "btcusdt@aggTrade"));
+        CompletableFuture<Void> unsubscribe = channel.unsubscribe(List.of("ethusdt@trade"));
+
+        channel.tick();
+        assertEquals(1, sent.size()); // 속도 제한: tick 당 1개
+        assertEquals("{\"method\":\"SUBSCRIBE\",\"params\":[\"btcusdt@trade\",\"btcusdt@aggTrade\"],\"id\":1}", sent.get(0));
+
+        channel.tick();
+        assertEquals("{\"method\":\"UNSUBSCRIBE\",\"params\":[\"ethusdt@trade\"],\"id\":2}", sent.get(1));
+
+        assertTrue(BinanceControlChannel.isResponse("{\"result\":null,\"id\":2}"));
+        channel.onResponse("{\"result\":null,\"id\":2}");
+        channel.onResponse("{\"error\":{\"code\":2,\"msg\":\"Invalid request\"},\"id\":1}");
+
+        assertTrue(unsubscribe.isDone() && !unsubscribe.isCompletedExceptionally());
+        assertTrue(subscribe.isCompletedExceptionally());
+        assertEquals(0, channel.getPendingCount());
+    }
+
+    @Test
+    void resendsAfterTimeoutAndFailsAfterMaxAttempts() throws Exception {
+        BinanceControlChannel channel = new BinanceControlChannel("test", sent::add, () -> open, 1, 2);
+        CompletableFuture<Void> subscribe = channel.subscribe(List.of("btcusdt@trade"));
+
+        channel.tick();
+        Thread.sleep(5);
+        channel.tick(); // 시간 초과 → 재전송 (새 id)
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(1).endsWith("\"id\":2}"));
+
+        Thread.sleep(5);
+        channel.tick(); // 최대 시도 초과 → 실패
+        assertTrue(subscribe.isCompletedExceptionally());
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void requeuesInFlightRequestsAfterDisconnect() {
+        BinanceControlChannel channel = new BinanceControlChannel("test", sent::add, () -> open, 5_000, 3);
+        CompletableFuture<Void> subscribe = channel.subscribe(List.of("btcusdt@trade"));
+        channel.tick();
+
+        open = false;
+        channel.onDisconnected();
+        channel.tick();
+        assertEquals(1, sent.size()); // 연결이 끊긴 동안은 전송하지 않음
+
+        open = true;
+        channel.tick();
+        assertEquals(2, sent.size());
+        channel.onResponse("{\"result\":null,\"id\":2}");
+        assertTrue(subscribe.isDone() && !subscribe.isCompletedExceptionally());
+    }
+}
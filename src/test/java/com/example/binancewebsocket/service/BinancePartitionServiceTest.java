@@ -0,0 +1,63 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.dto.PartitionRangeDTO;
+import com.example.binancewebsocket.dto.TablePartitionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinancePartitionServiceTest {
+
+    private static final long DAY_MS = 86_400_000L;
+
+    @Test
+    void createsOnePartitionPerUtcDayBoundedByNextMidnight() {
+        List<PartitionRangeDTO> partitions = BinancePartitionService.dailyPartitions(
+                LocalDate.of(2025, 12, 31), LocalDate.of(2026, 1, 2));
+
+        assertEquals(List.of("p20251231", "p20260101", "p20260102"),
+                partitions.stream().map(PartitionRangeDTO::getName).toList());
+        long newYear = LocalDate.of(2026, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        assertEquals(List.of(newYear, newYear + DAY_MS, newYear + 2 * DAY_MS),
+                partitions.stream().map(PartitionRangeDTO::getLessThan).toList(), "상한 = 다음 날 00:00 UTC");
+    }
+
+    @Test
+    void expiresOnlyPartitionsEntirelyBeforeCutoff() {
+        long cutoff = 10 * DAY_MS;
+        List<TablePartitionDTO> partitions = List.of(
+                partition("p0109", cutoff - DAY_MS),
+                partition("p0110", cutoff),          // 모든 행이 cutoff 이전
+                partition("p0111", cutoff + DAY_MS), // cutoff 이후 행 포함
+                partition("p_future", "MAXVALUE"));
+
+        assertEquals(List.of("p0109", "p0110"), BinancePartitionService.expiredPartitions(partitions, cutoff));
+    }
+
+    @Test
+    void parsesTablePolicies() {
+        List<BinancePartitionService.TablePolicy> policies =
+                BinancePartitionService.parseTables("binance_trade=trade_time:30, binance_order_book_snapshots=transaction_time");
+
+        assertEquals(List.of(new BinancePartitionService.TablePolicy("binance_trade", "trade_time", 30),
+                new BinancePartitionService.TablePolicy("binance_order_book_snapshots", "transaction_time", 0)), policies);
+        assertThrows(IllegalArgumentException.class, () -> BinancePartitionService.parseTables("binance_trade; DROP=trade_time:1"));
+    }
+
+    private static TablePartitionDTO partition(String name, long lessThan) {
+        return partition(name, Long.toString(lessThan));
+    }
+
+    private static TablePartitionDTO partition(String name, String description) {
+        TablePartitionDTO partition = new TablePartitionDTO();
+        partition.setPartitionName(name);
+        partition.setPartitionMethod("RANGE");
+        partition.setPartitionExpression("`trade_time`");
+        partition.setPartitionDescription(description);
+        return partition;
+    }
+}
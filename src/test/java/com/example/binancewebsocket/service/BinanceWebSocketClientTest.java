@@ -0,0 +1,37 @@
+package com.example.binancewebsocket.service;
+
+import org.java_websocket.framing.CloseFrame;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinanceWebSocketClientTest {
+
+    @Test
+    void reconnectsWhenPongsStop() throws Exception {
+        AtomicInteger timeouts = new AtomicInteger();
+        TestWebSocketClient client = new TestWebSocketClient("liveness-test", 0, null);
+        try {
+            client.onWebsocketPong(null, null);
+            client.open = true;
+            client.configureLiveness(50, 400, timeouts::incrementAndGet);
+
+            Thread.sleep(800); // pong 이 오는 동안은 ping 만 보냄
+            assertTrue(client.pings.get() > 0, "pings " + client.pings.get());
+            assertEquals(0, timeouts.get(), "pong 응답 중에는 끊지 않음");
+            assertTrue(client.isWebSocketOpen());
+
+            client.answerPings = false;
+            // 타임아웃 → 소켓 즉시 종료 → onClose → 재연결 시퀀스 (첫 시도는 5초 후)
+            assertTrue(client.reconnected.await(15, TimeUnit.SECONDS), "재연결 시도 없음");
+            assertEquals(1, timeouts.get());
+            assertEquals(CloseFrame.ABNORMAL_CLOSE, client.closeCode, "close handshake 없이 종료");
+            assertTrue(client.isWebSocketOpen());
+        } finally {
+            client.destroy();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinanceTickerDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflatingBufferTest {
+
+    private final List<List<BinanceTickerDTO>> writes = new CopyOnWriteArrayList<>();
+
+    private ConflatingBuffer<BinanceTickerDTO> buffer(double changeBps) {
+        // 주기 flush 없음 (테스트에서 직접 flush)
+        return new ConflatingBuffer<>("ticker", 0, 500, BinanceTickerDTO::getSymbol, t -> {
+            BinanceTickerDTO copy = new BinanceTickerDTO();
+            copy.setSymbol(t.getSymbol());
+            copy.setEventTime(t.getEventTime());
+            copy.setLastPrice(t.getLastPrice());
+            return copy;
+        }, (written, latest) -> ConflatingBuffer.changeBps(written.getLastPrice(), latest.getLastPrice()) >= changeBps,
+                batch -> writes.add(new ArrayList<>(batch)));
+    }
+
+    private static BinanceTickerDTO ticker(BinanceTickerDTO reused, String symbol, long time, long priceMantissa) {
+        reused.setSymbol(symbol);
+        reused.setEventTime(time);
+        reused.setLastPrice(FixedDecimal.of(priceMantissa, 2));
+        return reused;
+    }
+
+    @Test
+    void keepsOnlyLatestValuePerSymbolAndWritesOneMultiRowInsertPerCycle() {
+        ConflatingBuffer<BinanceTickerDTO> buffer = buffer(50);
+        BinanceTickerDTO reused = new BinanceTickerDTO(); // 풀 모드처럼 같은 객체 재사용
+        int symbols = 20;
+        int seconds = 60;
+        for (int second = 1; second <= seconds; second++) {
+            for (int s = 0; s < symbols; s++) {
+                buffer.offer(ticker(reused, "SYM" + s, second * 1000L, 1_000_000 + second)); // 1틱씩 (50bps 미만)
+            }
+            if (second % 15 == 0) {
+                buffer.flush(); // 15초 간격
+            }
+        }
+        long events = (long) symbols * seconds;
+        assertEquals(events, buffer.getOffered());
+        assertEquals(4, writes.size());
+        assertEquals(4L, buffer.getWrites(), "간격마다 여러 행 INSERT 1회");
+        assertEquals(symbols * 4L, buffer.getRowsWritten(), "간격마다 심볼당 1행");
+
+        // 각 행은 해당 간격의 마지막 값 (재사용 객체의 이후 변경에 영향받지 않음)
+        List<BinanceTickerDTO> last = writes.get(3);
+        assertEquals(symbols, last.size());
+        for (BinanceTickerDTO row : last) {
+            assertEquals(60_000, row.getEventTime());
+            assertEquals(0, FixedDecimal.compare(FixedDecimal.of(1_000_060, 2), row.getLastPrice()));
+        }
+    }
+
+    @Test
+    void materialChangeFlushesBeforeInterval() throws Exception {
+        ConflatingBuffer<BinanceTickerDTO> buffer = buffer(50);
+        BinanceTickerDTO reused = new BinanceTickerDTO();
+        buffer.offer(ticker(reused, "BTCUSDT", 1000, 10_000_00));
+        buffer.flush();
+        assertEquals(1, writes.size());
+
+        buffer.offer(ticker(reused, "BTCUSDT", 2000, 10_001_00)); // 1bps → 대기
+        assertEquals(0, buffer.getForcedFlushes());
+        buffer.offer(ticker(reused, "BTCUSDT", 3000, 10_080_00)); // 80bps → 바로 저장
+        assertEquals(1, buffer.getForcedFlushes());
+        for (int i = 0; i < 200 && writes.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, writes.size());
+        assertEquals(3000, writes.get(1).get(0).getEventTime());
+        assertEquals(0, buffer.getPending());
+        buffer.shutdown();
+    }
+
+    @Test
+    void acknowledgesJournalMarkOnlyAfterNextFlushCompletes() {
+        ConflatingBuffer<BinanceTickerDTO> buffer = buffer(50);
+        buffer.offer(ticker(new BinanceTickerDTO(), "BTCUSDT", 1_000, 1_000_000));
+        long mark = buffer.mark();
+        assertFalse(buffer.acknowledged(mark), "표식 이전 값이 아직 저장되지 않음");
+
+        buffer.flush();
+        assertTrue(buffer.acknowledged(mark));
+        assertFalse(buffer.acknowledged(buffer.mark()), "다음 표식은 다음 flush 까지 기다림");
+    }
+}
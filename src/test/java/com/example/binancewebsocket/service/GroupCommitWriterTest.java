@@ -0,0 +1,130 @@
+package com.example.binancewebsocket.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTransactionRollbackException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitWriterTest {
+
+    private final List<List<Integer>> flushes = new CopyOnWriteArrayList<>();
+
+    @Test
+    void flushesFullBatchesAndDrainsRemainderOnShutdown() {
+        // 지연 한도가 길어 크기 기준으로만 저장되고, 나머지는 종료 시 저장
+        GroupCommitWriter<Integer> writer = new GroupCommitWriter<>("trade", 100, 60_000, 1000, 1000,
+                batch -> flushes.add(new ArrayList<>(batch)));
+        for (int i = 0; i < 250; i++) {
+            assertTrue(writer.offer(i));
+        }
+        writer.shutdown(5000);
+
+        assertEquals(250, writer.getRowsWritten());
+        assertTrue(flushes.stream().allMatch(batch -> batch.size() <= 100), "batch sizes " + flushes);
+        assertEquals(IntStream.range(0, 250).boxed().toList(), flushes.stream().flatMap(List::stream).toList()); // 순서 유지
+        assertFalse(writer.offer(250), "종료 후에는 받지 않음");
+    }
+
+    @Test
+    void flushesPartialBatchAfterMaxLatency() throws Exception {
+        CountDownLatch flushed = new CountDownLatch(1);
+        GroupCommitWriter<Integer> writer = new GroupCommitWriter<>("agg-trade", 1000, 50, 1000, 1000, batch -> {
+            flushes.add(new ArrayList<>(batch));
+            flushed.countDown();
+        });
+        writer.offer(1);
+        writer.offer(2);
+
+        assertTrue(flushed.await(5, TimeUnit.SECONDS), "지연 한도가 지나면 모인 만큼 저장");
+        assertEquals(List.of(1, 2), flushes.get(0));
+        writer.shutdown(5000);
+    }
+
+    @Test
+    void dropsWhenQueueIsFullAndCountsFailedBatches() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        GroupCommitWriter<Integer> writer = new GroupCommitWriter<>("ticker", 2, 0, 2, 0, batch -> {
+            try {
+                release.await(5, TimeUnit.SECONDS); // 저장이 막혀 대기열이 차는 상황
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("db down");
+        });
+        writer.offer(1);
+        writer.offer(2);
+        while (writer.getQueued() > 0) {
+            Thread.sleep(1); // flush 스레드가 첫 묶음을 가져감
+        }
+        assertTrue(writer.offer(3));
+        assertTrue(writer.offer(4));
+        assertFalse(writer.offer(5));
+        assertEquals(1, writer.getDropped());
+
+        release.countDown();
+        writer.shutdown(5000);
+        assertEquals(4, writer.getRowsFailed());
+        assertEquals(0, writer.getRowsWritten());
+    }
+
+    @Test
+    void retriesTransientErrorsAndFailsOnlyTheBadRow() {
+        AtomicInteger deadlocks = new AtomicInteger(2);
+        GroupCommitWriter<Integer> writer = new GroupCommitWriter<>("trade", 8, 60_000, 100, 1000, 3, 1, batch -> {
+            if (deadlocks.getAndDecrement() > 0) {
+                throw new IllegalStateException(new SQLTransactionRollbackException("Deadlock found")); // 드라이버 예외를 감싼 형태
+            }
+            if (batch.contains(5)) {
+                throw new IllegalArgumentException("Data too long"); // 한 행만 문제
+            }
+            flushes.add(new ArrayList<>(batch));
+        });
+        for (int i = 0; i < 8; i++) {
+            writer.offer(i);
+        }
+        writer.shutdown(5000);
+
+        assertEquals(2, writer.getRetries());
+        assertEquals(1, writer.getRowsFailed());
+        assertEquals(7, writer.getRowsWritten());
+        assertEquals(List.of(0, 1, 2, 3, 4, 6, 7), flushes.stream().flatMap(List::stream).toList()); // 순서 유지
+    }
+
+    @Test
+    void acknowledgesJournalMarkOnceQueuedRowsAreProcessed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        GroupCommitWriter<Integer> writer = new GroupCommitWriter<>("trade", 2, 0, 100, 1000, batch -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (batch.contains(2)) {
+                throw new IllegalArgumentException("bad row"); // 실패한 행도 처리로 봄 (commit 을 막지 않음)
+            }
+        });
+        writer.offer(1);
+        writer.offer(2);
+        writer.offer(3);
+        long mark = writer.mark();
+        assertEquals(3, mark);
+        assertFalse(writer.acknowledged(mark), "저장 전에는 확인하지 않음");
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!writer.acknowledged(mark) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(writer.acknowledged(mark));
+        assertEquals(1, writer.getRowsFailed());
+        writer.shutdown(5000);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinanceAggTradeDTO;
+import com.example.binancewebsocket.dto.BinanceTradeDTO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadDataInfileSinkTest {
+
+    @Test
+    void writesTradesAsCsvLinesInLoadDataColumnOrder() {
+        BinanceTradeDTO trade = new BinanceTradeDTO();
+        trade.setSymbol("BTCUSDT");
+        trade.setPrice(FixedDecimal.parse("37000.10"));
+        trade.setQuantity(FixedDecimal.parse("0.005"));
+        trade.setTradeTime(1_700_000_000_000L);
+        trade.setBuyerMaker(true);
+        BinanceTradeDTO unknownSide = new BinanceTradeDTO();
+        unknownSide.setSymbol("ETHUSDT");
+        unknownSide.setPrice(FixedDecimal.parse("2000"));
+        unknownSide.setQuantity(FixedDecimal.parse("1"));
+        unknownSide.setTradeTime(1_700_000_000_001L);
+
+        String csv = new String(LoadDataInfileSink.toCsv(List.of(trade, unknownSide), LoadDataInfileSink::appendTrade),
+                StandardCharsets.UTF_8);
+
+        assertEquals("BTCUSDT," + FixedDecimal.toString(trade.getPrice()) + ",0.005,1700000000000,1\n"
+                + "ETHUSDT,2000,1,1700000000001,\\N\n", csv);
+    }
+
+    @Test
+    void writesAggTradesAndAppliesDuplicatePolicy() {
+        BinanceAggTradeDTO aggTrade = new BinanceAggTradeDTO();
+        aggTrade.setSymbol("BTCUSDT");
+        aggTrade.setAggTradeId(5000);
+        aggTrade.setPrice(FixedDecimal.parse("100"));
+        aggTrade.setQuantity(FixedDecimal.parse("3"));
+        aggTrade.setFirstTradeId(10);
+        aggTrade.setLastTradeId(11);
+        aggTrade.setTradeTime(1_700_000_000_000L);
+        aggTrade.setBuyerMaker(false);
+
+        String csv = new String(LoadDataInfileSink.toCsv(List.of(aggTrade), LoadDataInfileSink::appendAggTrade),
+                StandardCharsets.UTF_8);
+        assertEquals("BTCUSDT,5000,100,3,10,11,1700000000000,0\n", csv);
+
+        String sql = LoadDataInfileSink.loadDataSql("binance_agg_trade", "IGNORE", "(symbol)");
+        assertTrue(sql.startsWith("LOAD DATA LOCAL INFILE 'stream' IGNORE INTO TABLE binance_agg_trade"), sql);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.binancewebsocket.service;
+
+import com.example.binancewebsocket.pipeline.IngestPipeline;
+
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 네트워크 없이 연결 상태만 흉내 내는 클라이언트 (연결 / ping / 강제 종료 / 재연결)
+ */
+class TestWebSocketClient extends BinanceWebSocketClient {
+
+    volatile boolean open;
+    volatile boolean answerPings = true; // false 이면 half-open (ping 은 나가지만 pong 이 오지 않음)
+    volatile int closeCode = -1;
+    final AtomicInteger pings = new AtomicInteger();
+    final CountDownLatch reconnected = new CountDownLatch(1);
+
+    TestWebSocketClient(String name, int replica, IngestPipeline pipeline) {
+        super(name, replica, URI.create("ws://localhost/stream"), pipeline, 5, 1_000);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void connect() {
+        open = true;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    @Override
+    public void sendPing() {
+        pings.incrementAndGet();
+        if (answerPings) {
+            onWebsocketPong(null, null);
+        }
+    }
+
+    @Override
+    public void closeConnection(int code, String message) {
+        closeCode = code;
+        open = false;
+        onClose(code, message, false); // 라이브러리와 같이 소켓을 닫은 뒤 onClose 호출
+    }
+
+    @Override
+    public boolean reconnectBlocking() {
+        answerPings = true;         // 새 연결은 정상
+        onWebsocketPong(null, null); // onOpen 의 수신 시각 초기화 대신
+        open = true;
+        reconnected.countDown();
+        return true;
+    }
+}
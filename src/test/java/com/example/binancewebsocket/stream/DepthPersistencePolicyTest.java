@@ -0,0 +1,73 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepthPersistencePolicyTest {
+
+    private final StreamKeyResolver resolver = new StreamKeyResolver();
+    private final StreamingFrameDecoder decoder = new StreamingFrameDecoder(new ObjectMapper(), resolver, true);
+
+    private static DepthPersistencePolicy policy(DepthPersistencePolicy.Mode mode) {
+        return new DepthPersistencePolicy(new DepthPersistencePolicy.Rule(mode, 1000, 50), Map.of());
+    }
+
+    private boolean feed(DepthPersistencePolicy policy, long time, String bids, String asks) throws Exception {
+        String frame = "{\"stream\":\"btcusdt@depth5@100ms\",\"data\":{\"e\":\"depthUpdate\",\"E\":" + time + ",\"T\":" + time
+                + ",\"s\":\"BTCUSDT\",\"U\":1,\"u\":" + time + ",\"pu\":0,\"b\":[" + bids + "],\"a\":[" + asks + "]}}";
+        IngestEvent event = new IngestEvent();
+        assertTrue(decoder.decode(frame, event));
+        return policy.accept(event);
+    }
+
+    @Test
+    void skipsUnchangedSnapshotsAndCountsRows() throws Exception {
+        DepthPersistencePolicy policy = policy(DepthPersistencePolicy.Mode.CHANGE);
+        assertTrue(feed(policy, 1, "[\"100.0\",\"1\"],[\"99.9\",\"2\"]", "[\"100.1\",\"3\"]"));
+        assertFalse(feed(policy, 2, "[\"100.0\",\"1\"],[\"99.9\",\"2\"]", "[\"100.1\",\"3\"]"));
+        assertTrue(feed(policy, 3, "[\"100.0\",\"1\"],[\"99.9\",\"2.5\"]", "[\"100.1\",\"3\"]"));
+
+        assertEquals(2, policy.getSnapshotsWritten());
+        assertEquals(1, policy.getSnapshotsSkipped());
+        assertEquals(8, policy.getRowsWritten());
+        assertEquals(4, policy.getRowsAvoided());
+    }
+
+    @Test
+    void topOfBookModeIgnoresDeeperLevels() throws Exception {
+        DepthPersistencePolicy policy = policy(DepthPersistencePolicy.Mode.TOP_OF_BOOK);
+        assertTrue(feed(policy, 1, "[\"100.0\",\"1\"],[\"99.9\",\"2\"]", "[\"100.1\",\"3\"]"));
+        assertFalse(feed(policy, 2, "[\"100.0\",\"1\"],[\"99.9\",\"9\"]", "[\"100.1\",\"3\"]"));
+        assertTrue(feed(policy, 3, "[\"100.0\",\"1\"],[\"99.9\",\"9\"]", "[\"100.1\",\"4\"]"));
+    }
+
+    @Test
+    void intervalModeSamplesByEventTime() throws Exception {
+        DepthPersistencePolicy policy = policy(DepthPersistencePolicy.Mode.INTERVAL);
+        assertTrue(feed(policy, 1_000, "[\"100.0\",\"1\"]", ""));
+        assertFalse(feed(policy, 1_500, "[\"100.0\",\"2\"]", ""));
+        assertTrue(feed(policy, 2_000, "[\"100.0\",\"3\"]", ""));
+    }
+
+    @Test
+    void depthModePersistsOnCumulativeMove() throws Exception {
+        DepthPersistencePolicy policy = policy(DepthPersistencePolicy.Mode.DEPTH_BPS); // 50bps
+        assertTrue(feed(policy, 1, "[\"100.0\",\"100\"],[\"99.9\",\"100\"]", "[\"100.1\",\"100\"]"));
+        assertFalse(feed(policy, 2, "[\"100.0\",\"100.5\"],[\"99.9\",\"100\"]", "[\"100.1\",\"100\"]")); // 25bps
+        assertTrue(feed(policy, 3, "[\"100.0\",\"100\"],[\"99.9\",\"100\"]", "[\"100.1\",\"101\"]"));   // 100bps
+    }
+
+    @Test
+    void symbolRulesOverrideDefault() throws Exception {
+        DepthPersistencePolicy policy = new DepthPersistencePolicy(
+                new DepthPersistencePolicy.Rule(DepthPersistencePolicy.Mode.CHANGE, 1000, 5),
+                Map.of("BTCUSDT", new DepthPersistencePolicy.Rule(DepthPersistencePolicy.Mode.ALL, 0, 0)));
+        assertTrue(feed(policy, 1, "[\"100.0\",\"1\"]", ""));
+        assertTrue(feed(policy, 2, "[\"100.0\",\"1\"]", ""));
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.pipeline.IngestHandler;
+import com.example.binancewebsocket.pipeline.IngestPipeline;
+import com.example.binancewebsocket.pipeline.WaitStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledFrameDecoderTest {
+
+    private static final String TRADE = "{\"stream\":\"btcusdt@trade\",\"data\":{\"e\":\"trade\",\"E\":1700000000001,\"T\":1700000000000,\"s\":\"BTCUSDT\",\"t\":4123456789,\"p\":\"37000.10\",\"q\":\"0.005\",\"X\":\"MARKET\",\"m\":true}}";
+    private static final String TRADE_PARTIAL = "{\"stream\":\"btcusdt@trade\",\"data\":{\"e\":\"trade\",\"E\":1700000000002,\"s\":\"BTCUSDT\",\"t\":4123456790,\"p\":\"37000.20\"}}";
+    private static final String AGG_TRADE = "{\"stream\":\"btcusdt@aggTrade\",\"data\":{\"e\":\"aggTrade\",\"E\":1700000000001,\"s\":\"BTCUSDT\",\"a\":5933014,\"p\":\"37000.10\",\"q\":\"0.010\",\"f\":100,\"l\":105,\"T\":1700000000000,\"m\":false}}";
+    private static final String KLINE = "{\"stream\":\"ethusdt@kline_5m\",\"data\":{\"e\":\"kline\",\"E\":1700000000001,\"s\":\"ETHUSDT\",\"k\":{\"t\":1699999800000,\"T\":1700000099999,\"s\":\"ETHUSDT\",\"i\":\"5m\",\"f\":1,\"L\":2,\"o\":\"2000.1\",\"c\":\"2001.2\",\"h\":\"2002.3\",\"l\":\"1999.9\",\"v\":\"123.456\",\"n\":42,\"x\":true,\"q\":\"1.0\",\"V\":\"2.0\",\"Q\":\"3.0\",\"B\":\"0\"}}}";
+    private static final String DEPTH = "{\"stream\":\"btcusdt@depth10@100ms\",\"data\":{\"e\":\"depthUpdate\",\"E\":1700000000001,\"T\":1700000000000,\"s\":\"BTCUSDT\",\"U\":10,\"u\":12,\"pu\":9,\"b\":[[\"37000.10\",\"1.5\"],[\"36999.90\",\"0.2\"]],\"a\":[[\"37000.20\",\"3\"]]}}";
+    private static final String DEPTH_SHALLOW = "{\"stream\":\"btcusdt@depth10@100ms\",\"data\":{\"e\":\"depthUpdate\",\"E\":1700000000002,\"T\":1700000000001,\"s\":\"BTCUSDT\",\"U\":13,\"u\":14,\"pu\":12,\"b\":[[\"37000.00\",\"2\"]],\"a\":[]}}";
+    private static final String LIQUIDATION = "{\"stream\":\"btcusdt@forceOrder\",\"data\":{\"e\":\"forceOrder\",\"E\":1700000000001,\"o\":{\"s\":\"BTCUSDT\",\"S\":\"SELL\",\"o\":\"LIMIT\",\"f\":\"IOC\",\"q\":\"0.014\",\"p\":\"9910\",\"ap\":\"9910\",\"X\":\"FILLED\",\"l\":\"0.014\",\"z\":\"0.014\",\"T\":1700000000000}}}";
+    private static final String REORDERED = "{\"data\":{\"e\":\"kline\",\"E\":1,\"s\":\"ETHUSDT\",\"k\":{\"t\":5,\"i\":\"5m\",\"o\":\"1.5\",\"x\":true}},\"stream\":\"ethusdt@kline_5m\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StreamKeyResolver resolver = new StreamKeyResolver();
+    private IngestPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown(1000);
+        }
+    }
+
+    @Test
+    void recycledPayloadsDecodeLikeFreshOnes() throws Exception {
+        List<String> frames = List.of(TRADE, DEPTH, KLINE, TRADE_PARTIAL, DEPTH_SHALLOW, LIQUIDATION, AGG_TRADE, REORDERED,
+                "{\"stream\":\"btcusdt@trade\"", "not json", "{\"result\":null,\"id\":1}");
+        StreamingFrameDecoder reference = new StreamingFrameDecoder(objectMapper, resolver, true);
+        PooledFrameDecoder pooled = new PooledFrameDecoder(objectMapper, resolver);
+
+        int rounds = 50;
+        List<String> expected = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            for (String frame : frames) {
+                IngestEvent event = new IngestEvent();
+                try {
+                    if (reference.decode(frame, event)) {
+                        expected.add(objectMapper.writeValueAsString(event.getPayload()));
+                    }
+                } catch (IOException e) {
+                    // 형식 오류 프레임은 양쪽 모두 버림
+                }
+            }
+        }
+
+        List<String> actual = Collections.synchronizedList(new ArrayList<>());
+        Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        pipeline = startPipeline(16, new IngestHandler() {
+            @Override
+            public void onParse(IngestEvent event) {
+                try {
+                    pooled.decode(event.getFrame(), event);
+                } catch (Exception e) {
+                    event.setPayload(null); // 형식 오류 프레임
+                }
+            }
+
+            @Override
+            public void onPersist(IngestEvent event) throws Exception {
+                actual.add(objectMapper.writeValueAsString(event.getPayload()));
+                synchronized (instances) {
+                    instances.add(event.getPayload());
+                }
+            }
+
+            @Override
+            public boolean reusesPayloads() {
+                return true;
+            }
+        });
+
+        for (int round = 0; round < rounds; round++) {
+            for (String frame : frames) {
+                pipeline.publish(frame);
+            }
+        }
+        awaitDrained(pipeline);
+
+        assertEquals(expected, actual);
+        // 400 개 payload 를 링(16) 근처 수의 인스턴스로 처리
+        assertTrue(instances.size() < 100, "payload 인스턴스 수: " + instances.size());
+    }
+
+    @Test
+    void steadyStateParseAllocatesNearlyNothing() throws Exception {
+        PooledFrameDecoder pooled = new PooledFrameDecoder(objectMapper, resolver);
+        AtomicLong persisted = new AtomicLong();
+        pipeline = startPipeline(1024, new IngestHandler() {
+            @Override
+            public void onParse(IngestEvent event) throws Exception {
+                pooled.decode(event.getFrame(), event);
+            }
+
+            @Override
+            public void onPersist(IngestEvent event) {
+                persisted.incrementAndGet();
+            }
+
+            @Override
+            public boolean reusesPayloads() {
+                return true;
+            }
+        });
+        String[] frames = {TRADE, AGG_TRADE, DEPTH, KLINE, LIQUIDATION, DEPTH_SHALLOW};
+        Thread parseThread = findThread("binance-ingest-pooled-test-parse");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        int warmup = 200_000;
+        int measured = 200_000;
+        publish(frames, warmup);
+        awaitDrained(pipeline);
+        long before = threads.getThreadAllocatedBytes(parseThread.getId());
+        publish(frames, measured);
+        awaitDrained(pipeline);
+        long after = threads.getThreadAllocatedBytes(parseThread.getId());
+
+        double bytesPerMessage = (after - before) / (double) measured;
+        assertEquals(warmup + measured, persisted.get());
+        assertTrue(bytesPerMessage < 1.0, "메시지당 할당 바이트: " + bytesPerMessage);
+    }
+
+    private IngestPipeline startPipeline(int ringSize, IngestHandler handler) {
+        IngestPipeline created = new IngestPipeline("pooled-test", ringSize, WaitStrategy.of("yielding"), 1, handler);
+        created.enablePayloadPool(ringSize); // 링 전체가 한 종류로 차도 버리는 payload 가 없도록
+        created.start();
+        return created;
+    }
+
+    private void publish(String[] frames, int count) {
+        for (int i = 0; i < count; i++) {
+            pipeline.publish(frames[i % frames.length]);
+        }
+    }
+
+    private static void awaitDrained(IngestPipeline pipeline) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (pipeline.getRingBuffer().getDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, pipeline.getRingBuffer().getDepth());
+    }
+
+    private static Thread findThread(String name) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
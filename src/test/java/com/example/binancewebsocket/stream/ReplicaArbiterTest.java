@@ -0,0 +1,46 @@
+package com.example.binancewebsocket.stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaArbiterTest {
+
+    @Test
+    void firstCopyWinsAndLaterCopiesAreDropped() {
+        ReplicaArbiter arbiter = new ReplicaArbiter(2);
+
+        assertTrue(arbiter.arbitrate(0, 100, 0, 0));  // r0 먼저 도착
+        assertFalse(arbiter.arbitrate(0, 100, 0, 1)); // r1 사본
+        assertTrue(arbiter.arbitrate(0, 101, 0, 1));  // r1 먼저 도착
+        assertFalse(arbiter.arbitrate(0, 101, 0, 0));
+        assertFalse(arbiter.arbitrate(0, 99, 0, 0));  // 이미 지나간 키
+
+        assertEquals(1, arbiter.getWins(0));
+        assertEquals(1, arbiter.getWins(1));
+        assertEquals(2, arbiter.getDuplicates(0));
+        assertEquals(0.5, arbiter.getWinRatio(0), 1e-9);
+    }
+
+    @Test
+    void klineUpdatesAreOrderedByEventTimeAndClosedCandleOnce() {
+        ReplicaArbiter arbiter = new ReplicaArbiter(2);
+        long openTime = 1_700_000_000_000L;
+
+        assertTrue(arbiter.arbitrate(5, openTime, openTime + 250, 0));
+        assertFalse(arbiter.arbitrate(5, openTime, openTime + 250, 1));
+        assertTrue(arbiter.arbitrate(5, openTime, openTime + 500, 1));
+        assertTrue(arbiter.arbitrate(5, openTime, Long.MAX_VALUE, 0));  // 종료 캔들
+        assertFalse(arbiter.arbitrate(5, openTime, Long.MAX_VALUE, 1)); // 종료 캔들 사본
+        assertTrue(arbiter.arbitrate(5, openTime + 300_000, openTime + 300_250, 1)); // 다음 캔들
+    }
+
+    @Test
+    void streamsAreTrackedIndependentlyBeyondInitialCapacity() {
+        ReplicaArbiter arbiter = new ReplicaArbiter(2);
+
+        assertTrue(arbiter.arbitrate(1000, 10, 0, 0));
+        assertTrue(arbiter.arbitrate(1001, 10, 0, 1));
+        assertFalse(arbiter.arbitrate(1000, 10, 0, 1));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceGapTrackerTest {
+
+    private final StreamKeyResolver resolver = new StreamKeyResolver();
+    private final StreamingFrameDecoder decoder = new StreamingFrameDecoder(new ObjectMapper(), resolver, true);
+    private final List<long[]> gaps = new ArrayList<>();
+    private final SequenceGapTracker tracker = new SequenceGapTracker((key, from, to) -> gaps.add(new long[]{from, to}));
+
+    private void feed(String frame) throws Exception {
+        IngestEvent event = new IngestEvent();
+        assertTrue(decoder.decode(frame, event));
+        assertTrue(tracker.accept(event));
+    }
+
+    private static String aggTrade(long id) {
+        return "{\"stream\":\"btcusdt@aggTrade\",\"data\":{\"e\":\"aggTrade\",\"E\":1,\"s\":\"BTCUSDT\",\"a\":" + id
+                + ",\"p\":\"1\",\"q\":\"1\",\"f\":1,\"l\":1,\"T\":1,\"m\":true}}";
+    }
+
+    private static String kline(long openTime, boolean closed) {
+        return "{\"stream\":\"btcusdt@kline_5m\",\"data\":{\"e\":\"kline\",\"E\":1,\"s\":\"BTCUSDT\",\"k\":{\"t\":" + openTime
+                + ",\"T\":" + (openTime + 299_999) + ",\"i\":\"5m\",\"o\":\"1\",\"c\":\"1\",\"h\":\"1\",\"l\":\"1\",\"v\":\"1\",\"n\":1,\"x\":"
+                + closed + "}}}";
+    }
+
+    @Test
+    void detectsAggTradeIdGapsAndIgnoresDuplicates() throws Exception {
+        feed(aggTrade(100));
+        feed(aggTrade(101));
+        feed(aggTrade(101)); // 중복
+        feed(aggTrade(105));
+
+        assertEquals(1, gaps.size());
+        assertArrayEquals(new long[]{102, 104}, gaps.get(0));
+        assertEquals(1, tracker.getGaps(StreamType.AGG_TRADE));
+        assertEquals(3, tracker.getMissing(StreamType.AGG_TRADE));
+    }
+
+    @Test
+    void detectsMissingClosedKlines() throws Exception {
+        long t0 = 1_700_000_100_000L - 1_700_000_100_000L % 300_000;
+        feed(kline(t0, false));
+        feed(kline(t0, true));
+        feed(kline(t0 + 300_000, false)); // 정상
+        feed(kline(t0 + 900_000, false)); // t0+300000, t0+600000 종료 캔들 누락
+
+        assertEquals(1, gaps.size());
+        assertArrayEquals(new long[]{t0 + 300_000, t0 + 600_000}, gaps.get(0));
+        assertEquals(2, tracker.getMissing(StreamType.KLINE));
+    }
+}
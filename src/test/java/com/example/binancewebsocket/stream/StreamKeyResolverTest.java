@@ -0,0 +1,35 @@
+package com.example.binancewebsocket.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamKeyResolverTest {
+
+    @Test
+    void registersBatchWithSequentialIdsAndKeepsExistingKeys() {
+        StreamKeyResolver resolver = new StreamKeyResolver();
+        List<String> streams = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) { // 초기 용량을 여러 번 넘는 묶음
+            streams.add("sym" + i + "usdt@trade");
+        }
+        streams.add("sym0usdt@trade"); // 묶음 안의 중복
+        resolver.register(streams);
+
+        assertEquals(3_000, resolver.size());
+        for (int i = 0; i < 3_000; i++) {
+            StreamKey key = resolver.resolve("sym" + i + "usdt@trade");
+            assertEquals(i, key.id(), streams.get(i));
+            assertEquals(StreamType.TRADE, key.type());
+        }
+
+        resolver.register(List.of("sym5usdt@trade", "btcusdt@aggTrade")); // 다시 등록해도 기존 id 유지
+        assertEquals(3_001, resolver.size());
+        assertEquals(5, resolver.resolve("sym5usdt@trade").id());
+        assertEquals(3_000, resolver.resolve("btcusdt@aggTrade").id());
+        assertEquals(3_001, resolver.resolve("ethusdt@aggTrade").id(), "미등록 스트림은 조회 시 등록");
+    }
+}
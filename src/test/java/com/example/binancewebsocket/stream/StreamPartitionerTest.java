@@ -0,0 +1,57 @@
+package com.example.binancewebsocket.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamPartitionerTest {
+
+    private static List<String> streamsFor(int symbols) {
+        List<String> streams = new ArrayList<>();
+        for (int i = 0; i < symbols; i++) {
+            String market = "sym" + i + "usdt";
+            streams.addAll(List.of(market + "@trade", market + "@aggTrade", market + "@markPrice", market + "@kline_5m",
+                    market + "@ticker", market + "@forceOrder", market + "@depth10@100ms"));
+        }
+        return streams;
+    }
+
+    @Test
+    void respectsStreamLimitAndKeepsSymbolsTogether() {
+        List<String> streams = streamsFor(300); // 2100 streams
+        List<StreamPartitioner.Partition> partitions = new StreamPartitioner(200, 1).partition(streams);
+
+        assertTrue(partitions.size() >= 11);
+        Set<String> seen = new HashSet<>();
+        for (StreamPartitioner.Partition partition : partitions) {
+            assertTrue(partition.streams().size() <= 200);
+            for (String stream : partition.streams()) {
+                assertTrue(seen.add(stream), "중복 배정: " + stream);
+                assertTrue(partition.symbols().contains(StreamKey.parse(stream).symbol()));
+            }
+        }
+        assertEquals(streams.size(), seen.size());
+    }
+
+    @Test
+    void balancesByExpectedRate() {
+        // 한 심볼만 depth@100ms + trade (무거움), 나머지는 가벼운 스트림만 구독
+        List<String> streams = new ArrayList<>(List.of("btcusdt@trade", "btcusdt@depth20@100ms"));
+        for (int i = 0; i < 40; i++) {
+            streams.add("sym" + i + "usdt@ticker");
+        }
+        List<StreamPartitioner.Partition> partitions = new StreamPartitioner(200, 2).partition(streams);
+
+        assertEquals(2, partitions.size());
+        StreamPartitioner.Partition heavy = partitions.stream().filter(p -> p.symbols().contains("BTCUSDT")).findFirst().orElseThrow();
+        StreamPartitioner.Partition light = partitions.get(1 - heavy.index());
+        // 무거운 심볼이 있는 샤드에는 가벼운 심볼이 적게 배정됨
+        assertTrue(heavy.symbols().size() < light.symbols().size());
+        assertEquals(heavy.expectedRate(), light.expectedRate(), 1.0);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.binancewebsocket.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamProfileTest {
+
+    @Test
+    void parsesTiersWithDepthLevelsAndSpeed() {
+        Map<String, StreamProfile> tiers = StreamProfile.parseTiers(
+                "Core=trade,aggTrade,markPrice,ticker,forceOrder,kline,depth20@100ms,depth,bookTicker; light=aggTrade,ticker,depth5@500ms;mid=ticker,depth10");
+
+        assertEquals(List.of("core", "light", "mid"), List.copyOf(tiers.keySet()));
+        StreamProfile core = tiers.get("core");
+        assertTrue(core.includes(StreamType.KLINE));
+        assertTrue(core.includes(StreamType.DIFF_DEPTH));
+        assertEquals("depth20@100ms", core.depthStream());
+
+        StreamProfile light = tiers.get("light");
+        assertFalse(light.includes(StreamType.TRADE));
+        assertFalse(light.includes(StreamType.DIFF_DEPTH));
+        assertEquals(5, light.depthLevels());
+        assertEquals(500, light.depthSpeedMs());
+        assertEquals("depth5@500ms", light.depthStream());
+
+        assertEquals("depth10", tiers.get("mid").depthStream()); // 250ms 는 기본 간격
+        assertEquals(StreamType.PARTIAL_DEPTH, StreamKey.parse("btcusdt@" + light.depthStream()).type());
+    }
+
+    @Test
+    void lightTierLowersExpectedRate() {
+        StreamProfile light = StreamProfile.parse("light", "aggTrade,ticker,depth5@500ms");
+        double full = StreamPartitioner.expectedRate(List.of("btcusdt@trade", "btcusdt@aggTrade", "btcusdt@ticker",
+                "btcusdt@" + StreamProfile.FULL.depthStream()));
+        double reduced = StreamPartitioner.expectedRate(List.of("dogeusdt@aggTrade", "dogeusdt@ticker",
+                "dogeusdt@" + light.depthStream()));
+        assertTrue(reduced < full / 2, reduced + " vs " + full);
+    }
+
+    @Test
+    void rejectsUnsupportedDepthAndUnknownStreams() {
+        assertThrows(IllegalArgumentException.class, () -> StreamProfile.parse("x", "depth15@100ms"));
+        assertThrows(IllegalArgumentException.class, () -> StreamProfile.parse("x", "depth10@200ms"));
+        assertThrows(IllegalArgumentException.class, () -> StreamProfile.parse("x", "depth5,depth10"));
+        assertThrows(IllegalArgumentException.class, () -> StreamProfile.parse("x", "kline_5m"));
+        assertThrows(IllegalArgumentException.class, () -> StreamProfile.parse("x", "candles"));
+        assertThrows(IllegalArgumentException.class, () -> StreamProfile.parseTiers("light"));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.binancewebsocket.stream;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.*;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingFrameDecoderTest {
+
+    private static final String TRADE = "{\"stream\":\"btcusdt@trade\",\"data\":{\"e\":\"trade\",\"E\":1700000000001,\"T\":1700000000000,\"s\":\"BTCUSDT\",\"t\":4123456789,\"p\":\"37000.10\",\"q\":\"0.005\",\"X\":\"MARKET\",\"m\":true}}";
+    private static final String KLINE = "{\"stream\":\"ethusdt@kline_5m\",\"data\":{\"e\":\"kline\",\"E\":1700000000001,\"s\":\"ETHUSDT\",\"k\":{\"t\":1699999800000,\"T\":1700000099999,\"s\":\"ETHUSDT\",\"i\":\"5m\",\"f\":1,\"L\":2,\"o\":\"2000.1\",\"c\":\"2001.2\",\"h\":\"2002.3\",\"l\":\"1999.9\",\"v\":\"123.456\",\"n\":42,\"x\":true,\"q\":\"1.0\",\"V\":\"2.0\",\"Q\":\"3.0\",\"B\":\"0\"}}}";
+    private static final String DEPTH = "{\"stream\":\"btcusdt@depth10@100ms\",\"data\":{\"e\":\"depthUpdate\",\"E\":1700000000001,\"T\":1700000000000,\"s\":\"BTCUSDT\",\"U\":10,\"u\":12,\"pu\":9,\"b\":[[\"37000.10\",\"1.5\"],[\"36999.90\",\"0.2\"]],\"a\":[[\"37000.20\",\"3\"]]}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StreamKeyResolver resolver = new StreamKeyResolver();
+    private final StreamingFrameDecoder streaming = new StreamingFrameDecoder(objectMapper, resolver);
+    private final StreamingFrameDecoder generated = new StreamingFrameDecoder(objectMapper, resolver, true);
+    private final TreeFrameDecoder tree = new TreeFrameDecoder(objectMapper, resolver);
+
+    @Test
+    void decodesTradeIntoDtoInOnePass() throws Exception {
+        resolver.register(List.of("btcusdt@trade"));
+        IngestEvent event = new IngestEvent();
+
+        assertTrue(streaming.decode(TRADE, event));
+
+        assertEquals(StreamType.TRADE, event.getStreamKey().type());
+        assertEquals("BTCUSDT", event.getStreamKey().symbol());
+        BinanceTradeDTO trade = (BinanceTradeDTO) event.getPayload();
+        assertEquals(4123456789L, trade.getTradeId());
+        assertEquals(FixedDecimal.of(3700010, 2), trade.getPrice());
+        assertEquals(Boolean.TRUE, trade.getBuyerMaker());
+    }
+
+    @Test
+    void matchesTreeDecoderForEveryStreamType() throws Exception {
+        for (String frame : List.of(TRADE, KLINE, DEPTH)) {
+            IngestEvent fromStreaming = new IngestEvent();
+            IngestEvent fromTree = new IngestEvent();
+            assertTrue(streaming.decode(frame, fromStreaming));
+            assertTrue(tree.decode(frame, fromTree));
+
+            assertEquals(fromTree.getStreamKey(), fromStreaming.getStreamKey());
+            assertEquals(objectMapper.writeValueAsString(fromTree.getPayload()),
+                    objectMapper.writeValueAsString(fromStreaming.getPayload()));
+        }
+    }
+
+    @Test
+    void generatedDecodersMatchTreeDecoder() throws Exception {
+        String liquidation = "{\"stream\":\"btcusdt@forceOrder\",\"data\":{\"e\":\"forceOrder\",\"E\":1700000000001,\"o\":{\"s\":\"BTCUSDT\",\"S\":\"SELL\",\"o\":\"LIMIT\",\"f\":\"IOC\",\"q\":\"0.014\",\"p\":\"9910\",\"ap\":\"9910\",\"X\":\"FILLED\",\"l\":\"0.014\",\"z\":\"0.014\",\"T\":1700000000000}}}";
+        String reordered = "{\"data\":{\"e\":\"kline\",\"E\":1,\"s\":\"ETHUSDT\",\"k\":{\"t\":5,\"i\":\"5m\",\"o\":\"1.5\",\"x\":true}},\"stream\":\"ethusdt@kline_5m\"}";
+        for (String frame : List.of(TRADE, KLINE, DEPTH, liquidation, reordered)) {
+            IngestEvent fromGenerated = new IngestEvent();
+            IngestEvent fromTree = new IngestEvent();
+            assertTrue(generated.decode(frame, fromGenerated));
+            assertTrue(tree.decode(frame, fromTree));
+
+            assertEquals(fromTree.getStreamKey(), fromGenerated.getStreamKey());
+            assertEquals(objectMapper.writeValueAsString(fromTree.getPayload()),
+                    objectMapper.writeValueAsString(fromGenerated.getPayload()));
+        }
+    }
+
+    @Test
+    void handlesDataBeforeStream() throws Exception {
+        String reordered = "{\"data\":{\"e\":\"kline\",\"E\":1,\"s\":\"ETHUSDT\",\"k\":{\"t\":5,\"i\":\"5m\",\"o\":\"1.5\",\"x\":true}},\"stream\":\"ethusdt@kline_5m\"}";
+        IngestEvent event = new IngestEvent();
+
+        assertTrue(streaming.decode(reordered, event));
+
+        assertEquals(StreamType.KLINE, event.getStreamKey().type());
+        assertEquals("5m", event.getStreamKey().interval());
+        BinanceKlineDTO kline = (BinanceKlineDTO) event.getPayload();
+        assertEquals(5L, kline.getOpenTime());
+        assertEquals("1.5", FixedDecimal.toString(kline.getOpenPrice()));
+        assertTrue(kline.getIsKlineClosed());
+    }
+
+    @Test
+    void rejectsUnknownOrIncompleteFrames() throws Exception {
+        assertFalse(streaming.decode("{\"stream\":\"btcusdt@unknown\",\"data\":{}}", new IngestEvent()));
+        assertFalse(streaming.decode("{\"stream\":\"btcusdt@trade\"}", new IngestEvent()));
+        assertFalse(streaming.decode("{\"result\":null,\"id\":1}", new IngestEvent()));
+    }
+
+    @Test
+    void allMarketArrayKeepsOnlySubscribedSymbols() throws Exception {
+        String frame = "{\"stream\":\"!ticker@arr\",\"data\":["
+                + "{\"e\":\"24hrTicker\",\"E\":1700000000003,\"s\":\"BTCUSDT\",\"c\":\"37000.10\"},"
+                + "{\"e\":\"24hrTicker\",\"E\":1700000000009,\"s\":\"XRPUSDT\",\"c\":\"0.61\"},"
+                + "{\"e\":\"24hrTicker\",\"E\":1700000000005,\"s\":\"ETHUSDT\",\"c\":\"2000.5\"}]}";
+        SymbolFilter filter = new SymbolFilter();
+        filter.update(List.of("btcusdt", "ethusdt"));
+        for (FrameDecoder decoder : List.of(new StreamingFrameDecoder(objectMapper, resolver, filter, false),
+                new StreamingFrameDecoder(objectMapper, resolver, filter, true),
+                new TreeFrameDecoder(objectMapper, resolver, filter))) {
+            IngestEvent event = new IngestEvent();
+            assertTrue(decoder.decode(frame, event));
+
+            assertTrue(event.getStreamKey().allMarket());
+            assertEquals(StreamType.TICKER, event.getStreamKey().type());
+            MarketBatch batch = (MarketBatch) event.getPayload();
+            assertEquals(3, batch.getReceived());
+            assertEquals(2, batch.size());
+            assertEquals("BTCUSDT", ((BinanceTickerDTO) batch.get(0)).getSymbol());
+            assertEquals("ETHUSDT", ((BinanceTickerDTO) batch.get(1)).getSymbol());
+            assertEquals(FixedDecimal.of(20005, 1), ((BinanceTickerDTO) batch.get(1)).getLastPrice());
+            assertEquals(1700000000005L, batch.getEventTime()); // 걸러진 원소는 제외
+        }
+    }
+
+    @Test
+    void allMarketForceOrderAcceptsSingleObject() throws Exception {
+        String frame = "{\"stream\":\"!forceOrder@arr\",\"data\":{\"e\":\"forceOrder\",\"E\":1700000000001,\"o\":{\"s\":\"BTCUSDT\",\"S\":\"SELL\",\"q\":\"0.014\",\"p\":\"9910\",\"T\":1700000000000}}}";
+        SymbolFilter filter = new SymbolFilter();
+        filter.update(List.of("BTCUSDT"));
+        IngestEvent event = new IngestEvent();
+
+        assertTrue(new StreamingFrameDecoder(objectMapper, resolver, filter, true).decode(frame, event));
+
+        MarketBatch batch = (MarketBatch) event.getPayload();
+        assertEquals(StreamType.FORCE_ORDER, batch.getType());
+        assertEquals(1, batch.size());
+        assertEquals("BTCUSDT", ((BinanceLiquidationOrderDTO) batch.get(0)).getLiquidation().getSymbol());
+
+        filter.update(List.of("ETHUSDT"));
+        assertTrue(new TreeFrameDecoder(objectMapper, resolver, filter).decode(frame, event));
+        assertEquals(0, ((MarketBatch) event.getPayload()).size());
+    }
+
+    @Test
+    void reusedEventMatchesTreeDecoderAcrossFrames() throws Exception {
+        // 같은 IngestEvent 를 계속 재사용해도 이전 프레임의 값이 남지 않아야 함 (링 버퍼 슬롯과 같은 사용 방식)
+        for (FrameDecoder decoder : List.of(streaming, generated)) {
+            IngestEvent reused = new IngestEvent();
+            for (String frame : List.of(DEPTH, TRADE, KLINE, DEPTH, KLINE, TRADE)) {
+                IngestEvent fromTree = new IngestEvent();
+                assertTrue(decoder.decode(frame, reused));
+                assertTrue(tree.decode(frame, fromTree));
+
+                assertEquals(fromTree.getStreamKey(), reused.getStreamKey());
+                assertEquals(objectMapper.writeValueAsString(fromTree.getPayload()),
+                        objectMapper.writeValueAsString(reused.getPayload()));
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.binancewebsocket.trade;
+
+import com.example.binancewebsocket.codec.FixedDecimal;
+import com.example.binancewebsocket.dto.BinanceAggTradeDTO;
+import com.example.binancewebsocket.pipeline.IngestEvent;
+import com.example.binancewebsocket.stream.StreamKeyResolver;
+import com.example.binancewebsocket.stream.StreamingFrameDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggTradeDeriverTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final StreamingFrameDecoder decoder = new StreamingFrameDecoder(new ObjectMapper(), new StreamKeyResolver(), true);
+    private final List<BinanceAggTradeDTO> derived = new ArrayList<>();
+
+    private void trade(AggTradeDeriver deriver, long id, long time, String price, String quantity, boolean buyerMaker, String type) throws Exception {
+        String frame = "{\"stream\":\"btcusdt@trade\",\"data\":{\"e\":\"trade\",\"E\":" + (time + 1) + ",\"T\":" + time
+                + ",\"s\":\"BTCUSDT\",\"t\":" + id + ",\"p\":\"" + price + "\",\"q\":\"" + quantity + "\",\"X\":\"" + type
+                + "\",\"m\":" + buyerMaker + "}}";
+        feed(deriver, frame);
+    }
+
+    private void aggTrade(AggTradeDeriver deriver, long aggId, long first, long last, long time, String price, String quantity, boolean buyerMaker) throws Exception {
+        String frame = "{\"stream\":\"btcusdt@aggTrade\",\"data\":{\"e\":\"aggTrade\",\"E\":" + (time + 1) + ",\"s\":\"BTCUSDT\",\"a\":" + aggId
+                + ",\"p\":\"" + price + "\",\"q\":\"" + quantity + "\",\"f\":" + first + ",\"l\":" + last + ",\"T\":" + time
+                + ",\"m\":" + buyerMaker + "}}";
+        feed(deriver, frame);
+    }
+
+    private void feed(AggTradeDeriver deriver, String frame) throws Exception {
+        IngestEvent event = new IngestEvent();
+        assertTrue(decoder.decode(frame, event));
+        assertTrue(deriver.accept(event)); // trade / aggTrade 자체 저장은 그대로
+    }
+
+    @Test
+    void groupsConsecutiveSamePriceSameSideSameTimeFills() throws Exception {
+        AggTradeDeriver deriver = new AggTradeDeriver((key, aggTrade) -> derived.add(aggTrade), null, 1000);
+        trade(deriver, 100, T0, "37000.1", "0.5", false, "MARKET");
+        trade(deriver, 101, T0, "37000.10", "0.25", false, "MARKET"); // 같은 가격 (scale 만 다름)
+        trade(deriver, 102, T0, "37000.2", "1", false, "MARKET");     // 가격 변경 → 새 묶음
+        trade(deriver, 103, T0, "37000.2", "1", true, "MARKET");      // 방향 변경
+        trade(deriver, 104, T0 + 1, "37000.2", "1", true, "MARKET");  // 시간 변경
+        trade(deriver, 106, T0 + 1, "37000.2", "1", true, "MARKET");  // id 공백
+        trade(deriver, 106, T0 + 1, "37000.2", "1", true, "MARKET");  // 중복 → 무시
+        trade(deriver, 107, T0 + 1, "37000.2", "2", true, "ADL");     // aggTrade 제외 종류 → 진행 중인 묶음 확정
+        trade(deriver, 108, T0 + 2, "37000.3", "1", true, "MARKET");  // 아직 진행 중
+
+        assertEquals(5, derived.size());
+        BinanceAggTradeDTO first = derived.get(0);
+        assertEquals("BTCUSDT", first.getSymbol());
+        assertEquals(100, first.getAggTradeId());
+        assertEquals(100, first.getFirstTradeId());
+        assertEquals(101, first.getLastTradeId());
+        assertEquals(0, FixedDecimal.compare(FixedDecimal.parse("0.75"), first.getQuantity()));
+        assertEquals(T0, first.getTradeTime());
+        assertFalse(first.getBuyerMaker());
+        assertEquals(List.of(102L, 103L, 104L, 106L), derived.stream().skip(1).map(BinanceAggTradeDTO::getFirstTradeId).toList());
+        assertEquals(8, deriver.getTrades());
+        assertEquals(2, deriver.getSkipped()); // 중복 + ADL
+        assertEquals(5, deriver.getAggTrades());
+    }
+
+    @Test
+    void verifyModeComparesSampleSymbolAgainstLiveAggTrades() throws Exception {
+        AggTradeVerifier verifier = new AggTradeVerifier(Set.of("BTCUSDT"), 100);
+        AggTradeDeriver deriver = new AggTradeDeriver((key, aggTrade) -> derived.add(aggTrade), verifier, 1000);
+
+        trade(deriver, 10, T0, "100", "1", false, "MARKET");
+        trade(deriver, 11, T0, "100", "2", false, "MARKET");
+        aggTrade(deriver, 5000, 10, 11, T0, "100", "3", false);      // 실제 값이 먼저 도착
+        trade(deriver, 12, T0, "101", "1", false, "MARKET");         // 10..11 확정 → 일치
+        aggTrade(deriver, 5001, 12, 13, T0, "101", "2", false);      // 실제는 13 까지 같은 주문
+        trade(deriver, 13, T0 + 1, "101", "1", false, "MARKET");     // 체결 시간이 달라 12 만 확정 → 불일치
+        trade(deriver, 14, T0 + 2, "102", "1", false, "MARKET");
+
+        assertTrue(derived.isEmpty()); // 표본 심볼은 저장하지 않고 비교만
+        assertEquals(1, verifier.getMatched());
+        assertEquals(1, verifier.getMismatched());
+        assertEquals(0, verifier.getUnmatched());
+    }
+}